@@ -0,0 +1,44 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.activation.Activation;
+import org.brain4j.math.activation.Activations;
+import org.brain4j.math.tensor.Tensor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Activation#activate(Tensor)} and the derivative of the element-wise activations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ActivationBenchmark {
+
+    @Param({ "RELU", "GELU", "SIGMOID", "TANH", "SWISH" })
+    public String activation;
+
+    @Param({ "4096", "1048576" })
+    public int elements;
+
+    private Activation function;
+    private Tensor input;
+
+    @Setup
+    public void setup() {
+        function = Activations.valueOf(activation).function();
+        input = Tensors.random(new Random(42), elements);
+    }
+
+    @Benchmark
+    public Tensor activate() {
+        return function.activate(input);
+    }
+
+    @Benchmark
+    public Tensor derivative() {
+        return function.derivative(input);
+    }
+}
@@ -0,0 +1,54 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.core.layer.impl.transformer.MultiHeadAttention;
+import org.brain4j.core.layer.impl.utility.InputLayer;
+import org.brain4j.core.model.ModelSpecs;
+import org.brain4j.math.Tensors;
+import org.brain4j.math.clipper.impl.HardClipper;
+import org.brain4j.math.data.StatesCache;
+import org.brain4j.math.tensor.Tensor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MultiHeadAttention#forward(StatesCache, Tensor...)} at inference on a
+ * {@code [batch, sequence, embedding]} input.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AttentionBenchmark {
+
+    @Param({ "1", "8" })
+    public int batch;
+
+    @Param({ "64", "256" })
+    public int sequence;
+
+    @Param({ "256x4", "768x12" })
+    public String embedding;
+
+    private MultiHeadAttention attention;
+    private Tensor input;
+
+    @Setup
+    public void setup() {
+        String[] dimensions = embedding.split("x");
+
+        int dimension = Integer.parseInt(dimensions[0]);
+        int heads = Integer.parseInt(dimensions[1]);
+
+        // Compiling a model connects the layer and initializes its weights
+        attention = new MultiHeadAttention(new HardClipper(5), heads, dimension);
+        ModelSpecs.of(new InputLayer(sequence, dimension), attention).compile(42);
+
+        input = Tensors.random(new Random(42), batch, sequence, dimension);
+    }
+
+    @Benchmark
+    public Tensor forward() {
+        return attention.forward(new StatesCache(false), input);
+    }
+}
@@ -0,0 +1,68 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.tensor.Tensor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-place broadcast operations on a {@code [rows, columns]} tensor, with a right operand
+ * of the same shape, a row {@code [columns]}, a column {@code [rows, 1]} and a scalar.
+ * <p>
+ * Multiplications and divisions use ones so that the repeated in-place updates keep the values stable.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BroadcastBenchmark {
+
+    @Param({ "64x768", "1024x768", "4096x1024" })
+    public String shape;
+
+    private Tensor target;
+    private Tensor same;
+    private Tensor row;
+    private Tensor column;
+
+    @Setup
+    public void setup() {
+        String[] dimensions = shape.split("x");
+
+        int rows = Integer.parseInt(dimensions[0]);
+        int columns = Integer.parseInt(dimensions[1]);
+
+        Random random = new Random(42);
+
+        target = Tensors.random(random, rows, columns);
+        same = Tensors.random(random, rows, columns);
+        row = Tensors.random(random, columns);
+        column = Tensors.ones(rows, 1);
+    }
+
+    @Benchmark
+    public Tensor addSameShape() {
+        return target.add(same);
+    }
+
+    @Benchmark
+    public Tensor addRow() {
+        return target.add(row);
+    }
+
+    @Benchmark
+    public Tensor mulColumn() {
+        return target.mul(column);
+    }
+
+    @Benchmark
+    public Tensor subRow() {
+        return target.sub(row);
+    }
+
+    @Benchmark
+    public Tensor divScalar() {
+        return target.div(1.0);
+    }
+}
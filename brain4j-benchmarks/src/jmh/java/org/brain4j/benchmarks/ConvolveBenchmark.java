@@ -0,0 +1,54 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.parallel.ParallelConvolve;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link ParallelConvolve#convolve(Tensor, Tensor)} on 3x3 filters over a batch of images,
+ * against the im2col path it replaces for them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConvolveBenchmark {
+
+    @Param({ "1", "8" })
+    public int batch;
+
+    @Param({ "3x32", "16x64", "64x32" })
+    public String input;
+
+    @Param({ "16" })
+    public int filters;
+
+    private Tensor images;
+    private Tensor kernels;
+
+    @Setup
+    public void setup() {
+        String[] dimensions = input.split("x");
+
+        int channels = Integer.parseInt(dimensions[0]);
+        int size = Integer.parseInt(dimensions[1]);
+
+        Random random = new Random(42);
+
+        images = Tensors.random(random, batch, channels, size, size);
+        kernels = Tensors.random(random, filters, channels, 3, 3);
+    }
+
+    @Benchmark
+    public Tensor convolve() {
+        return ParallelConvolve.convolve(images, kernels);
+    }
+
+    @Benchmark
+    public Tensor im2colConvolve() {
+        return ParallelConvolve.im2colConvolve(images, kernels);
+    }
+}
@@ -0,0 +1,96 @@
+package org.brain4j.benchmarks;
+
+import com.google.gson.JsonObject;
+import org.brain4j.core.model.Model;
+import org.brain4j.llm.core.architecture.impl.GPT2Adapter;
+import org.brain4j.math.Tensors;
+import org.brain4j.math.data.StatesCache;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.Int4Format;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the prediction of the next token by a GPT-2 small shaped model with random weights, in float32
+ * and with 4-bit weights, without downloading anything.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DecodeBenchmark {
+
+    private static final int LAYERS = 12;
+    private static final int HEADS = 12;
+    private static final int EMBEDDING = 768;
+    private static final int VOCAB = 50257;
+
+    @Param({ "float32", "Q4_32" })
+    public String weights;
+
+    @Param({ "4", "64" })
+    public int tokens;
+
+    private Model model;
+    private Tensor prompt;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        JsonObject config = new JsonObject();
+        config.addProperty("n_layer", LAYERS);
+        config.addProperty("n_head", HEADS);
+        config.addProperty("n_embd", EMBEDDING);
+        config.addProperty("n_ctx", 1024);
+        config.addProperty("vocab_size", VOCAB);
+
+        GPT2Adapter adapter = weights.equals("Q4_32") ? new GPT2Adapter(Int4Format.Q4_32) : new GPT2Adapter();
+        model = adapter.buildModel(config, randomWeights(random));
+
+        float[] ids = new float[tokens];
+
+        for (int i = 0; i < tokens; i++) {
+            ids[i] = random.nextInt(VOCAB);
+        }
+
+        prompt = Tensors.vector(ids).reshape(1, tokens);
+    }
+
+    @Benchmark
+    public int nextToken() {
+        Tensor logits = model.predict(new StatesCache(false), prompt)[0];
+        return logits.argmax();
+    }
+
+    private static Map<String, Tensor> randomWeights(Random random) {
+        Map<String, Tensor> weights = new HashMap<>();
+
+        weights.put("wte.weight", Tensors.random(random, VOCAB, EMBEDDING).mul(0.02));
+        weights.put("wpe.weight", Tensors.random(random, 1024, EMBEDDING).mul(0.01));
+        weights.put("ln_f.weight", Tensors.ones(EMBEDDING));
+        weights.put("ln_f.bias", Tensors.zeros(EMBEDDING));
+
+        for (int i = 0; i < LAYERS; i++) {
+            String prefix = "h." + i + ".";
+
+            weights.put(prefix + "ln_1.weight", Tensors.ones(EMBEDDING));
+            weights.put(prefix + "ln_1.bias", Tensors.zeros(EMBEDDING));
+            weights.put(prefix + "ln_2.weight", Tensors.ones(EMBEDDING));
+            weights.put(prefix + "ln_2.bias", Tensors.zeros(EMBEDDING));
+            weights.put(prefix + "mlp.c_fc.weight", Tensors.random(random, EMBEDDING, 4 * EMBEDDING).mul(0.02));
+            weights.put(prefix + "mlp.c_fc.bias", Tensors.zeros(4 * EMBEDDING));
+            weights.put(prefix + "mlp.c_proj.weight", Tensors.random(random, 4 * EMBEDDING, EMBEDDING).mul(0.02));
+            weights.put(prefix + "mlp.c_proj.bias", Tensors.zeros(EMBEDDING));
+            weights.put(prefix + "attn.c_attn.weight", Tensors.random(random, EMBEDDING, 3 * EMBEDDING).mul(0.02));
+            weights.put(prefix + "attn.c_attn.bias", Tensors.zeros(3 * EMBEDDING));
+            weights.put(prefix + "attn.c_proj.weight", Tensors.random(random, EMBEDDING, EMBEDDING).mul(0.02));
+            weights.put(prefix + "attn.c_proj.bias", Tensors.zeros(EMBEDDING));
+        }
+
+        return weights;
+    }
+}
@@ -0,0 +1,50 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.tensor.Tensor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code CpuTensor.matmul} on square products, a single-row decoding step and
+ * transformer-shaped projections, with operands given as {@code MxNxP}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MatmulBenchmark {
+
+    @Param({ "64x64x64", "256x256x256", "512x512x512", "1x768x768", "128x768x3072", "7x1024x1024" })
+    public String shape;
+
+    private Tensor a;
+    private Tensor b;
+    private Tensor transposedB;
+
+    @Setup
+    public void setup() {
+        String[] dimensions = shape.split("x");
+
+        int m = Integer.parseInt(dimensions[0]);
+        int n = Integer.parseInt(dimensions[1]);
+        int p = Integer.parseInt(dimensions[2]);
+
+        Random random = new Random(42);
+
+        a = Tensors.random(random, m, n);
+        b = Tensors.random(random, n, p);
+        transposedB = Tensors.random(random, p, n).transpose();
+    }
+
+    @Benchmark
+    public Tensor matmul() {
+        return a.matmul(b);
+    }
+
+    @Benchmark
+    public Tensor matmulTransposed() {
+        return a.matmul(transposedB);
+    }
+}
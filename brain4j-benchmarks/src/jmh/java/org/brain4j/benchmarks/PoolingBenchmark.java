@@ -0,0 +1,65 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.pooling.impl.AveragePooling;
+import org.brain4j.math.pooling.impl.GlobalAveragePooling;
+import org.brain4j.math.pooling.impl.MaxPooling;
+import org.brain4j.math.tensor.Tensor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the forward and backward passes of the pooling variants over a batch of feature maps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PoolingBenchmark {
+
+    @Param({ "1", "8" })
+    public int batch;
+
+    @Param({ "16x64", "64x32" })
+    public String input;
+
+    @Param({ "2", "3" })
+    public int window;
+
+    private Tensor images;
+    private Tensor pooled;
+
+    @Setup
+    public void setup() {
+        String[] dimensions = input.split("x");
+
+        int channels = Integer.parseInt(dimensions[0]);
+        int size = Integer.parseInt(dimensions[1]);
+
+        images = Tensors.random(new Random(42), batch, channels, size, size);
+        pooled = new MaxPooling(2, window, window).pool(images);
+    }
+
+    @Benchmark
+    public Tensor maxPool() {
+        return new MaxPooling(2, window, window).pool(images);
+    }
+
+    @Benchmark
+    public Tensor maxPoolBackward() {
+        MaxPooling pooling = new MaxPooling(2, window, window, true);
+        pooling.pool(images);
+        return pooling.backward(pooled, images);
+    }
+
+    @Benchmark
+    public Tensor averagePool() {
+        return new AveragePooling(2, window, window).pool(images);
+    }
+
+    @Benchmark
+    public Tensor globalAveragePool() {
+        return new GlobalAveragePooling().pool(images);
+    }
+}
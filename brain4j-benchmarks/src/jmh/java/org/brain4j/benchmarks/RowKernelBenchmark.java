@@ -0,0 +1,41 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.tensor.Tensor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures softmax and layer normalization over the last dimension of {@code [rows, length]} tensors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RowKernelBenchmark {
+
+    @Param({ "64", "1024" })
+    public int rows;
+
+    @Param({ "128", "768", "4096" })
+    public int length;
+
+    private Tensor input;
+
+    @Setup
+    public void setup() {
+        input = Tensors.random(new Random(42), rows, length);
+    }
+
+    @Benchmark
+    public Tensor softmax() {
+        return input.softmax();
+    }
+
+    @Benchmark
+    public Tensor layerNorm() {
+        // Normalizing in place is idempotent, every invocation does the same work
+        return input.layerNorm(1e-5);
+    }
+}
@@ -0,0 +1,67 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.core.importing.SafeTensorsConverter;
+import org.brain4j.math.Tensors;
+import org.brain4j.math.tensor.Tensor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link SafeTensorsConverter#load(Path)} and {@link SafeTensorsConverter#loadMapped(Path)}
+ * on a temporary file holding the random weights of a few transformer blocks.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SafeTensorsBenchmark {
+
+    @Param({ "256", "768" })
+    public int embedding;
+
+    @Param({ "4" })
+    public int blocks;
+
+    private Path file;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(42);
+        Map<String, Tensor> weights = new LinkedHashMap<>();
+
+        for (int i = 0; i < blocks; i++) {
+            String prefix = "h." + i + ".";
+
+            weights.put(prefix + "attn.c_attn.weight", Tensors.random(random, embedding, 3 * embedding));
+            weights.put(prefix + "attn.c_proj.weight", Tensors.random(random, embedding, embedding));
+            weights.put(prefix + "mlp.c_fc.weight", Tensors.random(random, embedding, 4 * embedding));
+            weights.put(prefix + "mlp.c_proj.weight", Tensors.random(random, 4 * embedding, embedding));
+            weights.put(prefix + "ln_1.weight", Tensors.ones(embedding));
+            weights.put(prefix + "ln_1.bias", Tensors.zeros(embedding));
+        }
+
+        file = Files.createTempFile("brain4j-benchmark", ".safetensors");
+        Files.write(file, SafeTensorsConverter.save(weights));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public Map<String, Tensor> load() throws IOException {
+        return SafeTensorsConverter.load(file);
+    }
+
+    @Benchmark
+    public Map<String, Tensor> loadMapped() throws IOException {
+        return SafeTensorsConverter.loadMapped(file);
+    }
+}
@@ -0,0 +1,65 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.core.transformer.tokenizers.impl.BytePairTokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link BytePairTokenizer#splitTokens(String)} with merges learned on a synthetic corpus.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenizerBenchmark {
+
+    private static final String ALPHABET = "etaoinshrdlucmfwypvbgkjqxz";
+
+    @Param({ "64", "1024" })
+    public int words;
+
+    private BytePairTokenizer tokenizer;
+    private String text;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        List<String> corpus = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            corpus.add(randomWord(random));
+        }
+
+        tokenizer = new BytePairTokenizer();
+        tokenizer.fit(corpus, 200, 200);
+
+        List<String> sample = new ArrayList<>();
+
+        for (int i = 0; i < words; i++) {
+            sample.add(corpus.get(random.nextInt(corpus.size())));
+        }
+
+        text = String.join(" ", sample);
+    }
+
+    @Benchmark
+    public List<String> splitTokens() {
+        return tokenizer.splitTokens(text);
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 2 + random.nextInt(8);
+
+        // Skewed towards the first letters, like the frequencies of a natural language
+        for (int i = 0; i < length; i++) {
+            int index = (int) (ALPHABET.length() * Math.pow(random.nextDouble(), 2));
+            word.append(ALPHABET.charAt(index));
+        }
+
+        return word.toString();
+    }
+}
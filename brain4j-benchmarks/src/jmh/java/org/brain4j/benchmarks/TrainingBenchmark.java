@@ -0,0 +1,93 @@
+package org.brain4j.benchmarks;
+
+import org.brain4j.core.layer.impl.DenseLayer;
+import org.brain4j.core.layer.impl.transformer.TransformerEncoder;
+import org.brain4j.core.layer.impl.utility.InputLayer;
+import org.brain4j.core.loss.impl.CrossEntropy;
+import org.brain4j.core.loss.impl.MeanSquaredError;
+import org.brain4j.core.model.Model;
+import org.brain4j.core.model.ModelSpecs;
+import org.brain4j.core.training.TrainingConfig;
+import org.brain4j.core.training.impl.DefaultTrainer;
+import org.brain4j.core.training.optimizer.impl.Adam;
+import org.brain4j.math.Tensors;
+import org.brain4j.math.activation.Activations;
+import org.brain4j.math.commons.Batch;
+import org.brain4j.math.tensor.Tensor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full training step, {@link DefaultTrainer#fitBatch(Batch, int, int)}, on an MLP
+ * classifier and on a small transformer encoder, both fed with random data.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TrainingBenchmark {
+
+    private static final int FEATURES = 784;
+    private static final int CLASSES = 10;
+    private static final int SEQUENCE = 64;
+    private static final int EMBEDDING = 128;
+    private static final int HEADS = 4;
+
+    @Param({ "32", "128" })
+    public int batchSize;
+
+    private DefaultTrainer mlpTrainer;
+    private DefaultTrainer transformerTrainer;
+    private Batch mlpBatch;
+    private Batch transformerBatch;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+
+        Model mlp = ModelSpecs.of(
+            new InputLayer(FEATURES),
+            new DenseLayer(256, Activations.RELU),
+            new DenseLayer(128, Activations.RELU),
+            new DenseLayer(CLASSES, Activations.SOFTMAX)
+        ).compile(42);
+
+        Model transformer = ModelSpecs.of(
+            new InputLayer(SEQUENCE, EMBEDDING),
+            new TransformerEncoder(HEADS, EMBEDDING, 0.0),
+            new TransformerEncoder(HEADS, EMBEDDING, 0.0),
+            new DenseLayer(EMBEDDING, Activations.LINEAR)
+        ).compile(42);
+
+        mlpTrainer = new DefaultTrainer(mlp, List.of(), new TrainingConfig(new CrossEntropy(), new Adam(0.001)));
+        transformerTrainer = new DefaultTrainer(transformer, List.of(), new TrainingConfig(new MeanSquaredError(), new Adam(0.001)));
+
+        Tensor labels = Tensors.zeros(batchSize, CLASSES);
+
+        for (int i = 0; i < batchSize; i++) {
+            labels.set(1f, i, random.nextInt(CLASSES));
+        }
+
+        mlpBatch = new Batch(
+            new Tensor[] { Tensors.random(random, batchSize, FEATURES) },
+            new Tensor[] { labels }
+        );
+        // A sequence already holds many tokens, so the transformer step uses fewer samples
+        transformerBatch = new Batch(
+            new Tensor[] { Tensors.random(random, batchSize / 8, SEQUENCE, EMBEDDING) },
+            new Tensor[] { Tensors.random(random, batchSize / 8, SEQUENCE, EMBEDDING) }
+        );
+    }
+
+    @Benchmark
+    public void fitMlpBatch() {
+        mlpTrainer.fitBatch(mlpBatch, 0, 1);
+    }
+
+    @Benchmark
+    public void fitTransformerBatch() {
+        transformerTrainer.fitBatch(transformerBatch, 0, 1);
+    }
+}
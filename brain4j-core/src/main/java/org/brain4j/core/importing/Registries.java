@@ -1,10 +1,14 @@
 package org.brain4j.core.importing;
 
 import org.brain4j.core.importing.format.GeneralRegistry;
+import org.brain4j.core.importing.onnx.ProtoOnnx.AttributeProto;
 import org.brain4j.core.importing.onnx.ProtoOnnx.NodeProto;
 import org.brain4j.core.layer.Layer;
 import org.brain4j.core.layer.impl.*;
+import org.brain4j.core.layer.impl.convolutional.AvgPoolLayer;
 import org.brain4j.core.layer.impl.convolutional.ConvLayer;
+import org.brain4j.core.layer.impl.convolutional.GlobalAvgPoolLayer;
+import org.brain4j.core.layer.impl.convolutional.MaxPoolLayer;
 import org.brain4j.core.layer.impl.transformer.EmbeddingLayer;
 import org.brain4j.core.layer.impl.transformer.PosEncodeLayer;
 import org.brain4j.core.layer.impl.transformer.TransformerDecoder;
@@ -29,11 +33,16 @@ import org.brain4j.math.clipper.GradientClipper;
 import org.brain4j.math.clipper.impl.HardClipper;
 import org.brain4j.math.clipper.impl.L2Clipper;
 import org.brain4j.math.clipper.impl.NoClipper;
+import org.brain4j.math.commons.Commons;
 import org.brain4j.math.scaler.FeatureScaler;
 import org.brain4j.math.scaler.impl.MinMaxScaler;
 import org.brain4j.math.scaler.impl.ZScoreScaler;
 import org.brain4j.math.tensor.autograd.Operation;
 import org.brain4j.math.tensor.autograd.impl.*;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+
+import java.util.Arrays;
+import java.util.List;
 
 public class Registries {
     
@@ -74,12 +83,15 @@ public class Registries {
         ONNX_OPERATIONS_REGISTRY.register("LeakyRelu", ActivationOperation.class);
         ONNX_OPERATIONS_REGISTRY.register("Gelu", (x) -> new ActivationOperation(new GELUActivation()));
         ONNX_OPERATIONS_REGISTRY.register("Gelu", ActivationOperation.class);
-        ONNX_OPERATIONS_REGISTRY.register("Softmax", (x) -> new ActivationOperation(new SoftmaxActivation()));
-        ONNX_OPERATIONS_REGISTRY.register("Softmax", ActivationOperation.class);
+        ONNX_OPERATIONS_REGISTRY.register("Softmax", (x) -> new SoftmaxOperation(1.0));
+        ONNX_OPERATIONS_REGISTRY.register("Softmax", SoftmaxOperation.class);
         ONNX_OPERATIONS_REGISTRY.register("LayerNormalization", (node) -> {
             float epsilon = node.getAttribute(0).getF();
             return new LayerNormOperation( epsilon);
         });
+        ONNX_OPERATIONS_REGISTRY.register("Conv", (node) ->
+            new ConvolveOperation(convolveParameters(node), node.getInputCount() == 3));
+        ONNX_OPERATIONS_REGISTRY.register("Conv", ConvolveOperation.class);
         
         OPTIMIZERS_REGISTRY.register("adam", Adam.class);
         OPTIMIZERS_REGISTRY.register("adamw", AdamW.class);
@@ -118,6 +130,9 @@ public class Registries {
         LAYER_REGISTRY.register("layer_norm", NormLayer.class);
         LAYER_REGISTRY.register("recurrent", RecurrentLayer.class);
         LAYER_REGISTRY.register("conv_2d", ConvLayer.class);
+        LAYER_REGISTRY.register("max_pool_2d", MaxPoolLayer.class);
+        LAYER_REGISTRY.register("avg_pool_2d", AvgPoolLayer.class);
+        LAYER_REGISTRY.register("global_avg_pool_2d", GlobalAvgPoolLayer.class);
         
         LAYER_REGISTRY.register("embedding", EmbeddingLayer.class);
         LAYER_REGISTRY.register("positional_encode", PosEncodeLayer.class);
@@ -132,4 +147,83 @@ public class Registries {
         SCALER_REGISTRY.register("z_score", ZScoreScaler.class);
         SCALER_REGISTRY.register("min_max", MinMaxScaler.class);
     }
+
+    /**
+     * Reads the {@code strides}, {@code pads}, {@code dilations}, {@code group} and {@code auto_pad} attributes
+     * of an ONNX {@code Conv} node, every one of them being optional.
+     * <p>
+     * Only symmetric paddings are supported. A {@code SAME_UPPER} or {@code SAME_LOWER} padding is resolved
+     * from the {@code kernel_shape} attribute: with a unit stride it does not depend on the input size, and
+     * it is symmetric when the dilated kernel has an odd size, in which case the two modes agree.
+     */
+    private static ConvolveParameters convolveParameters(NodeProto node) {
+        int[] strides = { 1, 1 };
+        int[] pads = { 0, 0, 0, 0 };
+        int[] dilations = { 1, 1 };
+        int[] kernel = null;
+        int groups = 1;
+        String autoPad = "NOTSET";
+
+        for (AttributeProto attribute : node.getAttributeList()) {
+            List<Long> values = attribute.getIntsList();
+
+            switch (attribute.getName()) {
+                case "strides" -> copyInts(values, strides);
+                case "pads" -> copyInts(values, pads);
+                case "dilations" -> copyInts(values, dilations);
+                case "kernel_shape" -> {
+                    kernel = new int[2];
+                    copyInts(values, kernel);
+                }
+                case "group" -> groups = (int) attribute.getI();
+                case "auto_pad" -> autoPad = attribute.getS().toStringUtf8();
+                default -> { }
+            }
+        }
+
+        switch (autoPad) {
+            case "NOTSET" -> { }
+            case "VALID" -> Arrays.fill(pads, 0);
+            case "SAME_UPPER" -> samePadding(kernel, strides, dilations, pads, false);
+            case "SAME_LOWER" -> samePadding(kernel, strides, dilations, pads, true);
+            default -> throw Commons.illegalArgument("Unknown convolution auto_pad: %s", autoPad);
+        }
+
+        if (pads[0] != pads[2] || pads[1] != pads[3]) {
+            throw Commons.illegalArgument("Asymmetric convolution padding is not supported: %s", Arrays.toString(pads));
+        }
+
+        return new ConvolveParameters(strides[0], strides[1], pads[0], pads[1], dilations[0], dilations[1], groups);
+    }
+
+    /**
+     * Pads the input so that the output keeps its size, splitting the padding of every axis between its
+     * two sides.
+     */
+    private static void samePadding(int[] kernel, int[] strides, int[] dilations, int[] pads, boolean lower) {
+        if (kernel == null) {
+            throw Commons.illegalArgument("A SAME convolution padding requires the kernel_shape attribute!");
+        }
+
+        if (strides[0] != 1 || strides[1] != 1) {
+            throw Commons.illegalArgument("A SAME convolution padding is only supported with unit strides, got %s",
+                Arrays.toString(strides));
+        }
+
+        for (int axis = 0; axis < 2; axis++) {
+            int total = dilations[axis] * (kernel[axis] - 1);
+
+            // SAME_UPPER puts the odd element at the end, SAME_LOWER at the start
+            int before = lower ? total - total / 2 : total / 2;
+
+            pads[axis] = before;
+            pads[axis + 2] = total - before;
+        }
+    }
+
+    private static void copyInts(List<Long> values, int[] dest) {
+        for (int i = 0; i < Math.min(values.size(), dest.length); i++) {
+            dest[i] = values.get(i).intValue();
+        }
+    }
 }
@@ -5,14 +5,19 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import org.brain4j.math.Tensors;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.HalfFormat;
+import org.brain4j.math.tensor.impl.HalfTensor;
+import org.brain4j.math.tensor.impl.OffHeapTensor;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -79,6 +84,71 @@ public class SafeTensorsConverter {
         return load(data);
     }
     
+    /**
+     * Loads the weights of a file without reading them, by memory-mapping every float32 tensor
+     * outside the heap. Useful for checkpoints too large to fit comfortably on the heap.
+     * @param path the path of the safetensors file
+     * @return the weights, as {@link OffHeapTensor} instances backed by the file, or
+     *         {@link HalfTensor} instances for half-precision tensors
+     * @throws IOException if the file cannot be read or mapped
+     */
+    public static Map<String, Tensor> loadMapped(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer lengthBuffer = ByteBuffer.allocate(8).order(NATIVE_ORDER);
+            channel.read(lengthBuffer, 0);
+            
+            long headerLength = lengthBuffer.flip().getLong();
+            
+            if (headerLength > Integer.MAX_VALUE) {
+                throw new IOException("Header too large (>2GB)");
+            }
+            
+            ByteBuffer headerBuffer = ByteBuffer.allocate((int) headerLength);
+            channel.read(headerBuffer, 8);
+            
+            String headerJson = new String(headerBuffer.array(), StandardCharsets.UTF_8);
+            JsonObject header = GSON.fromJson(headerJson, JsonObject.class);
+            
+            long baseDataOffset = 8L + headerLength;
+            Map<String, Tensor> weights = new HashMap<>();
+            
+            for (Map.Entry<String, JsonElement> entry : header.entrySet()) {
+                String name = entry.getKey();
+                
+                if (name.equals("__metadata__")) continue;
+                
+                JsonObject info = entry.getValue().getAsJsonObject();
+                
+                JsonArray shapeArray = info.getAsJsonArray("shape");
+                int[] shape = new int[shapeArray.size()];
+                
+                for (int i = 0; i < shape.length; i++) {
+                    shape[i] = shapeArray.get(i).getAsInt();
+                }
+                
+                JsonArray offsets = info.has("offsets")
+                    ? info.getAsJsonArray("offsets")
+                    : info.getAsJsonArray("data_offsets");
+                
+                long start = baseDataOffset + offsets.get(0).getAsLong();
+                long end = baseDataOffset + offsets.get(1).getAsLong();
+                String dtype = dtype(info);
+                
+                if (dtype.equals("F32")) {
+                    weights.put(name, OffHeapTensor.map(channel, start, ByteOrder.LITTLE_ENDIAN, shape));
+                    continue;
+                }
+                
+                // Half-precision tensors are already compact, they are read onto the heap
+                ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+                weights.put(name, readTensor(dtype, shape, region));
+            }
+            
+            return weights;
+        }
+    }
+    
     public static Map<String, Tensor> load(byte[] data) throws IOException {
         ByteBuffer buffer = ByteBuffer.wrap(data).order(NATIVE_ORDER);
         return load(buffer);
@@ -121,11 +191,9 @@ public class SafeTensorsConverter {
             
             JsonArray shapeArray = info.getAsJsonArray("shape");
             int[] shape = new int[shapeArray.size()];
-            int elements = 1;
             
             for (int i = 0; i < shape.length; i++) {
                 shape[i] = shapeArray.get(i).getAsInt();
-                elements *= shape[i];
             }
             
             JsonArray offsets = info.has("offsets")
@@ -143,12 +211,31 @@ public class SafeTensorsConverter {
             slice.limit(pos + byteLength);
             slice = slice.slice().order(ByteOrder.LITTLE_ENDIAN);
             
-            float[] values = new float[elements];
-            slice.asFloatBuffer().get(values);
-            
-            weights.put(name, Tensors.create(shape, values));
+            weights.put(name, readTensor(dtype(info), shape, slice));
         }
         
         return weights;
     }
+    
+    private static String dtype(JsonObject info) {
+        return info.has("dtype") ? info.get("dtype").getAsString().toUpperCase() : "F32";
+    }
+    
+    private static Tensor readTensor(String dtype, int[] shape, ByteBuffer buffer) throws IOException {
+        int elements = Tensors.computeSize(shape);
+        
+        return switch (dtype) {
+            case "F32" -> {
+                float[] values = new float[elements];
+                buffer.asFloatBuffer().get(values);
+                yield Tensors.create(shape, values);
+            }
+            case "F16", "BF16" -> {
+                short[] values = new short[elements];
+                buffer.asShortBuffer().get(values);
+                yield new HalfTensor(dtype.equals("F16") ? HalfFormat.FP16 : HalfFormat.BF16, shape, values);
+            }
+            default -> throw new IOException("Unsupported dtype: " + dtype);
+        };
+    }
 }
@@ -166,7 +166,7 @@ public class BrainAdapter implements BinaryAdapter {
             String name = entry.getKey();
             Tensor tensor = entry.getValue();
             
-            float[] values = tensor.data();
+            float[] values = tensor.contiguous().data();
             int byteSize = values.length * 4;
             
             JsonObject info = new JsonObject();
@@ -16,6 +16,8 @@ import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.autograd.AutogradContext;
 import org.brain4j.math.tensor.autograd.Operation;
 import org.brain4j.math.tensor.autograd.impl.ActivationOperation;
+import org.brain4j.math.tensor.autograd.impl.ConvolveOperation;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -165,6 +167,10 @@ public class OnnxAdapter implements BinaryAdapter {
                 .setName(opType + "_" + Math.abs(UUID.randomUUID().hashCode()))
                 .setOpType(opType);
 
+            if (op instanceof ConvolveOperation convolve) {
+                addConvolveAttributes(node, convolve.parameters());
+            }
+
             // TODO: Serialize for squeezing/layernorm, etc
             
             for (Tensor in : context.inputs()) {
@@ -180,6 +186,29 @@ public class OnnxAdapter implements BinaryAdapter {
         return nodes;
     }
     
+    private void addConvolveAttributes(NodeProto.Builder node, ConvolveParameters parameters) {
+        int padHeight = parameters.paddingHeight();
+        int padWidth = parameters.paddingWidth();
+        
+        node.addAttribute(intsAttribute("strides", parameters.strideHeight(), parameters.strideWidth()));
+        node.addAttribute(intsAttribute("pads", padHeight, padWidth, padHeight, padWidth));
+        node.addAttribute(intsAttribute("dilations", parameters.dilationHeight(), parameters.dilationWidth()));
+        node.addAttribute(AttributeProto.newBuilder()
+            .setName("group")
+            .setType(AttributeProto.AttributeType.INT)
+            .setI(parameters.groups()));
+    }
+    
+    private AttributeProto intsAttribute(String name, int... values) {
+        AttributeProto.Builder attribute = AttributeProto.newBuilder()
+            .setName(name)
+            .setType(AttributeProto.AttributeType.INTS);
+        
+        for (int value : values) attribute.addInts(value);
+        
+        return attribute.build();
+    }
+    
     private String extractActivation(ActivationOperation op) {
         return ACTIVATION_MAP.getOrDefault(op.activation().getClass(), "unknown");
     }
@@ -13,9 +13,11 @@ import org.brain4j.math.commons.Commons;
 import org.brain4j.math.data.StatesCache;
 import org.brain4j.math.gpu.device.Device;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.matmul.PackedWeights;
 import org.brain4j.math.weightsinit.WeightInitialization;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.random.RandomGenerator;
 
 /**
@@ -44,6 +46,8 @@ public abstract class Layer implements ModelBlock, Cloneable {
     protected Tensor weights;
     protected Tensor bias;
     protected boolean frozen;
+
+    private Map<Tensor, PackedWeights> packedWeights = new ConcurrentHashMap<>();
     
     @Override
     public void appendTo(List<Layer> layers) {
@@ -147,6 +151,52 @@ public abstract class Layer implements ModelBlock, Cloneable {
         }
     }
     
+    /**
+     * Multiplies the input by one of the weight matrices of this layer.
+     * <p>While the layer is frozen and no backward pass can run over the forward pass, the weights are
+     * packed once on first use and the packed form is reused by every later call.
+     *
+     * @param cache the states cache of the forward pass
+     * @param input the left operand
+     * @param weights the weight matrix, owned by this layer
+     * @return the matrix product, tracked by the autograd if needed
+     */
+    protected Tensor matmulWeights(StatesCache cache, Tensor input, Tensor weights) {
+        PackedWeights packed = packedWeights(cache, weights);
+        return packed == null ? input.matmulGrad(weights) : input.matmul(packed);
+    }
+
+    /**
+     * Gets the packed form of one of the weight matrices of this layer, packing it on first use.
+     * The packed form is rebuilt whenever the weights have been updated since.
+     *
+     * @param cache the states cache of the forward pass the weights are about to be used in
+     * @param weights the weight matrix, owned by this layer
+     * @return the packed weights, or <code>null</code> if the layer is not frozen, the forward pass
+     *         is part of training or the weights cannot be packed
+     */
+    protected PackedWeights packedWeights(StatesCache cache, Tensor weights) {
+        if (!frozen || cache.isTraining() || weights.usesGrad() || !PackedWeights.isSupported(weights)) {
+            return null;
+        }
+
+        PackedWeights packed = packedWeights.get(weights);
+
+        if (packed == null || !packed.isPackOf(weights)) {
+            packed = PackedWeights.pack(weights);
+            packedWeights.put(weights, packed);
+        }
+
+        return packed;
+    }
+
+    /**
+     * Drops every packed weight matrix, must be called whenever the weights are replaced.
+     */
+    protected void invalidatePackedWeights() {
+        packedWeights.clear();
+    }
+
     /**
      * Checks if the amount of inputs is greater than the maximum amount.
      * If so, throws an exception, otherwise will do nothing.
@@ -167,6 +217,7 @@ public abstract class Layer implements ModelBlock, Cloneable {
      */
     public Layer freeze() {
         this.frozen = true;
+        invalidatePackedWeights();
         if (weights != null) weights.noGrad();
         if (bias != null) bias.noGrad();
         return this;
@@ -177,6 +228,7 @@ public abstract class Layer implements ModelBlock, Cloneable {
      */
     public Layer unfreeze() {
         this.frozen = false;
+        invalidatePackedWeights();
         if (weights != null) weights.withGrad();
         if (bias != null) bias.withGrad();
         return this;
@@ -191,6 +243,7 @@ public abstract class Layer implements ModelBlock, Cloneable {
     }
     
     public void loadWeights(Map<String, Tensor> mappedWeights) {
+        invalidatePackedWeights();
         if (mappedWeights.containsKey("weights")) this.weights = mappedWeights.get("weights");
         if (mappedWeights.containsKey("bias")) this.bias = mappedWeights.get("bias");
     }
@@ -207,6 +260,7 @@ public abstract class Layer implements ModelBlock, Cloneable {
      * @param device the device to port the weights on
      */
     public void toDevice(Device device) {
+        invalidatePackedWeights();
         if (weights != null) this.weights = weights.to(device);
         if (bias != null) this.bias = bias.to(device);
     }
@@ -298,6 +352,7 @@ public abstract class Layer implements ModelBlock, Cloneable {
     }
 
     public Layer setWeights(Tensor weights) {
+        invalidatePackedWeights();
         this.weights = weights;
         return this;
     }
@@ -324,6 +379,7 @@ public abstract class Layer implements ModelBlock, Cloneable {
     public Layer clone() {
         try {
             Layer clone = (Layer) super.clone();
+            clone.packedWeights = new ConcurrentHashMap<>();
             
             if (weights != null) {
                 clone.weights = weights.clone();
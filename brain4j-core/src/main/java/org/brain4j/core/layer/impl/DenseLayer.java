@@ -9,6 +9,7 @@ import org.brain4j.math.activation.impl.LinearActivation;
 import org.brain4j.math.data.StatesCache;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.impl.GpuTensor;
+import org.brain4j.math.tensor.matmul.PackedWeights;
 
 import java.util.random.RandomGenerator;
 
@@ -79,14 +80,36 @@ public class DenseLayer extends Layer {
 
     @Override
     public Tensor[] forward(StatesCache cache, Tensor... inputs) {
+        return forward(cache, activation, inputs);
+    }
+
+    /**
+     * Performs a forward pass through this layer using the given activation instead of the layer's own.
+     * Outside of training, the bias and the activation are fused into the matmul.
+     *
+     * @param cache the states cache for this forward pass
+     * @param activation the activation function to apply
+     * @param inputs the input tensors
+     * @return the output tensors
+     */
+    public Tensor[] forward(StatesCache cache, Activation activation, Tensor... inputs) {
         Tensor[] result = new Tensor[inputs.length];
         Tensor[] beforeActivation = new Tensor[inputs.length];
 
         for (int i = 0; i < result.length; i++) {
             Tensor input = inputs[i];
-            Tensor output = input.matmulGrad(weights);
-            
-            if (bias != null) output = output.addGrad(bias);
+
+            // Nothing backpropagates outside of training, so no pre-activation is kept
+            if (!cache.isTraining()) {
+                PackedWeights packed = packedWeights(cache, weights);
+
+                result[i] = packed == null
+                    ? input.linear(weights, bias, activation)
+                    : input.linear(packed, bias, activation);
+                continue;
+            }
+
+            Tensor output = input.linearGrad(weights, bias, null);
 
             beforeActivation[i] = output;
             result[i] = output.activateGrad(activation);
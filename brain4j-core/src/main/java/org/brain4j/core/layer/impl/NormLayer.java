@@ -50,11 +50,7 @@ public class NormLayer extends Layer {
     public Tensor[] forward(StatesCache cache, Tensor... inputs) {
         checkInputLength(1, inputs);
 
-        Tensor input = inputs[0];
-        Tensor cloned = input.clone();
-        cloned.setAutogradContext(input.getAutogradContext());
-
-        Tensor result = cloned.layerNorm(epsilon).mulGrad(weights).addGrad(bias);
+        Tensor result = inputs[0].layerNormGrad(weights, bias, epsilon);
         return new Tensor[] { result };
     }
     
@@ -0,0 +1,52 @@
+package org.brain4j.core.layer.impl.convolutional;
+
+import com.google.gson.JsonObject;
+import org.brain4j.core.layer.Layer;
+import org.brain4j.math.data.StatesCache;
+import org.brain4j.math.tensor.Tensor;
+
+public class AvgPoolLayer extends Layer {
+
+    private int stride;
+    private int windowHeight;
+    private int windowWidth;
+    private int size;
+
+    private AvgPoolLayer() {
+    }
+
+    public AvgPoolLayer(int stride, int windowHeight, int windowWidth) {
+        this.stride = stride;
+        this.windowHeight = windowHeight;
+        this.windowWidth = windowWidth;
+    }
+
+    @Override
+    public void connect(Layer previous) {
+        this.size = previous.size();
+    }
+
+    @Override
+    public Tensor[] forward(StatesCache cache, Tensor... inputs) {
+        return new Tensor[] { inputs[0].avgPoolGrad(stride, windowHeight, windowWidth) };
+    }
+
+    @Override
+    public void serialize(JsonObject object) {
+        object.addProperty("stride", stride);
+        object.addProperty("window_height", windowHeight);
+        object.addProperty("window_width", windowWidth);
+    }
+
+    @Override
+    public void deserialize(JsonObject object) {
+        this.stride = object.getAsJsonPrimitive("stride").getAsInt();
+        this.windowHeight = object.getAsJsonPrimitive("window_height").getAsInt();
+        this.windowWidth = object.getAsJsonPrimitive("window_width").getAsInt();
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
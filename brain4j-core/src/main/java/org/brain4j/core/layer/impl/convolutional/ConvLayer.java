@@ -6,8 +6,10 @@ import org.brain4j.math.Tensors;
 import org.brain4j.math.activation.Activation;
 import org.brain4j.math.activation.Activations;
 import org.brain4j.math.activation.impl.LinearActivation;
+import org.brain4j.math.commons.Commons;
 import org.brain4j.math.data.StatesCache;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
 
 import java.util.Arrays;
 import java.util.random.RandomGenerator;
@@ -18,8 +20,10 @@ public class ConvLayer extends Layer {
     private int filters;
     private int kernelWidth;
     private int kernelHeight;
-    private int stride = 1; // TODO: configurable
-    private int padding = 0; // TODO: configurable
+    private int stride = 1;
+    private int padding = 0;
+    private int dilation = 1;
+    private int groups = 1;
     
     private ConvLayer() {
     }
@@ -42,8 +46,10 @@ public class ConvLayer extends Layer {
     
     @Override
     public void connect(Layer previous) {
+        checkGroups(groups);
+
         this.bias = Tensors.zeros(filters).withGrad();
-        this.weights = Tensors.zeros(filters, channels, kernelHeight, kernelWidth).withGrad();
+        this.weights = Tensors.zeros(filters, channels / groups, kernelHeight, kernelWidth).withGrad();
     }
     
     @Override
@@ -57,7 +63,8 @@ public class ConvLayer extends Layer {
 
         checkValidInput(input, "Input must have shape [batch, channels, height, width]! Got: %s", Arrays.toString(input.shape()));
 
-        Tensor convolved = input.convolveGrad(weights);
+        ConvolveParameters parameters = ConvolveParameters.of(stride, padding, dilation).withGroups(groups);
+        Tensor convolved = input.convolveGrad(weights, parameters);
         Tensor added = convolved.addGrad(bias.reshape(1, filters, 1, 1));
 
         return new Tensor[] { added.activateGrad(activation) };
@@ -71,6 +78,8 @@ public class ConvLayer extends Layer {
         object.addProperty("kernel_height", kernelHeight);
         object.addProperty("stride", stride);
         object.addProperty("padding", padding);
+        object.addProperty("dilation", dilation);
+        object.addProperty("groups", groups);
     }
     
     @Override
@@ -81,6 +90,8 @@ public class ConvLayer extends Layer {
         this.kernelHeight = object.get("kernel_height").getAsInt();
         this.stride = object.get("stride").getAsInt();
         this.padding = object.get("padding").getAsInt();
+        this.dilation = object.has("dilation") ? object.get("dilation").getAsInt() : 1;
+        this.groups = object.has("groups") ? object.get("groups").getAsInt() : 1;
     }
     
     @Override
@@ -147,4 +158,38 @@ public class ConvLayer extends Layer {
         this.padding = padding;
         return this;
     }
+
+    public int getDilation() {
+        return dilation;
+    }
+
+    public ConvLayer setDilation(int dilation) {
+        this.dilation = dilation;
+        return this;
+    }
+
+    public int getGroups() {
+        return groups;
+    }
+
+    /**
+     * Splits the channels and the filters in groups convolved independently, the channels and the filters
+     * must both be divisible by the number of groups.
+     * @param groups the number of groups, 1 for a dense convolution
+     * @return this layer
+     * @throws IllegalArgumentException if the channels or the filters cannot be split into the groups
+     */
+    public ConvLayer setGroups(int groups) {
+        checkGroups(groups);
+
+        this.groups = groups;
+        return this;
+    }
+
+    private void checkGroups(int groups) {
+        if (groups < 1 || channels % groups != 0 || filters % groups != 0) {
+            throw Commons.illegalArgument("%s channels and %s filters cannot be split into %s groups!",
+                channels, filters, groups);
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package org.brain4j.core.layer.impl.convolutional;
+
+import org.brain4j.core.layer.Layer;
+import org.brain4j.math.data.StatesCache;
+import org.brain4j.math.tensor.Tensor;
+
+/**
+ * Averages every channel over its whole plane, turning {@code [batch, channels, height, width]}
+ * into {@code [batch, channels]}.
+ */
+public class GlobalAvgPoolLayer extends Layer {
+
+    private int size;
+
+    public GlobalAvgPoolLayer() {
+    }
+
+    @Override
+    public void connect(Layer previous) {
+        this.size = previous.size();
+    }
+
+    @Override
+    public Tensor[] forward(StatesCache cache, Tensor... inputs) {
+        return new Tensor[] { inputs[0].globalAvgPoolGrad() };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
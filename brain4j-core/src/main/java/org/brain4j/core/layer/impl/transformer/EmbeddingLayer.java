@@ -9,11 +9,12 @@ import org.brain4j.math.commons.Commons;
 import org.brain4j.math.data.StatesCache;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.impl.GpuTensor;
+import org.brain4j.math.tensor.impl.StorageTensor;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
 import org.brain4j.math.weightsinit.impl.UniformXavierInit;
 
 import java.util.Arrays;
 import java.util.random.RandomGenerator;
-import java.util.stream.IntStream;
 
 /**
  * Embedding layer implementation for transformer architectures.
@@ -78,16 +79,24 @@ public class EmbeddingLayer extends Layer {
         if (input.usesGrad()) output = output.withGrad();
 
         float[] outData = output.data();
-        float[] weightData = weights.data();
         float[] inputData = input.data();
+
+        // Compact weights (e.g. half precision) only convert the rows being looked up
+        StorageTensor storage = weights instanceof StorageTensor compact && !compact.transposed() ? compact : null;
+        float[] weightData = storage == null ? weights.data() : null;
         
-        IntStream.range(0, batchSize).parallel().forEach(b -> {
+        ComputeScheduler.current().parallelForEach(0, batchSize, 1, b -> {
             for (int s = 0; s < seqLength; s++) {
                 int index = input.linearIndex(b, s);
                 int tokenId = (int) inputData[index];
                 int outOffset = (b * seqLength + s) * embeddingDim;
                 int weightOffset = tokenId * embeddingDim;
 
+                if (storage != null) {
+                    storage.read(weightOffset, outData, outOffset, embeddingDim);
+                    continue;
+                }
+
                 System.arraycopy(weightData, weightOffset, outData, outOffset, embeddingDim);
             }
         });
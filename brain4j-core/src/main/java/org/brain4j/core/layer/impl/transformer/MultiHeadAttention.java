@@ -171,7 +171,7 @@ public class MultiHeadAttention extends Layer {
         }
 
         // [batch, seq_len, 3 * H * head_dim]
-        Tensor QKV = input.matmulGrad(weights);
+        Tensor QKV = matmulWeights(cache, input, weights);
 
         if (attnQkvHasBias) QKV = QKV.addGrad(bias);
 
@@ -208,7 +208,7 @@ public class MultiHeadAttention extends Layer {
         Tensor output = context.reshapeGrad(batch, seqLength, embeddingDim);
         // [batch, seq_len, embedding_dim]
 
-        Tensor result = output.matmulGrad(outProj);
+        Tensor result = matmulWeights(cache, output, outProj);
 
         if (attnOutHasBias) result = result.addGrad(outBias);
 
@@ -232,6 +232,7 @@ public class MultiHeadAttention extends Layer {
 
     @Override
     public void toDevice(Device device) {
+        invalidatePackedWeights();
         this.weights = weights.to(device);
         this.outProj = outProj.to(device);
         if (attnQkvHasBias) this.bias = bias.to(device);
@@ -281,6 +282,7 @@ public class MultiHeadAttention extends Layer {
     }
 
     public void setOutProj(Tensor outProj) {
+        invalidatePackedWeights();
         this.outProj = outProj;
     }
 
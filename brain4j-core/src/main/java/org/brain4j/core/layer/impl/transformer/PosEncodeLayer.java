@@ -8,6 +8,7 @@ import org.brain4j.math.data.StatesCache;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.impl.GpuTensor;
 import org.brain4j.math.tensor.index.Range;
+import org.brain4j.math.tensor.pool.BufferPool;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -51,7 +52,7 @@ public class PosEncodeLayer extends Layer {
         float[] posData = positional.data();
 
         for (int i = 0; i < seqLength; i++) {
-            Tensor add = preGenerated.computeIfAbsent(i, index -> generate(index, dimension));
+            Tensor add = preGenerated.computeIfAbsent(i, index -> BufferPool.keep(generate(index, dimension)));
             float[] addData = add.data();
 
             int index = i * dimension;
@@ -89,8 +90,9 @@ public class PosEncodeLayer extends Layer {
         this.length = weights.shapeAt(0);
         
         for (int i = 0; i < length; i++) {
+            // Slices are views over the whole matrix, forward copies each row from offset 0
             Tensor slice = weights.slice(Range.point(i), Range.all());
-            preGenerated.put(i, slice.squeeze());
+            preGenerated.put(i, slice.squeeze().contiguous());
         }
 
         return this;
@@ -208,12 +208,12 @@ public class TransformerEncoder extends Layer {
 
         Tensor upProjected, downProjected;
         if (gateProjection != null) {
-            Tensor gate = gateProjection.forward(cache, normalized).activateGrad(activation);
+            Tensor gate = gateProjection.forward(cache, activation, normalized)[0];
             Tensor up = upProjection.forward(cache, normalized);
             Tensor prod = gate.mul(up);
             downProjected = downProjection.forward(cache, prod);
         } else {
-            upProjected = upProjection.forward(cache, normalized).activateGrad(activation);
+            upProjected = upProjection.forward(cache, activation, normalized)[0];
             downProjected = downProjection.forward(cache, upProjected);
         }
 
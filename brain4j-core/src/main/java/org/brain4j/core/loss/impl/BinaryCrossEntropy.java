@@ -45,7 +45,7 @@ public class BinaryCrossEntropy implements LossFunction {
         float w1 = classWeights.get(1);
 
         // W = y * w1 + (1 - y) * w0
-        Tensor oneMinusTarget = target.mul(-1).plus(1);
+        Tensor oneMinusTarget = target.times(-1).plus(1);
         Tensor weightOne = target.times(w1);
         Tensor weightZero = oneMinusTarget.times(w0);
         Tensor W = weightOne.plus(weightZero);
@@ -9,8 +9,8 @@ public class MeanSquaredError implements LossFunction {
     public double calculate(Tensor actual, Tensor predicted) {
         double loss = 0.0;
 
-        float[] actualData = actual.data();
-        float[] predictedData = predicted.data();
+        float[] actualData = actual.contiguous().data();
+        float[] predictedData = predicted.contiguous().data();
         
         for (int i = 0; i < actual.elements(); i++) {
             loss += Math.pow(actualData[i] - predictedData[i], 2);
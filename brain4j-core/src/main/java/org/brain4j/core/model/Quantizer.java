@@ -0,0 +1,131 @@
+package org.brain4j.core.model;
+
+import org.brain4j.core.layer.Layer;
+import org.brain4j.core.layer.impl.DenseLayer;
+import org.brain4j.core.layer.impl.transformer.MultiHeadAttention;
+import org.brain4j.core.layer.impl.transformer.TransformerEncoder;
+import org.brain4j.core.loss.LossFunction;
+import org.brain4j.core.training.wrappers.EvaluationResult;
+import org.brain4j.math.data.ListDataSource;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.Int8Tensor;
+
+import java.util.function.Predicate;
+
+/**
+ * Post-training int8 quantization of the linear layers of a model, meant for CPU inference.
+ * <p>
+ * The weights of dense layers, of the QKV and output projections of the attention layers and of
+ * the projections inside transformer blocks are replaced in place by {@link Int8Tensor}s with a
+ * scale per output channel, which take a quarter of the memory. Quantized layers are frozen,
+ * as their weights can no longer be trained.
+ */
+public final class Quantizer {
+
+    private Quantizer() {
+    }
+
+    /**
+     * Quantizes every supported layer of a model.
+     * @param model the model to quantize
+     * @return the number of quantized weight matrices
+     */
+    public static int quantize(Model model) {
+        return quantize(model, layer -> true);
+    }
+
+    /**
+     * Quantizes the supported layers of a model accepted by a filter. Transformer blocks are not
+     * tested themselves: the filter is called on the dense and attention layers they are made of.
+     * @param model the model to quantize
+     * @param filter selects the layers to quantize
+     * @return the number of quantized weight matrices
+     */
+    public static int quantize(Model model, Predicate<Layer> filter) {
+        int quantized = 0;
+
+        for (Layer layer : model.getLayers()) {
+            quantized += quantize(layer, filter);
+        }
+
+        return quantized;
+    }
+
+    /**
+     * Quantizes every supported layer of a model and evaluates it before and after.
+     * @param model the model to quantize
+     * @param dataSource the dataset to evaluate the model on
+     * @param lossFunction the loss function to use
+     * @return the evaluation of the quantized model, with the one of the original model as its baseline
+     */
+    public static EvaluationResult quantize(Model model, ListDataSource dataSource, LossFunction lossFunction) {
+        return quantize(model, layer -> true, dataSource, lossFunction);
+    }
+
+    /**
+     * Quantizes the supported layers of a model accepted by a filter and evaluates it before and after.
+     * @param model the model to quantize
+     * @param filter selects the layers to quantize
+     * @param dataSource the dataset to evaluate the model on
+     * @param lossFunction the loss function to use
+     * @return the evaluation of the quantized model, with the one of the original model as its baseline
+     */
+    public static EvaluationResult quantize(
+        Model model,
+        Predicate<Layer> filter,
+        ListDataSource dataSource,
+        LossFunction lossFunction
+    ) {
+        EvaluationResult baseline = model.evaluate(dataSource, lossFunction);
+        quantize(model, filter);
+
+        return model.evaluate(dataSource, lossFunction).withBaseline(baseline);
+    }
+
+    private static int quantize(Layer layer, Predicate<Layer> filter) {
+        if (layer instanceof TransformerEncoder block) {
+            int quantized = quantize(block.getUpProjection(), filter)
+                + quantize(block.getDownProjection(), filter)
+                + quantize(block.getAttention(), filter);
+
+            if (block.getGateProjection() != null) {
+                quantized += quantize(block.getGateProjection(), filter);
+            }
+
+            return quantized;
+        }
+
+        if (!filter.test(layer)) {
+            return 0;
+        }
+
+        if (layer instanceof MultiHeadAttention attention) {
+            int quantized = 0;
+
+            if (isQuantizable(attention.getWeights())) {
+                attention.setWeights(Int8Tensor.quantize(attention.getWeights()));
+                quantized++;
+            }
+
+            if (isQuantizable(attention.getOutProj())) {
+                attention.setOutProj(Int8Tensor.quantize(attention.getOutProj()));
+                quantized++;
+            }
+
+            attention.freeze();
+            return quantized;
+        }
+
+        if (layer instanceof DenseLayer dense && isQuantizable(dense.getWeights())) {
+            dense.setWeights(Int8Tensor.quantize(dense.getWeights()));
+            dense.freeze();
+            return 1;
+        }
+
+        return 0;
+    }
+
+    private static boolean isQuantizable(Tensor weights) {
+        return weights != null && weights.rank() == 2 && !(weights instanceof Int8Tensor);
+    }
+}
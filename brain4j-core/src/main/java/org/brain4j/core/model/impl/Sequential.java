@@ -17,13 +17,13 @@ import org.brain4j.math.gpu.GpuContext;
 import org.brain4j.math.gpu.device.Device;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.index.Range;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
 
 import java.text.DecimalFormat;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.random.RandomGenerator;
-import java.util.stream.IntStream;
 
 public class Sequential implements Model, ModelBlock {
 
@@ -68,7 +68,7 @@ public class Sequential implements Model, ModelBlock {
                 input = input.reshape(1, input.elements()); // reshape to [batch, input_size]
             }
 
-            Tensor chosen = cache.isKeepCache() ? input.withGrad() : input;
+            Tensor chosen = cache.isTraining() ? input.withGrad() : input;
             buffer[i] = chosen.to(device);
         }
 
@@ -226,7 +226,7 @@ public class Sequential implements Model, ModelBlock {
             prev = layer;
         }
 
-        IntStream.range(1, length).parallel().forEach(i -> {
+        ComputeScheduler.current().parallelForEach(1, length, 1, i -> {
             Layer layer = layers.get(i);
             if (layer.isFrozen()) return;
 
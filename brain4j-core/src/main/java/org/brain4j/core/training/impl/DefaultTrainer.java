@@ -16,6 +16,8 @@ import org.brain4j.math.gpu.GpuContext;
 import org.brain4j.math.gpu.device.Device;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.impl.GpuTensor;
+import org.brain4j.math.tensor.pool.BufferPool;
+import org.brain4j.math.tensor.pool.PoolScope;
 
 import java.util.List;
 import java.util.Objects;
@@ -94,9 +96,13 @@ public class DefaultTrainer implements Trainer {
             device.createQueue();
         }
 
-        Tensor[] outputs = forward(cache, inputs);
-      backward(cache, batch, outputs);
-      resetGrad();
+        // Activations and gradients only live for this step, their buffers are recycled
+        // by the next one when the pool is enabled
+        try (PoolScope scope = BufferPool.openScope()) {
+            Tensor[] outputs = forward(cache, inputs);
+            backward(cache, batch, outputs);
+            resetGrad();
+        }
 
         if (device != null) {
             GpuContext.finishAndRelease(device);
@@ -5,6 +5,9 @@ import org.brain4j.math.Tensors;
 import org.brain4j.math.gpu.device.Device;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.impl.GpuTensor;
+import org.brain4j.math.tensor.lazy.LazyEvaluation;
+import org.brain4j.math.tensor.lazy.LazyScope;
+import org.brain4j.math.tensor.pool.BufferPool;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -70,27 +73,22 @@ public class Adam extends Optimizer {
             }
         }
 
-        Tensor gradSquared = gradient.times(gradient);
+        // On the CPU the update is evaluated in a single fused loop instead of a sweep per operation
+        try (LazyScope scope = LazyEvaluation.openScope()) {
+            first.mul(beta1).add(gradient.times(1 - beta1));
+            second.mul(beta2).add(gradient.times(gradient).mul(1 - beta2));
 
-        first.mul(beta1);
-        second.mul(beta2);
-        
-        Tensor gradBeta1 = gradient.mul(1 - beta1);
-        Tensor gradBeta2 = gradSquared.mul(1 - beta2);
-        
-        first.add(gradBeta1.broadcastLike(first));
-        second.add(gradBeta2.broadcastLike(second));
+            firstMomentum.put(weights, BufferPool.keep(first));
+            secondMomentum.put(weights, BufferPool.keep(second));
 
-        firstMomentum.put(weights, first);
-        secondMomentum.put(weights, second);
+            double biasCorrection1 = 1 - beta1Timestep;
+            double biasCorrection2 = 1 - beta2Timestep;
 
-        double biasCorrection1 = 1 - beta1Timestep;
-        double biasCorrection2 = 1 - beta2Timestep;
+            Tensor mHat = first.divide(biasCorrection1);
+            Tensor vHat = second.divide(biasCorrection2);
 
-        Tensor mHat = first.divide(biasCorrection1);
-        Tensor vHat = second.divide(biasCorrection2);
-
-        return mHat.div(vHat.sqrt().add(epsilon));
+            return LazyEvaluation.evaluate(mHat.div(vHat.sqrt().add(epsilon)));
+        }
     }
 
     @Override
@@ -15,6 +15,7 @@ public class GradientDescent extends Optimizer {
     
     @Override
     public Tensor step(Tensor weights, Tensor gradient) {
-        return gradient;
+        // The gradient buffer is reused by the next step, while the updater may still hold the result
+        return gradient.clone();
     }
 }
@@ -3,6 +3,7 @@ package org.brain4j.core.training.optimizer.impl;
 import org.brain4j.core.training.optimizer.Optimizer;
 import org.brain4j.math.Tensors;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.pool.BufferPool;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -35,7 +36,7 @@ public class Lion extends Optimizer {
         Tensor scaledMomentum = newMomentum.times(beta2);
         Tensor update = scaledMomentum.add(scaledGrad.broadcastLike(scaledMomentum)).sign();
 
-        momentumHistory.put(weights, newMomentum);
+        momentumHistory.put(weights, BufferPool.keep(newMomentum));
         return update;
     }
 
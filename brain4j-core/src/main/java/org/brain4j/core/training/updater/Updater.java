@@ -4,6 +4,7 @@ import org.brain4j.core.training.updater.impl.NormalUpdater;
 import org.brain4j.core.training.updater.impl.StochasticUpdater;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.impl.GpuTensor;
+import org.brain4j.math.tensor.pool.BufferPool;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -59,7 +60,7 @@ public abstract class Updater {
      * @param gradient the gradient corresponding to the weight tensor
      */
     public void change(Tensor weights, Tensor gradient) {
-        weightsGradients.merge(weights, gradient, Tensor::add);
+        weightsGradients.merge(weights, BufferPool.keep(gradient), Tensor::add);
     }
 
     /**
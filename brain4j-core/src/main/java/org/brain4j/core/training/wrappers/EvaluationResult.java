@@ -19,6 +19,7 @@ public class EvaluationResult {
     private double recall;
     private double f1Score;
     private double totalDeviation;
+    private EvaluationResult baseline;
 
     public EvaluationResult(double loss, int classes, Map<Integer, Tensor> classifications) {
         this.loss = loss;
@@ -107,6 +108,12 @@ public class EvaluationResult {
         matrix.append(secondary.formatted("Precision:", "%.4f".formatted(precision)));
         matrix.append(secondary.formatted("Recall:", "%.4f".formatted(recall)));
         matrix.append(secondary.formatted("F1-score:", "%.4f".formatted(f1Score)));
+
+        if (baseline != null) {
+            matrix.append("\nCompared to the baseline\n\n");
+            matrix.append(secondary.formatted("Loss:", "%+.4f".formatted(lossDelta())));
+            matrix.append(secondary.formatted("Accuracy:", "%+.4f".formatted(accuracyDelta())));
+        }
         
         if (!classifications.isEmpty()) {
             divider = Commons.getHeader(" Confusion Matrix ", Commons.HEADER_CHAR);
@@ -163,6 +170,36 @@ public class EvaluationResult {
         return result;
     }
 
+    /**
+     * Sets the result this one is compared to, like the evaluation of a model before quantization.
+     * @param baseline the reference result
+     * @return this result
+     */
+    public EvaluationResult withBaseline(EvaluationResult baseline) {
+        this.baseline = baseline;
+        return this;
+    }
+
+    public EvaluationResult baseline() {
+        return baseline;
+    }
+
+    /**
+     * Gets the accuracy change relative to the baseline, negative when the accuracy dropped.
+     * @return the accuracy delta, or 0 if there is no baseline
+     */
+    public double accuracyDelta() {
+        return baseline == null ? 0 : accuracy - baseline.accuracy;
+    }
+
+    /**
+     * Gets the loss change relative to the baseline, positive when the loss grew.
+     * @return the loss delta, or 0 if there is no baseline
+     */
+    public double lossDelta() {
+        return baseline == null ? 0 : loss - baseline.loss;
+    }
+
     public Map<Integer, Tensor> classifications() {
         return classifications;
     }
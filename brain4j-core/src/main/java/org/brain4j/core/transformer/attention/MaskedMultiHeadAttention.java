@@ -122,10 +122,10 @@ public class MaskedMultiHeadAttention extends MultiHeadAttention {
 
         if (cachedQKV != null && !cache.isKeepCache()) {
             Tensor newTokens = input.slice(slicingRanges);
-            Tensor proj = newTokens.matmul(weights);
+            Tensor proj = matmulWeights(cache, newTokens, weights);
 
             QKV = cachedQKV.concat(proj, 1);
-        } else QKV = input.matmulGrad(weights);
+        } else QKV = matmulWeights(cache, input, weights);
 
         cache.set(weights, QKV);
 
@@ -168,10 +168,10 @@ public class MaskedMultiHeadAttention extends MultiHeadAttention {
 
         if (cachedOutput != null && !cache.isKeepCache()) {
             Tensor newOutput = output.slice(slicingRanges);
-            Tensor proj = newOutput.matmul(outProj);
+            Tensor proj = matmulWeights(cache, newOutput, outProj);
 
             result = cachedOutput.concat(proj, 1);
-        } else result = output.matmulGrad(outProj);
+        } else result = matmulWeights(cache, output, outProj);
 
         cache.set(outProj, result);
 
@@ -11,13 +11,12 @@ import org.brain4j.core.utils.Colored;
 import org.brain4j.math.Tensors;
 import org.brain4j.math.commons.Commons;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
 
 import java.io.*;
 import java.lang.reflect.Type;
 import java.util.*;
-import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ForkJoinPool;
 
 import static org.brain4j.math.Constants.*;
 
@@ -237,23 +236,16 @@ public class BytePairTokenizer implements Tokenizer {
             long start = System.nanoTime();
 
             Map<String, Integer> pairCounts = new ConcurrentHashMap<>();
-            List<Callable<Void>> tasks = new ArrayList<>();
+            List<String[]> words = new ArrayList<>(merges.values());
 
-            for (String[] symbols : merges.values()) {
-                Callable<Void> task = () -> {
-                    for (int i = 0; i < symbols.length - 1; i++) {
-                        String pair = symbols[i] + symbols[i + 1];
-                        pairCounts.merge(pair, 1, Integer::sum);
-                    }
-                    return null;
-                };
+            ComputeScheduler.current().parallelForEach(0, words.size(), 64, index -> {
+                String[] symbols = words.get(index);
 
-                tasks.add(task);
-            }
-            
-            try (ForkJoinPool pool = ForkJoinPool.commonPool()) {
-                pool.invokeAll(tasks);
-            }
+                for (int i = 0; i < symbols.length - 1; i++) {
+                    String pair = symbols[i] + symbols[i + 1];
+                    pairCounts.merge(pair, 1, Integer::sum);
+                }
+            });
 
             if (pairCounts.isEmpty()) break;
 
@@ -0,0 +1,1217 @@
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.brain4j.core.layer.impl.DenseLayer;
+import org.brain4j.core.layer.impl.convolutional.ConvLayer;
+import org.brain4j.core.training.optimizer.impl.GradientDescent;
+import org.brain4j.math.Tensors;
+import org.brain4j.math.activation.Activation;
+import org.brain4j.math.activation.impl.ELUActivation;
+import org.brain4j.math.activation.impl.GELUActivation;
+import org.brain4j.math.activation.impl.LeakyReLUActivation;
+import org.brain4j.math.activation.impl.LinearActivation;
+import org.brain4j.math.activation.impl.MishActivation;
+import org.brain4j.math.activation.impl.ReLUActivation;
+import org.brain4j.math.activation.impl.SILUActivation;
+import org.brain4j.math.activation.impl.SigmoidActivation;
+import org.brain4j.math.activation.impl.SoftmaxActivation;
+import org.brain4j.math.activation.impl.SoftPlusActivation;
+import org.brain4j.math.activation.impl.SwishActivation;
+import org.brain4j.math.activation.impl.TanhActivation;
+import org.brain4j.math.commons.VectorMath;
+import org.brain4j.math.data.StatesCache;
+import org.brain4j.math.pooling.impl.AveragePooling;
+import org.brain4j.math.pooling.impl.GlobalAveragePooling;
+import org.brain4j.math.pooling.impl.MaxPooling;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.autograd.impl.ConvolveOperation;
+import org.brain4j.math.tensor.autograd.impl.LayerNormOperation;
+import org.brain4j.math.tensor.autograd.impl.SoftmaxOperation;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.convolution.fft.FFTConvolve;
+import org.brain4j.math.tensor.convolution.im2col.Im2ColConvolve;
+import org.brain4j.math.tensor.convolution.winograd.WinogradConvolve;
+import org.brain4j.math.tensor.convolution.winograd.WinogradTile;
+import org.brain4j.math.tensor.impl.HalfFormat;
+import org.brain4j.math.tensor.impl.HalfTensor;
+import org.brain4j.math.tensor.impl.Int8Tensor;
+import org.brain4j.math.tensor.impl.OffHeapTensor;
+import org.brain4j.math.tensor.index.Range;
+import org.brain4j.math.tensor.lazy.LazyEvaluation;
+import org.brain4j.math.tensor.lazy.LazyScope;
+import org.brain4j.math.tensor.lazy.LazyTensor;
+import org.brain4j.math.tensor.matmul.PackedWeights;
+import org.brain4j.math.tensor.parallel.AutoTuner;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.ParallelConvolve;
+import org.brain4j.math.tensor.parallel.Tuning;
+import org.brain4j.math.tensor.pool.BufferPool;
+import org.brain4j.math.tensor.pool.PoolScope;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the CPU kernels against naive references. Unlike {@code TensorTest}, it needs no OpenCL device.
+ */
+public class KernelTest {
+
+    @Test
+    public void blockedMatmulTest() {
+        // Odd sizes leave partial register tiles and cache blocks on every edge
+        Tensor A = Tensors.random(67, 129);
+        Tensor B = Tensors.random(129, 45);
+        Tensor C = A.matmul(B);
+
+        assertArrayEquals(new int[] { 67, 45 }, C.shape());
+        assertArrayEquals(naiveMatmul(A, B).data(), C.data(), 0.001f);
+
+        // Batches with their own right operand, or sharing one
+        Tensor X = Tensors.random(3, 37, 70);
+        Tensor Y = Tensors.random(3, 70, 29);
+        Tensor W = Tensors.random(70, 29);
+
+        Tensor batched = X.matmul(Y);
+        Tensor shared = X.matmul(W);
+
+        assertArrayEquals(new int[] { 3, 37, 29 }, batched.shape());
+        assertArrayEquals(new int[] { 3, 37, 29 }, shared.shape());
+
+        for (int b = 0; b < 3; b++) {
+            Tensor x = X.select(0, b);
+
+            assertArrayEquals(naiveMatmul(x, Y.select(0, b)).data(), batched.select(0, b).contiguous().data(), 0.001f);
+            assertArrayEquals(naiveMatmul(x, W).data(), shared.select(0, b).contiguous().data(), 0.001f);
+        }
+    }
+
+    @Test
+    public void transposedMatmulTest() {
+        // Every layout of the operands, small enough for the row kernels and large enough for the blocked path
+        for (int size : new int[] { 5, 41 }) {
+            Tensor A = Tensors.random(size, size + 3);
+            Tensor B = Tensors.random(size + 3, size + 1);
+
+            Tensor AT = Tensors.random(size + 3, size).transpose();
+            Tensor BT = Tensors.random(size + 1, size + 3).transpose();
+
+            Tensor[][] cases = { { A, B }, { AT, B }, { A, BT }, { AT, BT } };
+
+            for (Tensor[] operands : cases) {
+                Tensor expected = naiveMatmul(operands[0], operands[1]);
+                Tensor C = operands[0].matmul(operands[1]);
+
+                assertArrayEquals(expected.shape(), C.shape());
+                assertArrayEquals(expected.data(), C.contiguous().data(), 0.001f);
+            }
+        }
+
+        // Batches of transposed matrices
+        Tensor X = Tensors.random(2, 40, 33).transpose();
+        Tensor Y = Tensors.random(2, 29, 40).transpose();
+        Tensor Z = X.matmul(Y);
+
+        assertArrayEquals(new int[] { 2, 33, 29 }, Z.shape());
+
+        for (int b = 0; b < 2; b++) {
+            Tensor expected = naiveMatmul(X.select(0, b), Y.select(0, b));
+            assertArrayEquals(expected.data(), Z.select(0, b).contiguous().data(), 0.001f);
+        }
+    }
+
+    @Test
+    public void packedWeightsTest() {
+        // Fewer rows than a register tile and then more, over several panels of the blocked GEMM
+        Tensor W = Tensors.random(300, 300).add(-0.5);
+        Tensor bias = Tensors.random(300);
+        PackedWeights packed = PackedWeights.pack(W);
+
+        for (int rows = 1; rows <= 5; rows++) {
+            Tensor A = Tensors.random(rows, 300).add(-0.5);
+            Tensor AT = Tensors.random(300, rows).add(-0.5).transpose();
+
+            assertArrayEquals(naiveMatmul(A, W).data(), A.matmul(packed).data(), 0.001f);
+            assertArrayEquals(naiveMatmul(AT, W).data(), AT.matmul(packed).data(), 0.001f);
+            assertArrayEquals(A.linear(W, bias, new ReLUActivation()).data(),
+                A.linear(packed, bias, new ReLUActivation()).data(), 0.001f);
+        }
+
+        // A pack is stale once its source has been updated in place or replaced
+        assertTrue(packed.isPackOf(W));
+        assertFalse(packed.isPackOf(W.clone()));
+
+        W.mul(2);
+        assertFalse(packed.isPackOf(W));
+
+        // A frozen layer packs its weights outside of training and repacks them once updated
+        DenseLayer layer = new DenseLayer(300);
+        layer.setWeights(W);
+        layer.setBias(bias);
+        layer.freeze();
+
+        Tensor input = Tensors.random(2, 300);
+        StatesCache cache = new StatesCache(true, false);
+
+        assertArrayEquals(naiveMatmul(input, W).add(bias).data(), layer.forward(cache, input).data(), 0.001f);
+
+        layer.getWeights().mul(-1);
+        assertArrayEquals(naiveMatmul(input, W).add(bias).data(), layer.forward(cache, input).data(), 0.001f);
+
+        Tensor replaced = Tensors.random(300, 300);
+        layer.setWeights(replaced);
+        assertArrayEquals(naiveMatmul(input, replaced).add(bias).data(), layer.forward(cache, input).data(), 0.001f);
+
+        // A training pass multiplies the weights themselves
+        assertArrayEquals(naiveMatmul(input, replaced).add(bias).data(),
+            layer.forward(new StatesCache(true), input).data(), 0.001f);
+    }
+
+    @Test
+    public void linearTest() {
+        // The row kernels, the dot kernels of a transposed matrix and the blocked path with packed weights
+        for (int rows : new int[] { 3, 70 }) {
+            // Centered on zero, so that the activation clips half of the outputs
+            Tensor X = Tensors.random(rows, 45).add(-0.5);
+            Tensor W = Tensors.random(45, 38).add(-0.5);
+            Tensor WT = W.transpose().contiguous().transpose();
+            Tensor bias = Tensors.random(38);
+
+            Tensor expected = naiveMatmul(X, W).add(bias).map(x -> Math.max(0, x));
+            Tensor[] results = {
+                X.linear(W, bias, new ReLUActivation()),
+                X.linear(WT, bias, new ReLUActivation()),
+                X.linear(PackedWeights.pack(W), bias, new ReLUActivation())
+            };
+
+            for (Tensor result : results) {
+                assertArrayEquals(expected.shape(), result.shape());
+                assertArrayEquals(expected.data(), result.data(), 0.001f);
+            }
+
+            // Without an activation, the bias alone
+            assertArrayEquals(naiveMatmul(X, W).add(bias).data(), X.linear(W, bias, null).data(), 0.001f);
+        }
+    }
+
+    @Test
+    public void denseLayerTest() {
+        Activation[] activations = { new LinearActivation(), new ReLUActivation(), new GELUActivation(), new SoftmaxActivation() };
+
+        for (Activation activation : activations) {
+            for (boolean frozen : new boolean[] { false, true }) {
+                DenseLayer layer = new DenseLayer(38, activation);
+                layer.setWeights(Tensors.random(45, 38).add(-0.5));
+                layer.setBias(Tensors.random(38));
+
+                if (frozen) layer.freeze();
+
+                for (int rows : new int[] { 1, 3, 70 }) {
+                    Tensor input = Tensors.random(rows, 45).add(-0.5);
+
+                    // Training tracks the input as Sequential does and keeps the pre-activation for the backward pass
+                    StatesCache training = new StatesCache(true);
+                    Tensor expected = layer.forward(training, input.withGrad());
+
+                    assertTrue(expected.usesGrad());
+                    assertArrayEquals(naiveMatmul(input, layer.getWeights()).add(layer.getBias()).data(),
+                        training.getOutputs(layer)[0].data(), 0.001f);
+
+                    // Outside of training the fused path gives the same values, whether the input is tracked or not
+                    for (Tensor tracked : new Tensor[] { input, input.withGrad() }) {
+                        StatesCache inference = new StatesCache(true, false);
+                        Tensor result = layer.forward(inference, tracked);
+
+                        assertArrayEquals(expected.shape(), result.shape());
+                        assertArrayEquals(expected.data(), result.data(), 0.00001f);
+                        assertNull(inference.getOutputs(layer)[0]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void vectorMathTest() {
+        VectorSpecies<Float> species = FloatVector.SPECIES_PREFERRED;
+
+        // A fine grid past both clamps and the saturation points, padded to whole vectors
+        float[] inputs = new float[species.loopBound(200 * 256) + species.length()];
+
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = -100 + i / 256f;
+        }
+
+        for (int i = 0; i < inputs.length; i += species.length()) {
+            FloatVector x = FloatVector.fromArray(species, inputs, i);
+
+            float[] exp = VectorMath.exp(x).toArray();
+            float[] sigmoid = VectorMath.sigmoid(x).toArray();
+            float[] tanh = VectorMath.tanh(x).toArray();
+
+            for (int lane = 0; lane < species.length(); lane++) {
+                double value = inputs[i + lane];
+
+                // Outside of [-87, 88] the exponent is clamped
+                double expected = Math.exp(Math.max(-87, Math.min(88, value)));
+                assertEquals(expected, exp[lane], expected * 2.5e-7);
+
+                // Bottoms out at the clamped exponential instead of 0
+                expected = 1 / (1 + Math.exp(-value));
+                assertEquals(expected, sigmoid[lane], Math.max(expected * 3e-7, 1e-38));
+
+                expected = Math.tanh(value);
+                assertEquals(expected, tanh[lane], Math.abs(expected) * 3e-7);
+
+                if (Math.abs(value) > 9) assertEquals(Math.signum(value), tanh[lane]);
+            }
+        }
+
+        // log1p is only evaluated between 0 and 1, where its bound is absolute
+        float[] units = new float[species.loopBound(1024) + species.length()];
+
+        for (int i = 0; i < units.length; i++) {
+            units[i] = Math.min(1, i / 1024f);
+        }
+
+        for (int i = 0; i < units.length; i += species.length()) {
+            float[] log1p = VectorMath.log1pUnit(FloatVector.fromArray(species, units, i)).toArray();
+
+            for (int lane = 0; lane < species.length(); lane++) {
+                assertEquals(Math.log1p(units[i + lane]), log1p[lane], 2.5e-7);
+            }
+        }
+    }
+
+    @Test
+    public void activationTest() {
+        Activation[] activations = {
+            new ReLUActivation(), new LeakyReLUActivation(), new ELUActivation(), new GELUActivation(),
+            new SigmoidActivation(), new SILUActivation(), new SwishActivation(), new TanhActivation(),
+            new SoftPlusActivation(), new MishActivation(), new LinearActivation()
+        };
+
+        int lanes = FloatVector.SPECIES_PREFERRED.length();
+        int offset = 3;
+        Random random = new Random(42);
+
+        // Lengths that are not a multiple of the lane count leave a masked tail
+        for (int length : new int[] { 1, lanes - 1, lanes + 3, 4 * lanes + 1, 1001 }) {
+            float[] inputs = new float[offset + length + 1];
+
+            for (int i = offset; i < offset + length; i++) {
+                inputs[i] = (float) random.nextGaussian() * 4;
+            }
+
+            // Saturated inputs, on both sides
+            float[] extremes = { -1000, 1000, -50, 50, -20.5f, 20.5f };
+
+            for (int i = 0; i < Math.min(length, extremes.length); i++) {
+                inputs[offset + i] = extremes[i];
+            }
+
+            for (Activation activation : activations) {
+                for (boolean derivative : new boolean[] { false, true }) {
+                    float[] values = inputs.clone();
+
+                    if (derivative) {
+                        activation.derivative(values, offset, length);
+                    } else {
+                        activation.activate(values, offset, length);
+                    }
+
+                    String name = activation.name() + (derivative ? " derivative" : "");
+
+                    // Nothing outside of the range is written
+                    assertEquals(inputs[offset - 1], values[offset - 1], name);
+                    assertEquals(inputs[offset + length], values[offset + length], name);
+
+                    for (int i = offset; i < offset + length; i++) {
+                        double x = inputs[i];
+                        double expected = derivative ? activation.derivative(x) : activation.activate(x);
+
+                        // The bounds of VectorMath, grown by the few operations around them and absolute near 0
+                        assertEquals(expected, values[i], 2e-6 * Math.max(1, Math.abs(expected)), name + " at " + x);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void broadcastTest() {
+        // Same shape, row, column, middle and scalar broadcasts, the second input being large enough to be
+        // split across threads
+        for (int[] shape : new int[][] { { 4, 37, 130 }, { 64, 33, 70 } }) {
+            int batch = shape[0];
+            int rows = shape[1];
+            int columns = shape[2];
+
+            Tensor A = Tensors.random(shape);
+            Tensor[] others = {
+                Tensors.random(batch, rows, columns),
+                Tensors.random(columns),
+                Tensors.random(rows, 1),
+                Tensors.random(batch, 1, columns),
+                Tensors.random(1)
+            };
+
+            for (Tensor B : others) {
+                // Keeps the quotients away from a division by zero
+                B.add(0.5);
+
+                Tensor sum = A.plus(B);
+                Tensor difference = A.minus(B);
+                Tensor product = A.times(B);
+                Tensor quotient = A.divide(B);
+
+                int[] bShape = B.shape();
+                int[] bIndex = new int[bShape.length];
+
+                for (int i = 0; i < batch; i++) {
+                    for (int j = 0; j < rows; j++) {
+                        for (int k = 0; k < columns; k++) {
+                            int[] index = { i, j, k };
+
+                            // Dimensions are aligned to the right, those of size 1 are repeated
+                            for (int d = 0; d < bShape.length; d++) {
+                                bIndex[d] = bShape[d] == 1 ? 0 : index[d + 3 - bShape.length];
+                            }
+
+                            float a = A.get(i, j, k);
+                            float b = B.get(bIndex);
+
+                            assertEquals(a + b, sum.get(i, j, k), 0.0001f);
+                            assertEquals(a - b, difference.get(i, j, k), 0.0001f);
+                            assertEquals(a * b, product.get(i, j, k), 0.0001f);
+                            assertEquals(a / b, quotient.get(i, j, k), 0.0001f);
+                        }
+                    }
+                }
+            }
+
+            assertThrows(IllegalArgumentException.class, () -> A.plus(Tensors.random(columns + 1)));
+        }
+
+        // A bias per channel, added to every position of its plane
+        Tensor images = Tensors.random(2, 3, 4, 5);
+        Tensor bias = Tensors.vector(1, 2, 3);
+        Tensor biased = images.plus(bias);
+
+        assertEquals(images.get(1, 2, 3, 4) + 3, biased.get(1, 2, 3, 4), 0.0001f);
+        assertEquals(images.get(0, 1, 0, 2) + 2, biased.get(0, 1, 0, 2), 0.0001f);
+    }
+
+    @Test
+    public void aliasedBroadcastTest() {
+        Tensor x = Tensors.matrix(2, 2, 1, 2, 3, 4);
+        assertArrayEquals(new float[] { 2, 5, 5, 8 }, x.add(x.transpose()).data());
+
+        x = Tensors.matrix(2, 2, 1, 2, 3, 4);
+        assertArrayEquals(new float[] { 0, -1, 1, 0 }, x.sub(x.transpose()).data());
+
+        x = Tensors.matrix(2, 2, 1, 2, 3, 4);
+        assertArrayEquals(new float[] { 1, 6, 6, 16 }, x.mul(x.transpose()).data());
+
+        // Operands read from the buffer being written, on inputs large enough to be split across threads
+        Tensor A = Tensors.random(300, 300);
+        float[] values = A.data().clone();
+
+        A.mul(A.transpose());
+
+        for (int i = 0; i < 300; i++) {
+            for (int j = 0; j < 300; j++) {
+                assertEquals(values[i * 300 + j] * values[j * 300 + i], A.get(i, j), 1e-6f);
+            }
+        }
+
+        A = Tensors.matrix(300, 300, values.clone());
+        A.add(A.select(0, 0));
+
+        for (int i = 0; i < 300; i++) {
+            for (int j = 0; j < 300; j++) {
+                assertEquals(values[i * 300 + j] + values[j], A.get(i, j), 1e-6f);
+            }
+        }
+
+        // The same layout reads every value right before writing it
+        A = Tensors.matrix(300, 300, values.clone());
+        A.add(A);
+
+        assertEquals(2 * values[12345], A.data()[12345], 1e-6f);
+    }
+
+    @Test
+    public void viewTest() {
+        Tensor A = Tensors.random(4, 5, 6);
+
+        Tensor slice = A.slice(new Range(1, 3), new Range(2, 5));
+        Tensor row = A.select(0, 2);
+        Tensor squeezed = A.slice(new Range(3, 4)).squeeze(0);
+
+        // Views index the buffer of their parent
+        assertSame(A.data(), slice.data());
+        assertSame(A.data(), row.data());
+        assertSame(A.data(), squeezed.data());
+        assertFalse(slice.isContiguous());
+
+        assertArrayEquals(new int[] { 2, 3, 6 }, slice.shape());
+        assertEquals(A.get(2, 3, 4), slice.get(1, 1, 4));
+        assertEquals(A.get(2, 1, 0), row.get(1, 0));
+        assertEquals(A.get(3, 4, 5), squeezed.get(4, 5));
+
+        // In-place operations on a view write through to the parent, and only to its elements
+        Tensor before = A.clone();
+
+        slice.mul(2);
+        row.set(-1f, 0, 0);
+
+        assertEquals(before.get(1, 2, 3) * 2, A.get(1, 2, 3), 0.0001f);
+        assertEquals(before.get(2, 4, 5) * 2, A.get(2, 4, 5), 0.0001f);
+        assertEquals(before.get(1, 1, 3), A.get(1, 1, 3));
+        assertEquals(before.get(3, 2, 3), A.get(3, 2, 3));
+        assertEquals(-1f, A.get(2, 0, 0));
+
+        // contiguous copies a view into a buffer of its own
+        Tensor copy = slice.contiguous();
+
+        assertNotSame(A.data(), copy.data());
+        assertEquals(copy.elements(), copy.data().length);
+        assertEquals(slice.get(1, 2, 3), copy.get(1, 2, 3));
+
+        copy.fill(0f);
+        assertEquals(before.get(2, 4, 3) * 2, A.get(2, 4, 3), 0.0001f);
+
+        // Kernels reading the data buffer see the values of the view, not the ones of its parent
+        Tensor B = Tensors.random(6, 2);
+        double sum = 0;
+
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                for (int k = 0; k < 6; k++) {
+                    sum += slice.get(i, j, k);
+                }
+            }
+        }
+
+        assertEquals(sum, slice.sum(), 0.001);
+        assertArrayEquals(slice.clone().matmul(B).data(), slice.matmul(B).data(), 0.0001f);
+        assertArrayEquals(slice.clone().softmax().data(), slice.softmax().data(), 0.0001f);
+        assertArrayEquals(slice.clone().transpose().contiguous().data(), slice.transpose().contiguous().data(), 0.0001f);
+    }
+
+    @Test
+    public void bufferPoolTest() {
+        Tensor X = Tensors.random(32, 48);
+        Tensor W = Tensors.random(48, 24);
+        Tensor bias = Tensors.random(24);
+
+        // A forward and backward pass, whose results are copied out of the buffers of the step
+        Supplier<float[][]> step = () -> {
+            Tensor input = X.clone().withGrad();
+            Tensor weights = W.clone().withGrad();
+            Tensor output = input.matmulGrad(weights).addGrad(bias).activateGrad(new SigmoidActivation());
+
+            output.backward();
+            return new float[][] { output.data().clone(), input.grad().data().clone(), weights.grad().data().clone() };
+        };
+
+        float[][] expected = step.get();
+
+        BufferPool.setEnabled(true);
+
+        try {
+            // Later steps run on the recycled buffers of the previous ones, which must not leak into them
+            for (int i = 0; i < 3; i++) {
+                float[][] actual;
+
+                try (PoolScope scope = BufferPool.openScope()) {
+                    actual = step.get();
+                }
+
+                for (int j = 0; j < expected.length; j++) {
+                    assertArrayEquals(expected[j], actual[j]);
+                }
+            }
+
+            assertTrue(BufferPool.stats().hits() > 0);
+        } finally {
+            BufferPool.setEnabled(false);
+            BufferPool.clear();
+        }
+    }
+
+    @Test
+    public void storageTensorTest() {
+        Tensor X = Tensors.random(9, 70).add(-0.5);
+        Tensor W = Tensors.random(70, 45).add(-0.5);
+        float[] weights = W.data();
+
+        // fp16 keeps 11 significant bits and bf16 8, the rounding error is relative to the value
+        for (HalfFormat format : HalfFormat.values()) {
+            HalfTensor half = HalfTensor.of(W, format);
+            Tensor decoded = half.toHeap();
+            float epsilon = format == HalfFormat.FP16 ? 0x1p-11f : 0x1p-8f;
+
+            assertArrayEquals(W.shape(), decoded.shape());
+
+            for (int i = 0; i < weights.length; i++) {
+                assertEquals(weights[i], decoded.data()[i], Math.abs(weights[i]) * epsilon + 1e-7f);
+            }
+
+            // Products are computed in float32 from the decoded values
+            assertArrayEquals(naiveMatmul(X, decoded).data(), X.matmul(half).data(), 0.001f);
+        }
+
+        // Off-heap storage holds the exact values, also when copied from a transposed view
+        Tensor WT = Tensors.random(45, 70).add(-0.5).transpose();
+        OffHeapTensor offHeap = OffHeapTensor.of(W);
+        OffHeapTensor offHeapT = OffHeapTensor.of(WT);
+
+        assertArrayEquals(weights, offHeap.toHeap().data());
+        assertArrayEquals(WT.contiguous().data(), offHeapT.toHeap().data());
+
+        assertArrayEquals(naiveMatmul(X, W).data(), X.matmul(offHeap).data(), 0.001f);
+        assertArrayEquals(naiveMatmul(X, WT).data(), X.matmul(offHeapT).data(), 0.001f);
+    }
+
+    @Test
+    public void int8TensorTest() {
+        Tensor X = Tensors.random(9, 70).add(-0.5);
+
+        // Quantized along the storage columns, and along the storage rows of a transposed matrix
+        Tensor[] matrices = {
+            Tensors.random(70, 45).add(-0.5),
+            Tensors.random(45, 70).add(-0.5).transpose()
+        };
+
+        for (Tensor W : matrices) {
+            Int8Tensor quantized = Int8Tensor.quantize(W);
+            Tensor decoded = quantized.toHeap();
+
+            assertArrayEquals(W.shape(), decoded.shape());
+
+            for (int j = 0; j < 45; j++) {
+                float max = 0;
+
+                for (int i = 0; i < 70; i++) {
+                    max = Math.max(max, Math.abs(W.get(i, j)));
+                }
+
+                // Every output column has its own scale, the rounding error is half of it
+                float scale = quantized.scales()[j];
+                assertEquals(max / Int8Tensor.LEVELS, scale, 1e-7f);
+
+                for (int i = 0; i < 70; i++) {
+                    assertEquals(W.get(i, j), decoded.get(i, j), scale / 2 + 1e-6f);
+                }
+            }
+
+            assertArrayEquals(naiveMatmul(X, decoded).data(), X.matmul(quantized).data(), 0.001f);
+        }
+    }
+
+    @Test
+    public void lazyEvaluationTest() {
+        Tensor A = Tensors.random(64, 130).add(-0.5);
+        Tensor B = Tensors.random(64, 130).add(0.5);
+        Tensor bias = Tensors.random(130);
+
+        Tensor result;
+
+        try (LazyScope scope = LazyEvaluation.openScope()) {
+            // A suffix operand, a shared subexpression, the pow rewrites, a function and an activation
+            Tensor S = A.plus(bias);
+            result = S.times(S).pow(0.5).mul(2).sub(B)
+                .div(B.times(B).plus(0.001))
+                .map(Math::tanh)
+                .pow(2)
+                .activate(new SigmoidActivation());
+
+            assertTrue(result instanceof LazyTensor);
+            assertFalse(((LazyTensor) result).isEvaluated());
+
+            // Modifying an operand in place before the evaluation is detected
+            Tensor C = Tensors.random(64, 130);
+            Tensor D = C.plus(B);
+
+            C.add(1);
+            assertThrows(IllegalStateException.class, D::data);
+        }
+
+        float[] values = result.data();
+
+        for (int i = 0; i < 64; i++) {
+            for (int j = 0; j < 130; j++) {
+                double s = A.get(i, j) + bias.get(j);
+                double b = B.get(i, j);
+                double x = Math.pow(Math.tanh((Math.abs(s) * 2 - b) / (b * b + 0.001)), 2);
+
+                assertEquals(1 / (1 + Math.exp(-x)), values[i * 130 + j], 1e-5);
+            }
+        }
+
+        // Outside of the scope the same methods are eager again
+        assertFalse(LazyEvaluation.isActive());
+        assertFalse(A.plus(B) instanceof LazyTensor);
+    }
+
+    @Test
+    public void gradientBufferTest() {
+        Tensor a = Tensors.random(4, 6).withGrad();
+        Tensor b = Tensors.random(4, 6).withGrad();
+        Tensor upstream = Tensors.random(4, 6);
+        float[] values = upstream.data().clone();
+
+        Tensor previousGrad = null;
+        Tensor previousUpdate = null;
+        float[] update = null;
+
+        // Two steps in a row, the second one writing into the buffers kept by zeroGrad()
+        for (int step = 0; step < 2; step++) {
+            a.zeroGrad();
+            b.zeroGrad();
+            a.addGrad(b).addGrad(a).backward(upstream);
+
+            // a receives the gradient twice, b once, and neither shares a buffer with the other or the upstream
+            for (int i = 0; i < values.length; i++) {
+                assertEquals(2 * values[i], a.grad().data()[i], 1e-6f);
+                assertEquals(values[i], b.grad().data()[i], 1e-6f);
+            }
+
+            assertNotSame(a.grad().data(), b.grad().data());
+            assertNotSame(upstream.data(), a.grad().data());
+            assertNotSame(upstream.data(), b.grad().data());
+            assertArrayEquals(values, upstream.data());
+
+            if (previousGrad != null) {
+                assertSame(previousGrad.data(), a.grad().data());
+                // The update computed from the previous step outlives its gradient buffer
+                assertNotSame(a.grad().data(), previousUpdate.data());
+                assertArrayEquals(update, previousUpdate.data());
+            }
+
+            previousGrad = a.grad();
+            previousUpdate = new GradientDescent(0.1).step(a, a.grad());
+            update = previousUpdate.data().clone();
+        }
+    }
+
+    @Test
+    public void intoTest() {
+        Tensor A = Tensors.random(8, 12).add(0.5);
+        Tensor B = Tensors.random(8, 12).add(0.5);
+        Tensor W = Tensors.random(12, 5);
+
+        assertArrayEquals(A.plus(B).data(), A.plus(B, Tensors.zeros(8, 12)).data(), 1e-6f);
+        assertArrayEquals(A.minus(B).data(), A.minus(B, Tensors.zeros(8, 12)).data(), 1e-6f);
+        assertArrayEquals(A.times(B).data(), A.times(B, Tensors.zeros(8, 12)).data(), 1e-6f);
+        assertArrayEquals(A.divide(B).data(), A.divide(B, Tensors.zeros(8, 12)).data(), 1e-6f);
+        assertArrayEquals(A.times(3).data(), A.times(3, Tensors.zeros(8, 12)).data(), 1e-6f);
+        assertArrayEquals(A.matmul(W).data(), A.matmul(W, Tensors.zeros(8, 5)).data(), 1e-5f);
+        assertArrayEquals(A.sum(1, true).data(), A.sum(1, true, Tensors.zeros(8, 1)).data(), 1e-5f);
+        assertArrayEquals(A.softmax(2).data(), A.softmax(2, Tensors.zeros(8, 12)).data(), 1e-6f);
+
+        SigmoidActivation sigmoid = new SigmoidActivation();
+        assertArrayEquals(A.activate(sigmoid).data(), A.activate(sigmoid, Tensors.zeros(8, 12)).data(), 1e-6f);
+
+        // The destination may be one of the operands
+        Tensor expected = A.plus(B);
+        Tensor out = A.clone();
+
+        assertSame(out, out.plus(B, out));
+        assertArrayEquals(expected.data(), out.data(), 1e-6f);
+
+        // A destination of another shape or laid out as a view is rejected
+        assertThrows(IllegalArgumentException.class, () -> A.plus(B, Tensors.zeros(12, 8)));
+        assertThrows(IllegalArgumentException.class, () -> A.into(Tensors.zeros(8, 13)));
+        assertThrows(IllegalArgumentException.class, () -> A.matmul(W, Tensors.zeros(5, 8)));
+        assertThrows(IllegalArgumentException.class, () -> A.into(Tensors.zeros(12, 8).transpose()));
+        assertThrows(IllegalArgumentException.class, () -> A.plus(B, Tensors.zeros(12, 8).transpose()));
+    }
+
+    @Test
+    public void reductionTest() {
+        Tensor T = Tensors.random(6, 37, 130).add(-0.5);
+
+        // Contiguous, strided by a transpose, and offset with gaps between the rows
+        Tensor[] views = {
+            T,
+            T.transpose(),
+            T.slice(Range.all(), Range.interval(3, 30), Range.interval(5, 125))
+        };
+
+        for (Tensor view : views) {
+            for (int dim = 0; dim < 3; dim++) {
+                Tensor mean = naiveReduce(view, dim, line -> DoubleStream.of(line).average().orElseThrow());
+                Tensor[][] pairs = {
+                    { naiveReduce(view, dim, line -> DoubleStream.of(line).sum()), view.sum(dim, true) },
+                    { mean, view.mean(dim, true) },
+                    { naiveReduce(view, dim, KernelTest::variance), view.variance(dim, true) },
+                    { naiveReduce(view, dim, line -> DoubleStream.of(line).max().orElseThrow()), view.max(dim, true) },
+                    { naiveReduce(view, dim, line -> DoubleStream.of(line).min().orElseThrow()), view.min(dim, true) },
+                    { naiveReduce(view, dim, KernelTest::argmax), view.argmax(dim, true) },
+                    { naiveReduce(view, dim, KernelTest::logSumExp), view.logSumExp(dim, true) }
+                };
+
+                for (Tensor[] pair : pairs) {
+                    assertArrayEquals(pair[0].shape(), pair[1].shape());
+                    assertArrayEquals(pair[0].data(), pair[1].contiguous().data(), 0.001f);
+                }
+
+                // Without keepDim the same values, with the dimension removed
+                int reduced = dim;
+                int[] shape = IntStream.range(0, 3).filter(i -> i != reduced).map(i -> view.shape()[i]).toArray();
+                Tensor squeezed = view.mean(dim, false);
+
+                assertArrayEquals(shape, squeezed.shape());
+                assertArrayEquals(mean.data(), squeezed.contiguous().data(), 0.001f);
+            }
+
+            float[] data = view.contiguous().data();
+            double[] values = IntStream.range(0, data.length).mapToDouble(i -> data[i]).toArray();
+
+            assertEquals(DoubleStream.of(values).sum(), view.sum(), 0.01);
+            assertEquals(variance(values), view.variance(), 0.0001);
+        }
+    }
+
+    @Test
+    public void rowGradientTest() {
+        // Rows longer than a vector with a scalar tail
+        Tensor X = Tensors.random(4, 3, 130).add(-0.5).mul(4);
+        Tensor gradOutput = Tensors.random(4, 3, 130).add(-0.5);
+        Tensor weight = Tensors.random(130).add(0.5);
+        Tensor bias = Tensors.random(130);
+
+        int rows = 12;
+        int features = 130;
+        float[] x = X.data();
+        float[] g = gradOutput.data();
+
+        for (double temperature : new double[] { 1, 2.5 }) {
+            SoftmaxOperation operation = new SoftmaxOperation(temperature);
+            float[] y = operation.compute(X).data();
+            float[] gradInput = operation.backward(gradOutput, X)[0].data();
+
+            // dx = y * (g - sum(g * y)) / temperature
+            for (int r = 0; r < rows; r++) {
+                int offset = r * features;
+                double max = Double.NEGATIVE_INFINITY;
+                double sum = 0;
+                double dot = 0;
+                double[] expected = new double[features];
+
+                for (int i = 0; i < features; i++) {
+                    max = Math.max(max, x[offset + i] / temperature);
+                }
+
+                for (int i = 0; i < features; i++) {
+                    expected[i] = Math.exp(x[offset + i] / temperature - max);
+                    sum += expected[i];
+                }
+
+                for (int i = 0; i < features; i++) {
+                    expected[i] /= sum;
+                    dot += g[offset + i] * expected[i];
+                }
+
+                for (int i = 0; i < features; i++) {
+                    assertEquals(expected[i], y[offset + i], 1e-6);
+                    assertEquals(expected[i] * (g[offset + i] - dot) / temperature, gradInput[offset + i], 1e-6);
+                }
+            }
+        }
+
+        double epsilon = 1e-5;
+        LayerNormOperation operation = new LayerNormOperation(epsilon);
+
+        float[] output = operation.compute(X, weight, bias).data();
+        Tensor[] grads = operation.backward(gradOutput, X, weight, bias);
+
+        // dx = (gn - mean(gn) - n * mean(gn * n)) / std, with gn = g * weight
+        for (int r = 0; r < rows; r++) {
+            int offset = r * features;
+            double mean = 0;
+            double variance = 0;
+
+            for (int i = 0; i < features; i++) mean += x[offset + i];
+            mean /= features;
+
+            for (int i = 0; i < features; i++) variance += Math.pow(x[offset + i] - mean, 2);
+            double std = Math.sqrt(variance / features + epsilon);
+
+            double[] normalized = new double[features];
+            double gradMean = 0;
+            double gradDot = 0;
+
+            for (int i = 0; i < features; i++) {
+                normalized[i] = (x[offset + i] - mean) / std;
+
+                double scaled = g[offset + i] * weight.get(i);
+                gradMean += scaled / features;
+                gradDot += scaled * normalized[i] / features;
+            }
+
+            for (int i = 0; i < features; i++) {
+                int index = offset + i;
+                double scaled = g[index] * weight.get(i);
+
+                assertEquals(normalized[i] * weight.get(i) + bias.get(i), output[index], 1e-4);
+                assertEquals((scaled - gradMean - normalized[i] * gradDot) / std, grads[0].data()[index], 1e-4);
+                assertEquals(g[index] * normalized[i], grads[1].data()[index], 1e-4);
+                assertEquals(g[index], grads[2].data()[index], 0);
+            }
+        }
+    }
+
+    @Test
+    public void schedulerTest() {
+        Tensor A = Tensors.random(256, 256);
+        Tensor B = Tensors.random(256, 256);
+        Tensor expected = A.matmul(B);
+
+        try (ComputeScheduler scheduler = ComputeScheduler.create(2)) {
+            long globalLoops = ComputeScheduler.global().statistics().loops();
+
+            // A product large enough to be split runs on the bound scheduler only
+            Tensor C = scheduler.call(() -> A.matmul(B));
+
+            assertArrayEquals(expected.data(), C.data(), 1e-3f);
+            assertTrue(scheduler.statistics().loops() > 0);
+            assertEquals(globalLoops, ComputeScheduler.global().statistics().loops());
+
+            // A loop started from a worker is split on the same pool, without waiting on itself
+            AtomicInteger iterations = new AtomicInteger();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> scheduler.run(() ->
+                ComputeScheduler.current().parallelFor(0, 64, 1, (start, end) -> {
+                    for (int i = start; i < end; i++) {
+                        ComputeScheduler.current().parallelFor(0, 64, 1, (from, to) -> iterations.addAndGet(to - from));
+                    }
+                })));
+
+            assertEquals(64 * 64, iterations.get());
+            assertEquals(globalLoops, ComputeScheduler.global().statistics().loops());
+        }
+
+        assertThrows(IllegalStateException.class, () -> ComputeScheduler.global().close());
+    }
+
+    @Test
+    public void tuningTest(@TempDir Path directory) throws Exception {
+        Tuning tuning = new Tuning(3, 5, 7, 11, 13, 17, 19, 23, 29, 31);
+        Path file = directory.resolve("cache").resolve("tuning.json");
+
+        assertNull(Tuning.load(file));
+
+        tuning.save(file);
+        assertEquals(tuning, Tuning.load(file));
+
+        // Values written on another host are not used
+        String json = Files.readString(file);
+        Files.writeString(file, json.replaceFirst("\"arch\": \"[^\"]*\"", "\"arch\": \"other\""));
+        assertNull(Tuning.load(file));
+
+        // Corrupt and partially written files fall back to the defaults
+        Files.writeString(file, json.substring(0, json.length() / 2));
+        assertNull(Tuning.load(file));
+
+        Files.writeString(file, "not json");
+        assertNull(Tuning.load(file));
+
+        // Illegal and missing values too
+        Files.writeString(file, json.replaceFirst("\"fftTaps\": 31", "\"fftTaps\": 0"));
+        assertNull(Tuning.load(file));
+
+        Files.writeString(file, json.replaceFirst(",\\s*\"fftTaps\": 31", ""));
+        assertNull(Tuning.load(file));
+
+        Files.writeString(file, json);
+        assertEquals(tuning, Tuning.load(file));
+    }
+
+    @Test
+    public void calibrationTest() throws Exception {
+        Tuning current = Tuning.current();
+        AtomicReference<Tuning> calibrated = new AtomicReference<>();
+
+        Thread calibration = new Thread(() -> calibrated.set(AutoTuner.calibrate()));
+        calibration.start();
+
+        // The thresholds forced by the calibration never reach the kernels running concurrently
+        while (calibration.isAlive()) {
+            assertSame(current, Tuning.current());
+            ComputeScheduler.global().parallelForEach(0, 64, 1, i -> assertSame(current, Tuning.current()));
+
+            calibration.join(10);
+        }
+
+        assertNotNull(calibrated.get());
+        assertSame(current, Tuning.current());
+    }
+
+    @Test
+    public void winogradConvTest() {
+        // Odd sizes leave partial tiles on the bottom and right edges
+        Tensor A = Tensors.random(2, 8, 19, 23);
+        Tensor B = Tensors.random(6, 8, 3, 3);
+
+        Tensor expected = ParallelConvolve.im2colConvolve(A, B);
+
+        for (WinogradTile tile : WinogradTile.values()) {
+            Tensor C = WinogradConvolve.convolve(A, B, ConvolveParameters.DEFAULT, tile);
+
+            assertArrayEquals(expected.shape(), C.shape());
+            assertArrayEquals(expected.data(), C.data(), 0.001f, tile.name());
+        }
+    }
+
+    @Test
+    public void stridedConvTest() {
+        Tensor A = Tensors.random(2, 3, 9, 8);
+        Tensor B = Tensors.random(4, 3, 3, 3);
+
+        // A stride of 2 keeps every other output of the dense convolution
+        Tensor dense = A.convolve(B, ConvolveParameters.of(1, 1));
+        Tensor strided = A.convolve(B, ConvolveParameters.of(2, 1));
+
+        assertArrayEquals(new int[] { 2, 4, 5, 4 }, strided.shape());
+
+        for (int b = 0; b < 2; b++) {
+            for (int f = 0; f < 4; f++) {
+                for (int y = 0; y < 5; y++) {
+                    for (int x = 0; x < 4; x++) {
+                        assertEquals(dense.get(b, f, y * 2, x * 2), strided.get(b, f, y, x), 0.001f);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void fftConvTest() {
+        // A 7 x 7 filter uses 2D transforms, an input of height 1 uses 1D transforms
+        Tensor[][] cases = {
+            { Tensors.random(2, 3, 20, 18), Tensors.random(4, 3, 7, 7) },
+            { Tensors.random(2, 3, 1, 40), Tensors.random(4, 3, 1, 9) }
+        };
+
+        for (Tensor[] operands : cases) {
+            Tensor A = operands[0];
+            Tensor B = operands[1];
+
+            Tensor expected = ParallelConvolve.im2colConvolve(A, B);
+            Tensor C = FFTConvolve.convolve(A, B, ConvolveParameters.DEFAULT);
+
+            assertArrayEquals(expected.shape(), C.shape());
+            assertArrayEquals(expected.data(), C.data(), 0.001f);
+
+            Tensor gradOutput = Tensors.random(C.shape());
+
+            Tensor[] expectedGrads = Im2ColConvolve.backward(gradOutput, A, B, ConvolveParameters.DEFAULT);
+            Tensor[] grads = FFTConvolve.backward(gradOutput, A, B, ConvolveParameters.DEFAULT);
+
+            for (int i = 0; i < 2; i++) {
+                assertArrayEquals(expectedGrads[i].shape(), grads[i].shape());
+                assertArrayEquals(expectedGrads[i].data(), grads[i].data(), 0.001f);
+            }
+        }
+    }
+
+    @Test
+    public void depthwiseConvTest() {
+        Tensor A = Tensors.random(2, 3, 9, 8);
+        Tensor B = Tensors.random(3, 1, 3, 3);
+
+        // A depthwise convolution is a dense one whose filters are zero outside of their own channel
+        Tensor dense = Tensors.zeros(3, 3, 3, 3);
+
+        for (int c = 0; c < 3; c++) {
+            for (int i = 0; i < 3; i++) {
+                for (int j = 0; j < 3; j++) {
+                    dense.set(B.get(c, 0, i, j), c, c, i, j);
+                }
+            }
+        }
+
+        ConvolveParameters parameters = ConvolveParameters.of(1, 1);
+
+        Tensor expected = A.convolve(dense, parameters);
+        Tensor depthwise = A.convolve(B, parameters.withGroups(3));
+
+        assertArrayEquals(expected.shape(), depthwise.shape());
+        assertArrayEquals(expected.data(), depthwise.data(), 0.001f);
+    }
+
+    @Test
+    public void convolveBiasTest() {
+        Tensor A = Tensors.random(2, 4, 7, 6);
+        Tensor B = Tensors.random(6, 2, 3, 3);
+        Tensor bias = Tensors.vector(1, 2, 3, 4, 5, 6);
+
+        ConvolveOperation operation = new ConvolveOperation(ConvolveParameters.of(1, 1).withGroups(2), true);
+        Tensor output = operation.compute(A, B, bias);
+        Tensor convolved = A.convolve(B, ConvolveParameters.of(1, 1).withGroups(2));
+
+        assertEquals(3, operation.requiredInputs());
+        assertEquals(convolved.get(1, 4, 2, 3) + 5, output.get(1, 4, 2, 3), 0.001f);
+
+        // Every output of a filter is shifted by its bias, whose gradient sums the gradients of its planes
+        Tensor gradOutput = Tensors.random(output.shape());
+        Tensor[] grads = operation.backward(gradOutput, A, B, bias);
+
+        float expected = 0;
+
+        for (int b = 0; b < 2; b++) {
+            for (int h = 0; h < 7; h++) {
+                for (int w = 0; w < 6; w++) {
+                    expected += gradOutput.get(b, 3, h, w);
+                }
+            }
+        }
+
+        assertArrayEquals(bias.shape(), grads[2].shape());
+        assertEquals(expected, grads[2].get(3), 0.001f);
+
+        // Operands without a batch dimension get gradients of their own shape
+        Tensor single = A.slice(new Range(0, 1)).squeeze(0);
+        Tensor[] unbatched = ParallelConvolve.backward(gradOutput.slice(new Range(0, 1)), single, B,
+            ConvolveParameters.of(1, 1).withGroups(2));
+
+        assertArrayEquals(single.shape(), unbatched[0].shape());
+        assertArrayEquals(grads[1].shape(), unbatched[1].shape());
+
+        assertThrows(IllegalArgumentException.class, () -> new ConvLayer(4, 6, 3, 3).setGroups(4));
+    }
+
+    @Test
+    public void poolingTest() {
+        Tensor A = Tensors.random(2, 3, 8, 12);
+
+        MaxPooling maxPooling = new MaxPooling(2, 2, 2, true);
+        Tensor max = maxPooling.pool(A);
+        Tensor average = new AveragePooling(2, 2, 2).pool(A);
+        Tensor global = new GlobalAveragePooling().pool(A);
+
+        assertArrayEquals(new int[] { 2, 3, 4, 6 }, max.shape());
+        assertArrayEquals(new int[] { 2, 3 }, global.shape());
+
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 6; x++) {
+                float a = A.get(1, 2, y * 2, x * 2);
+                float b = A.get(1, 2, y * 2, x * 2 + 1);
+                float c = A.get(1, 2, y * 2 + 1, x * 2);
+                float d = A.get(1, 2, y * 2 + 1, x * 2 + 1);
+
+                assertEquals(Math.max(Math.max(a, b), Math.max(c, d)), max.get(1, 2, y, x), 0.0001f);
+                assertEquals((a + b + c + d) / 4, average.get(1, 2, y, x), 0.0001f);
+            }
+        }
+
+        // The recorded argmax routes every output gradient to the maximum of its window
+        Tensor gradient = maxPooling.backward(Tensors.ones(max.shape()), A);
+
+        assertEquals(max.elements(), gradient.sum(), 0.0001f);
+        assertEquals(max.get(0, 1, 2, 3), A.get(0, 1, 4, 6) * gradient.get(0, 1, 4, 6)
+            + A.get(0, 1, 4, 7) * gradient.get(0, 1, 4, 7)
+            + A.get(0, 1, 5, 6) * gradient.get(0, 1, 5, 6)
+            + A.get(0, 1, 5, 7) * gradient.get(0, 1, 5, 7), 0.0001f);
+
+        assertEquals(average.mean(), global.mean(), 0.0001f);
+    }
+
+    /**
+     * Multiplies two matrices one element at a time, reading them through {@link Tensor#get(int...)} so
+     * that views are read with their strides.
+     */
+    private static Tensor naiveMatmul(Tensor a, Tensor b) {
+        int m = a.shape()[0];
+        int n = a.shape()[1];
+        int p = b.shape()[1];
+
+        Tensor result = Tensors.zeros(m, p);
+
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < p; j++) {
+                double sum = 0;
+
+                for (int k = 0; k < n; k++) {
+                    sum += a.get(i, k) * b.get(k, j);
+                }
+
+                result.set((float) sum, i, j);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Reduces every line along a dimension of a rank 3 tensor, reading it through {@link Tensor#get(int...)}.
+     * The result keeps the reduced dimension with size 1.
+     */
+    private static Tensor naiveReduce(Tensor tensor, int dim, ToDoubleFunction<double[]> reduction) {
+        int[] shape = tensor.shape();
+        int[] reduced = shape.clone();
+        reduced[dim] = 1;
+
+        Tensor result = Tensors.zeros(reduced);
+        double[] line = new double[shape[dim]];
+
+        for (int i = 0; i < reduced[0]; i++) {
+            for (int j = 0; j < reduced[1]; j++) {
+                for (int k = 0; k < reduced[2]; k++) {
+                    int[] index = { i, j, k };
+
+                    for (int l = 0; l < line.length; l++) {
+                        index[dim] = l;
+                        line[l] = tensor.get(index);
+                    }
+
+                    result.set((float) reduction.applyAsDouble(line), i, j, k);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static double variance(double[] values) {
+        double mean = DoubleStream.of(values).average().orElseThrow();
+        return DoubleStream.of(values).map(x -> (x - mean) * (x - mean)).average().orElseThrow();
+    }
+
+    private static double logSumExp(double[] values) {
+        return Math.log(DoubleStream.of(values).map(Math::exp).sum());
+    }
+
+    private static double argmax(double[] values) {
+        int index = 0;
+
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[index]) index = i;
+        }
+
+        return index;
+    }
+}
@@ -3,10 +3,20 @@ package org.brain4j.llm.core.architecture;
 import com.google.gson.JsonObject;
 import org.brain4j.core.model.Model;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.Int4Format;
 
 import java.util.Map;
 
 public interface ArchitectureAdapter {
     boolean supports(String modelType);
     Model buildModel(JsonObject config, Map<String, Tensor> weights);
+    
+    /**
+     * Gets an adapter that stores the weight matrices of the models it builds in 4-bit blocks.
+     * Every architecture states whether its layers accept 4-bit weights, those which do not throw.
+     * @param format the block layout
+     * @return the quantizing adapter
+     * @throws UnsupportedOperationException if the architecture cannot be quantized
+     */
+    ArchitectureAdapter quantized(Int4Format format);
 }
@@ -14,11 +14,34 @@ import org.brain4j.core.model.ModelSpecs;
 import org.brain4j.llm.core.architecture.ArchitectureAdapter;
 import org.brain4j.math.data.StatesCache;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.Int4Format;
+import org.brain4j.math.tensor.impl.Int4Tensor;
 import org.brain4j.math.tensor.index.Range;
 
 import java.util.Map;
 
 public class GPT2Adapter implements ArchitectureAdapter {
+    
+    private final Int4Format quantization;
+    
+    public GPT2Adapter() {
+        this(null);
+    }
+    
+    /**
+     * Creates an adapter storing the projections of every block and the tied embeddings
+     * in 4-bit blocks, see {@link Int4Tensor}.
+     * @param quantization the block layout, or null to keep the weights as loaded
+     */
+    public GPT2Adapter(Int4Format quantization) {
+        this.quantization = quantization;
+    }
+    
+    @Override
+    public ArchitectureAdapter quantized(Int4Format format) {
+        return new GPT2Adapter(format);
+    }
+    
     @Override
     public boolean supports(String modelType) {
         return modelType.equals("gpt2");
@@ -34,7 +57,7 @@ public class GPT2Adapter implements ArchitectureAdapter {
         
         ModelSpecs specs = ModelSpecs.of();
         
-        Tensor embedding = weights.get("wte.weight"); // embedding  -> [vocab, dim]
+        Tensor embedding = matrix(weights.get("wte.weight")); // embedding  -> [vocab, dim]
         Tensor posEncode = weights.get("wpe.weight"); // pos encode -> [length, dim]
         
         EmbeddingLayer embeddingLayer = new EmbeddingLayer(vocabSize, embeddingDim);
@@ -73,9 +96,9 @@ public class GPT2Adapter implements ArchitectureAdapter {
             Tensor downProjWeight = weights.get(prefix + "mlp.c_proj.weight");
             Tensor downProjBias = weights.get(prefix + "mlp.c_proj.bias");
             
-            upProj.setWeights(upProjWeight);
+            upProj.setWeights(matrix(upProjWeight));
             upProj.setBias(upProjBias);
-            downProj.setWeights(downProjWeight);
+            downProj.setWeights(matrix(downProjWeight));
             downProj.setBias(downProjBias);
             
             Tensor attnWeight = weights.get(prefix + "attn.c_attn.weight");
@@ -87,9 +110,9 @@ public class GPT2Adapter implements ArchitectureAdapter {
             attention.setAttnQkvBias(true);
             attention.setAttnOutBias(true);
             
-            attention.setWeights(attnWeight);
+            attention.setWeights(matrix(attnWeight));
             attention.setBias(attnBias);
-            attention.setOutProj(attnOutWeight);
+            attention.setOutProj(matrix(attnOutWeight));
             attention.setOutBias(attnOutBias);
             
             specs.add(decoder.freeze());
@@ -111,6 +134,12 @@ public class GPT2Adapter implements ArchitectureAdapter {
         return specs.compile();
     }
     
+    private Tensor matrix(Tensor weights) {
+        if (quantization == null || weights instanceof Int4Tensor) return weights;
+        
+        return Int4Tensor.quantize(weights, quantization);
+    }
+    
     static class TokenSelectionLayer extends Layer {
         @Override
         public Tensor[] forward(StatesCache cache, Tensor... inputs) {
@@ -0,0 +1,147 @@
+import com.google.gson.JsonObject;
+import org.brain4j.core.model.Model;
+import org.brain4j.llm.core.architecture.impl.GPT2Adapter;
+import org.brain4j.math.Tensors;
+import org.brain4j.math.data.StatesCache;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.Int4Format;
+import org.brain4j.math.tensor.impl.Int4Tensor;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the logits of a GPT-2 shaped model with random weights, in float32 and with 4-bit weights,
+ * without downloading anything. The decoding speed is measured by {@code DecodeBenchmark}.
+ */
+public class QuantizedLLMTest {
+
+    private static final String[] PROJECTIONS = {
+        "mlp.c_fc.weight", "mlp.c_proj.weight", "attn.c_attn.weight", "attn.c_proj.weight"
+    };
+
+    @Test
+    public void quantizedLogitsTest() {
+        int layers = 4;
+        int dim = 128;
+        int vocab = 1000;
+
+        Random random = new Random(42);
+        JsonObject config = config(layers, dim, 4, vocab);
+
+        Map<String, Tensor> weights = randomWeights(layers, dim, vocab, random);
+        Map<String, Tensor> rounded = new HashMap<>(weights);
+
+        // The float32 weights that the 4-bit ones decode to
+        rounded.replaceAll((name, weight) -> isQuantized(name) ? quantize(weight).toHeap() : weight);
+
+        Model model = new GPT2Adapter().buildModel(config, weights);
+        Model roundedModel = new GPT2Adapter().buildModel(config, rounded);
+        Model quantized = new GPT2Adapter(Int4Format.Q4_32).buildModel(config, weights);
+
+        float[] ids = new float[8];
+
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextInt(vocab);
+        }
+
+        Tensor prompt = Tensors.vector(ids).reshape(1, ids.length);
+
+        Tensor expected = model.predict(new StatesCache(false), prompt)[0];
+        Tensor decoded = roundedModel.predict(new StatesCache(false), prompt)[0];
+        Tensor actual = quantized.predict(new StatesCache(false), prompt)[0];
+
+        // The 4-bit kernels compute what float32 kernels compute with the decoded weights
+        double kernelError = relativeError(decoded, actual);
+        assertTrue(kernelError < 1e-3, "4-bit kernels error = " + kernelError);
+
+        // A Gaussian block of 32 weights rounded to 16 levels of max|w| / 8 keeps an rms error of about
+        // 9% of the weights, so does every product with a quantized matrix
+        Tensor hidden = Tensors.random(random, 16, dim);
+        Tensor head = weights.get("wte.weight").transpose();
+        Tensor roundedHead = rounded.get("wte.weight").transpose();
+
+        double roundingError = relativeError(hidden.matmul(head), hidden.matmul(roundedHead));
+        assertTrue(roundingError < 0.1, "Q4_32 rounding error = " + roundingError);
+
+        // The rounding errors of the embeddings, of the head and of the 4 projections of every block add
+        // up in the logits: about 0.19 with one block, 0.21 with these 4 and 0.28 with 12. Since the kernels
+        // add nothing to them, this bounds the rounding of Q4_32 itself on random weights
+        double error = relativeError(expected, actual);
+        assertTrue(error < 0.25, "Q4_32 logits error = " + error);
+    }
+
+    private static boolean isQuantized(String name) {
+        if (name.equals("wte.weight")) return true;
+
+        for (String projection : PROJECTIONS) {
+            if (name.endsWith(projection)) return true;
+        }
+
+        return false;
+    }
+
+    private static Int4Tensor quantize(Tensor weight) {
+        return Int4Tensor.quantize(weight, Int4Format.Q4_32);
+    }
+
+    private static double relativeError(Tensor expected, Tensor actual) {
+        // pow works in place, minus and clone copy
+        return Math.sqrt(actual.minus(expected).pow(2).sum() / expected.clone().pow(2).sum());
+    }
+
+    private static JsonObject config(int layers, int dim, int heads, int vocab) {
+        JsonObject config = new JsonObject();
+
+        config.addProperty("n_layer", layers);
+        config.addProperty("n_head", heads);
+        config.addProperty("n_embd", dim);
+        config.addProperty("n_ctx", 1024);
+        config.addProperty("vocab_size", vocab);
+
+        return config;
+    }
+
+    private static Map<String, Tensor> randomWeights(int layers, int dim, int vocab, Random random) {
+        Map<String, Tensor> weights = new HashMap<>();
+
+        weights.put("wte.weight", random(random, 0.02, vocab, dim));
+        weights.put("wpe.weight", random(random, 0.01, 1024, dim));
+        weights.put("ln_f.weight", Tensors.ones(dim));
+        weights.put("ln_f.bias", Tensors.zeros(dim));
+
+        for (int i = 0; i < layers; i++) {
+            String prefix = "h." + i + ".";
+
+            weights.put(prefix + "ln_1.weight", Tensors.ones(dim));
+            weights.put(prefix + "ln_1.bias", Tensors.zeros(dim));
+            weights.put(prefix + "ln_2.weight", Tensors.ones(dim));
+            weights.put(prefix + "ln_2.bias", Tensors.zeros(dim));
+            weights.put(prefix + "mlp.c_fc.weight", random(random, 0.02, dim, 4 * dim));
+            weights.put(prefix + "mlp.c_fc.bias", Tensors.zeros(4 * dim));
+            weights.put(prefix + "mlp.c_proj.weight", random(random, 0.02, 4 * dim, dim));
+            weights.put(prefix + "mlp.c_proj.bias", Tensors.zeros(dim));
+            weights.put(prefix + "attn.c_attn.weight", random(random, 0.02, dim, 3 * dim));
+            weights.put(prefix + "attn.c_attn.bias", Tensors.zeros(3 * dim));
+            weights.put(prefix + "attn.c_proj.weight", random(random, 0.02, dim, dim));
+            weights.put(prefix + "attn.c_proj.bias", Tensors.zeros(dim));
+        }
+
+        return weights;
+    }
+
+    private static Tensor random(Random random, double deviation, int... shape) {
+        Tensor tensor = Tensors.zeros(shape);
+        float[] data = tensor.data();
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (float) (random.nextGaussian() * deviation);
+        }
+
+        return tensor;
+    }
+}
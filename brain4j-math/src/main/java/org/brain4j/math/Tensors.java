@@ -2,14 +2,16 @@ package org.brain4j.math;
 
 import org.brain4j.math.tensor.Shape;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.convolution.im2col.Col2ImTask;
 import org.brain4j.math.tensor.convolution.im2col.Im2ColParams;
 import org.brain4j.math.tensor.convolution.im2col.Im2ColTask;
 import org.brain4j.math.tensor.impl.CpuTensor;
 import org.brain4j.math.tensor.index.Range;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
 import org.brain4j.math.tensor.parallel.ParallelConvolve;
 
 import java.util.*;
-import java.util.concurrent.ForkJoinPool;
 import java.util.random.RandomGenerator;
 import java.util.stream.IntStream;
 
@@ -30,7 +32,7 @@ import java.util.stream.IntStream;
 public class Tensors {
 
     /** Number of threads suggested for parallel operations. */
-    public static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    public static final int PARALLELISM = ComputeScheduler.global().parallelism();
 
     /** Complexity threshold used to decide when to split tasks for parallel algorithms. */
     public static final int SPLIT_COMPLEXITY_THRESHOLD = 1 << 10; // 1024
@@ -247,6 +249,53 @@ public class Tensors {
         return ParallelConvolve.convolve(input, kernel);
     }
 
+    /**
+     * Performs a convolution between an input tensor and a kernel tensor
+     * with the given stride, padding, dilation and groups.
+     *
+     * <p>This method delegates to {@link ParallelConvolve} and may execute
+     * in parallel depending on tensor size.
+     *
+     * @param input input tensor
+     * @param kernel convolution kernel
+     * @param parameters stride, padding, dilation and groups
+     * @return the result of the convolution
+     */
+    public static Tensor convolve(Tensor input, Tensor kernel, ConvolveParameters parameters) {
+        return ParallelConvolve.convolve(input, kernel, parameters);
+    }
+
+    /**
+     * Performs a 1D convolution between a batch of signals and a set of kernels.
+     *
+     * <p>The signals are convolved as images of height 1, so long kernels go through
+     * the FFT path of {@link ParallelConvolve}.
+     *
+     * @param input signals of shape {@code [batch, channels, length]}
+     * @param kernel kernels of shape {@code [filters, channels, taps]}
+     * @param stride step between two outputs
+     * @param padding zeros added on both ends of the signals
+     * @param dilation distance between two taps
+     * @return the result of shape {@code [batch, filters, outLength]}
+     */
+    public static Tensor convolve1d(Tensor input, Tensor kernel, int stride, int padding, int dilation) {
+        int[] inShape = input.shape();
+        int[] kernelShape = kernel.shape();
+
+        if (inShape.length != 3 || kernelShape.length != 3) {
+            throw new IllegalArgumentException("1D convolution expects rank 3 signals and kernels!");
+        }
+
+        ConvolveParameters parameters = new ConvolveParameters(1, stride, 0, padding, 1, dilation);
+
+        Tensor signals = input.reshape(inShape[0], inShape[1], 1, inShape[2]);
+        Tensor kernels = kernel.reshape(kernelShape[0], kernelShape[1], 1, kernelShape[2]);
+        Tensor result = ParallelConvolve.convolve(signals, kernels, parameters);
+
+        int[] shape = result.shape();
+        return result.reshape(shape[0], shape[1], shape[3]);
+    }
+
     /**
      * Merges a list of tensors into a single batched tensor.
      *
@@ -437,37 +486,52 @@ public class Tensors {
      * @return a 2D tensor of shape {@code [patchSize, totalPatches]}
      */
     public static Tensor im2col(Tensor input, int filterHeight, int filterWidth) {
+        return im2col(input, filterHeight, filterWidth, ConvolveParameters.DEFAULT);
+    }
+
+    /**
+     * Transforms an input image tensor into column format (im2col) for a convolution
+     * with the given stride, padding, dilation and groups.
+     *
+     * <p>The input tensor is expected to have shape {@code [channels, height, width]}.
+     * The data holds every patch contiguously, taps falling in the padding are zeros.
+     *
+     * @param input        input image tensor
+     * @param filterHeight convolution kernel height
+     * @param filterWidth  convolution kernel width
+     * @param parameters   stride, padding and dilation
+     * @return a 2D tensor of shape {@code [patchSize, totalPatches]}
+     */
+    public static Tensor im2col(Tensor input, int filterHeight, int filterWidth, ConvolveParameters parameters) {
         int[] shape = input.shape();
         int channels = shape[0];
         int inHeight = shape[1];
         int inWidth = shape[2];
 
-        int outHeight = inHeight - filterHeight + 1;
-        int outWidth = inWidth - filterWidth + 1;
+        int outHeight = parameters.outputHeight(inHeight, filterHeight);
+        int outWidth = parameters.outputWidth(inWidth, filterWidth);
 
         int patchSize = channels * filterHeight * filterWidth;
         int totalPatches = outHeight * outWidth;
 
-        float[] inputData = input.data();
+        float[] inputData = input.contiguous().data();
         float[] resultData = new float[patchSize * totalPatches];
 
         Im2ColParams params = new Im2ColParams(
             inputData,
             resultData,
             0,
-            0,
             channels,
             inHeight,
             inWidth,
             filterHeight,
             filterWidth,
             outHeight,
-            outWidth
+            outWidth,
+            parameters
         );
 
-        try (ForkJoinPool pool = ForkJoinPool.commonPool()) {
-            pool.invoke(new Im2ColTask(params, 0, totalPatches));
-        }
+        ComputeScheduler.current().parallelFor(0, totalPatches, Im2ColTask.GRAIN, new Im2ColTask(params));
 
         return Tensors.create(Shape.of(patchSize, totalPatches), resultData);
     }
@@ -487,33 +551,48 @@ public class Tensors {
      */
     public static Tensor col2im(Tensor cols, int channels, int inHeight, int inWidth,
                                 int filterHeight, int filterWidth) {
-        int[] colShape = cols.shape(); // [patchSize, totalPatches]
-        int patchSize = colShape[0];
-        int totalPatches = colShape[1];
+        return col2im(cols, channels, inHeight, inWidth, filterHeight, filterWidth, ConvolveParameters.DEFAULT);
+    }
 
-        int outWidth = inWidth - filterWidth + 1;
+    /**
+     * Reconstructs an image tensor from its column representation (col2im), the adjoint
+     * of {@link #im2col(Tensor, int, int, ConvolveParameters)}.
+     *
+     * <p>This operation accumulates overlapping patches and drops the taps falling in the padding.
+     *
+     * @param cols         column tensor, laid out like the output of {@code im2col}
+     * @param channels     number of channels
+     * @param inHeight     input height
+     * @param inWidth      input width
+     * @param filterHeight kernel height
+     * @param filterWidth  kernel width
+     * @param parameters   stride, padding and dilation
+     * @return reconstructed image tensor
+     */
+    public static Tensor col2im(Tensor cols, int channels, int inHeight, int inWidth,
+                                int filterHeight, int filterWidth, ConvolveParameters parameters) {
+        int outHeight = parameters.outputHeight(inHeight, filterHeight);
+        int outWidth = parameters.outputWidth(inWidth, filterWidth);
 
-        float[] colData = cols.data();
+        float[] colData = cols.contiguous().data();
         float[] imgData = new float[channels * inHeight * inWidth];
 
-        for (int patchIdx = 0; patchIdx < totalPatches; patchIdx++) {
-            int outRow = patchIdx / outWidth;
-            int outCol = patchIdx % outWidth;
-            int baseOffset = patchIdx * patchSize;
-
-            for (int c = 0; c < channels; c++) {
-                int channelOffset = c * filterHeight * filterWidth;
-                int imgChannelOffset = c * inHeight * inWidth;
-
-                for (int fh = 0; fh < filterHeight; fh++) {
-                    int srcPos = baseOffset + channelOffset + fh * filterWidth;
-                    int destPos = imgChannelOffset + (outRow + fh) * inWidth + outCol;
-                    for (int fw = 0; fw < filterWidth; fw++) {
-                        imgData[destPos + fw] += colData[srcPos + fw];
-                    }
-                }
-            }
-        }
+        Im2ColParams params = new Im2ColParams(
+            imgData,
+            colData,
+            0,
+            channels,
+            inHeight,
+            inWidth,
+            filterHeight,
+            filterWidth,
+            outHeight,
+            outWidth,
+            parameters
+        );
+
+        Col2ImTask task = new Col2ImTask(params, outHeight * outWidth);
+        ComputeScheduler.current().parallelFor(0, task.iterations(), 1, task);
 
         return Tensors.create(Shape.of(channels, inHeight, inWidth), imgData);
     }
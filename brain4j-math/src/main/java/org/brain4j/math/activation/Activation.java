@@ -6,11 +6,12 @@ import org.brain4j.math.gpu.device.Device;
 import org.brain4j.math.gpu.kernel.KernelFactory;
 import org.brain4j.math.gpu.memory.GpuQueue;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.CpuTensor;
 import org.brain4j.math.tensor.impl.GpuTensor;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.Tuning;
 import org.brain4j.math.weightsinit.WeightInitialization;
 
-import java.util.stream.IntStream;
-
 public interface Activation {
 
     /**
@@ -31,6 +32,39 @@ public interface Activation {
      */
     double derivative(double input);
 
+    /**
+     * Activates a range of values in place.
+     * @param data the values to activate
+     * @param offset the index of the first value
+     * @param length the number of values
+     */
+    default void activate(float[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            data[i] = (float) activate(data[i]);
+        }
+    }
+
+    /**
+     * Replaces a range of values with the derivative of the activation at those values.
+     * @param data the values to differentiate
+     * @param offset the index of the first value
+     * @param length the number of values
+     */
+    default void derivative(float[] data, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            data[i] = (float) derivative(data[i]);
+        }
+    }
+
+    /**
+     * Gets whether every value is activated independently of the others, which
+     * allows the activation to be fused into the kernel producing the values.
+     * @return true for element-wise activations
+     */
+    default boolean isElementWise() {
+        return true;
+    }
+
     /**
      * Gets the kernel prefix for this activation
      * @return the prefix of the kernel
@@ -81,18 +115,8 @@ public interface Activation {
             return result;
         }
         
-        float[] inputData = input.data();
-        float[] resultData = new float[inputData.length];
-        
-        if (resultData.length > 65536) {
-            IntStream.range(0, inputData.length)
-                .parallel()
-                .forEach(i -> resultData[i] = (float) activate(inputData[i]));
-        } else {
-            for (int i = 0; i < resultData.length; i++) {
-                resultData[i] = (float) activate(inputData[i]);
-            }
-        }
+        float[] resultData = input.contiguous().data().clone();
+        applyInChunks(resultData, false);
 
         return Tensors.create(shape, resultData);
     }
@@ -117,19 +141,56 @@ public interface Activation {
             return result;
         }
         
-        float[] inputData = input.data();
-        float[] resultData = new float[inputData.length];
-        
-        if (resultData.length > 65536) {
-            IntStream.range(0, inputData.length)
-                .parallel()
-                .forEach(i -> resultData[i] = (float) derivative(inputData[i]));
-        } else {
-            for (int i = 0; i < resultData.length; i++) {
-                resultData[i] = (float) derivative(inputData[i]);
-            }
-        }
+        float[] resultData = input.contiguous().data().clone();
+        applyInChunks(resultData, true);
 
         return Tensors.create(shape, resultData);
     }
+
+    /**
+     * Activates a tensor into a preallocated CPU tensor of the same shape.
+     * @param input the tensor to activate
+     * @param out the destination
+     * @return the destination
+     */
+    default Tensor activate(Tensor input, Tensor out) {
+        if (!isElementWise() || input instanceof GpuTensor || !(out instanceof CpuTensor) || !out.isContiguous()) {
+            return activate(input).into(out);
+        }
+
+        applyInChunks(input.into(out).data(), false);
+        return out;
+    }
+
+    /**
+     * Computes the derivative of the activation into a preallocated CPU tensor of the same shape.
+     * @param input the tensor the activation was applied to
+     * @param out the destination
+     * @return the destination
+     */
+    default Tensor derivative(Tensor input, Tensor out) {
+        if (!isElementWise() || input instanceof GpuTensor || !(out instanceof CpuTensor) || !out.isContiguous()) {
+            return derivative(input).into(out);
+        }
+
+        applyInChunks(input.into(out).data(), true);
+        return out;
+    }
+
+    /**
+     * Applies the bulk activation (or derivative) in place, splitting large buffers
+     * in chunks processed in parallel.
+     */
+    private void applyInChunks(float[] data, boolean derivative) {
+        int threshold = Tuning.current().activationThreshold();
+        int grain = data.length > threshold ? Math.max(1, threshold / 4) : data.length;
+
+        ComputeScheduler.current().parallelFor(0, data.length, grain, (start, end) -> {
+            if (derivative) {
+                derivative(data, start, end - start);
+            } else {
+                activate(data, start, end - start);
+            }
+        });
+    }
 }
@@ -1,6 +1,7 @@
 package org.brain4j.math.activation.impl;
 
 import org.brain4j.math.activation.Activation;
+import org.brain4j.math.gpu.device.DeviceUtils;
 import org.brain4j.math.weightsinit.impl.NormalXavierInit;
 import org.brain4j.math.weightsinit.WeightInitialization;
 
@@ -24,6 +25,26 @@ public class GELUActivation implements Activation {
         return 0.5 * (1 + tanhTerm) + 0.5 * input * (1 - Math.pow(tanhTerm, 2)) * Math.sqrt(2 / PI) * (1 + 3 * 0.044715 * Math.pow(input, 2));
     }
 
+    @Override
+    public void activate(float[] data, int offset, int length) {
+        if (!DeviceUtils.isSimdAvailable()) {
+            Activation.super.activate(data, offset, length);
+            return;
+        }
+
+        SIMDActivations.gelu(data, offset, length);
+    }
+
+    @Override
+    public void derivative(float[] data, int offset, int length) {
+        if (!DeviceUtils.isSimdAvailable()) {
+            Activation.super.derivative(data, offset, length);
+            return;
+        }
+
+        SIMDActivations.geluDerivative(data, offset, length);
+    }
+
     @Override
     public String getKernelPrefix() {
         return "gelu";
@@ -1,6 +1,7 @@
 package org.brain4j.math.activation.impl;
 
 import org.brain4j.math.activation.Activation;
+import org.brain4j.math.gpu.device.DeviceUtils;
 import org.brain4j.math.gpu.kernel.KernelFactory;
 import org.brain4j.math.tensor.impl.GpuTensor;
 import org.brain4j.math.weightsinit.impl.NormalHeInit;
@@ -27,6 +28,26 @@ public record LeakyReLUActivation(double alpha) implements Activation {
         return input > 0 ? 1 : alpha;
     }
 
+    @Override
+    public void activate(float[] data, int offset, int length) {
+        if (!DeviceUtils.isSimdAvailable()) {
+            Activation.super.activate(data, offset, length);
+            return;
+        }
+
+        SIMDActivations.leakyRelu(data, offset, length, (float) alpha);
+    }
+
+    @Override
+    public void derivative(float[] data, int offset, int length) {
+        if (!DeviceUtils.isSimdAvailable()) {
+            Activation.super.derivative(data, offset, length);
+            return;
+        }
+
+        SIMDActivations.leakyReluDerivative(data, offset, length, (float) alpha);
+    }
+
     @Override
     public String getKernelPrefix() {
         return "leakyrelu";
@@ -4,6 +4,8 @@ import org.brain4j.math.activation.Activation;
 import org.brain4j.math.weightsinit.impl.UniformXavierInit;
 import org.brain4j.math.weightsinit.WeightInitialization;
 
+import java.util.Arrays;
+
 public class LinearActivation implements Activation {
 
     @Override
@@ -21,6 +23,16 @@ public class LinearActivation implements Activation {
         return 1;
     }
 
+    @Override
+    public void activate(float[] data, int offset, int length) {
+        // identity
+    }
+
+    @Override
+    public void derivative(float[] data, int offset, int length) {
+        Arrays.fill(data, offset, offset + length, 1f);
+    }
+
     @Override
     public String getKernelPrefix() {
         return "linear";
@@ -1,6 +1,7 @@
 package org.brain4j.math.activation.impl;
 
 import org.brain4j.math.activation.Activation;
+import org.brain4j.math.gpu.device.DeviceUtils;
 import org.brain4j.math.weightsinit.impl.NormalXavierInit;
 import org.brain4j.math.weightsinit.WeightInitialization;
 
@@ -26,6 +27,26 @@ public class MishActivation implements Activation {
         return tanhSp + input * sigmoid * (1 - tanhSp * tanhSp);
     }
 
+    @Override
+    public void activate(float[] data, int offset, int length) {
+        if (!DeviceUtils.isSimdAvailable()) {
+            Activation.super.activate(data, offset, length);
+            return;
+        }
+
+        SIMDActivations.mish(data, offset, length);
+    }
+
+    @Override
+    public void derivative(float[] data, int offset, int length) {
+        if (!DeviceUtils.isSimdAvailable()) {
+            Activation.super.derivative(data, offset, length);
+            return;
+        }
+
+        SIMDActivations.mishDerivative(data, offset, length);
+    }
+
     @Override
     public String getKernelPrefix() {
         return "mish";
@@ -1,6 +1,7 @@
 package org.brain4j.math.activation.impl;
 
 import org.brain4j.math.activation.Activation;
+import org.brain4j.math.gpu.device.DeviceUtils;
 import org.brain4j.math.weightsinit.impl.NormalHeInit;
 import org.brain4j.math.weightsinit.WeightInitialization;
 
@@ -21,6 +22,26 @@ public class ReLUActivation implements Activation {
         return input > 0 ? 1 : 0;
     }
 
+    @Override
+    public void activate(float[] data, int offset, int length) {
+        if (!DeviceUtils.isSimdAvailable()) {
+            Activation.super.activate(data, offset, length);
+            return;
+        }
+
+        SIMDActivations.relu(data, offset, length);
+    }
+
+    @Override
+    public void derivative(float[] data, int offset, int length) {
+        if (!DeviceUtils.isSimdAvailable()) {
+            Activation.super.derivative(data, offset, length);
+            return;
+        }
+
+        SIMDActivations.reluDerivative(data, offset, length);
+    }
+
     @Override
     public String getKernelPrefix() {
         return "relu";
@@ -0,0 +1,343 @@
+package org.brain4j.math.activation.impl;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.brain4j.math.commons.VectorMath;
+
+import static org.brain4j.math.Constants.PI;
+
+/**
+ * Vectorized bulk kernels of the element-wise activations. Every method overwrites
+ * {@code data[offset, offset + length)} with the activation or its derivative.
+ * <p>
+ * Transcendental functions go through {@link VectorMath}, so results differ from the
+ * scalar path by a few ulp. Only loaded when the Vector API is available.
+ */
+final class SIMDActivations {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final float GELU_SCALE = (float) Math.sqrt(2 / PI);
+    private static final float GELU_CUBIC = 0.044715f;
+    private static final float MISH_LIMIT = 20f;
+
+    private SIMDActivations() {
+    }
+
+    static void relu(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, data, i).max(0f).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            FloatVector.fromArray(SPECIES, data, i, mask).max(0f).intoArray(data, i, mask);
+        }
+    }
+
+    static void reluDerivative(float[] data, int offset, int length) {
+        stepDerivative(data, offset, length, 0f);
+    }
+
+    static void leakyRelu(float[] data, int offset, int length, float alpha) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, data, i);
+            x.max(x.mul(alpha)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            FloatVector x = FloatVector.fromArray(SPECIES, data, i, mask);
+            x.max(x.mul(alpha)).intoArray(data, i, mask);
+        }
+    }
+
+    static void leakyReluDerivative(float[] data, int offset, int length, float alpha) {
+        stepDerivative(data, offset, length, alpha);
+    }
+
+    static void elu(float[] data, int offset, int length, float alpha) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            elu(FloatVector.fromArray(SPECIES, data, i), alpha).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            elu(FloatVector.fromArray(SPECIES, data, i, mask), alpha).intoArray(data, i, mask);
+        }
+    }
+
+    static void eluDerivative(float[] data, int offset, int length, float alpha) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            eluDerivative(FloatVector.fromArray(SPECIES, data, i), alpha).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            eluDerivative(FloatVector.fromArray(SPECIES, data, i, mask), alpha).intoArray(data, i, mask);
+        }
+    }
+
+    static void gelu(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            gelu(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            gelu(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    static void geluDerivative(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            geluDerivative(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            geluDerivative(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    static void sigmoid(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            VectorMath.sigmoid(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            VectorMath.sigmoid(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    static void sigmoidDerivative(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            sigmoidDerivative(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            sigmoidDerivative(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    static void silu(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, data, i);
+            x.mul(VectorMath.sigmoid(x)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            FloatVector x = FloatVector.fromArray(SPECIES, data, i, mask);
+            x.mul(VectorMath.sigmoid(x)).intoArray(data, i, mask);
+        }
+    }
+
+    static void siluDerivative(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            siluDerivative(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            siluDerivative(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    static void tanh(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            VectorMath.tanh(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            VectorMath.tanh(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    static void tanhDerivative(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            tanhDerivative(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            tanhDerivative(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    static void softplus(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            softplus(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            softplus(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    static void mish(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, data, i);
+            x.mul(tanhSoftplus(x)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            FloatVector x = FloatVector.fromArray(SPECIES, data, i, mask);
+            x.mul(tanhSoftplus(x)).intoArray(data, i, mask);
+        }
+    }
+
+    static void mishDerivative(float[] data, int offset, int length) {
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            mishDerivative(FloatVector.fromArray(SPECIES, data, i)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            mishDerivative(FloatVector.fromArray(SPECIES, data, i, mask)).intoArray(data, i, mask);
+        }
+    }
+
+    /**
+     * Writes 1 where the value is positive and {@code negative} elsewhere.
+     */
+    private static void stepDerivative(float[] data, int offset, int length, float negative) {
+        FloatVector one = FloatVector.broadcast(SPECIES, 1f);
+        FloatVector other = FloatVector.broadcast(SPECIES, negative);
+
+        int end = offset + length;
+        int i = offset;
+
+        for (int bound = offset + SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector x = FloatVector.fromArray(SPECIES, data, i);
+            other.blend(one, x.compare(VectorOperators.GT, 0f)).intoArray(data, i);
+        }
+
+        if (i < end) {
+            VectorMask<Float> mask = SPECIES.indexInRange(i, end);
+            FloatVector x = FloatVector.fromArray(SPECIES, data, i, mask);
+            other.blend(one, x.compare(VectorOperators.GT, 0f)).intoArray(data, i, mask);
+        }
+    }
+
+    private static FloatVector elu(FloatVector x, float alpha) {
+        FloatVector negative = VectorMath.exp(x).mul(alpha).sub(1f);
+        return negative.blend(x, x.compare(VectorOperators.GT, 0f));
+    }
+
+    private static FloatVector eluDerivative(FloatVector x, float alpha) {
+        FloatVector negative = VectorMath.exp(x).mul(alpha);
+        return negative.blend(1f, x.compare(VectorOperators.GT, 0f));
+    }
+
+    /**
+     * 0.5 * x * (1 + tanh(u)) rewritten as x * sigmoid(2u), which saves the tanh.
+     */
+    private static FloatVector gelu(FloatVector x) {
+        FloatVector u = x.mul(x).fma(x.mul(GELU_CUBIC), x).mul(2 * GELU_SCALE);
+        return x.mul(VectorMath.sigmoid(u));
+    }
+
+    /**
+     * With s = sigmoid(2u): s + 2 * x * s * (1 - s) * du/dx.
+     */
+    private static FloatVector geluDerivative(FloatVector x) {
+        FloatVector x2 = x.mul(x);
+        FloatVector u = x2.fma(x.mul(GELU_CUBIC), x).mul(2 * GELU_SCALE);
+        FloatVector s = VectorMath.sigmoid(u);
+
+        FloatVector du = x2.mul(3 * GELU_CUBIC).add(1f).mul(GELU_SCALE);
+        FloatVector ds = s.neg().add(1f).mul(s);
+
+        return ds.mul(du).mul(x).fma(FloatVector.broadcast(SPECIES, 2f), s);
+    }
+
+    private static FloatVector sigmoidDerivative(FloatVector x) {
+        FloatVector s = VectorMath.sigmoid(x);
+        return s.neg().add(1f).mul(s);
+    }
+
+    private static FloatVector siluDerivative(FloatVector x) {
+        FloatVector s = VectorMath.sigmoid(x);
+        return s.neg().add(1f).mul(x).add(1f).mul(s);
+    }
+
+    private static FloatVector tanhDerivative(FloatVector x) {
+        FloatVector t = VectorMath.tanh(x);
+        return t.mul(t).neg().add(1f);
+    }
+
+    /**
+     * max(x, 0) + log(1 + e^-|x|), which never overflows.
+     */
+    private static FloatVector softplus(FloatVector x) {
+        FloatVector tail = VectorMath.exp(x.abs().neg());
+        return x.max(0f).add(VectorMath.log1pUnit(tail));
+    }
+
+    /**
+     * tanh(softplus(x)) = n / (n + 2) with n = e^x * (e^x + 2).
+     */
+    private static FloatVector tanhSoftplus(FloatVector x) {
+        FloatVector e = VectorMath.exp(x.min(MISH_LIMIT));
+        FloatVector n = e.add(2f).mul(e);
+        return n.div(n.add(2f));
+    }
+
+    private static FloatVector mishDerivative(FloatVector x) {
+        FloatVector t = tanhSoftplus(x);
+        FloatVector s = VectorMath.sigmoid(x);
+        return t.mul(t).neg().add(1f).mul(s).mul(x).add(t);
+    }
+}
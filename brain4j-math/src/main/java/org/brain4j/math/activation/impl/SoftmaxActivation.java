@@ -2,6 +2,7 @@ package org.brain4j.math.activation.impl;
 
 import org.brain4j.math.activation.Activation;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.autograd.impl.SoftmaxOperation;
 import org.brain4j.math.weightsinit.impl.UniformXavierInit;
 import org.brain4j.math.weightsinit.WeightInitialization;
 
@@ -26,11 +27,26 @@ public record SoftmaxActivation(double temperature) implements Activation {
         return input.softmax(temperature);
     }
 
+    @Override
+    public boolean isElementWise() {
+        return false;
+    }
+
     @Override
     public double derivative(double input) {
         return input * (1.0 - input);
     }
 
+    /**
+     * Gets the diagonal of the Jacobian, {@code s * (1 - s)} on the probabilities of the input.
+     * The full backward pass is computed by {@link SoftmaxOperation}.
+     */
+    @Override
+    public Tensor derivative(Tensor input) {
+        Tensor probabilities = activate(input);
+        return probabilities.times(probabilities).mul(-1).add(probabilities);
+    }
+
     @Override
     public String getKernelPrefix() {
         return "softmax";
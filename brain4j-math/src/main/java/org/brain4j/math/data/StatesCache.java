@@ -11,6 +11,7 @@ public class StatesCache {
     private final Map<Object, Tensor[]> inputStates;
     private final Map<Object, Tensor[]> outputStates;
     private final boolean keepCache;
+    private final boolean training;
 
     public static StatesCache withKeepCache() {
         return new StatesCache(true);
@@ -21,7 +22,16 @@ public class StatesCache {
     }
 
     public StatesCache(boolean keepCache) {
+        this(keepCache, keepCache);
+    }
+
+    /**
+     * @param keepCache whether the states are kept across the forward passes using this cache
+     * @param training whether a backward pass may run over the forward passes using this cache
+     */
+    public StatesCache(boolean keepCache, boolean training) {
         this.keepCache = keepCache;
+        this.training = training;
         this.inputStates = new HashMap<>();
         this.outputStates = new HashMap<>();
         this.tensorCache = new HashMap<>();
@@ -31,6 +41,10 @@ public class StatesCache {
         return keepCache;
     }
 
+    public boolean isTraining() {
+        return training;
+    }
+
     public Tensor get(Object key) {
         return tensorCache.get(key);
     }
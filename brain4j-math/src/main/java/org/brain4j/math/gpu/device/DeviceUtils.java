@@ -17,6 +17,8 @@ import java.util.List;
 import static java.nio.charset.StandardCharsets.UTF_8;
 
 public class DeviceUtils {
+
+    private static final boolean SIMD_AVAILABLE = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
     
     public static Device findDevice(String name) {
         try (MemoryStack stack = MemoryStack.stackPush()) {
@@ -163,7 +165,7 @@ public class DeviceUtils {
     }
 
     public static boolean isSimdAvailable() {
-        return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        return SIMD_AVAILABLE;
     }
 
     public static String getErrorCode(int code) {
@@ -1,20 +1,90 @@
 package org.brain4j.math.pooling;
 
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.brain4j.math.gpu.device.DeviceUtils;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
 
+import java.util.function.IntConsumer;
+
+/**
+ * A 2D pooling over the last two dimensions of a tensor.
+ * <p>
+ * Every combination of the leading dimensions (e.g. batch and channel) is an independent plane, the
+ * planes are pooled in parallel. Within a plane, the windows of {@link #LANES} consecutive outputs of a
+ * row are reduced at once: every tap of the window loads one input per output, contiguous with a unit
+ * stride and gathered otherwise, so the reduction is vectorized across the output columns.
+ */
 public abstract class PoolingProvider {
 
-    protected int stride;
-    protected int windowHeight;
-    protected int windowWidth;
+    protected static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    protected static final VectorSpecies<Integer> INDEX_SPECIES = IntVector.SPECIES_PREFERRED;
+    protected static final int LANES = SPECIES.length();
+
+    protected final int stride;
+    protected final int windowHeight;
+    protected final int windowWidth;
+
+    /** The offset of the input read by every lane, relative to the first one. */
+    protected final int[] laneOffsets;
 
     public PoolingProvider(int stride, int windowHeight, int windowWidth) {
         this.stride = stride;
         this.windowHeight = windowHeight;
         this.windowWidth = windowWidth;
+        this.laneOffsets = new int[LANES];
+
+        for (int lane = 0; lane < LANES; lane++) {
+            laneOffsets[lane] = lane * stride;
+        }
     }
 
     public abstract Tensor pool(Tensor input);
 
     public abstract Tensor backward(Tensor gradient, Tensor input);
+
+    /**
+     * @param input the pooled tensor
+     * @return the geometry of the pooling of the input
+     */
+    public PoolingShape shapeOf(Tensor input) {
+        return PoolingShape.of(input.shape(), stride, windowHeight, windowWidth);
+    }
+
+    /**
+     * Runs a task on every plane, in parallel.
+     */
+    protected static void forEachPlane(PoolingShape shape, IntConsumer task) {
+        ComputeScheduler.current().parallelForEach(0, shape.planes(), 1, task);
+    }
+
+    /**
+     * @return how many outputs of a row are computed as vectors, the others are scalar
+     */
+    protected static int vectorBound(PoolingShape shape) {
+        return DeviceUtils.isSimdAvailable() ? SPECIES.loopBound(shape.outWidth()) : 0;
+    }
+
+    /**
+     * Loads the input of {@link #LANES} consecutive outputs at the same tap.
+     */
+    protected FloatVector load(float[] data, int offset) {
+        if (stride == 1) return FloatVector.fromArray(SPECIES, data, offset);
+        return FloatVector.fromArray(SPECIES, data, offset, laneOffsets, 0);
+    }
+
+    /**
+     * Stores a vector to the inputs of {@link #LANES} consecutive outputs at the same tap, the inverse of
+     * {@link #load(float[], int)}.
+     */
+    protected void store(FloatVector vector, float[] data, int offset) {
+        if (stride == 1) {
+            vector.intoArray(data, offset);
+            return;
+        }
+
+        vector.intoArray(data, offset, laneOffsets, 0);
+    }
 }
@@ -0,0 +1,94 @@
+package org.brain4j.math.pooling;
+
+import org.brain4j.math.commons.Commons;
+
+import java.util.Arrays;
+
+/**
+ * The geometry of a 2D pooling over the last two dimensions of a tensor.
+ *
+ * @param inputShape the shape of the pooled tensor
+ * @param planes the number of independent planes, the product of the leading dimensions
+ * @param inHeight the rows of a plane
+ * @param inWidth the columns of a plane
+ * @param windowHeight the rows of a window
+ * @param windowWidth the columns of a window
+ * @param stride the step between two windows, on both axes
+ * @param outHeight the rows of a pooled plane
+ * @param outWidth the columns of a pooled plane
+ */
+public record PoolingShape(
+    int[] inputShape,
+    int planes,
+    int inHeight,
+    int inWidth,
+    int windowHeight,
+    int windowWidth,
+    int stride,
+    int outHeight,
+    int outWidth
+) {
+
+    /**
+     * Computes the geometry of a pooling.
+     * @param shape the shape of the pooled tensor, of rank 2 or more
+     * @param stride the step between two windows
+     * @param windowHeight the rows of a window
+     * @param windowWidth the columns of a window
+     * @return the geometry
+     * @throws IllegalArgumentException if the window does not fit the input
+     */
+    public static PoolingShape of(int[] shape, int stride, int windowHeight, int windowWidth) {
+        int rank = shape.length;
+
+        if (rank < 2) {
+            throw Commons.illegalArgument("Pooling requires at least a 2D tensor, got %s!", Arrays.toString(shape));
+        }
+
+        if (stride < 1 || windowHeight < 1 || windowWidth < 1) {
+            throw Commons.illegalArgument("Pooling stride and window must be positive!");
+        }
+
+        int inHeight = shape[rank - 2];
+        int inWidth = shape[rank - 1];
+
+        if (windowHeight > inHeight || windowWidth > inWidth) {
+            throw Commons.illegalArgument("Window of %sx%s does not fit an input of %sx%s!",
+                windowHeight, windowWidth, inHeight, inWidth);
+        }
+
+        int planes = 1;
+        for (int i = 0; i < rank - 2; i++) planes *= shape[i];
+
+        return new PoolingShape(
+            shape, planes, inHeight, inWidth,
+            windowHeight, windowWidth, stride,
+            (inHeight - windowHeight) / stride + 1,
+            (inWidth - windowWidth) / stride + 1
+        );
+    }
+
+    public int inArea() {
+        return inHeight * inWidth;
+    }
+
+    public int outArea() {
+        return outHeight * outWidth;
+    }
+
+    public int windowArea() {
+        return windowHeight * windowWidth;
+    }
+
+    /**
+     * @return the input shape with the pooled plane in place of the last two dimensions
+     */
+    public int[] outputShape() {
+        int[] shape = inputShape.clone();
+
+        shape[shape.length - 2] = outHeight;
+        shape[shape.length - 1] = outWidth;
+
+        return shape;
+    }
+}
@@ -0,0 +1,156 @@
+package org.brain4j.math.pooling.impl;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import org.brain4j.math.Tensors;
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.pooling.PoolingProvider;
+import org.brain4j.math.pooling.PoolingShape;
+import org.brain4j.math.tensor.Tensor;
+
+/**
+ * Average pooling. The backward pass spreads the gradient of every output evenly over its window.
+ * <p>
+ * Rows with fewer outputs than vector lanes, like the single output of a global pooling, are vectorized
+ * across the columns of the window instead.
+ */
+public class AveragePooling extends PoolingProvider {
+
+    public AveragePooling(int stride, int windowHeight, int windowWidth) {
+        super(stride, windowHeight, windowWidth);
+    }
+
+    @Override
+    public Tensor pool(Tensor input) {
+        PoolingShape shape = shapeOf(input);
+
+        float[] inputData = input.contiguous().data();
+        float[] outputData = new float[shape.planes() * shape.outArea()];
+
+        forEachPlane(shape, plane -> poolPlane(shape, inputData, outputData, plane));
+
+        return Tensors.create(shape.outputShape(), outputData);
+    }
+
+    @Override
+    public Tensor backward(Tensor gradOutput, Tensor input) {
+        PoolingShape shape = shapeOf(input);
+
+        float[] gradIn = new float[input.elements()];
+        float[] gradOut = gradOutput.contiguous().data();
+
+        forEachPlane(shape, plane -> backwardPlane(shape, gradOut, gradIn, plane));
+
+        return Tensors.create(input.shape(), gradIn);
+    }
+
+    private void poolPlane(PoolingShape shape, float[] in, float[] out, int plane) {
+        int inW = shape.inWidth();
+        int offsetIn = plane * shape.inArea();
+        int bound = vectorBound(shape);
+        float scale = 1f / shape.windowArea();
+
+        for (int h = 0; h < shape.outHeight(); h++) {
+            int rowStart = offsetIn + h * shape.stride() * inW;
+            int outIdx = plane * shape.outArea() + h * shape.outWidth();
+            int w = 0;
+
+            for (; w < bound; w += LANES, outIdx += LANES) {
+                int windowStart = rowStart + w * shape.stride();
+                FloatVector sum = FloatVector.zero(SPECIES);
+
+                for (int kh = 0; kh < shape.windowHeight(); kh++) {
+                    for (int kw = 0; kw < shape.windowWidth(); kw++) {
+                        sum = sum.add(load(in, windowStart + kh * inW + kw));
+                    }
+                }
+
+                sum.mul(scale).intoArray(out, outIdx);
+            }
+
+            for (; w < shape.outWidth(); w++, outIdx++) {
+                int windowStart = rowStart + w * shape.stride();
+                float sum = 0;
+
+                for (int kh = 0; kh < shape.windowHeight(); kh++) {
+                    sum += rowSum(in, windowStart + kh * inW, shape.windowWidth());
+                }
+
+                out[outIdx] = sum * scale;
+            }
+        }
+    }
+
+    private void backwardPlane(PoolingShape shape, float[] gradOut, float[] gradIn, int plane) {
+        int inW = shape.inWidth();
+        int offsetIn = plane * shape.inArea();
+        int bound = vectorBound(shape);
+        float scale = 1f / shape.windowArea();
+
+        for (int h = 0; h < shape.outHeight(); h++) {
+            int rowStart = offsetIn + h * shape.stride() * inW;
+            int outIdx = plane * shape.outArea() + h * shape.outWidth();
+            int w = 0;
+
+            // At a given tap every lane reads a distinct input, so the scattered sums never collide
+            for (; w < bound; w += LANES, outIdx += LANES) {
+                int windowStart = rowStart + w * shape.stride();
+                FloatVector gradient = FloatVector.fromArray(SPECIES, gradOut, outIdx).mul(scale);
+
+                for (int kh = 0; kh < shape.windowHeight(); kh++) {
+                    for (int kw = 0; kw < shape.windowWidth(); kw++) {
+                        int tap = windowStart + kh * inW + kw;
+                        store(load(gradIn, tap).add(gradient), gradIn, tap);
+                    }
+                }
+            }
+
+            for (; w < shape.outWidth(); w++, outIdx++) {
+                int windowStart = rowStart + w * shape.stride();
+                float gradient = gradOut[outIdx] * scale;
+
+                for (int kh = 0; kh < shape.windowHeight(); kh++) {
+                    rowAdd(gradIn, windowStart + kh * inW, shape.windowWidth(), gradient);
+                }
+            }
+        }
+    }
+
+    private static float rowSum(float[] data, int offset, int length) {
+        int i = 0;
+        float sum = 0;
+
+        if (DeviceUtils.isSimdAvailable() && length >= LANES) {
+            int bound = SPECIES.loopBound(length);
+            FloatVector acc = FloatVector.zero(SPECIES);
+
+            for (; i < bound; i += LANES) {
+                acc = acc.add(FloatVector.fromArray(SPECIES, data, offset + i));
+            }
+
+            sum = acc.reduceLanes(VectorOperators.ADD);
+        }
+
+        for (; i < length; i++) {
+            sum += data[offset + i];
+        }
+
+        return sum;
+    }
+
+    private static void rowAdd(float[] data, int offset, int length, float value) {
+        int i = 0;
+
+        if (DeviceUtils.isSimdAvailable() && length >= LANES) {
+            int bound = SPECIES.loopBound(length);
+
+            for (; i < bound; i += LANES) {
+                FloatVector.fromArray(SPECIES, data, offset + i).add(value).intoArray(data, offset + i);
+            }
+        }
+
+        for (; i < length; i++) {
+            data[offset + i] += value;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.brain4j.math.pooling.impl;
+
+import org.brain4j.math.pooling.PoolingShape;
+import org.brain4j.math.tensor.Tensor;
+
+import java.util.Arrays;
+
+/**
+ * Global average pooling: the average of every plane, as an average pooling whose window is the whole
+ * plane. The two pooled dimensions are dropped, so a {@code [batch, channels, height, width]} input
+ * becomes {@code [batch, channels]}, ready for a classifier head. The gradient of that shape has the
+ * layout of the pooled planes, so the backward pass is the one of the average pooling.
+ */
+public class GlobalAveragePooling extends AveragePooling {
+
+    public GlobalAveragePooling() {
+        super(1, 1, 1);
+    }
+
+    @Override
+    public PoolingShape shapeOf(Tensor input) {
+        int[] shape = input.shape();
+        int rank = shape.length;
+
+        // The window of a rank 1 tensor is left to PoolingShape to reject
+        if (rank < 2) return super.shapeOf(input);
+
+        return PoolingShape.of(shape, 1, shape[rank - 2], shape[rank - 1]);
+    }
+
+    @Override
+    public Tensor pool(Tensor input) {
+        return super.pool(input).reshape(reducedShape(input.shape()));
+    }
+
+    private static int[] reducedShape(int[] shape) {
+        if (shape.length == 2) return new int[] { 1 };
+        return Arrays.copyOf(shape, shape.length - 2);
+    }
+}
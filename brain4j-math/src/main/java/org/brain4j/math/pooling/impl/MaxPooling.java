@@ -1,119 +1,147 @@
 package org.brain4j.math.pooling.impl;
 
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
 import org.brain4j.math.Tensors;
 import org.brain4j.math.pooling.PoolingProvider;
+import org.brain4j.math.pooling.PoolingShape;
 import org.brain4j.math.tensor.Tensor;
 
-import java.util.stream.IntStream;
+import java.util.Arrays;
 
+/**
+ * Max pooling. The argmax of every window, as an index within its input plane, can be recorded while
+ * pooling: the backward pass is then a scatter of the output gradient to those indices. Without them it
+ * pools the input again to find them.
+ */
 public class MaxPooling extends PoolingProvider {
 
-    private int[] xCoords;
-    private int[] yCoords;
-    private int outHeight;
-    private int outWidth;
+    private final boolean recordIndices;
+    private int[] pooledShape;
+    private int[] indices;
 
     public MaxPooling(int stride, int windowHeight, int windowWidth) {
+        this(stride, windowHeight, windowWidth, false);
+    }
+
+    /**
+     * @param recordIndices whether to keep the argmax of every window for {@link #backward(Tensor, Tensor)}
+     */
+    public MaxPooling(int stride, int windowHeight, int windowWidth, boolean recordIndices) {
         super(stride, windowHeight, windowWidth);
+        this.recordIndices = recordIndices;
     }
 
     @Override
     public Tensor pool(Tensor input) {
-        int[] shape = input.shape();
-        int rank = input.rank();
+        PoolingShape shape = shapeOf(input);
+
+        float[] inputData = input.contiguous().data();
+        float[] outputData = new float[shape.planes() * shape.outArea()];
+        int[] argmax = recordIndices ? new int[outputData.length] : null;
+
+        forEachPlane(shape, plane -> poolPlane(shape, inputData, outputData, argmax, plane));
+
+        this.pooledShape = input.shape();
+        this.indices = argmax;
+
+        return Tensors.create(shape.outputShape(), outputData);
+    }
+
+    @Override
+    public Tensor backward(Tensor gradOutput, Tensor input) {
+        int[] argmax = indices;
 
-        if (rank < 2) {
-            throw new IllegalArgumentException("Pooling requires at least 2D tensor.");
+        if (argmax == null || !Arrays.equals(pooledShape, input.shape())) {
+            MaxPooling pooling = new MaxPooling(stride, windowHeight, windowWidth, true);
+            pooling.pool(input);
+            argmax = pooling.indices;
         }
 
-        int inHeight = shape[rank - 2];
-        int inWidth = shape[rank - 1];
-        this.outHeight = (inHeight - windowHeight) / stride + 1;
-        this.outWidth = (inWidth - windowWidth) / stride + 1;
+        PoolingShape shape = shapeOf(input);
+        int[] positions = argmax;
 
-        int outerSize = 1;
-        for (int i = 0; i < rank - 2; i++) outerSize *= shape[i];
+        float[] gradIn = new float[input.elements()];
+        float[] gradOut = gradOutput.contiguous().data();
 
-        float[] inputData = input.data();
-        float[] outputData = new float[outerSize * outHeight * outWidth];
+        forEachPlane(shape, plane -> {
+            int offsetIn = plane * shape.inArea();
+            int offsetOut = plane * shape.outArea();
 
-        this.xCoords = new int[outerSize * outHeight * outWidth];
-        this.yCoords = new int[outerSize * outHeight * outWidth];
-        IntStream.range(0, outerSize).parallel().forEach(outer -> {
-            int offsetIn = outer * inHeight * inWidth;
-            int offsetOut = outer * outHeight * outWidth;
-            pool2D(inputData, outputData, offsetIn, offsetOut, inWidth);
+            for (int i = offsetOut; i < offsetOut + shape.outArea(); i++) {
+                gradIn[offsetIn + positions[i]] += gradOut[i];
+            }
         });
 
-        int[] outShape = new int[rank];
-        System.arraycopy(shape, 0, outShape, 0, rank - 2);
-        outShape[rank - 2] = outHeight;
-        outShape[rank - 1] = outWidth;
+        return Tensors.create(input.shape(), gradIn);
+    }
 
-        return Tensors.create(outShape, outputData);
+    /**
+     * @return the argmax of every window of the last pooling as an index within its input plane,
+     * or null if they were not recorded
+     */
+    public int[] indices() {
+        return indices;
     }
 
-    private void pool2D(float[] in, float[] out, int offsetIn, int offsetOut, int inW) {
-        int outIdx = offsetOut;
+    private void poolPlane(PoolingShape shape, float[] in, float[] out, int[] argmax, int plane) {
+        int inW = shape.inWidth();
+        int offsetIn = plane * shape.inArea();
+        int bound = vectorBound(shape);
 
-        for (int h = 0; h < outHeight; h++) {
-            int hStart = h * stride;
-            for (int w = 0; w < outWidth; w++) {
-                int wStart = w * stride;
-                int inBase = offsetIn + hStart * inW + wStart;
+        IntVector lanes = bound > 0 ? IntVector.fromArray(INDEX_SPECIES, laneOffsets, 0) : null;
 
-                float maxValue = Float.NEGATIVE_INFINITY;
-                int maxRel = 0;
+        for (int h = 0; h < shape.outHeight(); h++) {
+            int rowStart = h * shape.stride() * inW;
+            int outIdx = plane * shape.outArea() + h * shape.outWidth();
+            int w = 0;
 
-                for (int kh = 0, base = inBase; kh < windowHeight; kh++, base += inW) {
-                    int idx = base;
-                    for (int kw = 0; kw < windowWidth; kw++, idx++) {
-                        float value = in[idx];
+            for (; w < bound; w += LANES, outIdx += LANES) {
+                int windowStart = rowStart + w * shape.stride();
 
-                        if (value > maxValue) {
-                            maxValue = value;
-                            maxRel = kh * inW + kw;
-                        }
+                FloatVector maxValue = FloatVector.broadcast(SPECIES, Float.NEGATIVE_INFINITY);
+                IntVector maxIndex = lanes.add(windowStart);
+
+                for (int kh = 0; kh < shape.windowHeight(); kh++) {
+                    for (int kw = 0; kw < shape.windowWidth(); kw++) {
+                        int tap = windowStart + kh * inW + kw;
+
+                        FloatVector value = load(in, offsetIn + tap);
+                        VectorMask<Float> greater = value.compare(VectorOperators.GT, maxValue);
+
+                        maxValue = maxValue.blend(value, greater);
+                        if (argmax != null) maxIndex = maxIndex.blend(lanes.add(tap), greater.cast(INDEX_SPECIES));
                     }
                 }
 
-                out[outIdx] = maxValue;
-                int abs = inBase + maxRel;
-                yCoords[outIdx] = (abs - offsetIn) / inW;
-                xCoords[outIdx] = (abs - offsetIn) % inW;
-                outIdx++;
+                maxValue.intoArray(out, outIdx);
+                if (argmax != null) maxIndex.intoArray(argmax, outIdx);
             }
-        }
-    }
 
-    @Override
-    public Tensor backward(Tensor gradOutput, Tensor input) {
-        int[] shape = input.shape();
-        int rank = shape.length;
-
-        int inHeight = shape[rank - 2];
-        int inWidth = shape[rank - 1];
+            for (; w < shape.outWidth(); w++, outIdx++) {
+                int windowStart = rowStart + w * shape.stride();
 
-        int outerSize = 1;
-        for (int i = 0; i < rank - 2; i++) outerSize *= shape[i];
+                float maxValue = Float.NEGATIVE_INFINITY;
+                int maxPos = windowStart;
 
-        float[] gradIn = new float[input.elements()];
-        float[] gradOut = gradOutput.data();
+                for (int kh = 0; kh < shape.windowHeight(); kh++) {
+                    int tap = windowStart + kh * inW;
 
-        for (int outer = 0; outer < outerSize; outer++) {
-            int offsetIn = outer * inHeight * inWidth;
-            int offsetOut = outer * outHeight * outWidth;
-            backward2D(gradIn, gradOut, offsetIn, offsetOut, inWidth);
-        }
+                    for (int kw = 0; kw < shape.windowWidth(); kw++, tap++) {
+                        float value = in[offsetIn + tap];
 
-        return Tensors.create(shape, gradIn);
-    }
+                        if (value > maxValue) {
+                            maxValue = value;
+                            maxPos = tap;
+                        }
+                    }
+                }
 
-    private void backward2D(float[] gradIn, float[] gradOut, int offIn, int offOut, int inW) {
-        for (int i = 0; i < outHeight * outWidth; i++) {
-            int y = yCoords[offOut + i];
-            int x = xCoords[offOut + i];
-            gradIn[offIn + y * inW + x] += gradOut[offOut + i];
+                out[outIdx] = maxValue;
+                if (argmax != null) argmax[outIdx] = maxPos;
+            }
         }
     }
-}
\ No newline at end of file
+}
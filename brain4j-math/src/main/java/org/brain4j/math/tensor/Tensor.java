@@ -9,7 +9,9 @@ import org.brain4j.math.gpu.device.Device;
 import org.brain4j.math.tensor.autograd.AutogradContext;
 import org.brain4j.math.tensor.autograd.Operation;
 import org.brain4j.math.tensor.autograd.impl.*;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
 import org.brain4j.math.tensor.index.Range;
+import org.brain4j.math.tensor.matmul.PackedWeights;
 
 import java.util.function.Supplier;
 
@@ -83,6 +85,16 @@ public interface Tensor extends Iterable<Float> {
      * @return array containing stride for each dimension
      */
     int[] strides();
+
+    /**
+     * Returns the position of the first element of this tensor in {@link #data()}.
+     * <p>
+     * Views created by {@link #slice(Range...)} and {@link #select(int, int)} share the buffer
+     * of their parent and start somewhere inside it, every other tensor starts at zero.
+     *
+     * @return the offset of the first element in the data buffer
+     */
+    int offset();
     
     /**
      * Converts the tensor data to a byte array.
@@ -179,6 +191,14 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor clone();
 
+    /**
+     * Copies the values of this tensor into a preallocated tensor, without allocating.
+     * @param out the destination, a contiguous CPU tensor with the same shape
+     * @return the destination
+     * @throws IllegalArgumentException if the destination is not a contiguous CPU tensor of the same shape
+     */
+    Tensor into(Tensor out);
+
     /**
      * Adds this tensor with another tensor element-wise.
      * @param other the tensor to add
@@ -194,6 +214,16 @@ public interface Tensor extends Iterable<Float> {
     default Tensor plus(Tensor other) {
         return clone().add(other);
     }
+
+    /**
+     * Adds another tensor to this one element-wise, writing the result into a preallocated tensor.
+     * @param other the tensor to add
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor plus(Tensor other, Tensor out) {
+        return plus(other).into(out);
+    }
     
     /**
      * Adds this tensor with a constant value element-wise.
@@ -211,6 +241,16 @@ public interface Tensor extends Iterable<Float> {
         return clone().add(value);
     }
 
+    /**
+     * Adds a constant value to this tensor element-wise, writing the result into a preallocated tensor.
+     * @param value the constant value to add
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor plus(double value, Tensor out) {
+        return plus(value).into(out);
+    }
+
     /**
      * Subtracts another tensor from this tensor element-wise.
      * @param other the tensor to subtract
@@ -226,6 +266,16 @@ public interface Tensor extends Iterable<Float> {
     default Tensor minus(Tensor other) {
         return clone().sub(other);
     }
+
+    /**
+     * Subtracts another tensor from this one element-wise, writing the result into a preallocated tensor.
+     * @param other the tensor to subtract
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor minus(Tensor other, Tensor out) {
+        return minus(other).into(out);
+    }
     
     /**
      * Subtracts a constant value from this tensor element-wise.
@@ -243,6 +293,16 @@ public interface Tensor extends Iterable<Float> {
         return clone().sub(value);
     }
 
+    /**
+     * Subtracts a constant value from this tensor element-wise, writing the result into a preallocated tensor.
+     * @param value the constant value to subtract
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor minus(double value, Tensor out) {
+        return minus(value).into(out);
+    }
+
     /**
      * Multiplies this tensor with another tensor element-wise.
      * @param other the tensor to multiply
@@ -258,6 +318,16 @@ public interface Tensor extends Iterable<Float> {
     default Tensor times(Tensor other) {
         return clone().mul(other);
     }
+
+    /**
+     * Multiplies this tensor by another one element-wise, writing the result into a preallocated tensor.
+     * @param other the tensor to multiply by
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor times(Tensor other, Tensor out) {
+        return times(other).into(out);
+    }
     
     /**
      * Multiplies this tensor with a constant value element-wise.
@@ -275,6 +345,16 @@ public interface Tensor extends Iterable<Float> {
         return clone().mul(value);
     }
 
+    /**
+     * Multiplies this tensor by a constant value element-wise, writing the result into a preallocated tensor.
+     * @param value the constant value to multiply by
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor times(double value, Tensor out) {
+        return times(value).into(out);
+    }
+
     /**
      * Divides this tensor by another tensor element-wise.
      * @param other the tensor to divide by
@@ -291,6 +371,16 @@ public interface Tensor extends Iterable<Float> {
         return clone().div(other);
     }
 
+    /**
+     * Divides this tensor by another one element-wise, writing the result into a preallocated tensor.
+     * @param other the tensor to divide by
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor divide(Tensor other, Tensor out) {
+        return divide(other).into(out);
+    }
+
     /**
      * Divides this tensor by a constant value element-wise.
      * @param value the constant value to divide by
@@ -307,6 +397,16 @@ public interface Tensor extends Iterable<Float> {
         return clone().div(value);
     }
 
+    /**
+     * Divides this tensor by a constant value element-wise, writing the result into a preallocated tensor.
+     * @param value the constant value to divide by
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor divide(double value, Tensor out) {
+        return divide(value).into(out);
+    }
+
     /**
      * Raises each element of the tensor to the power of the given value.
      * @param value the exponent
@@ -364,6 +464,53 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor matmul(Tensor other);
 
+    /**
+     * Performs matrix multiplication, writing the product into a preallocated tensor.
+     * @param other the right-hand operand
+     * @param out the destination, of shape {@code [..., m, p]}, not sharing data with the operands
+     * @return the destination
+     * @see #matmul(Tensor)
+     */
+    default Tensor matmul(Tensor other, Tensor out) {
+        return matmul(other).into(out);
+    }
+
+    /**
+     * Performs matrix multiplication against weights packed ahead of time.
+     * The result is the same as {@code matmul(weights.source())}, without repacking the weights.
+     *
+     * @param weights the packed right-hand operand, of shape {@code [n, p]}
+     * @return a new tensor containing the matrix product, with shape {@code [..., m, p]}
+     * @throws IllegalArgumentException if the inner dimensions do not match
+     * @see PackedWeights
+     */
+    Tensor matmul(PackedWeights weights);
+
+    /**
+     * Computes {@code activation(this @ weights + bias)}, the forward pass of a fully connected layer.
+     * <p>
+     * On the CPU the bias and any element-wise activation are applied to each block of the
+     * output right after it is computed, instead of in two further passes over the whole result.
+     *
+     * @param weights the weights, of shape {@code [n, p]}
+     * @param bias the bias, of {@code p} elements, or null
+     * @param activation the activation function, or null
+     * @return a new tensor of shape {@code [..., m, p]}
+     * @throws IllegalArgumentException if the shapes are not compatible for matrix multiplication
+     */
+    Tensor linear(Tensor weights, Tensor bias, Activation activation);
+
+    /**
+     * Computes {@code activation(this @ weights + bias)} against weights packed ahead of time.
+     *
+     * @param weights the packed weights, of shape {@code [n, p]}
+     * @param bias the bias, of {@code p} elements, or null
+     * @param activation the activation function, or null
+     * @return a new tensor of shape {@code [..., m, p]}
+     * @see #linear(Tensor, Tensor, Activation)
+     */
+    Tensor linear(PackedWeights weights, Tensor bias, Activation activation);
+
     /**
      * Computes a convolution between this tensor and the specified kernel.
      * <p>
@@ -389,6 +536,21 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor convolve(Tensor kernel);
 
+    /**
+     * Computes a convolution between this tensor and the specified kernel, with the given stride,
+     * padding and dilation.
+     * <p>
+     * For an input of height {@code h} and a kernel of height {@code k}, the output height is
+     * {@code (h + 2 * padding - dilation * (k - 1) - 1) / stride + 1}, and likewise for the width.
+     *
+     * @param kernel the kernel tensor to use for convolution.
+     * @param parameters the stride, padding and dilation.
+     * @return a new tensor resulting from the convolution.
+     * @throws IllegalArgumentException if tensor dimensions are not compatible.
+     * @see #convolve(Tensor)
+     */
+    Tensor convolve(Tensor kernel, ConvolveParameters parameters);
+
     /**
      * Performs a layer normalization along this tensor.
      * @param epsilon the epsilon to avoid division by zero
@@ -418,12 +580,14 @@ public interface Tensor extends Iterable<Float> {
     
     /**
      * Squeezes the tensor by removing all dimensions which are equal to one.
+     * The result is a view sharing the data of this tensor.
      * @return the squeezed tensor
      */
     Tensor squeeze();
 
     /**
-     * Squeezes the tensor by removing the select dimension if it's equal to one
+     * Squeezes the tensor by removing the select dimension if it's equal to one.
+     * The result is a view sharing the data of this tensor.
      * @param dimension the dimension to remove
      * @return the squeezed tensor
      */
@@ -437,39 +601,43 @@ public interface Tensor extends Iterable<Float> {
 
     /**
      * Broadcasts this tensor to match another shape.
+     * <p>
+     * Dimensions of size one (and missing leading dimensions) are repeated with a stride of zero,
+     * so the result is a view sharing the data of this tensor. The view is read-only: binary in-place
+     * operations on it throw, call {@link #contiguous()} or {@link #clone()} to get a writable copy.
      * @param targetShape the wanted shape
-     * @return a copy of the current tensor, with the target shape
+     * @return a broadcast view of the current tensor, with the target shape
      */
     Tensor broadcast(int[] targetShape);
 
     /**
      * Broadcasts this tensor to match the shape of the other tensor.
      * @param other the other tensor
-     * @return a copy of the current tensor, with the same shape as the other one
+     * @return a broadcast view of the current tensor, with the same shape as the other one
      */
     Tensor broadcastLike(Tensor other);
 
     /**
-     * Unsqueezes the tensor by adding a dimension with one at the specified dimension
+     * Unsqueezes the tensor by adding a dimension with one at the specified dimension.
+     * The result is a view sharing the data of this tensor.
      * @param dimension the dimension index
      * @return the unsqueezed tensor
      */
     Tensor unsqueeze(int dimension);
     
     /**
-     * Computes a lazy-transposition of this tensor.
-     * This operation has complexity O(1) if the normal matrix multiplication
-     * provider is used. When SIMD is enabled, this operation delegates to
-     * a high-performance in place transposition.
+     * Computes a lazy-transposition of the last two dimensions of this tensor.
+     * This operation has complexity O(1): the result is a strided view sharing
+     * the data buffer of this tensor, which matrix multiplication consumes directly.
      * @return a new transposed tensor.
      */
     Tensor transpose();
     
     /**
      * Computes a lazy-transposition of this tensor.
-     * This operation has complexity O(1) if the normal matrix multiplication
-     * provider is used. When SIMD is enabled, this operation delegates to
-     * a high-performance in place transposition.
+     * Swapping the last two dimensions has complexity O(1) and returns a strided view.
+     * When SIMD is enabled, swapping any other pair of dimensions delegates to
+     * a high-performance transposition into a new contiguous buffer.
      * @param dim1 the first dimension to transpose
      * @param dim2 the second dimension to transpose
      * @return a new transposed tensor.
@@ -481,6 +649,31 @@ public interface Tensor extends Iterable<Float> {
      * @return true if the tensor is transposed, false otherwise
      */
     boolean transposed();
+
+    /**
+     * Gets whether the elements of this tensor are laid out in row-major order
+     * in its data buffer, without gaps, offset or permuted strides.
+     * @return true if the data buffer holds exactly the values of this tensor in row-major order, false otherwise
+     */
+    boolean isContiguous();
+
+    /**
+     * Gets whether this tensor is a broadcast view, i.e. it repeats some values along a dimension with stride zero.
+     * @return true if any dimension larger than one has a zero stride
+     */
+    boolean isBroadcastView();
+
+    /**
+     * Returns a tensor with the same values laid out in row-major order.
+     * <p>
+     * If this tensor is already contiguous it is returned as is, otherwise the
+     * strided view is copied into a new buffer. Kernels which index the data buffer
+     * linearly should call this before reading {@link #data()}.
+     *
+     * @implNote the copied tensor will not have an active autograd context
+     * @return this tensor if contiguous, a contiguous copy otherwise
+     */
+    Tensor contiguous();
     /**
      * Computes and returns the sum of all elements in the tensor.
      * @return the sum of all values in the tensor as a double
@@ -531,6 +724,18 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor sum(int dim, boolean keepDim);
 
+    /**
+     * Computes the sum of elements along the specified dimension into a preallocated tensor.
+     *
+     * @param dim the dimension along which to sum the elements, -1 to specify the last dimension
+     * @param keepDim if true, retains the reduced dimension with size 1; otherwise, the dimension is removed
+     * @param out the destination, with the shape of the result
+     * @return the destination
+     */
+    default Tensor sum(int dim, boolean keepDim, Tensor out) {
+        return sum(dim, keepDim).into(out);
+    }
+
     /**
      * Computes the mean of elements along the specified dimension.
      *
@@ -541,6 +746,18 @@ public interface Tensor extends Iterable<Float> {
      * @apiNote the returned tensor preserves the autograd context of the input
      */
     Tensor mean(int dim, boolean keepDim);
+
+    /**
+     * Computes the mean of elements along the specified dimension into a preallocated tensor.
+     *
+     * @param dim the dimension along which to compute the mean, -1 to specify the last dimension
+     * @param keepDim if true, retains the reduced dimension with size 1; otherwise, the dimension is removed
+     * @param out the destination, with the shape of the result
+     * @return the destination
+     */
+    default Tensor mean(int dim, boolean keepDim, Tensor out) {
+        return mean(dim, keepDim).into(out);
+    }
     
     /**
      * Computes the variance of elements along the specified dimension.
@@ -559,6 +776,38 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor variance(Tensor mean, int dim, boolean keepDim);
 
+    /**
+     * Computes the maximum of elements along the specified dimension.
+     * @param dim the dimension to reduce, -1 to specify the last dimension
+     * @param keepDim whether to keep the reduced dimension with size 1
+     * @return a new tensor containing the maximum along the specified dimension
+     */
+    Tensor max(int dim, boolean keepDim);
+
+    /**
+     * Computes the minimum of elements along the specified dimension.
+     * @param dim the dimension to reduce, -1 to specify the last dimension
+     * @param keepDim whether to keep the reduced dimension with size 1
+     * @return a new tensor containing the minimum along the specified dimension
+     */
+    Tensor min(int dim, boolean keepDim);
+
+    /**
+     * Computes the index of the first maximum along the specified dimension.
+     * @param dim the dimension to reduce, -1 to specify the last dimension
+     * @param keepDim whether to keep the reduced dimension with size 1
+     * @return a new tensor containing the indices, stored as floats
+     */
+    Tensor argmax(int dim, boolean keepDim);
+
+    /**
+     * Computes {@code log(sum(exp(x)))} along the specified dimension, without overflowing on large values.
+     * @param dim the dimension to reduce, -1 to specify the last dimension
+     * @param keepDim whether to keep the reduced dimension with size 1
+     * @return a new tensor containing the result along the specified dimension
+     */
+    Tensor logSumExp(int dim, boolean keepDim);
+
     /**
      * Computes the sign of each element in the tensor.
      * <p>
@@ -598,21 +847,39 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor activate(Activation activation);
 
+    /**
+     * Activates all the elements of this tensor into a preallocated tensor.
+     * @param activation the activation function
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor activate(Activation activation, Tensor out) {
+        return activate(activation).into(out);
+    }
+
     /**
      * Selects a sub-tensor from this tensor, given the specified dimension
-     * and index.
+     * and index. The selected dimension is removed from the result.
+     * <p>
+     * The result is a view sharing the data of this tensor, so in-place operations on it
+     * update this tensor as well.
      *
      * @param dim the dimension to select from
      * @param index the index in the specified dimension to select
-     * @return a new tensor with the selected values
+     * @return a view of the selected values
+     * @throws IndexOutOfBoundsException if the index is out of bounds
      */
     Tensor select(int dim, int index);
 
     /**
      * Slices the tensor according to the specified ranges for each dimension.
+     * <p>
+     * The result is a view sharing the data of this tensor, with an offset and scaled strides,
+     * so in-place operations on it update this tensor as well. Call {@link #clone()} to get an
+     * independent copy.
      *
      * @param ranges the ranges specifying the slice for each dimension
-     * @return a new tensor containing the sliced data
+     * @return a view of the sliced data
      * @throws IllegalArgumentException if more ranges are specified than the number of dimensions
      */
     Tensor slice(Range... ranges);
@@ -753,6 +1020,16 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor matmulGrad(Tensor other);
 
+    /**
+     * Delegates to {@link #forward(Operation, Tensor...)} using {@link LinearOperation}, followed
+     * by {@link #activateGrad(Activation)} so the pre-activation is kept as its own node.
+     * @param weights the weights, of shape {@code [n, p]}
+     * @param bias the bias, of {@code p} elements, or null
+     * @param activation the activation function, or null
+     * @return the resulting tensor from the operation
+     */
+    Tensor linearGrad(Tensor weights, Tensor bias, Activation activation);
+
     /**
      * Delegates to {@link #forward(Operation, Tensor)} using {@link ConvolveOperation}.
      * @param other the convolution kernel
@@ -760,6 +1037,23 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor convolveGrad(Tensor other);
 
+    /**
+     * Delegates to {@link #forward(Operation, Tensor)} using {@link ConvolveOperation}.
+     * @param other the convolution kernel
+     * @param parameters the stride, padding and dilation
+     * @return the resulting tensor from the operation
+     */
+    Tensor convolveGrad(Tensor other, ConvolveParameters parameters);
+
+    /**
+     * Delegates to {@link #forward(Operation, Tensor...)} using {@link LayerNormOperation}.
+     * @param weights the scale of each feature, or null
+     * @param bias the shift of each feature, or null
+     * @param epsilon the epsilon to avoid division by zero
+     * @return the normalized, scaled and shifted tensor
+     */
+    Tensor layerNormGrad(Tensor weights, Tensor bias, double epsilon);
+
     /**
      * Delegates to {@link #forward(Operation, Tensor)} using {@link MaxPoolOperation}.
      * @param stride the stride to use on the pooling
@@ -769,6 +1063,21 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor maxPoolGrad(int stride, int windowHeight, int windowWidth);
 
+    /**
+     * Delegates to {@link #forward(Operation)} using a {@link PoolOperation} over an average pooling.
+     * @param stride the stride to use on the pooling
+     * @param windowHeight the window height of the pooling
+     * @param windowWidth the window width of the pooling
+     * @return the pooling result in a new tensor
+     */
+    Tensor avgPoolGrad(int stride, int windowHeight, int windowWidth);
+
+    /**
+     * Delegates to {@link #forward(Operation)} using a {@link PoolOperation} over a global average pooling.
+     * @return the average of every plane of the last two dimensions, which are dropped
+     */
+    Tensor globalAvgPoolGrad();
+
     /**
      * Delegates to {@link #forward(Operation, Tensor)} using {@link TransposeOperation}.
      * @return the resulting tensor from the operation
@@ -806,14 +1115,14 @@ public interface Tensor extends Iterable<Float> {
 
     /**
      * Delegates to {@link #forward(Operation, Tensor)} using {@link SqueezeOperation} and no parameters.
-     * @return a clone of this tensor with the squeezed shape
+     * @return a view of this tensor with the squeezed shape
      */
     Tensor squeezeGrad();
 
     /**
      * Delegates to {@link #forward(Operation, Tensor)} using {@link SqueezeOperation} and no parameters.
      * @param dimension the dimension to squeeze on
-     * @return a clone of this tensor with the squeezed shape
+     * @return a view of this tensor with the squeezed shape
      */
     Tensor squeezeGrad(int dimension);
     
@@ -836,6 +1145,16 @@ public interface Tensor extends Iterable<Float> {
      */
     Tensor softmax(double temperature);
 
+    /**
+     * Applies softmax with the specified temperature into a preallocated tensor.
+     * @param temperature a parameter indicating how much to smooth the distribution
+     * @param out the destination, with the shape of this tensor
+     * @return the destination
+     */
+    default Tensor softmax(double temperature, Tensor out) {
+        return softmax(temperature).into(out);
+    }
+
     /**
      * Gets a string containing all the values of this tensor in the specified format.
      * @param format the string format
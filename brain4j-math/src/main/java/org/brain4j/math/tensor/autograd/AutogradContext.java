@@ -1,12 +1,17 @@
 package org.brain4j.math.tensor.autograd;
 
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.CpuTensor;
+import org.brain4j.math.tensor.pool.BufferPool;
+
+import java.util.Arrays;
 
 public class AutogradContext {
 
     private final boolean requiresGrad;
     private Tensor[] inputs;
     private Tensor grad;
+    private Tensor buffer;
     private Operation operation;
     private int expectedContributions = 0;
     private int receivedContributions = 0;
@@ -17,6 +22,11 @@ public class AutogradContext {
     }
 
     public void zeroGrad() {
+        // The gradient of a persistent tensor, like a weight, is written into the same buffer next time
+        if (grad instanceof CpuTensor) {
+            this.buffer = BufferPool.keep(grad);
+        }
+
         this.grad = null;
         this.receivedContributions = 0;
         this.expectedContributions = 0;
@@ -50,7 +60,7 @@ public class AutogradContext {
     public void backward(Tensor gradOutput) {
         if (!requiresGrad) return;
         
-        this.grad = grad == null ? gradOutput.clone() : grad.add(gradOutput.broadcastLike(grad));
+        this.grad = grad == null ? firstContribution(gradOutput) : grad.add(gradOutput.broadcastLike(grad));
 
         receivedContributions++;
 
@@ -71,6 +81,14 @@ public class AutogradContext {
         }
     }
 
+    private Tensor firstContribution(Tensor gradOutput) {
+        if (gradOutput instanceof CpuTensor && buffer != null && Arrays.equals(buffer.shape(), gradOutput.shape())) {
+            return gradOutput.into(buffer);
+        }
+
+        return gradOutput.clone();
+    }
+
     public Tensor[] inputs() {
         return inputs;
     }
@@ -19,7 +19,7 @@ public record ActivationOperation(Activation activation) implements Operation {
     @Override
     public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
         Tensor derivative = activation.derivative(inputs[0]); // ∂activation/∂x
-        Tensor gradInput = gradOutput.times(derivative); // Chain rule: dL/dx = dL/dy * dy/dx
+        Tensor gradInput = derivative.mul(gradOutput); // Chain rule: dL/dx = dL/dy * dy/dx, in place on the fresh derivative
         
         return new Tensor[] { gradInput };
     }
@@ -12,6 +12,7 @@ public class AddOperation implements Operation {
     
     @Override
     public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
-        return new Tensor[] { gradOutput.clone(), gradOutput.clone() };
+        // The receiving contexts copy the gradient before accumulating into it
+        return new Tensor[] { gradOutput, gradOutput };
     }
 } 
\ No newline at end of file
@@ -3,61 +3,65 @@ package org.brain4j.math.tensor.autograd.impl;
 import org.brain4j.math.Tensors;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.autograd.Operation;
-import org.brain4j.math.tensor.index.Range;
-
-import java.util.stream.IntStream;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.parallel.ParallelConvolve;
 
+/**
+ * A convolution of an input with filters, optionally followed by the addition of one bias per filter,
+ * given as a third input of shape {@code [filters]}.
+ */
 public class ConvolveOperation implements Operation {
 
-    @Override
-    public Tensor compute(Tensor... inputs) {
-        return Tensors.convolve(inputs[0], inputs[1]);
-    }
-
-    @Override
-    public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
-        Tensor A = inputs[0]; // input
-        Tensor B = inputs[1]; // filter
-
-        int[] aShape = A.shape();
-        int[] bShape = B.shape();
+    private final ConvolveParameters parameters;
+    private final boolean bias;
 
-        int batch = aShape[0];
-        int inChannels = aShape[1];
-        int inHeight = aShape[2];
-        int inWidth = aShape[3];
+    public ConvolveOperation() {
+        this(ConvolveParameters.DEFAULT);
+    }
 
-        int numFilters = bShape[0];
-        int filterHeight = bShape[2];
-        int filterWidth = bShape[3];
+    public ConvolveOperation(ConvolveParameters parameters) {
+        this(parameters, false);
+    }
 
-        int outHeight = gradOutput.shape()[2];
-        int outWidth = gradOutput.shape()[3];
+    /**
+     * @param parameters the stride, padding, dilation and groups
+     * @param bias whether a bias per filter is given as the third input
+     */
+    public ConvolveOperation(ConvolveParameters parameters, boolean bias) {
+        this.parameters = parameters;
+        this.bias = bias;
+    }
 
-        Tensor gradA = Tensors.zerosLike(A);
-        Tensor gradB = Tensors.zerosLike(B);
+    public ConvolveParameters parameters() {
+        return parameters;
+    }
 
-        int batchSize = inChannels * inHeight * inWidth;
-        float[] gradAData = gradA.data();
+    public boolean hasBias() {
+        return bias;
+    }
 
-        IntStream.range(0, batch).parallel().forEach(b -> {
-            Tensor inputBatch = A.slice(Range.point(b)).squeeze(0); // [C_in, H, W]
-            Tensor dOutBatch = gradOutput.slice(Range.point(b)); // [F, H_out, W_out]
+    @Override
+    public int requiredInputs() {
+        return bias ? 3 : 2;
+    }
 
-            Tensor X_col = Tensors.im2col(inputBatch, filterHeight, filterWidth);
-            Tensor W_col = B.reshape(numFilters, inChannels * filterHeight * filterWidth);
+    @Override
+    public Tensor compute(Tensor... inputs) {
+        Tensor output = Tensors.convolve(inputs[0], inputs[1], parameters);
+        if (!bias) return output;
 
-            Tensor dY_col = dOutBatch.reshape(numFilters, outHeight * outWidth);
-            Tensor dW_col = dY_col.matmul(X_col.transpose());
-            gradB.add(dW_col.reshape(B.shape()));
+        Tensor biases = inputs[2];
+        return output.add(biases.reshape(biases.elements(), 1, 1));
+    }
 
-            Tensor dX_col = W_col.transpose().matmul(dY_col);
-            Tensor dInputBatch = Tensors.col2im(dX_col, inChannels, inHeight, inWidth, filterHeight, filterWidth);
+    @Override
+    public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
+        Tensor[] grads = ParallelConvolve.backward(gradOutput, inputs[0], inputs[1], parameters);
+        if (!bias) return grads;
 
-            float[] dInputData = dInputBatch.data();
-            System.arraycopy(dInputData, 0, gradAData, b * batchSize, batchSize);
-        });
+        // The bias of a filter is added to every position of its planes of the [batch, filters, h, w] output
+        Tensor gradBias = gradOutput.sum(0, false).sum(2, false).sum(1, false);
 
-        return new Tensor[]{ gradA, gradB };
+        return new Tensor[] { grads[0], grads[1], gradBias.reshape(inputs[2].shape()) };
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,8 @@ package org.brain4j.math.tensor.autograd.impl;
 
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.autograd.Operation;
+import org.brain4j.math.tensor.lazy.LazyEvaluation;
+import org.brain4j.math.tensor.lazy.LazyScope;
 
 public class DivOperation implements Operation {
 
@@ -15,12 +17,14 @@ public class DivOperation implements Operation {
         Tensor a = inputs[0];
         Tensor b = inputs[1];
         
-        // d(a/b)/da = 1/b
-        Tensor gradA = gradOutput.times(b.divide(1.0f));
-        
-        // d(a/b)/db = -a/b^2
-        Tensor gradB = gradOutput.times(a.divide(b.times(b)).times(-1.0f));
-        
-        return new Tensor[] { gradA, gradB };
+        try (LazyScope scope = LazyEvaluation.openScope()) {
+            // d(a/b)/da = 1/b
+            Tensor gradA = gradOutput.divide(b);
+
+            // d(a/b)/db = -a/b^2
+            Tensor gradB = gradOutput.times(a).div(b.times(b)).mul(-1.0f);
+
+            return new Tensor[] { LazyEvaluation.evaluate(gradA), LazyEvaluation.evaluate(gradB) };
+        }
     }
 } 
\ No newline at end of file
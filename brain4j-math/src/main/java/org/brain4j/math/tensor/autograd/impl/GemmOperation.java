@@ -1,14 +1,8 @@
 package org.brain4j.math.tensor.autograd.impl;
 
 import org.brain4j.math.tensor.Tensor;
-import org.brain4j.math.tensor.autograd.Operation;
 
-public class GemmOperation implements Operation {
-
-    @Override
-    public int requiredInputs() {
-        return 3;
-    }
+public class GemmOperation extends LinearOperation {
 
     @Override
     public Tensor compute(Tensor... inputs) {
@@ -20,7 +14,7 @@ public class GemmOperation implements Operation {
             return compute(input, weight.transpose(), add);
         }
 
-        return input.matmul(weight).plus(add);
+        return input.linear(weight, add, null);
     }
 
     private boolean checkShape(Tensor a, Tensor b) {
@@ -32,19 +26,4 @@ public class GemmOperation implements Operation {
 
         return n == k;
     }
-
-    @Override
-    public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
-        Tensor a = inputs[0];
-        Tensor b = inputs[1];
-
-        // For matrix multiplication: C = A @ B
-        // dL/dA = dL/dC @ B.T
-        Tensor gradA = gradOutput.matmul(b.transpose());
-
-        // dL/dB = A.T @ dL/dC
-        Tensor gradB = a.transpose().matmul(gradOutput);
-
-        return new Tensor[] { gradA, gradB, gradOutput.clone() };
-    }
 }
@@ -1,9 +1,25 @@
 package org.brain4j.math.tensor.autograd.impl;
 
+import org.brain4j.math.Tensors;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.autograd.Operation;
+import org.brain4j.math.tensor.impl.GpuTensor;
+import org.brain4j.math.tensor.rowwise.RowKernels;
 
-public record LayerNormOperation(double epsilon) implements Operation {
+/**
+ * Layer normalization along the last dimension followed by a scale and a shift, both optional.
+ * The normalized rows and their inverse standard deviations are kept from the forward pass, so the
+ * backward pass computes the Jacobian-vector product of each row in linear time.
+ */
+public class LayerNormOperation implements Operation {
+
+    private final double epsilon;
+    private Tensor normalized;
+    private float[] inverseStd;
+
+    public LayerNormOperation(double epsilon) {
+        this.epsilon = epsilon;
+    }
 
     @Override
     public int requiredInputs() {
@@ -12,17 +28,70 @@ public record LayerNormOperation(double epsilon) implements Operation {
 
     @Override
     public Tensor compute(Tensor... inputs) {
-        return inputs[0].layerNorm(epsilon).mul(inputs[1]).add(inputs[2]);
+        Tensor input = inputs[0];
+        Tensor weight = inputs[1];
+        Tensor bias = inputs[2];
+
+        int[] shape = input.shape();
+
+        if (input instanceof GpuTensor) {
+            this.normalized = input.clone().layerNorm(epsilon);
+        } else {
+            this.normalized = Tensors.zeros(shape);
+            this.inverseStd = new float[input.elements() / shape[shape.length - 1]];
+
+            System.arraycopy(input.contiguous().data(), 0, normalized.data(), 0, normalized.elements());
+            RowKernels.layerNorm(normalized.data(), shape[shape.length - 1], epsilon, inverseStd);
+        }
+
+        Tensor result = weight == null ? normalized.clone() : normalized.times(weight);
+        return bias == null ? result : result.add(bias);
     }
 
     @Override
     public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
-        Tensor a = inputs[0];
-        Tensor b = inputs[1];
+        if (normalized == null) {
+            throw new IllegalStateException("Forward pass must be called before backward pass");
+        }
+
+        Tensor input = inputs[0];
+        Tensor weight = inputs[1];
+        Tensor bias = inputs[2];
+
+        int[] shape = input.shape();
+        int features = shape[shape.length - 1];
 
-        Tensor gradA = gradOutput.times(b);  // ∂z/∂a = ∂z/∂out * b
-        Tensor gradB = gradOutput.times(a);  // ∂z/∂b = ∂z/∂out * a
+        Tensor rows = normalized;
+        float[] statistics = inverseStd;
+
+        // The device kernel does not keep the statistics, so the rows are normalized again on the host
+        if (statistics == null) {
+            rows = Tensors.zeros(shape);
+            statistics = new float[input.elements() / features];
+
+            System.arraycopy(input.contiguous().data(), 0, rows.data(), 0, rows.elements());
+            RowKernels.layerNorm(rows.data(), features, epsilon, statistics);
+        }
+
+        Tensor gradient = Tensors.create(shape, gradOutput.contiguous().data());
+        Tensor gradInput = Tensors.zeros(shape);
+        float[] scale = weight == null ? null : weight.contiguous().data();
+
+        RowKernels.layerNormBackward(rows.data(), gradient.data(), scale, statistics, gradInput.data(), features);
+
+        // Like the other operations, the gradients of the scale and shift are reduced over the batch by their owner
+        Tensor gradWeight = weight == null ? null : gradient.times(rows);
+        Tensor gradBias = bias == null ? null : gradOutput;
+
+        if (input instanceof GpuTensor gpuInput) {
+            gradInput = gradInput.to(gpuInput.getDevice());
+            gradWeight = gradWeight == null ? null : gradWeight.to(gpuInput.getDevice());
+        }
+
+        return new Tensor[] { gradInput, gradWeight, gradBias };
+    }
 
-        return new Tensor[] { gradA, gradB, gradOutput.clone() };
+    public double epsilon() {
+        return epsilon;
     }
 }
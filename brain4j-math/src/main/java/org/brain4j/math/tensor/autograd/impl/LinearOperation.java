@@ -0,0 +1,36 @@
+package org.brain4j.math.tensor.autograd.impl;
+
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.autograd.Operation;
+
+public class LinearOperation implements Operation {
+
+    @Override
+    public int requiredInputs() {
+        return 3;
+    }
+
+    @Override
+    public Tensor compute(Tensor... inputs) {
+        return inputs[0].linear(inputs[1], inputs[2], null);
+    }
+
+    @Override
+    public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
+        Tensor a = inputs[0];
+        Tensor b = inputs[1];
+        Tensor bias = inputs[2];
+
+        // For Y = A @ B + bias:
+        // dL/dA = dL/dY @ B.T
+        Tensor gradA = gradOutput.matmul(b.transpose());
+
+        // dL/dB = A.T @ dL/dY
+        Tensor gradB = a.transpose().matmul(gradOutput);
+
+        // dL/dbias = dL/dY, reduced over the batch by the owner of the bias
+        Tensor gradBias = bias == null ? null : gradOutput;
+
+        return new Tensor[] { gradA, gradB, gradBias };
+    }
+}
@@ -0,0 +1,33 @@
+package org.brain4j.math.tensor.autograd.impl;
+
+import org.brain4j.math.pooling.PoolingProvider;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.autograd.Operation;
+
+public class PoolOperation implements Operation {
+
+    private final PoolingProvider pooling;
+
+    public PoolOperation(PoolingProvider pooling) {
+        this.pooling = pooling;
+    }
+
+    @Override
+    public int requiredInputs() {
+        return 1;
+    }
+
+    @Override
+    public Tensor compute(Tensor... inputs) {
+        return pooling.pool(inputs[0]);
+    }
+
+    @Override
+    public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
+        return new Tensor[] { pooling.backward(gradOutput, inputs[0]) };
+    }
+
+    public PoolingProvider pooling() {
+        return pooling;
+    }
+}
@@ -0,0 +1,55 @@
+package org.brain4j.math.tensor.autograd.impl;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.autograd.Operation;
+import org.brain4j.math.tensor.impl.GpuTensor;
+import org.brain4j.math.tensor.rowwise.RowKernels;
+
+/**
+ * Softmax along the last dimension. The probabilities are kept from the forward pass, so the
+ * backward pass computes the Jacobian-vector product of each row in linear time.
+ */
+public class SoftmaxOperation implements Operation {
+
+    private final double temperature;
+    private Tensor output;
+
+    public SoftmaxOperation(double temperature) {
+        this.temperature = temperature;
+    }
+
+    @Override
+    public int requiredInputs() {
+        return 1;
+    }
+
+    @Override
+    public Tensor compute(Tensor... inputs) {
+        this.output = inputs[0].softmax(temperature);
+        return output;
+    }
+
+    @Override
+    public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
+        if (output == null) {
+            throw new IllegalStateException("Forward pass must be called before backward pass");
+        }
+
+        int[] shape = output.shape();
+        Tensor result = Tensors.zeros(shape);
+
+        RowKernels.softmaxBackward(output.contiguous().data(), gradOutput.contiguous().data(), result.data(),
+            shape[shape.length - 1], temperature);
+
+        if (inputs[0] instanceof GpuTensor gpuInput) {
+            result = result.to(gpuInput.getDevice());
+        }
+
+        return new Tensor[] { result };
+    }
+
+    public double temperature() {
+        return temperature;
+    }
+}
@@ -13,7 +13,7 @@ public class SubOperation implements Operation {
     @Override
     public Tensor[] backward(Tensor gradOutput, Tensor... inputs) {
         return new Tensor[] {
-            gradOutput.clone(), 
+            gradOutput,
             gradOutput.times(-1.0f)
         };
     }
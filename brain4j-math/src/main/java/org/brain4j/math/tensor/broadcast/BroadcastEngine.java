@@ -0,0 +1,205 @@
+package org.brain4j.math.tensor.broadcast;
+
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.Tuning;
+
+import java.util.Arrays;
+
+/**
+ * Runs a {@link BroadcastOperation} in place on a contiguous tensor.
+ * <p>
+ * Before iterating, adjacent dimensions are collapsed whenever the right operand walks them
+ * with a single stride, so e.g. {@code [B, T, C] + [C]} becomes {@code [B * T, C]} and a
+ * same-shape operation becomes a single row. The innermost remaining dimension is then classified:
+ * <ul>
+ *     <li>{@link InnerLoop#CONTIGUOUS}: same-shape and row broadcasts, a vector-vector kernel;</li>
+ *     <li>{@link InnerLoop#BROADCAST}: scalar and column broadcasts, a vector-scalar kernel;</li>
+ *     <li>{@link InnerLoop#STRIDED}: any other layout, gathered into a scratch row first.</li>
+ * </ul>
+ * Above {@link Tuning#broadcastThreshold()} elements, rows (and long rows in chunks) are split across the current {@link ComputeScheduler}.
+ */
+public final class BroadcastEngine {
+
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    private enum InnerLoop {
+        CONTIGUOUS, BROADCAST, STRIDED
+    }
+
+    private BroadcastEngine() {
+    }
+
+    /**
+     * Computes {@code A = A op B}, broadcasting B to the shape of A.
+     * @param operation the element-wise operation
+     * @param A the left operand, must be contiguous
+     * @param B the right operand, with any strides
+     * @return A
+     * @throws IllegalArgumentException if B does not broadcast to the shape of A
+     */
+    public static Tensor apply(BroadcastOperation operation, Tensor A, Tensor B) {
+        // A view of the same buffer laid out differently (e.g. x.add(x.transpose())) would read
+        // values already overwritten, only the identical layout reads each value before writing it
+        if (B.data() == A.data() && !B.isContiguous()) {
+            B = B.contiguous();
+        }
+
+        int[] shape = A.shape();
+        int[] stridesB = broadcastStrides(shape, B);
+
+        // collapsed dimensions, innermost first
+        int[] dims = new int[Math.max(shape.length, 1)];
+        int[] strides = new int[dims.length];
+        int rank = 0;
+
+        for (int d = shape.length - 1; d >= 0; d--) {
+            if (shape[d] == 1) continue;
+
+            if (rank > 0 && stridesB[d] == strides[rank - 1] * dims[rank - 1]) {
+                dims[rank - 1] *= shape[d];
+                continue;
+            }
+
+            dims[rank] = shape[d];
+            strides[rank] = stridesB[d];
+            rank++;
+        }
+
+        if (rank == 0) {
+            dims[0] = 1;
+            rank = 1;
+        }
+
+        int elements = A.elements();
+        if (elements == 0) return A;
+
+        int inner = dims[0];
+        int innerStride = strides[0];
+
+        InnerLoop loop = switch (innerStride) {
+            case 1 -> InnerLoop.CONTIGUOUS;
+            case 0 -> InnerLoop.BROADCAST;
+            default -> InnerLoop.STRIDED;
+        };
+
+        int chunk = isParallel(elements) ? Math.min(inner, CHUNK_SIZE) : inner;
+        int chunksPerRow = Math.ceilDiv(inner, chunk);
+        int units = (elements / inner) * chunksPerRow;
+
+        float[] a = A.data();
+        float[] b = B.data();
+        int bStart = B.offset();
+        int outerRank = rank;
+
+        run(units, elements, (start, end) -> {
+            float[] scratch = loop == InnerLoop.STRIDED ? new float[chunk] : null;
+            int lastRow = -1;
+            int rowOffset = 0;
+
+            for (int unit = start; unit < end; unit++) {
+                int row = unit / chunksPerRow;
+                int column = (unit % chunksPerRow) * chunk;
+                int length = Math.min(chunk, inner - column);
+
+                if (row != lastRow) {
+                    rowOffset = rowOffset(row, dims, strides, outerRank);
+                    lastRow = row;
+                }
+
+                int aOffset = row * inner + column;
+                int bOffset = bStart + rowOffset + column * innerStride;
+
+                switch (loop) {
+                    case CONTIGUOUS -> operation.apply(a, aOffset, b, bOffset, length);
+                    case BROADCAST -> operation.apply(a, aOffset, b[bOffset], length);
+                    case STRIDED -> {
+                        for (int i = 0; i < length; i++) {
+                            scratch[i] = b[bOffset + i * innerStride];
+                        }
+
+                        operation.apply(a, aOffset, scratch, 0, length);
+                    }
+                }
+            }
+        });
+
+        return A;
+    }
+
+    /**
+     * Computes {@code data[i] = data[i] op value} for every value of the buffer.
+     * @param operation the element-wise operation
+     * @param data the buffer to update in place
+     * @param value the right operand
+     */
+    public static void apply(BroadcastOperation operation, float[] data, float value) {
+        int chunk = isParallel(data.length) ? CHUNK_SIZE : Math.max(data.length, 1);
+        int units = Math.ceilDiv(data.length, chunk);
+
+        run(units, data.length, (start, end) -> {
+            for (int unit = start; unit < end; unit++) {
+                int offset = unit * chunk;
+                operation.apply(data, offset, value, Math.min(chunk, data.length - offset));
+            }
+        });
+    }
+
+    private static boolean isParallel(int elements) {
+        return elements >= Tuning.current().broadcastThreshold() && ComputeScheduler.current().parallelism() > 1;
+    }
+
+    private static void run(int units, int elements, ComputeScheduler.RangeTask body) {
+        if (!isParallel(elements)) {
+            body.run(0, units);
+            return;
+        }
+
+        ComputeScheduler.current().parallelFor(0, units, 1, body);
+    }
+
+    /**
+     * Offset in B of the first value of a row, i.e. the row index unraveled over the outer dimensions.
+     */
+    private static int rowOffset(int row, int[] dims, int[] strides, int rank) {
+        int offset = 0;
+
+        for (int d = 1; d < rank && row > 0; d++) {
+            offset += (row % dims[d]) * strides[d];
+            row /= dims[d];
+        }
+
+        return offset;
+    }
+
+    /**
+     * Aligns the strides of B with the dimensions of A, using stride 0 on broadcast dimensions.
+     */
+    private static int[] broadcastStrides(int[] shape, Tensor B) {
+        int[] shapeB = B.shape();
+        int[] stridesB = B.strides();
+        int offset = shapeB.length - shape.length;
+
+        for (int d = 0; d < offset; d++) {
+            if (shapeB[d] != 1) throw incompatible(shape, shapeB);
+        }
+
+        int[] result = new int[shape.length];
+
+        for (int d = 0; d < shape.length; d++) {
+            int dimB = d + offset;
+
+            if (dimB < 0 || shapeB[dimB] == 1) continue;
+            if (shapeB[dimB] != shape[d]) throw incompatible(shape, shapeB);
+
+            result[d] = stridesB[dimB];
+        }
+
+        return result;
+    }
+
+    private static IllegalArgumentException incompatible(int[] shapeA, int[] shapeB) {
+        return new IllegalArgumentException("Broadcast result does not match shape of A! A = " +
+            Arrays.toString(shapeA) + ", B = " + Arrays.toString(shapeB));
+    }
+}
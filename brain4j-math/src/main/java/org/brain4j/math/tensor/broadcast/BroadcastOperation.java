@@ -5,66 +5,41 @@ import org.brain4j.math.tensor.Tensor;
 import java.util.Arrays;
 
 /**
- * Interface defining a broadcastable-operation
+ * Interface defining a broadcastable-operation.
+ * <p>
+ * Implementations only provide the two inner kernels; iterating the broadcast,
+ * vectorizing and splitting the work across threads is done by {@link BroadcastEngine}.
  * @author xEcho1337
  */
 public interface BroadcastOperation {
 
     /**
-     * Computes the strides map used to broadcast B on A.
-     * @param A the first tensor
-     * @param B the second tensor (the one to broadcast)
-     * @return a new int array which holds the strides for the broadcasting
+     * Computes {@code a[aOffset + i] = a[aOffset + i] op b[bOffset + i]} for {@code i < length}.
+     * @param a the destination and left operand
+     * @param aOffset the offset of the first destination value
+     * @param b the right operand
+     * @param bOffset the offset of the first right operand
+     * @param length the number of values
      */
-    default int[] makeStrideMap(Tensor A, Tensor B) {
-        int[] shapeA = A.shape();
-        int[] shapeB = B.shape();
-        int[] stridesB = B.strides();
-
-        int rankA = shapeA.length;
-        int rankB = shapeB.length;
-        int dimOffset = rankB - rankA;
-
-        int[] effStrideB = new int[rankA];
-
-        for (int d = 0; d < rankA; d++) {
-            int dimB = dimOffset + d;
-            if (dimB < 0) {
-                effStrideB[d] = 0;
-                continue;
-            }
-
-            if (shapeB[dimB] == 1) {
-                effStrideB[d] = 0;
-            } else {
-                effStrideB[d] = stridesB[dimB];
-            }
-        }
-
-        return effStrideB;
-    }
+    void apply(float[] a, int aOffset, float[] b, int bOffset, int length);
 
     /**
-     * Default method called when broadcasting two tensors.
-     * @param A the first tensor
-     * @param B the second tensor
-     * @return A tensor resulting from A combination of the two inputs
+     * Computes {@code a[aOffset + i] = a[aOffset + i] op b} for {@code i < length}.
+     * @param a the destination and left operand
+     * @param aOffset the offset of the first destination value
+     * @param b the right operand, shared by every value
+     * @param length the number of values
      */
-    Tensor defaultOp(Tensor A, Tensor B);
+    void apply(float[] a, int aOffset, float b, int length);
 
     /**
-     * Fallback method if {@link BroadcastOperation#defaultOp(Tensor, Tensor)} does not support the broadcasting.
-     * @param A the first tensor
+     * Default method called when broadcasting two tensors.
+     * @param A the first tensor, updated in place
      * @param B the second tensor
      * @return A tensor resulting from A combination of the two inputs
      */
-    Tensor fallbackOp(Tensor A, Tensor B);
-
-    default void unravelIndex(int flatIndex, int[] shape, int[] result) {
-        for (int i = shape.length - 1; i >= 0; i--) {
-            result[i] = flatIndex % shape[i];
-            flatIndex /= shape[i];
-        }
+    default Tensor defaultOp(Tensor A, Tensor B) {
+        return BroadcastEngine.apply(this, A, B);
     }
 
     default int[] broadcastShape(int[] a, int[] b) {
@@ -12,26 +12,111 @@ public class TensorBroadcast {
     private final static BroadcastPow POW_OP = new BroadcastPow();
     
     public static Tensor add(Tensor A, Tensor B) {
-        return ADD_OP.defaultOp(A, B);
+        return forward(ADD_OP, A, B);
     }
 
     public static Tensor sub(Tensor A, Tensor B) {
-        return SUB_OP.defaultOp(A, B);
+        return forward(SUB_OP, A, B);
     }
 
     public static Tensor mul(Tensor A, Tensor B) {
-        return MUL_OP.defaultOp(A, B);
+        return forward(MUL_OP, A, B);
     }
 
     public static Tensor div(Tensor A, Tensor B) {
-        return DIV_OP.defaultOp(A, B);
+        return forward(DIV_OP, A, B);
     }
 
     public static Tensor pow(Tensor A, Tensor B) {
-        return POW_OP.defaultOp(A, B);
+        return forward(POW_OP, A, B);
+    }
+
+    public static Tensor add(Tensor A, double value) {
+        return forward(ADD_OP, A, value);
+    }
+
+    public static Tensor sub(Tensor A, double value) {
+        return forward(SUB_OP, A, value);
+    }
+
+    public static Tensor mul(Tensor A, double value) {
+        return forward(MUL_OP, A, value);
+    }
+
+    public static Tensor div(Tensor A, double value) {
+        return forward(DIV_OP, A, value);
+    }
+
+    public static Tensor pow(Tensor A, double value) {
+        return forward(POW_OP, A, value);
     }
 
     public static Tensor forward(BroadcastOperation operation, Tensor A, Tensor B) {
-        return operation.defaultOp(A, B);
+        if (A.isBroadcastView()) {
+            throw new IllegalStateException("Broadcast views are read-only, call contiguous() before updating them in place!");
+        }
+
+        if (A.isContiguous()) {
+            return operation.defaultOp(A, B);
+        }
+
+        // A is a strided view (e.g. a lazy transposition or a slice): compute on a dense copy
+        // and write the result back through the strides to keep the in-place contract
+        Tensor dense = operation.defaultOp(A.contiguous(), B);
+        scatter(dense.data(), A);
+
+        return A;
+    }
+
+    /**
+     * Applies the operation with a scalar to A. When A covers its whole buffer the operation
+     * runs on the buffer directly, which is valid for every order of the values as each one
+     * is updated independently. Views over part of a buffer go through a dense copy.
+     */
+    public static Tensor forward(BroadcastOperation operation, Tensor A, double value) {
+        if (A.isBroadcastView()) {
+            throw new IllegalStateException("Broadcast views are read-only, call contiguous() before updating them in place!");
+        }
+
+        float[] data = A.data();
+
+        if (A.offset() == 0 && data.length == A.elements()) {
+            BroadcastEngine.apply(operation, data, (float) value);
+            return A;
+        }
+
+        Tensor dense = A.contiguous();
+        BroadcastEngine.apply(operation, dense.data(), (float) value);
+        scatter(dense.data(), A);
+
+        return A;
+    }
+
+    /**
+     * Writes row-major values into a tensor, following its offset and strides.
+     * @param source the values, in row-major order
+     * @param target the tensor to write, usually a strided view
+     */
+    public static void scatter(float[] source, Tensor target) {
+        int[] shape = target.shape();
+        int[] strides = target.strides();
+        float[] data = target.data();
+
+        int rank = shape.length;
+        int[] index = new int[rank];
+        int offset = target.offset();
+
+        for (int i = 0; i < source.length; i++) {
+            data[offset] = source[i];
+
+            for (int d = rank - 1; d >= 0; d--) {
+                offset += strides[d];
+
+                if (++index[d] < shape[d]) break;
+
+                offset -= strides[d] * shape[d];
+                index[d] = 0;
+            }
+        }
     }
 }
@@ -0,0 +1,120 @@
+package org.brain4j.math.tensor.broadcast.impl;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorized inner kernels of the broadcast arithmetic, in place on the left operand.
+ * Only loaded when the Vector API is available.
+ */
+final class SIMDBroadcast {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private SIMDBroadcast() {
+    }
+
+    static void add(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.add(vb).intoArray(a, aOffset + i);
+        }
+
+        for (; i < length; i++) {
+            a[aOffset + i] += b[bOffset + i];
+        }
+    }
+
+    static void add(float[] a, int aOffset, float b, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, a, aOffset + i).add(b).intoArray(a, aOffset + i);
+        }
+
+        for (; i < length; i++) {
+            a[aOffset + i] += b;
+        }
+    }
+
+    static void sub(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.sub(vb).intoArray(a, aOffset + i);
+        }
+
+        for (; i < length; i++) {
+            a[aOffset + i] -= b[bOffset + i];
+        }
+    }
+
+    static void sub(float[] a, int aOffset, float b, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, a, aOffset + i).sub(b).intoArray(a, aOffset + i);
+        }
+
+        for (; i < length; i++) {
+            a[aOffset + i] -= b;
+        }
+    }
+
+    static void mul(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.mul(vb).intoArray(a, aOffset + i);
+        }
+
+        for (; i < length; i++) {
+            a[aOffset + i] *= b[bOffset + i];
+        }
+    }
+
+    static void mul(float[] a, int aOffset, float b, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, a, aOffset + i).mul(b).intoArray(a, aOffset + i);
+        }
+
+        for (; i < length; i++) {
+            a[aOffset + i] *= b;
+        }
+    }
+
+    static void div(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, aOffset + i);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, bOffset + i);
+            va.div(vb).intoArray(a, aOffset + i);
+        }
+
+        for (; i < length; i++) {
+            a[aOffset + i] /= b[bOffset + i];
+        }
+    }
+
+    static void div(float[] a, int aOffset, float b, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, a, aOffset + i).div(b).intoArray(a, aOffset + i);
+        }
+
+        for (; i < length; i++) {
+            a[aOffset + i] /= b;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.brain4j.math.tensor.convolution;
+
+import org.brain4j.math.commons.Commons;
+
+/**
+ * The geometry of a 2D convolution, given separately for the height and the width.
+ * <p>
+ * The input is zero padded on both sides, the filter taps are {@code dilation} pixels apart and the
+ * filter moves by {@code stride} pixels between outputs. With {@code groups > 1} the channels are split
+ * into that many groups, every filter only sees the channels of its own group: the filters are then
+ * {@code [filters, channels / groups, height, width]} and {@code groups == channels} is a depthwise
+ * convolution.
+ *
+ * @param strideHeight the vertical step between two outputs
+ * @param strideWidth the horizontal step between two outputs
+ * @param paddingHeight the zero rows added above and below the input
+ * @param paddingWidth the zero columns added left and right of the input
+ * @param dilationHeight the vertical distance between two filter taps
+ * @param dilationWidth the horizontal distance between two filter taps
+ * @param groups the number of channel groups convolved independently
+ */
+public record ConvolveParameters(
+    int strideHeight,
+    int strideWidth,
+    int paddingHeight,
+    int paddingWidth,
+    int dilationHeight,
+    int dilationWidth,
+    int groups
+) {
+
+    /** A valid convolution with unit stride and no dilation. */
+    public static final ConvolveParameters DEFAULT = new ConvolveParameters(1, 1, 0, 0, 1, 1, 1);
+
+    public ConvolveParameters {
+        if (strideHeight < 1 || strideWidth < 1 || dilationHeight < 1 || dilationWidth < 1) {
+            throw Commons.illegalArgument("Stride and dilation must be positive!");
+        }
+
+        if (paddingHeight < 0 || paddingWidth < 0) {
+            throw Commons.illegalArgument("Padding cannot be negative!");
+        }
+
+        if (groups < 1) {
+            throw Commons.illegalArgument("Groups must be positive!");
+        }
+    }
+
+    /**
+     * Creates ungrouped parameters.
+     */
+    public ConvolveParameters(
+        int strideHeight,
+        int strideWidth,
+        int paddingHeight,
+        int paddingWidth,
+        int dilationHeight,
+        int dilationWidth
+    ) {
+        this(strideHeight, strideWidth, paddingHeight, paddingWidth, dilationHeight, dilationWidth, 1);
+    }
+
+    /**
+     * Creates square parameters without dilation.
+     * @param stride the step between two outputs
+     * @param padding the zeros added on every side of the input
+     * @return the parameters
+     */
+    public static ConvolveParameters of(int stride, int padding) {
+        return of(stride, padding, 1);
+    }
+
+    /**
+     * Creates square parameters.
+     * @param stride the step between two outputs
+     * @param padding the zeros added on every side of the input
+     * @param dilation the distance between two filter taps
+     * @return the parameters
+     */
+    public static ConvolveParameters of(int stride, int padding, int dilation) {
+        return new ConvolveParameters(stride, stride, padding, padding, dilation, dilation);
+    }
+
+    /**
+     * @param groups the number of channel groups
+     * @return these parameters with the given number of groups
+     */
+    public ConvolveParameters withGroups(int groups) {
+        return new ConvolveParameters(
+            strideHeight, strideWidth,
+            paddingHeight, paddingWidth,
+            dilationHeight, dilationWidth,
+            groups
+        );
+    }
+
+    /**
+     * @return the parameters of a single group, convolved as an ungrouped convolution
+     */
+    public ConvolveParameters ungrouped() {
+        return groups == 1 ? this : withGroups(1);
+    }
+
+    /**
+     * @param inputHeight the height of the input
+     * @param filterHeight the height of the filter
+     * @return the height of the output, not positive if the filter does not fit
+     */
+    public int outputHeight(int inputHeight, int filterHeight) {
+        return outputSize(inputHeight, filterHeight, strideHeight, paddingHeight, dilationHeight);
+    }
+
+    /**
+     * @param inputWidth the width of the input
+     * @param filterWidth the width of the filter
+     * @return the width of the output, not positive if the filter does not fit
+     */
+    public int outputWidth(int inputWidth, int filterWidth) {
+        return outputSize(inputWidth, filterWidth, strideWidth, paddingWidth, dilationWidth);
+    }
+
+    /**
+     * @return true if the filter is applied at every position with adjacent taps
+     */
+    public boolean isDense() {
+        return strideHeight == 1 && strideWidth == 1 && dilationHeight == 1 && dilationWidth == 1;
+    }
+
+    private static int outputSize(int input, int filter, int stride, int padding, int dilation) {
+        int span = dilation * (filter - 1) + 1;
+        int room = input + 2 * padding - span;
+
+        return room < 0 ? 0 : room / stride + 1;
+    }
+}
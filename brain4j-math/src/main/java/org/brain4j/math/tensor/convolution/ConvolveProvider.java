@@ -1,15 +0,0 @@
-package org.brain4j.math.tensor.convolution;
-
-public interface ConvolveProvider {
-    record PatchData(
-        float[] filter,
-        float[] patch,
-        float[] out,
-        int totalPatches,
-        int patchSize,
-        int filterOffset,
-        int outOffset
-    ) {}
-    
-    void dotBlock(int start, int end, PatchData data);
-}
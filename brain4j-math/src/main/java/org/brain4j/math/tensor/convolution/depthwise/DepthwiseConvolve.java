@@ -0,0 +1,329 @@
+package org.brain4j.math.tensor.convolution.depthwise;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.brain4j.math.Tensors;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+
+import java.util.Arrays;
+
+/**
+ * Depthwise convolution, where every filter sees a single input channel.
+ * <p>
+ * A depthwise filter has a handful of taps and a single channel, so the GEMM of an im2col convolution
+ * would have an inner dimension of {@code filterHeight * filterWidth} and spend its time gathering
+ * columns. This algorithm works directly on the planes instead: every output row accumulates one
+ * shifted input row per tap, {@code out[x] += w * in[x * stride + shift]}, over the range of {@code x}
+ * that stays inside the input, so the padding is never materialized. With unit stride these updates
+ * are vectorized across the output columns.
+ * <p>
+ * The channels may have several filters each: filter {@code f} reads channel
+ * {@code f / (filters / channels)}.
+ */
+public final class DepthwiseConvolve {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private DepthwiseConvolve() {
+    }
+
+    /**
+     * Checks whether a convolution is depthwise.
+     * @param channels the channels of the input
+     * @param filterChannels the channels of every filter
+     * @param parameters the parameters of the convolution
+     * @return true if every channel forms its own group
+     */
+    public static boolean supports(int channels, int filterChannels, ConvolveParameters parameters) {
+        return parameters.groups() == channels && filterChannels == 1;
+    }
+
+    /**
+     * Convolves a batch of inputs with a set of depthwise filters.
+     * @param input the input, of shape {@code [batch, channels, height, width]}
+     * @param filters the filters, of shape {@code [filters, 1, filterHeight, filterWidth]}
+     * @param parameters the stride, padding and dilation, with one group per channel
+     * @return the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     * @throws IllegalArgumentException if the shapes do not match
+     */
+    public static Tensor convolve(Tensor input, Tensor filters, ConvolveParameters parameters) {
+        Geometry geometry = Geometry.of(input, filters, parameters);
+
+        int numFilters = geometry.numFilters();
+        int outArea = geometry.outHeight() * geometry.outWidth();
+
+        float[] imageData = input.contiguous().data();
+        float[] filterData = filters.contiguous().data();
+
+        Tensor out = Tensors.zeros(geometry.batch(), numFilters, geometry.outHeight(), geometry.outWidth());
+        float[] outData = out.data();
+
+        // Every task owns one output plane
+        ComputeScheduler.current().parallelForEach(0, geometry.batch() * numFilters, 1, plane -> {
+            int b = plane / numFilters;
+            int f = plane % numFilters;
+            int image = geometry.imageOffset(b, geometry.channelOf(f));
+
+            for (int oy = 0; oy < geometry.outHeight(); oy++) {
+                int outRow = plane * outArea + oy * geometry.outWidth();
+
+                geometry.forEachTap(oy, (tap, inRow, shift, start, end) -> {
+                    float weight = filterData[f * geometry.filterArea() + tap];
+                    int source = image + inRow + shift;
+
+                    if (geometry.strideWidth() == 1) {
+                        axpy(weight, imageData, source, outData, outRow, start, end);
+                        return;
+                    }
+
+                    for (int ox = start; ox < end; ox++) {
+                        outData[outRow + ox] += weight * imageData[source + ox * geometry.strideWidth()];
+                    }
+                });
+            }
+        });
+
+        return out;
+    }
+
+    /**
+     * Computes the gradients of {@link #convolve(Tensor, Tensor, ConvolveParameters)}.
+     * @param gradOutput the gradient of the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     * @param input the input of the forward pass
+     * @param filters the filters of the forward pass
+     * @param parameters the parameters of the forward pass
+     * @return the gradients of the input and of the filters, in this order
+     */
+    public static Tensor[] backward(Tensor gradOutput, Tensor input, Tensor filters, ConvolveParameters parameters) {
+        Geometry geometry = Geometry.of(input, filters, parameters);
+
+        int batch = geometry.batch();
+        int channels = geometry.channels();
+        int numFilters = geometry.numFilters();
+        int multiplier = numFilters / channels;
+        int outArea = geometry.outHeight() * geometry.outWidth();
+
+        float[] imageData = input.contiguous().data();
+        float[] filterData = filters.contiguous().data();
+        float[] gradOutData = gradOutput.contiguous().data();
+
+        Tensor gradInput = Tensors.zeros(input.shape());
+        Tensor gradFilters = Tensors.zeros(filters.shape());
+
+        float[] gradInputData = gradInput.data();
+        float[] gradFilterData = gradFilters.data();
+
+        // dX: every task owns one input plane, gathering the filters of its channel
+        ComputeScheduler.current().parallelForEach(0, batch * channels, 1, plane -> {
+            int b = plane / channels;
+            int c = plane % channels;
+            int image = geometry.imageOffset(b, c);
+
+            for (int f = c * multiplier; f < (c + 1) * multiplier; f++) {
+                int filter = f;
+                int gradient = (b * numFilters + f) * outArea;
+
+                for (int oy = 0; oy < geometry.outHeight(); oy++) {
+                    int gradRow = gradient + oy * geometry.outWidth();
+
+                    geometry.forEachTap(oy, (tap, inRow, shift, start, end) -> {
+                        float weight = filterData[filter * geometry.filterArea() + tap];
+                        int dest = image + inRow + shift;
+
+                        if (geometry.strideWidth() == 1) {
+                            axpy(weight, gradOutData, gradRow, gradInputData, dest, start, end);
+                            return;
+                        }
+
+                        for (int ox = start; ox < end; ox++) {
+                            gradInputData[dest + ox * geometry.strideWidth()] += weight * gradOutData[gradRow + ox];
+                        }
+                    });
+                }
+            }
+        });
+
+        // dW: every task owns one filter, a dot product per tap
+        ComputeScheduler.current().parallelForEach(0, numFilters, 1, f -> {
+            int channel = geometry.channelOf(f);
+            float[] taps = new float[geometry.filterArea()];
+
+            for (int b = 0; b < batch; b++) {
+                int image = geometry.imageOffset(b, channel);
+                int gradient = (b * numFilters + f) * outArea;
+
+                for (int oy = 0; oy < geometry.outHeight(); oy++) {
+                    int gradRow = gradient + oy * geometry.outWidth();
+
+                    geometry.forEachTap(oy, (tap, inRow, shift, start, end) -> {
+                        int source = image + inRow + shift;
+
+                        if (geometry.strideWidth() == 1) {
+                            taps[tap] += dot(gradOutData, gradRow, imageData, source, start, end);
+                            return;
+                        }
+
+                        float sum = 0;
+
+                        for (int ox = start; ox < end; ox++) {
+                            sum += gradOutData[gradRow + ox] * imageData[source + ox * geometry.strideWidth()];
+                        }
+
+                        taps[tap] += sum;
+                    });
+                }
+            }
+
+            System.arraycopy(taps, 0, gradFilterData, f * geometry.filterArea(), taps.length);
+        });
+
+        return new Tensor[] { gradInput, gradFilters };
+    }
+
+    /**
+     * Computes {@code y[offY + i] += alpha * x[offX + i]} for {@code i} in {@code [start, end)}.
+     */
+    private static void axpy(float alpha, float[] x, int offX, float[] y, int offY, int start, int end) {
+        int i = start;
+
+        if (DeviceUtils.isSimdAvailable()) {
+            int bound = start + SPECIES.loopBound(end - start);
+            FloatVector scale = FloatVector.broadcast(SPECIES, alpha);
+
+            for (; i < bound; i += LANES) {
+                FloatVector vx = FloatVector.fromArray(SPECIES, x, offX + i);
+                FloatVector vy = FloatVector.fromArray(SPECIES, y, offY + i);
+                vx.fma(scale, vy).intoArray(y, offY + i);
+            }
+        }
+
+        for (; i < end; i++) {
+            y[offY + i] += alpha * x[offX + i];
+        }
+    }
+
+    /**
+     * Computes the sum of {@code x[offX + i] * y[offY + i]} for {@code i} in {@code [start, end)}.
+     */
+    private static float dot(float[] x, int offX, float[] y, int offY, int start, int end) {
+        int i = start;
+        float sum = 0;
+
+        if (DeviceUtils.isSimdAvailable()) {
+            int bound = start + SPECIES.loopBound(end - start);
+            FloatVector acc = FloatVector.zero(SPECIES);
+
+            for (; i < bound; i += LANES) {
+                FloatVector vx = FloatVector.fromArray(SPECIES, x, offX + i);
+                FloatVector vy = FloatVector.fromArray(SPECIES, y, offY + i);
+                acc = vx.fma(vy, acc);
+            }
+
+            sum = acc.reduceLanes(VectorOperators.ADD);
+        }
+
+        for (; i < end; i++) {
+            sum += x[offX + i] * y[offY + i];
+        }
+
+        return sum;
+    }
+
+    @FunctionalInterface
+    private interface TapConsumer {
+        /**
+         * @param tap the index of the tap in its filter
+         * @param inRow the offset of the input row read by the tap
+         * @param shift the input column read by output column 0, possibly negative
+         * @param start the first output column reading inside the input
+         * @param end the output column after the last one reading inside the input
+         */
+        void accept(int tap, int inRow, int shift, int start, int end);
+    }
+
+    private record Geometry(
+        int batch,
+        int channels,
+        int inHeight,
+        int inWidth,
+        int numFilters,
+        int filterHeight,
+        int filterWidth,
+        int outHeight,
+        int outWidth,
+        ConvolveParameters parameters
+    ) {
+
+        static Geometry of(Tensor input, Tensor filters, ConvolveParameters parameters) {
+            int[] inShape = input.shape();
+            int[] filterShape = filters.shape();
+
+            if (inShape.length != 4 || filterShape.length != 4) {
+                throw Commons.illegalArgument("Convolution expects rank 4 inputs and filters!");
+            }
+
+            if (filterShape[1] != 1 || filterShape[0] % inShape[1] != 0) {
+                throw Commons.illegalArgument("Depthwise convolution expects [k * %s, 1, height, width] filters, got %s!",
+                    inShape[1], Arrays.toString(filterShape));
+            }
+
+            int outHeight = parameters.outputHeight(inShape[2], filterShape[2]);
+            int outWidth = parameters.outputWidth(inShape[3], filterShape[3]);
+
+            if (outHeight < 1 || outWidth < 1) {
+                throw Commons.illegalArgument("Filters of %sx%s do not fit an input of %sx%s!",
+                    filterShape[2], filterShape[3], inShape[2], inShape[3]);
+            }
+
+            return new Geometry(
+                inShape[0], inShape[1], inShape[2], inShape[3],
+                filterShape[0], filterShape[2], filterShape[3],
+                outHeight, outWidth, parameters
+            );
+        }
+
+        int filterArea() {
+            return filterHeight * filterWidth;
+        }
+
+        int strideWidth() {
+            return parameters.strideWidth();
+        }
+
+        int channelOf(int filter) {
+            return filter / (numFilters / channels);
+        }
+
+        int imageOffset(int b, int c) {
+            return (b * channels + c) * inHeight * inWidth;
+        }
+
+        /**
+         * Visits the taps of output row {@code oy} whose input row lies inside the input.
+         */
+        void forEachTap(int oy, TapConsumer consumer) {
+            int stride = parameters.strideWidth();
+
+            for (int i = 0; i < filterHeight; i++) {
+                int iy = oy * parameters.strideHeight() - parameters.paddingHeight() + i * parameters.dilationHeight();
+                if (iy < 0 || iy >= inHeight) continue;
+
+                for (int j = 0; j < filterWidth; j++) {
+                    int shift = j * parameters.dilationWidth() - parameters.paddingWidth();
+
+                    // The columns with 0 <= ox * stride + shift < inWidth
+                    int start = shift >= 0 ? 0 : Math.ceilDiv(-shift, stride);
+                    int end = shift >= inWidth ? 0 : Math.min(outWidth, (inWidth - 1 - shift) / stride + 1);
+
+                    if (start < end) consumer.accept(i * filterWidth + j, iy * inWidth, shift, start, end);
+                }
+            }
+        }
+    }
+}
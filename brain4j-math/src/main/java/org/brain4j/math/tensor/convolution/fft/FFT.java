@@ -0,0 +1,285 @@
+package org.brain4j.math.tensor.convolution.fft;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.gpu.device.DeviceUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-place radix-2 fast Fourier transforms of complex sequences stored as split real and imaginary arrays.
+ * <p>
+ * The transforms are iterative decimation in time: a bit-reversal permutation followed by
+ * {@code log2(n)} butterfly stages. The permutation and the twiddle factors of every size are computed
+ * once and cached. The twiddles of the stage combining halves of length {@code h} are stored contiguously
+ * at {@code [h, 2h)}, so the butterflies of a stage are vectorized across their index. A 2D transform
+ * runs the 1D transform on the rows, then the column stages treat every row as a single vector.
+ * <p>
+ * The forward transform is unnormalized, the inverse one divides by the number of elements.
+ */
+public final class FFT {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private static final Map<Integer, Plan> PLANS = new ConcurrentHashMap<>();
+
+    private record Plan(int[] reversal, float[] cos, float[] sin) {
+
+        static Plan of(int n) {
+            int bits = Integer.numberOfTrailingZeros(n);
+            int[] reversal = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                reversal[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+            }
+
+            float[] cos = new float[n];
+            float[] sin = new float[n];
+
+            for (int half = 1; half < n; half <<= 1) {
+                for (int j = 0; j < half; j++) {
+                    double angle = -Math.PI * j / half;
+                    cos[half + j] = (float) Math.cos(angle);
+                    sin[half + j] = (float) Math.sin(angle);
+                }
+            }
+
+            return new Plan(reversal, cos, sin);
+        }
+    }
+
+    private FFT() {
+    }
+
+    /**
+     * Transforms a contiguous sequence in place.
+     * @param re the real parts
+     * @param im the imaginary parts
+     * @param offset the index of the first element
+     * @param n the length of the sequence, a power of two
+     * @param inverse whether to compute the inverse transform
+     */
+    public static void transform(float[] re, float[] im, int offset, int n, boolean inverse) {
+        Plan plan = plan(n);
+        int[] reversal = plan.reversal();
+
+        for (int i = 0; i < n; i++) {
+            int j = reversal[i];
+
+            if (i < j) {
+                swap(re, offset + i, offset + j);
+                swap(im, offset + i, offset + j);
+            }
+        }
+
+        float[] cos = plan.cos();
+        float[] sin = plan.sin();
+        float sign = inverse ? -1 : 1;
+        boolean simd = DeviceUtils.isSimdAvailable();
+
+        for (int half = 1; half < n; half <<= 1) {
+            for (int start = offset; start < offset + n; start += half << 1) {
+                if (simd && half >= LANES) {
+                    butterflies(re, im, start, half, cos, sin, sign);
+                    continue;
+                }
+
+                for (int j = 0; j < half; j++) {
+                    butterfly(re, im, start + j, start + j + half, cos[half + j], sign * sin[half + j]);
+                }
+            }
+        }
+
+        if (inverse) scale(re, im, offset, n, 1f / n);
+    }
+
+    /**
+     * Transforms a contiguous row-major 2D grid in place.
+     * @param re the real parts
+     * @param im the imaginary parts
+     * @param offset the index of the first element
+     * @param height the rows of the grid, a power of two
+     * @param width the columns of the grid, a power of two
+     * @param inverse whether to compute the inverse transform
+     */
+    public static void transform2d(float[] re, float[] im, int offset, int height, int width, boolean inverse) {
+        for (int row = 0; row < height; row++) {
+            transform(re, im, offset + row * width, width, inverse);
+        }
+
+        if (height > 1) transformColumns(re, im, offset, height, width, inverse);
+    }
+
+    /**
+     * Accumulates the element-wise product {@code c += a * b}, or {@code c += a * conj(b)}.
+     * @param aRe the real parts of a
+     * @param aIm the imaginary parts of a
+     * @param aOffset the first element of a
+     * @param bRe the real parts of b
+     * @param bIm the imaginary parts of b
+     * @param bOffset the first element of b
+     * @param cRe the real parts of c
+     * @param cIm the imaginary parts of c
+     * @param cOffset the first element of c
+     * @param n the number of elements
+     * @param conjugate whether to conjugate b
+     */
+    public static void multiplyAccumulate(
+        float[] aRe, float[] aIm, int aOffset,
+        float[] bRe, float[] bIm, int bOffset,
+        float[] cRe, float[] cIm, int cOffset,
+        int n, boolean conjugate
+    ) {
+        float sign = conjugate ? -1 : 1;
+        int i = 0;
+
+        if (DeviceUtils.isSimdAvailable()) {
+            int bound = SPECIES.loopBound(n);
+
+            for (; i < bound; i += LANES) {
+                FloatVector ar = FloatVector.fromArray(SPECIES, aRe, aOffset + i);
+                FloatVector ai = FloatVector.fromArray(SPECIES, aIm, aOffset + i);
+                FloatVector br = FloatVector.fromArray(SPECIES, bRe, bOffset + i);
+                FloatVector bi = FloatVector.fromArray(SPECIES, bIm, bOffset + i).mul(sign);
+
+                FloatVector cr = FloatVector.fromArray(SPECIES, cRe, cOffset + i);
+                FloatVector ci = FloatVector.fromArray(SPECIES, cIm, cOffset + i);
+
+                ar.fma(br, cr).sub(ai.mul(bi)).intoArray(cRe, cOffset + i);
+                ar.fma(bi, ci).add(ai.mul(br)).intoArray(cIm, cOffset + i);
+            }
+        }
+
+        for (; i < n; i++) {
+            float ar = aRe[aOffset + i];
+            float ai = aIm[aOffset + i];
+            float br = bRe[bOffset + i];
+            float bi = sign * bIm[bOffset + i];
+
+            cRe[cOffset + i] += ar * br - ai * bi;
+            cIm[cOffset + i] += ar * bi + ai * br;
+        }
+    }
+
+    private static Plan plan(int n) {
+        if (!Commons.isPowerOf2(n)) {
+            throw Commons.illegalArgument("FFT length must be a power of two, got %s!", n);
+        }
+
+        return PLANS.computeIfAbsent(n, Plan::of);
+    }
+
+    /**
+     * Runs the stages of a column transform, every butterfly combining two whole rows.
+     */
+    private static void transformColumns(float[] re, float[] im, int offset, int height, int width, boolean inverse) {
+        Plan plan = plan(height);
+        int[] reversal = plan.reversal();
+
+        for (int i = 0; i < height; i++) {
+            int j = reversal[i];
+            if (i >= j) continue;
+
+            for (int k = 0; k < width; k++) {
+                swap(re, offset + i * width + k, offset + j * width + k);
+                swap(im, offset + i * width + k, offset + j * width + k);
+            }
+        }
+
+        float[] cos = plan.cos();
+        float[] sin = plan.sin();
+        float sign = inverse ? -1 : 1;
+
+        for (int half = 1; half < height; half <<= 1) {
+            for (int start = 0; start < height; start += half << 1) {
+                for (int j = 0; j < half; j++) {
+                    int rowA = offset + (start + j) * width;
+                    int rowB = rowA + half * width;
+
+                    rowButterflies(re, im, rowA, rowB, width, cos[half + j], sign * sin[half + j]);
+                }
+            }
+        }
+
+        if (inverse) scale(re, im, offset, height * width, 1f / height);
+    }
+
+    /**
+     * The butterflies of one block of a stage, {@code half} must be a multiple of the vector length.
+     */
+    private static void butterflies(float[] re, float[] im, int start, int half, float[] cos, float[] sin, float sign) {
+        for (int j = 0; j < half; j += LANES) {
+            int a = start + j;
+            int b = a + half;
+
+            FloatVector wr = FloatVector.fromArray(SPECIES, cos, half + j);
+            FloatVector wi = FloatVector.fromArray(SPECIES, sin, half + j).mul(sign);
+
+            FloatVector ar = FloatVector.fromArray(SPECIES, re, a);
+            FloatVector ai = FloatVector.fromArray(SPECIES, im, a);
+            FloatVector br = FloatVector.fromArray(SPECIES, re, b);
+            FloatVector bi = FloatVector.fromArray(SPECIES, im, b);
+
+            FloatVector tr = br.mul(wr).sub(bi.mul(wi));
+            FloatVector ti = br.mul(wi).add(bi.mul(wr));
+
+            ar.add(tr).intoArray(re, a);
+            ai.add(ti).intoArray(im, a);
+            ar.sub(tr).intoArray(re, b);
+            ai.sub(ti).intoArray(im, b);
+        }
+    }
+
+    private static void rowButterflies(float[] re, float[] im, int rowA, int rowB, int width, float wr, float wi) {
+        int k = 0;
+
+        if (DeviceUtils.isSimdAvailable()) {
+            int bound = SPECIES.loopBound(width);
+
+            for (; k < bound; k += LANES) {
+                FloatVector ar = FloatVector.fromArray(SPECIES, re, rowA + k);
+                FloatVector ai = FloatVector.fromArray(SPECIES, im, rowA + k);
+                FloatVector br = FloatVector.fromArray(SPECIES, re, rowB + k);
+                FloatVector bi = FloatVector.fromArray(SPECIES, im, rowB + k);
+
+                FloatVector tr = br.mul(wr).sub(bi.mul(wi));
+                FloatVector ti = br.mul(wi).add(bi.mul(wr));
+
+                ar.add(tr).intoArray(re, rowA + k);
+                ai.add(ti).intoArray(im, rowA + k);
+                ar.sub(tr).intoArray(re, rowB + k);
+                ai.sub(ti).intoArray(im, rowB + k);
+            }
+        }
+
+        for (; k < width; k++) {
+            butterfly(re, im, rowA + k, rowB + k, wr, wi);
+        }
+    }
+
+    private static void butterfly(float[] re, float[] im, int a, int b, float wr, float wi) {
+        float tr = re[b] * wr - im[b] * wi;
+        float ti = re[b] * wi + im[b] * wr;
+
+        re[b] = re[a] - tr;
+        im[b] = im[a] - ti;
+        re[a] += tr;
+        im[a] += ti;
+    }
+
+    private static void scale(float[] re, float[] im, int offset, int n, float factor) {
+        for (int i = offset; i < offset + n; i++) {
+            re[i] *= factor;
+            im[i] *= factor;
+        }
+    }
+
+    private static void swap(float[] data, int i, int j) {
+        float temp = data[i];
+        data[i] = data[j];
+        data[j] = temp;
+    }
+}
@@ -0,0 +1,310 @@
+package org.brain4j.math.tensor.convolution.fft;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.Tuning;
+
+import java.util.Arrays;
+
+/**
+ * Stride 1 convolution through the {@link FFT}, for filters with many taps.
+ * <p>
+ * Every padded input image and every (dilated) filter is zero padded to a power of two grid and
+ * transformed. The cross-correlation of an image with a filter is then the inverse transform of
+ * {@code X * conj(W)}, summed over the channels in the frequency domain. The grid is at least as large as
+ * the padded image, so the circular wrap-around never reaches a valid output. The cost per output no
+ * longer grows with the taps of the filter, which makes it cheaper than im2col above
+ * {@link Tuning#fftTaps()} taps. Inputs of height 1 use 1D transforms.
+ * <p>
+ * The backward pass works on the same grids: the input gradient is {@code dY * W}, a full convolution,
+ * and the filter gradient is {@code X * conj(dY)}, a correlation.
+ */
+public final class FFTConvolve {
+
+    private FFTConvolve() {
+    }
+
+    /**
+     * Checks whether a convolution should run through this algorithm.
+     * @param filterHeight the height of the filters
+     * @param filterWidth the width of the filters
+     * @param parameters the stride, padding and dilation of the convolution
+     * @return true for filters of at least {@link Tuning#fftTaps()} taps with unit stride
+     */
+    public static boolean supports(int filterHeight, int filterWidth, ConvolveParameters parameters) {
+        return parameters.strideHeight() == 1 && parameters.strideWidth() == 1
+            && filterHeight * filterWidth >= Tuning.current().fftTaps();
+    }
+
+    /**
+     * Convolves a batch of inputs with a set of filters.
+     * @param input the input, of shape {@code [batch, channels, height, width]}
+     * @param filters the filters, of shape {@code [filters, channels, filterHeight, filterWidth]}
+     * @param parameters the padding and dilation, with unit stride
+     * @return the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     * @throws IllegalArgumentException if the shapes do not match or the stride is not 1
+     */
+    public static Tensor convolve(Tensor input, Tensor filters, ConvolveParameters parameters) {
+        Grid grid = Grid.of(input, filters, parameters);
+
+        int batch = grid.batch();
+        int channels = grid.channels();
+        int size = grid.size();
+
+        float[][] images = grid.transformImages(input.contiguous().data());
+        float[] filterData = filters.contiguous().data();
+
+        Tensor out = Tensors.zeros(batch, grid.numFilters(), grid.outHeight(), grid.outWidth());
+        float[] outData = out.data();
+
+        // Every task owns one filter, accumulating its products with every image over the channels
+        ComputeScheduler.current().parallelForEach(0, grid.numFilters(), 1, f -> {
+            float[] filterRe = new float[size];
+            float[] filterIm = new float[size];
+            float[] sumRe = new float[batch * size];
+            float[] sumIm = new float[batch * size];
+
+            for (int c = 0; c < channels; c++) {
+                grid.transformFilter(filterData, f, c, filterRe, filterIm);
+
+                for (int b = 0; b < batch; b++) {
+                    int image = (b * channels + c) * size;
+                    FFT.multiplyAccumulate(images[0], images[1], image, filterRe, filterIm, 0,
+                        sumRe, sumIm, b * size, size, true);
+                }
+            }
+
+            for (int b = 0; b < batch; b++) {
+                grid.inverse(sumRe, sumIm, b * size);
+                grid.crop(sumRe, b * size, outData, (b * grid.numFilters() + f) * grid.outArea(),
+                    0, grid.outHeight(), grid.outWidth());
+            }
+        });
+
+        return out;
+    }
+
+    /**
+     * Computes the gradients of {@link #convolve(Tensor, Tensor, ConvolveParameters)}.
+     * @param gradOutput the gradient of the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     * @param input the input of the forward pass
+     * @param filters the filters of the forward pass
+     * @param parameters the padding and dilation of the forward pass
+     * @return the gradients of the input and of the filters, in this order
+     */
+    public static Tensor[] backward(Tensor gradOutput, Tensor input, Tensor filters, ConvolveParameters parameters) {
+        Grid grid = Grid.of(input, filters, parameters);
+
+        int batch = grid.batch();
+        int channels = grid.channels();
+        int numFilters = grid.numFilters();
+        int size = grid.size();
+
+        float[][] images = grid.transformImages(input.contiguous().data());
+        float[][] gradients = grid.transformGradients(gradOutput.contiguous().data());
+        float[] filterData = filters.contiguous().data();
+
+        Tensor gradInput = Tensors.zeros(input.shape());
+        Tensor gradFilters = Tensors.zeros(filters.shape());
+
+        float[] gradInputData = gradInput.data();
+        float[] gradFilterData = gradFilters.data();
+
+        // Every task owns one channel: the input gradient of every image and the filter gradient of every filter
+        ComputeScheduler.current().parallelForEach(0, channels, 1, c -> {
+            float[] filterRe = new float[size];
+            float[] filterIm = new float[size];
+            float[] tapsRe = new float[size];
+            float[] tapsIm = new float[size];
+            float[] sumRe = new float[batch * size];
+            float[] sumIm = new float[batch * size];
+
+            for (int f = 0; f < numFilters; f++) {
+                grid.transformFilter(filterData, f, c, filterRe, filterIm);
+
+                Arrays.fill(tapsRe, 0);
+                Arrays.fill(tapsIm, 0);
+
+                for (int b = 0; b < batch; b++) {
+                    int image = (b * channels + c) * size;
+                    int gradient = (b * numFilters + f) * size;
+
+                    // dX += dY * W
+                    FFT.multiplyAccumulate(gradients[0], gradients[1], gradient, filterRe, filterIm, 0,
+                        sumRe, sumIm, b * size, size, false);
+
+                    // dW += X * conj(dY)
+                    FFT.multiplyAccumulate(images[0], images[1], image, gradients[0], gradients[1], gradient,
+                        tapsRe, tapsIm, 0, size, true);
+                }
+
+                grid.inverse(tapsRe, tapsIm, 0);
+                grid.gatherTaps(tapsRe, gradFilterData, (f * channels + c) * grid.filterArea());
+            }
+
+            for (int b = 0; b < batch; b++) {
+                grid.inverse(sumRe, sumIm, b * size);
+
+                int origin = grid.paddingHeight() * grid.gridWidth() + grid.paddingWidth();
+                grid.crop(sumRe, b * size, gradInputData, (b * channels + c) * grid.inHeight() * grid.inWidth(),
+                    origin, grid.inHeight(), grid.inWidth());
+            }
+        });
+
+        return new Tensor[] { gradInput, gradFilters };
+    }
+
+    /**
+     * The shapes of a convolution and of its power of two frequency grid.
+     */
+    private record Grid(
+        int batch,
+        int channels,
+        int inHeight,
+        int inWidth,
+        int numFilters,
+        int filterHeight,
+        int filterWidth,
+        int outHeight,
+        int outWidth,
+        int gridHeight,
+        int gridWidth,
+        ConvolveParameters parameters
+    ) {
+
+        static Grid of(Tensor input, Tensor filters, ConvolveParameters parameters) {
+            int[] inShape = input.shape();
+            int[] filterShape = filters.shape();
+
+            if (inShape.length != 4 || filterShape.length != 4) {
+                throw Commons.illegalArgument("Convolution expects rank 4 inputs and filters!");
+            }
+
+            if (filterShape[1] != inShape[1]) {
+                throw Commons.illegalArgument("Filters have %s channels, but the input has %s!", filterShape[1], inShape[1]);
+            }
+
+            if (parameters.strideHeight() != 1 || parameters.strideWidth() != 1) {
+                throw Commons.illegalArgument("FFT convolution only supports a stride of 1!");
+            }
+
+            int outHeight = parameters.outputHeight(inShape[2], filterShape[2]);
+            int outWidth = parameters.outputWidth(inShape[3], filterShape[3]);
+
+            if (outHeight < 1 || outWidth < 1) {
+                throw Commons.illegalArgument("Filters of %sx%s do not fit an input of %sx%s!",
+                    filterShape[2], filterShape[3], inShape[2], inShape[3]);
+            }
+
+            int gridHeight = Commons.nextPowerOf2(inShape[2] + 2 * parameters.paddingHeight());
+            int gridWidth = Commons.nextPowerOf2(inShape[3] + 2 * parameters.paddingWidth());
+
+            return new Grid(
+                inShape[0], inShape[1], inShape[2], inShape[3],
+                filterShape[0], filterShape[2], filterShape[3],
+                outHeight, outWidth,
+                gridHeight, gridWidth,
+                parameters
+            );
+        }
+
+        int size() {
+            return gridHeight * gridWidth;
+        }
+
+        int outArea() {
+            return outHeight * outWidth;
+        }
+
+        int filterArea() {
+            return filterHeight * filterWidth;
+        }
+
+        int paddingHeight() {
+            return parameters.paddingHeight();
+        }
+
+        int paddingWidth() {
+            return parameters.paddingWidth();
+        }
+
+        /**
+         * @return the real and imaginary parts of every padded image, laid out as {@code [batch, channels, size]}
+         */
+        float[][] transformImages(float[] imageData) {
+            int origin = paddingHeight() * gridWidth + paddingWidth();
+            return transformAll(imageData, batch * channels, inHeight, inWidth, origin);
+        }
+
+        /**
+         * @return the real and imaginary parts of every output gradient, laid out as {@code [batch, filters, size]}
+         */
+        float[][] transformGradients(float[] gradientData) {
+            return transformAll(gradientData, batch * numFilters, outHeight, outWidth, 0);
+        }
+
+        void transformFilter(float[] filterData, int f, int c, float[] re, float[] im) {
+            Arrays.fill(re, 0);
+            Arrays.fill(im, 0);
+
+            int source = (f * channels + c) * filterArea();
+
+            for (int i = 0; i < filterHeight; i++) {
+                int row = i * parameters.dilationHeight() * gridWidth;
+
+                for (int j = 0; j < filterWidth; j++) {
+                    re[row + j * parameters.dilationWidth()] = filterData[source + i * filterWidth + j];
+                }
+            }
+
+            FFT.transform2d(re, im, 0, gridHeight, gridWidth, false);
+        }
+
+        void inverse(float[] re, float[] im, int offset) {
+            FFT.transform2d(re, im, offset, gridHeight, gridWidth, true);
+        }
+
+        /**
+         * Copies a {@code [rows, cols]} window of a spatial grid, starting at {@code origin}.
+         */
+        void crop(float[] grid, int offset, float[] dest, int destOffset, int origin, int rows, int cols) {
+            for (int y = 0; y < rows; y++) {
+                System.arraycopy(grid, offset + origin + y * gridWidth, dest, destOffset + y * cols, cols);
+            }
+        }
+
+        /**
+         * Copies the taps of a dilated filter from a spatial grid.
+         */
+        void gatherTaps(float[] grid, float[] dest, int destOffset) {
+            for (int i = 0; i < filterHeight; i++) {
+                int row = i * parameters.dilationHeight() * gridWidth;
+
+                for (int j = 0; j < filterWidth; j++) {
+                    dest[destOffset + i * filterWidth + j] = grid[row + j * parameters.dilationWidth()];
+                }
+            }
+        }
+
+        private float[][] transformAll(float[] data, int count, int rows, int cols, int origin) {
+            int size = size();
+            float[] re = new float[count * size];
+            float[] im = new float[count * size];
+
+            ComputeScheduler.current().parallelForEach(0, count, 1, index -> {
+                int base = index * size;
+
+                for (int y = 0; y < rows; y++) {
+                    System.arraycopy(data, (index * rows + y) * cols, re, base + origin + y * gridWidth, cols);
+                }
+
+                FFT.transform2d(re, im, base, gridHeight, gridWidth, false);
+            });
+
+            return new float[][] { re, im };
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.brain4j.math.tensor.convolution.im2col;
+
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+
+/**
+ * Accumulates the columns back into the images, the adjoint of {@link Im2ColTask}. Every iteration
+ * owns one channel of one image, from {@code firstImage} on, so overlapping patches never race.
+ * Taps falling in the padding are dropped.
+ */
+public class Col2ImTask implements ComputeScheduler.RangeTask {
+
+    private final Im2ColParams params;
+    private final int firstImage;
+    private final int endPatch;
+
+    /**
+     * @param params the operands, the columns hold the patches from {@code firstPatch} to {@code endPatch}
+     * @param endPatch the patch after the last one held by the columns
+     */
+    public Col2ImTask(Im2ColParams params, int endPatch) {
+        this.params = params;
+        this.firstImage = params.firstPatch() / params.patchesPerImage();
+        this.endPatch = endPatch;
+    }
+
+    /**
+     * @return the number of iterations covering the columns
+     */
+    public int iterations() {
+        int lastImage = (endPatch - 1) / params.patchesPerImage();
+        return (lastImage - firstImage + 1) * params.channelCount();
+    }
+
+    @Override
+    public void run(int start, int end) {
+        ConvolveParameters conv = params.parameters();
+
+        float[] imageData = params.imageData();
+        float[] columnData = params.columnData();
+
+        int channels = params.channelCount();
+        int inHeight = params.inputHeight();
+        int inWidth = params.inputWidth();
+        int filterHeight = params.filterHeight();
+        int filterWidth = params.filterWidth();
+        int outWidth = params.outputWidth();
+
+        int patchSize = params.patchSize();
+        int patches = params.patchesPerImage();
+
+        for (int i = start; i < end; i++) {
+            int image = firstImage + i / channels;
+            int c = i % channels;
+
+            int channelBase = (image * channels + c) * inHeight * inWidth;
+            int from = Math.max(params.firstPatch(), image * patches);
+            int to = Math.min(endPatch, (image + 1) * patches);
+
+            for (int patch = from; patch < to; patch++) {
+                int pixel = patch % patches;
+
+                int top = (pixel / outWidth) * conv.strideHeight() - conv.paddingHeight();
+                int left = (pixel % outWidth) * conv.strideWidth() - conv.paddingWidth();
+                int srcBase = (patch - params.firstPatch()) * patchSize + c * filterHeight * filterWidth;
+
+                for (int fh = 0; fh < filterHeight; fh++) {
+                    int y = top + fh * conv.dilationHeight();
+                    if (y < 0 || y >= inHeight) continue;
+
+                    int rowBase = channelBase + y * inWidth;
+                    int src = srcBase + fh * filterWidth;
+
+                    for (int fw = 0; fw < filterWidth; fw++) {
+                        int x = left + fw * conv.dilationWidth();
+
+                        if (x >= 0 && x < inWidth) {
+                            imageData[rowBase + x] += columnData[src + fw];
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
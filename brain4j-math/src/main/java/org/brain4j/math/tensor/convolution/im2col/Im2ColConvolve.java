@@ -0,0 +1,290 @@
+package org.brain4j.math.tensor.convolution.im2col;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.matmul.impl.SIMDGemm;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.Tuning;
+
+import java.util.Arrays;
+
+/**
+ * Convolution of any geometry expressed as a matrix multiplication.
+ * <p>
+ * The patches of the whole batch form a {@code [patchSize, batch * patches]} matrix, which is streamed
+ * in blocks of {@link Tuning#convolveBlock()} patches: each block is gathered by {@link Im2ColTask} into
+ * a reused scratch buffer and multiplied with the {@code [filters, patchSize]} filter matrix by a single
+ * blocked GEMM. The backward pass streams the same blocks, accumulating the filter gradient with one GEMM
+ * and scattering the input gradient of another one back with {@link Col2ImTask}.
+ */
+public final class Im2ColConvolve {
+
+    private static final float[] EMPTY = new float[0];
+
+    private static final ThreadLocal<float[]> COLUMNS = ThreadLocal.withInitial(() -> EMPTY);
+    private static final ThreadLocal<float[]> PRODUCTS = ThreadLocal.withInitial(() -> EMPTY);
+    private static final ThreadLocal<float[]> GRADIENTS = ThreadLocal.withInitial(() -> EMPTY);
+
+    private Im2ColConvolve() {
+    }
+
+    /**
+     * Convolves a batch of inputs with a set of filters.
+     * @param input the input, of shape {@code [batch, channels, height, width]}
+     * @param filters the filters, of shape {@code [filters, channels, filterHeight, filterWidth]}
+     * @param parameters the stride, padding and dilation
+     * @return the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     * @throws IllegalArgumentException if the shapes do not match
+     */
+    public static Tensor convolve(Tensor input, Tensor filters, ConvolveParameters parameters) {
+        Geometry geometry = Geometry.of(input, filters, parameters);
+
+        int numFilters = geometry.numFilters();
+        int patchSize = geometry.patchSize();
+        int patches = geometry.patchesPerImage();
+        int total = geometry.batch() * patches;
+
+        Tensor out = Tensors.zeros(geometry.batch(), numFilters, geometry.outHeight(), geometry.outWidth());
+
+        float[] imageData = input.contiguous().data();
+        float[] filterData = filters.contiguous().data();
+        float[] outData = out.data();
+
+        int block = Math.min(total, Tuning.current().convolveBlock());
+        float[] columns = acquire(COLUMNS, block * patchSize);
+        float[] products = acquire(PRODUCTS, numFilters * block);
+
+        try {
+            for (int first = 0; first < total; first += block) {
+                int length = Math.min(block, total - first);
+                int image = first / patches;
+                int pixel = first % patches;
+
+                gatherColumns(geometry, imageData, columns, first, length);
+
+                // A block within a single image is already a [filters, length] window of the output
+                if (pixel + length <= patches) {
+                    int offset = image * numFilters * patches + pixel;
+                    multiply(filterData, 0, patchSize, 1, columns, 0, 1, patchSize, outData, offset, patches,
+                        numFilters, patchSize, length);
+                    continue;
+                }
+
+                Arrays.fill(products, 0, numFilters * length, 0);
+                multiply(filterData, 0, patchSize, 1, columns, 0, 1, patchSize, products, 0, length,
+                    numFilters, patchSize, length);
+
+                forEachRun(first, length, patches, (position, img, px, run) -> {
+                    for (int f = 0; f < numFilters; f++) {
+                        int dest = (img * numFilters + f) * patches + px;
+                        System.arraycopy(products, f * length + position, outData, dest, run);
+                    }
+                });
+            }
+        } finally {
+            release(COLUMNS, columns);
+            release(PRODUCTS, products);
+        }
+
+        return out;
+    }
+
+    /**
+     * Computes the gradients of {@link #convolve(Tensor, Tensor, ConvolveParameters)}.
+     * @param gradOutput the gradient of the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     * @param input the input of the forward pass
+     * @param filters the filters of the forward pass
+     * @param parameters the stride, padding and dilation of the forward pass
+     * @return the gradients of the input and of the filters, in this order
+     */
+    public static Tensor[] backward(Tensor gradOutput, Tensor input, Tensor filters, ConvolveParameters parameters) {
+        Geometry geometry = Geometry.of(input, filters, parameters);
+
+        int numFilters = geometry.numFilters();
+        int patchSize = geometry.patchSize();
+        int patches = geometry.patchesPerImage();
+        int total = geometry.batch() * patches;
+
+        Tensor gradInput = Tensors.zeros(input.shape());
+        Tensor gradFilters = Tensors.zeros(filters.shape());
+
+        float[] imageData = input.contiguous().data();
+        float[] filterData = filters.contiguous().data();
+        float[] gradOutData = gradOutput.contiguous().data();
+        float[] gradInputData = gradInput.data();
+        float[] gradFilterData = gradFilters.data();
+
+        int block = Math.min(total, Tuning.current().convolveBlock());
+        float[] columns = acquire(COLUMNS, block * patchSize);
+        float[] products = acquire(PRODUCTS, numFilters * block);
+        float[] gradients = acquire(GRADIENTS, block * patchSize);
+
+        try {
+            for (int first = 0; first < total; first += block) {
+                int length = Math.min(block, total - first);
+
+                gatherColumns(geometry, imageData, columns, first, length);
+
+                // The output gradient of the block, as a [filters, length] matrix
+                forEachRun(first, length, patches, (position, img, px, run) -> {
+                    for (int f = 0; f < numFilters; f++) {
+                        int src = (img * numFilters + f) * patches + px;
+                        System.arraycopy(gradOutData, src, products, f * length + position, run);
+                    }
+                });
+
+                // dW += dY * X_col^T
+                multiply(products, 0, length, 1, columns, 0, patchSize, 1, gradFilterData, 0, patchSize,
+                    numFilters, length, patchSize);
+
+                // dX_col = W^T * dY, stored patch-major like the columns
+                Arrays.fill(gradients, 0, length * patchSize, 0);
+                multiply(products, 0, 1, length, filterData, 0, patchSize, 1, gradients, 0, patchSize,
+                    length, numFilters, patchSize);
+
+                Col2ImTask scatter = new Col2ImTask(geometry.params(gradInputData, gradients, first), first + length);
+                ComputeScheduler.current().parallelFor(0, scatter.iterations(), 1, scatter);
+            }
+        } finally {
+            release(COLUMNS, columns);
+            release(PRODUCTS, products);
+            release(GRADIENTS, gradients);
+        }
+
+        return new Tensor[] { gradInput, gradFilters };
+    }
+
+    private static void gatherColumns(Geometry geometry, float[] imageData, float[] columns, int first, int length) {
+        Im2ColTask task = new Im2ColTask(geometry.params(imageData, columns, first));
+        ComputeScheduler.current().parallelFor(first, first + length, Im2ColTask.GRAIN, task);
+    }
+
+    /**
+     * Computes {@code C += A * B}, through {@link SIMDGemm} when the Vector API is available.
+     */
+    private static void multiply(
+        float[] a, int offA, int rsA, int csA,
+        float[] b, int offB, int rsB, int csB,
+        float[] c, int offC, int rsC,
+        int m, int n, int p
+    ) {
+        if (DeviceUtils.isSimdAvailable()) {
+            SIMDGemm.gemm(a, offA, rsA, csA, b, offB, rsB, csB, c, offC, rsC, m, n, p, null, true);
+            return;
+        }
+
+        ComputeScheduler.current().parallelFor(0, m, 1, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                int rowC = offC + i * rsC;
+
+                for (int t = 0; t < n; t++) {
+                    float value = a[offA + i * rsA + t * csA];
+                    if (value == 0) continue;
+
+                    int rowB = offB + t * rsB;
+
+                    for (int j = 0; j < p; j++) {
+                        c[rowC + j] += value * b[rowB + j * csB];
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Splits the patches {@code [first, first + length)} at image boundaries.
+     */
+    private static void forEachRun(int first, int length, int patches, RunConsumer consumer) {
+        int position = 0;
+
+        while (position < length) {
+            int patch = first + position;
+            int pixel = patch % patches;
+            int run = Math.min(patches - pixel, length - position);
+
+            consumer.accept(position, patch / patches, pixel, run);
+            position += run;
+        }
+    }
+
+    /**
+     * Takes the buffer cached by this thread, or a new one if it is too small. Until released, a nested
+     * convolution on the same thread (e.g. from a stolen task) gets its own buffer.
+     */
+    private static float[] acquire(ThreadLocal<float[]> cache, int size) {
+        float[] buffer = cache.get();
+        cache.set(EMPTY);
+        return buffer.length >= size ? buffer : new float[size];
+    }
+
+    private static void release(ThreadLocal<float[]> cache, float[] buffer) {
+        if (buffer.length > cache.get().length) cache.set(buffer);
+    }
+
+    @FunctionalInterface
+    private interface RunConsumer {
+        void accept(int position, int image, int pixel, int run);
+    }
+
+    private record Geometry(
+        int batch,
+        int channels,
+        int inHeight,
+        int inWidth,
+        int numFilters,
+        int filterHeight,
+        int filterWidth,
+        int outHeight,
+        int outWidth,
+        ConvolveParameters parameters
+    ) {
+
+        static Geometry of(Tensor input, Tensor filters, ConvolveParameters parameters) {
+            int[] inShape = input.shape();
+            int[] filterShape = filters.shape();
+
+            if (inShape.length != 4 || filterShape.length != 4) {
+                throw Commons.illegalArgument("Convolution expects rank 4 inputs and filters!");
+            }
+
+            if (filterShape[1] != inShape[1]) {
+                throw Commons.illegalArgument("Filters have %s channels, but the input has %s!", filterShape[1], inShape[1]);
+            }
+
+            int outHeight = parameters.outputHeight(inShape[2], filterShape[2]);
+            int outWidth = parameters.outputWidth(inShape[3], filterShape[3]);
+
+            if (outHeight < 1 || outWidth < 1) {
+                throw Commons.illegalArgument("Filters of %sx%s do not fit an input of %sx%s!",
+                    filterShape[2], filterShape[3], inShape[2], inShape[3]);
+            }
+
+            return new Geometry(
+                inShape[0], inShape[1], inShape[2], inShape[3],
+                filterShape[0], filterShape[2], filterShape[3],
+                outHeight, outWidth, parameters
+            );
+        }
+
+        int patchSize() {
+            return channels * filterHeight * filterWidth;
+        }
+
+        int patchesPerImage() {
+            return outHeight * outWidth;
+        }
+
+        Im2ColParams params(float[] imageData, float[] columnData, int firstPatch) {
+            return new Im2ColParams(
+                imageData, columnData, firstPatch,
+                channels, inHeight, inWidth,
+                filterHeight, filterWidth,
+                outHeight, outWidth,
+                parameters
+            );
+        }
+    }
+}
@@ -1,15 +1,52 @@
 package org.brain4j.math.tensor.convolution.im2col;
 
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+
+/**
+ * The operands of an {@link Im2ColTask} or a {@link Col2ImTask}.
+ * <p>
+ * Patches are numbered across the whole batch: patch {@code n} is output pixel
+ * {@code n % (outputHeight * outputWidth)} of image {@code n / (outputHeight * outputWidth)}. The columns
+ * hold a contiguous run of patches starting at {@code firstPatch}, each stored as {@code patchSize()}
+ * consecutive floats ordered by channel, filter row and filter column.
+ *
+ * @param imageData the images, of shape {@code [batch, channels, inputHeight, inputWidth]}
+ * @param columnData the columns, of shape {@code [patches, patchSize]}
+ * @param firstPatch the patch stored at the start of the columns
+ * @param channelCount the channels of every image
+ * @param inputHeight the height of every image
+ * @param inputWidth the width of every image
+ * @param filterHeight the height of the filter
+ * @param filterWidth the width of the filter
+ * @param outputHeight the height of the convolution output
+ * @param outputWidth the width of the convolution output
+ * @param parameters the stride, padding and dilation of the convolution
+ */
 public record Im2ColParams(
-    float[] inputData,
-    float[] resultData,
-    int inputBaseOffset,
-    int resultBaseOffset,
+    float[] imageData,
+    float[] columnData,
+    int firstPatch,
     int channelCount,
     int inputHeight,
     int inputWidth,
     int filterHeight,
     int filterWidth,
     int outputHeight,
-    int outputWidth
-) {}
\ No newline at end of file
+    int outputWidth,
+    ConvolveParameters parameters
+) {
+
+    /**
+     * @return the floats of a single patch
+     */
+    public int patchSize() {
+        return channelCount * filterHeight * filterWidth;
+    }
+
+    /**
+     * @return the patches of a single image
+     */
+    public int patchesPerImage() {
+        return outputHeight * outputWidth;
+    }
+}
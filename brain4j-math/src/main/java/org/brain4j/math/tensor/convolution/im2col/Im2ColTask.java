@@ -1,57 +1,79 @@
 package org.brain4j.math.tensor.convolution.im2col;
 
-import java.util.concurrent.RecursiveAction;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
 
-public class Im2ColTask extends RecursiveAction {
+import java.util.Arrays;
 
-    private static final int PARALLEL_THRESHOLD = 1 << 12; // 4096 patch
+/**
+ * Copies a range of patches from the images into the columns. Taps falling in the padding are written
+ * as zeros, so the columns can be a reused buffer.
+ */
+public class Im2ColTask implements ComputeScheduler.RangeTask {
+
+    public static final int GRAIN = 1 << 12; // 4096 patch
     private final Im2ColParams params;
-    private final int startPatch;
-    private final int endPatch;
 
-    public Im2ColTask(Im2ColParams params, int startPatch, int endPatch) {
+    public Im2ColTask(Im2ColParams params) {
         this.params = params;
-        this.startPatch = startPatch;
-        this.endPatch = endPatch;
     }
 
     @Override
-    protected void compute() {
-        int patchSize = params.channelCount() * params.filterHeight() * params.filterWidth();
-        int work = endPatch - startPatch;
-
-        if (work > PARALLEL_THRESHOLD) {
-            int mid = (startPatch + endPatch) >>> 1;
-            invokeAll(
-                new Im2ColTask(params, startPatch, mid),
-                new Im2ColTask(params, mid, endPatch)
-            );
-            return;
-        }
+    public void run(int startPatch, int endPatch) {
+        ConvolveParameters conv = params.parameters();
+
+        float[] imageData = params.imageData();
+        float[] columnData = params.columnData();
+
+        int channels = params.channelCount();
+        int inHeight = params.inputHeight();
+        int inWidth = params.inputWidth();
+        int filterHeight = params.filterHeight();
+        int filterWidth = params.filterWidth();
+        int outWidth = params.outputWidth();
+
+        int patchSize = params.patchSize();
+        int patches = params.patchesPerImage();
+        int inputSize = inHeight * inWidth;
+        int dilationWidth = conv.dilationWidth();
+
+        for (int patch = startPatch; patch < endPatch; patch++) {
+            int image = patch / patches;
+            int pixel = patch % patches;
+
+            int top = (pixel / outWidth) * conv.strideHeight() - conv.paddingHeight();
+            int left = (pixel % outWidth) * conv.strideWidth() - conv.paddingWidth();
+            int span = (filterWidth - 1) * dilationWidth + 1;
+
+            // Rows entirely inside the image with adjacent taps are a single copy
+            boolean inside = dilationWidth == 1 && left >= 0 && left + span <= inWidth;
+            int destBase = (patch - params.firstPatch()) * patchSize;
+
+            for (int c = 0; c < channels; c++) {
+                int channelBase = (image * channels + c) * inputSize;
 
-        float[] inputData = params.inputData();
-        float[] resultData = params.resultData();
-        int inputBase = params.inputBaseOffset();
-        int resultBase = params.resultBaseOffset();
+                for (int fh = 0; fh < filterHeight; fh++) {
+                    int y = top + fh * conv.dilationHeight();
+                    int dest = destBase + (c * filterHeight + fh) * filterWidth;
 
-        int filterSize = params.filterHeight() * params.filterWidth();
-        int inputSize = params.inputHeight() * params.inputWidth();
+                    if (y < 0 || y >= inHeight) {
+                        Arrays.fill(columnData, dest, dest + filterWidth, 0);
+                        continue;
+                    }
 
-        for (int patchIndex = startPatch; patchIndex < endPatch; patchIndex++) {
-            int outRow = patchIndex / params.outputWidth();
-            int outCol = patchIndex % params.outputWidth();
-            int baseResultOffset = resultBase + patchIndex * patchSize;
+                    int rowBase = channelBase + y * inWidth;
 
-            for (int c = 0; c < params.channelCount(); c++) {
-                int channelOffsetInput = inputBase + c * inputSize + outCol;
-                int channelOffsetResult = c * filterSize + baseResultOffset;
+                    if (inside) {
+                        System.arraycopy(imageData, rowBase + left, columnData, dest, filterWidth);
+                        continue;
+                    }
 
-                for (int fh = 0; fh < params.filterHeight(); fh++) {
-                    int srcPos = (outRow + fh) * params.inputWidth() + channelOffsetInput;
-                    int destPos = channelOffsetResult + fh * params.filterWidth();
-                    System.arraycopy(inputData, srcPos, resultData, destPos, params.filterWidth());
+                    for (int fw = 0; fw < filterWidth; fw++) {
+                        int x = left + fw * dilationWidth;
+                        columnData[dest + fw] = x >= 0 && x < inWidth ? imageData[rowBase + x] : 0;
+                    }
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
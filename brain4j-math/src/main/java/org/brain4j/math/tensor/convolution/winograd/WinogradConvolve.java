@@ -0,0 +1,229 @@
+package org.brain4j.math.tensor.convolution.winograd;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+
+import java.util.Arrays;
+
+/**
+ * Stride 1 convolution with {@code 3 x 3} filters through the Winograd minimal filtering algorithms.
+ * <p>
+ * The output is split into {@code m x m} tiles, each computed in three steps:
+ * <ul>
+ *     <li>every filter and every overlapping input tile, zero padded where it leaves the image,
+ *         is transformed into the Winograd domain, respectively {@code U = G g G^T} and {@code V = B^T d B};</li>
+ *     <li>the element-wise products are summed over the channels. For each of the {@code (m + 2)^2}
+ *         positions of a tile this is a GEMM {@code [filters, channels] x [channels, tiles]}, so all
+ *         of them run as a single batched matmul;</li>
+ *     <li>the products are transformed back with {@code Y = A^T M A} and written to the output.</li>
+ * </ul>
+ * With {@link WinogradTile#F4X4_3X3} the GEMMs do 4 times fewer multiply-adds than im2col.
+ */
+public final class WinogradConvolve {
+
+    private WinogradConvolve() {
+    }
+
+    /**
+     * Checks whether a convolution can run through this algorithm.
+     * @param filterHeight the height of the filters
+     * @param filterWidth the width of the filters
+     * @param parameters the stride, padding and dilation of the convolution
+     * @return true for {@code 3 x 3} filters with unit stride and no dilation
+     */
+    public static boolean supports(int filterHeight, int filterWidth, ConvolveParameters parameters) {
+        return filterHeight == WinogradTile.FILTER_SIZE && filterWidth == WinogradTile.FILTER_SIZE
+            && parameters.isDense();
+    }
+
+    /**
+     * Convolves a batch of inputs with a set of filters.
+     * @param input the input, of shape {@code [batch, channels, height, width]}
+     * @param filters the filters, of shape {@code [filters, channels, 3, 3]}
+     * @param parameters the padding of the convolution, with unit stride and no dilation
+     * @param tile the algorithm to use
+     * @return the output, of shape {@code [batch, filters, height + 2 * padding - 2, width + 2 * padding - 2]}
+     * @throws IllegalArgumentException if the shapes or the parameters are not supported
+     */
+    public static Tensor convolve(Tensor input, Tensor filters, ConvolveParameters parameters, WinogradTile tile) {
+        int[] inShape = input.shape();
+        int[] filterShape = filters.shape();
+
+        if (inShape.length != 4 || filterShape.length != 4) {
+            throw Commons.illegalArgument("Winograd convolution expects rank 4 inputs and filters!");
+        }
+
+        int batch = inShape[0];
+        int channels = inShape[1];
+        int inHeight = inShape[2];
+        int inWidth = inShape[3];
+        int numFilters = filterShape[0];
+
+        if (filterShape[1] != channels) {
+            throw Commons.illegalArgument("Filters have %s channels, but the input has %s!", filterShape[1], channels);
+        }
+
+        if (!supports(filterShape[2], filterShape[3], parameters)) {
+            throw Commons.illegalArgument("Winograd convolution only supports 3x3 filters with unit stride and no dilation!");
+        }
+
+        int outHeight = parameters.outputHeight(inHeight, WinogradTile.FILTER_SIZE);
+        int outWidth = parameters.outputWidth(inWidth, WinogradTile.FILTER_SIZE);
+
+        if (outHeight < 1 || outWidth < 1) {
+            throw Commons.illegalArgument("Filters of 3x3 do not fit an input of %sx%s!", inHeight, inWidth);
+        }
+
+        int m = tile.outputSize();
+        int alpha = tile.inputSize();
+        int area = alpha * alpha;
+
+        int tilesHeight = (outHeight + m - 1) / m;
+        int tilesWidth = (outWidth + m - 1) / m;
+        int tiles = batch * tilesHeight * tilesWidth;
+
+        float[] transformedFilters = transformFilters(filters.contiguous().data(), numFilters, channels, tile);
+        float[] transformedInput = transformInput(input.contiguous().data(), batch, channels, inHeight, inWidth,
+            parameters, tilesHeight, tilesWidth, tile);
+
+        Tensor U = Tensors.create(new int[] { area, numFilters, channels }, transformedFilters);
+        Tensor V = Tensors.create(new int[] { area, channels, tiles }, transformedInput);
+
+        float[] products = U.matmul(V).data(); // [area, filters, tiles]
+
+        Tensor out = Tensors.zeros(batch, numFilters, outHeight, outWidth);
+        float[] outData = out.data();
+
+        // Every task transforms back one row of tiles of a single filter
+        ComputeScheduler.current().parallelFor(0, batch * numFilters * tilesHeight, 1, (start, end) -> {
+            float[] product = new float[area];
+            float[] scratch = new float[area];
+            float[] result = new float[m * m];
+
+            for (int task = start; task < end; task++) {
+                int tileRow = task % tilesHeight;
+                int f = (task / tilesHeight) % numFilters;
+                int b = task / (tilesHeight * numFilters);
+
+                int outBase = (b * numFilters + f) * outHeight * outWidth;
+                int rowHeight = Math.min(m, outHeight - tileRow * m);
+
+                for (int tileCol = 0; tileCol < tilesWidth; tileCol++) {
+                    int t = (b * tilesHeight + tileRow) * tilesWidth + tileCol;
+                    int source = f * tiles + t;
+
+                    for (int xi = 0; xi < area; xi++) {
+                        product[xi] = products[xi * numFilters * tiles + source];
+                    }
+
+                    tile.transformOutput(product, scratch, result);
+
+                    int colWidth = Math.min(m, outWidth - tileCol * m);
+
+                    for (int i = 0; i < rowHeight; i++) {
+                        int dest = outBase + (tileRow * m + i) * outWidth + tileCol * m;
+                        System.arraycopy(result, i * m, outData, dest, colWidth);
+                    }
+                }
+            }
+        });
+
+        return out;
+    }
+
+    /**
+     * @return the filters in the Winograd domain, laid out as {@code [area, filters, channels]}
+     */
+    private static float[] transformFilters(float[] filterData, int numFilters, int channels, WinogradTile tile) {
+        int alpha = tile.inputSize();
+        int area = alpha * alpha;
+        int kernelSize = WinogradTile.FILTER_SIZE * WinogradTile.FILTER_SIZE;
+        int pairs = numFilters * channels;
+
+        float[] result = new float[area * pairs];
+
+        ComputeScheduler.current().parallelFor(0, pairs, 64, (start, end) -> {
+            float[] filter = new float[kernelSize];
+            float[] scratch = new float[alpha * WinogradTile.FILTER_SIZE];
+            float[] transformed = new float[area];
+
+            // Filters are [filters, channels, 3, 3], so a pair index is also the filter offset
+            for (int pair = start; pair < end; pair++) {
+                System.arraycopy(filterData, pair * kernelSize, filter, 0, kernelSize);
+                tile.transformFilter(filter, scratch, transformed);
+
+                for (int xi = 0; xi < area; xi++) {
+                    result[xi * pairs + pair] = transformed[xi];
+                }
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * @return the input tiles in the Winograd domain, laid out as {@code [area, channels, tiles]}
+     */
+    private static float[] transformInput(
+        float[] inputData,
+        int batch, int channels,
+        int inHeight, int inWidth,
+        ConvolveParameters parameters,
+        int tilesHeight, int tilesWidth,
+        WinogradTile tile
+    ) {
+        int m = tile.outputSize();
+        int alpha = tile.inputSize();
+        int area = alpha * alpha;
+        int tiles = batch * tilesHeight * tilesWidth;
+        int channelStride = channels * tiles;
+
+        float[] result = new float[area * channelStride];
+
+        // Every task transforms one row of tiles of a single channel
+        ComputeScheduler.current().parallelFor(0, batch * channels * tilesHeight, 1, (start, end) -> {
+            float[] window = new float[area];
+            float[] scratch = new float[area];
+            float[] transformed = new float[area];
+
+            for (int task = start; task < end; task++) {
+                int tileRow = task % tilesHeight;
+                int c = (task / tilesHeight) % channels;
+                int b = task / (tilesHeight * channels);
+
+                int inBase = (b * channels + c) * inHeight * inWidth;
+                int top = tileRow * m - parameters.paddingHeight();
+                int firstRow = Math.max(0, -top);
+                int endRow = Math.min(alpha, inHeight - top);
+
+                for (int tileCol = 0; tileCol < tilesWidth; tileCol++) {
+                    int left = tileCol * m - parameters.paddingWidth();
+                    int firstCol = Math.max(0, -left);
+                    int endCol = Math.min(alpha, inWidth - left);
+
+                    // Tiles hanging over an edge of the image read zeros there
+                    if (firstRow > 0 || firstCol > 0 || endRow < alpha || endCol < alpha) Arrays.fill(window, 0);
+
+                    for (int i = firstRow; i < endRow && firstCol < endCol; i++) {
+                        int src = inBase + (top + i) * inWidth + left + firstCol;
+                        System.arraycopy(inputData, src, window, i * alpha + firstCol, endCol - firstCol);
+                    }
+
+                    tile.transformInput(window, scratch, transformed);
+
+                    int t = (b * tilesHeight + tileRow) * tilesWidth + tileCol;
+                    int dest = c * tiles + t;
+
+                    for (int xi = 0; xi < area; xi++) {
+                        result[xi * channelStride + dest] = transformed[xi];
+                    }
+                }
+            }
+        });
+
+        return result;
+    }
+}
@@ -0,0 +1,157 @@
+package org.brain4j.math.tensor.convolution.winograd;
+
+/**
+ * The minimal filtering algorithms {@code F(m x m, 3 x 3)} used by {@link WinogradConvolve}.
+ * <p>
+ * Each one computes an {@code m x m} output tile from an {@code (m + 2) x (m + 2)} input tile as
+ * {@code Y = A^T [(G g G^T) * (B^T d B)] A}, with {@code *} the element-wise product. The matrices are
+ * the ones from Lavin and Gray, "Fast Algorithms for Convolutional Neural Networks" (2015).
+ */
+public enum WinogradTile {
+
+    /** 16 multiplications per 4 outputs instead of 36, the most accurate. */
+    F2X2_3X3(2,
+        new float[] {
+            1,  0, -1,  0,
+            0,  1,  1,  0,
+            0, -1,  1,  0,
+            0,  1,  0, -1
+        },
+        new float[] {
+            1,     0,    0,
+            0.5f,  0.5f, 0.5f,
+            0.5f, -0.5f, 0.5f,
+            0,     0,    1
+        },
+        new float[] {
+            1, 1,  1,  0,
+            0, 1, -1, -1
+        }
+    ),
+
+    /** 36 multiplications per 16 outputs instead of 144, at a small cost in precision. */
+    F4X4_3X3(4,
+        new float[] {
+            4,  0, -5,  0, 1, 0,
+            0, -4, -4,  1, 1, 0,
+            0,  4, -4, -1, 1, 0,
+            0, -2, -1,  2, 1, 0,
+            0,  2, -1, -2, 1, 0,
+            0,  4,  0, -5, 0, 1
+        },
+        new float[] {
+            1 / 4f,   0,        0,
+            -1 / 6f,  -1 / 6f,  -1 / 6f,
+            -1 / 6f,  1 / 6f,   -1 / 6f,
+            1 / 24f,  1 / 12f,  1 / 6f,
+            1 / 24f,  -1 / 12f, 1 / 6f,
+            0,        0,        1
+        },
+        new float[] {
+            1, 1,  1, 1,  1, 0,
+            0, 1, -1, 2, -2, 0,
+            0, 1,  1, 4,  4, 0,
+            0, 1, -1, 8, -8, 1
+        }
+    );
+
+    /** The side of the filters handled by every tile. */
+    public static final int FILTER_SIZE = 3;
+
+    private final int outputSize;
+    private final int inputSize;
+    private final float[] inputTransform;
+    private final float[] filterTransform;
+    private final float[] outputTransform;
+
+    WinogradTile(int outputSize, float[] inputTransform, float[] filterTransform, float[] outputTransform) {
+        this.outputSize = outputSize;
+        this.inputSize = outputSize + FILTER_SIZE - 1;
+        this.inputTransform = inputTransform;
+        this.filterTransform = filterTransform;
+        this.outputTransform = outputTransform;
+    }
+
+    /**
+     * Picks the largest tile that does not mostly compute padding.
+     * @param outHeight the height of the convolution output
+     * @param outWidth the width of the convolution output
+     * @return the tile to use
+     */
+    public static WinogradTile forOutput(int outHeight, int outWidth) {
+        return Math.min(outHeight, outWidth) >= 2 * F4X4_3X3.outputSize ? F4X4_3X3 : F2X2_3X3;
+    }
+
+    /**
+     * @return the side of the output tile
+     */
+    public int outputSize() {
+        return outputSize;
+    }
+
+    /**
+     * @return the side of the input tile
+     */
+    public int inputSize() {
+        return inputSize;
+    }
+
+    /**
+     * Computes {@code G g G^T}.
+     * @param filter a row-major {@code 3 x 3} filter
+     * @param scratch at least {@code inputSize * 3} floats
+     * @param out the row-major {@code inputSize x inputSize} result
+     */
+    public void transformFilter(float[] filter, float[] scratch, float[] out) {
+        sandwich(filterTransform, inputSize, FILTER_SIZE, filter, scratch, out);
+    }
+
+    /**
+     * Computes {@code B^T d B}.
+     * @param tile a row-major {@code inputSize x inputSize} input tile
+     * @param scratch at least {@code inputSize * inputSize} floats
+     * @param out the row-major {@code inputSize x inputSize} result
+     */
+    public void transformInput(float[] tile, float[] scratch, float[] out) {
+        sandwich(inputTransform, inputSize, inputSize, tile, scratch, out);
+    }
+
+    /**
+     * Computes {@code A^T m A}.
+     * @param product a row-major {@code inputSize x inputSize} transformed product
+     * @param scratch at least {@code outputSize * inputSize} floats
+     * @param out the row-major {@code outputSize x outputSize} result
+     */
+    public void transformOutput(float[] product, float[] scratch, float[] out) {
+        sandwich(outputTransform, outputSize, inputSize, product, scratch, out);
+    }
+
+    /**
+     * Computes {@code L X L^T} for a {@code [rows x k]} matrix L and a {@code [k x k]} matrix X.
+     */
+    private static void sandwich(float[] left, int rows, int k, float[] x, float[] scratch, float[] out) {
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < k; j++) {
+                float sum = 0;
+
+                for (int t = 0; t < k; t++) {
+                    sum += left[i * k + t] * x[t * k + j];
+                }
+
+                scratch[i * k + j] = sum;
+            }
+        }
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < rows; j++) {
+                float sum = 0;
+
+                for (int t = 0; t < k; t++) {
+                    sum += scratch[i * k + t] * left[j * k + t];
+                }
+
+                out[i * rows + j] = sum;
+            }
+        }
+    }
+}
@@ -2,17 +2,26 @@ package org.brain4j.math.tensor.impl;
 
 import org.brain4j.math.Tensors;
 import org.brain4j.math.activation.Activation;
+import org.brain4j.math.activation.impl.SoftmaxActivation;
 import org.brain4j.math.commons.Commons;
 import org.brain4j.math.commons.D2DFunction;
 import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.pooling.PoolingProvider;
+import org.brain4j.math.pooling.impl.AveragePooling;
+import org.brain4j.math.pooling.impl.GlobalAveragePooling;
 import org.brain4j.math.pooling.impl.MaxPooling;
-import org.brain4j.math.tensor.Shape;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.autograd.AutogradContext;
 import org.brain4j.math.tensor.autograd.Operation;
 import org.brain4j.math.tensor.autograd.impl.*;
+import org.brain4j.math.tensor.broadcast.TensorBroadcast;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
 import org.brain4j.math.tensor.index.Range;
+import org.brain4j.math.tensor.matmul.PackedWeights;
 import org.brain4j.math.tensor.parallel.ParallelMap;
+import org.brain4j.math.tensor.pool.BufferPool;
+import org.brain4j.math.tensor.rowwise.RowKernels;
+import org.brain4j.math.tensor.sum.Reduction;
 import org.brain4j.math.tensor.sum.TensorReducer;
 import org.brain4j.math.tensor.sum.impl.ScalarTensorReducer;
 import org.brain4j.math.tensor.sum.impl.SIMDTensorReducer;
@@ -23,18 +32,22 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
-import java.util.stream.IntStream;
 
 import static org.brain4j.math.Tensors.ones;
 
 public abstract class BaseTensor implements Tensor, Cloneable {
 
+    private static final TensorReducer REDUCER = DeviceUtils.isSimdAvailable() ? new SIMDTensorReducer() : new ScalarTensorReducer();
+
     protected AutogradContext autogradContext;
     protected int[] shape;
     protected int[] strides;
     protected float[] data;
+    protected int offset;
     protected boolean transposed;
+    protected int version;
 
     protected void appendTensor(StringBuilder result, int dim, int[] indices, String format) {
         if (dim == shape.length - 1) {
@@ -66,131 +79,6 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         }
     }
 
-    protected void sliceCopy(
-        Tensor result,
-        Range[] ranges,
-        int[] srcIndices,
-        int[] dstIndices,
-        int dim
-    ) {
-        if (dim == shape.length) {
-            result.set(get(srcIndices), dstIndices);
-            return;
-        }
-
-        Range range = dim < ranges.length ? ranges[dim] : null;
-        int dimension = shape[dim];
-
-        int start = range == null ? 0 : range.start(dimension);
-        int end = range == null ? shape[dim] : range.end(dimension);
-        int step = range == null ? 1 : range.step();
-
-        if (dim == shape.length - 1 && step == 1) {
-            int length = end - start;
-
-            srcIndices[dim] = start;
-            dstIndices[dim] = 0;
-
-            int srcOffset = Tensors.flattenIndex(srcIndices, this.strides);
-            int dstOffset = Tensors.flattenIndex(dstIndices, result.strides());
-
-            System.arraycopy(
-                this.data, srcOffset,
-                result.data(), dstOffset,
-                length
-            );
-            return;
-        }
-
-        for (int i = start, j = 0; i < end; i += step, j++) {
-            srcIndices[dim] = i;
-            dstIndices[dim] = j;
-            sliceCopy(result, ranges, srcIndices, dstIndices, dim + 1);
-        }
-    }
-    
-    protected void softmax1D(float[] data, int offset, int length, double temperature) {
-        float max = Float.NEGATIVE_INFINITY;
-        
-        for (int i = 0; i < length; i++) {
-            float value = data[offset + i];
-
-            if (value > max) {
-                max = value;
-            }
-        }
-
-        float sum = 0f;
-        
-        for (int i = 0; i < length; i++) {
-            float e = (float) Math.exp((data[offset + i] - max) / temperature);
-            sum += e;
-            data[offset + i] = e;
-        }
-        
-        for (int i = 0; i < length; i++) {
-            data[offset + i] /= sum;
-        }
-    }
-    
-    protected Tensor softmax1D(double temperature) {
-        Tensor result = clone();
-        softmax1D(result.data(), 0, result.elements(), temperature);
-        return result;
-    }
-    
-    protected Tensor softmax2D(double temperature) {
-        Tensor result = clone();
-        
-        int rows = shape[0];
-        int cols = shape[1];
-        
-        for (int r = 0; r < rows; r++) {
-            softmax1D(result.data(), r * cols, cols, temperature);
-        }
-        
-        return result;
-    }
-    
-    protected Tensor softmax3D(double temperature) {
-        Tensor result = clone();
-        
-        int batches = shape[0];
-        int rows = shape[1];
-        int cols = shape[2];
-        
-        float[] data = result.data();
-        int strideBR = rows * cols;
-        
-        IntStream.range(0, batches * rows).parallel().forEach(i -> {
-            int b = i / rows;
-            int r = i % rows;
-            softmax1D(data, b * strideBR + r * cols, cols, temperature);
-        });
-        
-        return result;
-    }
-    
-    protected Tensor softmaxND(double temperature) {
-        Tensor result = clone();
-        
-        int rank = shape.length;
-        int lastDim = shape[rank - 1];
-        int outerSize = 1;
-        
-        for (int i = 0; i < rank - 1; i++) {
-            outerSize *= shape[i];
-        }
-        
-        float[] data = result.data();
-
-        IntStream.range(0, outerSize)
-            .parallel()
-            .forEach(outer -> softmax1D(data, outer * lastDim, lastDim, temperature));
-
-        return result;
-    }
-    
     protected void setSliceRecursive(int[] index, int dim, int offset, int sliceSize, Tensor input) {
         if (dim == index.length - 1) {
             for (int i = 0; i < sliceSize; i++) {
@@ -230,10 +118,32 @@ public abstract class BaseTensor implements Tensor, Cloneable {
     public int[] strides() {
         return strides;
     }
-    
+
+    @Override
+    public int offset() {
+        return offset;
+    }
+
+    /**
+     * Gets the number of in-place updates made through the methods of this tensor, used by
+     * deferred expressions to detect tensors changed before being read. Writes through
+     * {@link #data()} and through other views of the same buffer are not counted.
+     * @return the version of this tensor
+     */
+    public int version() {
+        return version;
+    }
+
+    /**
+     * Marks this tensor as updated in place by code writing to {@link #data()} directly.
+     */
+    public void markModified() {
+        version++;
+    }
+
     @Override
     public byte[] toByteArray() {
-        float[] data = data();
+        float[] data = contiguous().data();
         
         ByteBuffer buffer = ByteBuffer.allocate(data.length * 4).order(ByteOrder.nativeOrder());
         
@@ -256,7 +166,7 @@ public abstract class BaseTensor implements Tensor, Cloneable {
             }
         }
 
-        return Tensors.flattenIndex(indices, strides);
+        return offset + Tensors.flattenIndex(indices, strides);
     }
 
     @Override
@@ -267,6 +177,7 @@ public abstract class BaseTensor implements Tensor, Cloneable {
     @Override
     public Tensor set(float value, int... indices) {
         data[linearIndex(indices)] = value;
+        version++;
         return this;
     }
 
@@ -277,24 +188,12 @@ public abstract class BaseTensor implements Tensor, Cloneable {
 
     @Override
     public int elements() {
-        return data().length;
+        return Tensors.computeSize(shape);
     }
 
     @Override
     public int argmax() {
-        float[] data = data();
-
-        double max = Double.NEGATIVE_INFINITY;
-        int maxIndex = 0;
-
-        for (int i = 0; i < data.length; i++) {
-            if (data[i] > max) {
-                max = data[i];
-                maxIndex = i;
-            }
-        }
-
-        return maxIndex;
+        return (int) REDUCER.reduce(contiguous(), Reduction.ARGMAX);
     }
 
     @Override
@@ -303,42 +202,137 @@ public abstract class BaseTensor implements Tensor, Cloneable {
             BaseTensor copy = (BaseTensor) super.clone();
 
             copy.shape = shape.clone();
+            copy.strides = Tensors.computeStrides(shape);
+            copy.data = isContiguous() ? copyData() : gather();
+            copy.offset = 0;
             copy.autogradContext = null;
 
-            int[] standardStrides = Tensors.computeStrides(shape);
-            boolean isContiguous = Arrays.equals(strides, standardStrides);
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+    }
 
-            if (isContiguous) {
-                copy.strides = strides.clone();
-                copy.data = data.clone();
-            } else {
-                copy.strides = standardStrides;
-                int total = Tensors.computeSize(shape);
-                copy.data = new float[total];
-
-                int rank = shape.length;
-                int[] index = new int[rank];
-
-                for (int i = 0; i < total; i++) {
-                    int remaining = i;
-                    for (int d = rank - 1; d >= 0; d--) {
-                        index[d] = remaining % shape[d];
-                        remaining /= shape[d];
-                    }
+    @Override
+    public Tensor into(Tensor out) {
+        if (!(out instanceof CpuTensor destination) || !Arrays.equals(shape, out.shape())) {
+            throw Commons.illegalArgument("Cannot write a tensor of shape %s into %s!",
+                Arrays.toString(shape), Arrays.toString(out.shape()));
+        }
 
-                    int srcIdx = 0;
-                    for (int d = 0; d < rank; d++) {
-                        srcIdx += index[d] * strides[d];
-                    }
+        // A view would have to be written position by position, and may share its buffer with this tensor
+        if (!destination.isContiguous()) {
+            throw Commons.illegalArgument("Cannot write into a non-contiguous tensor!");
+        }
+
+        if (out == this) return out;
+
+        float[] values = contiguous().data();
+        System.arraycopy(values, 0, destination.data, 0, values.length);
 
-                    copy.data[i] = data[srcIdx];
+        destination.version++;
+        return out;
+    }
+
+    private float[] copyData() {
+        float[] result = BufferPool.allocate(data.length, false);
+        System.arraycopy(data, 0, result, 0, data.length);
+        return result;
+    }
+
+    /**
+     * Copies the values of this view in row-major order, a row at a time.
+     */
+    private float[] gather() {
+        return gather(BufferPool.allocate(elements(), false));
+    }
+
+    /**
+     * Copies the values of this view in row-major order into a buffer.
+     * @param result the buffer to fill, with room for every element
+     * @return the buffer
+     */
+    protected float[] gather(float[] result) {
+        int total = elements();
+
+        if (total == 0) return result;
+
+        int rank = shape.length;
+        int inner = rank == 0 ? 1 : shape[rank - 1];
+        int innerStride = rank == 0 ? 1 : strides[rank - 1];
+
+        int[] index = new int[rank];
+        int source = offset;
+
+        for (int row = 0; row < total; row += inner) {
+            if (innerStride == 1) {
+                System.arraycopy(data, source, result, row, inner);
+            } else {
+                for (int i = 0; i < inner; i++) {
+                    result[row + i] = data[source + i * innerStride];
                 }
             }
 
-            return copy;
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException(e);
+            for (int d = rank - 2; d >= 0; d--) {
+                source += strides[d];
+
+                if (++index[d] < shape[d]) break;
+
+                source -= strides[d] * shape[d];
+                index[d] = 0;
+            }
         }
+
+        return result;
+    }
+
+    /**
+     * Creates a tensor sharing the data buffer of this one.
+     * @param shape the shape of the view
+     * @param strides the strides of the view
+     * @param offset the position of the first element of the view in the buffer
+     * @return the view, without an autograd context
+     */
+    protected Tensor view(int[] shape, int[] strides, int offset) {
+        BaseTensor view = (BaseTensor) Tensors.create(shape, strides, data);
+        view.offset = offset;
+
+        return view;
+    }
+
+    /**
+     * Gets whether the strides are the row-major ones of the shape. Dimensions of size one
+     * are never stepped over, so their stride is ignored.
+     */
+    protected static boolean isRowMajor(int[] shape, int[] strides) {
+        int expected = 1;
+
+        for (int d = shape.length - 1; d >= 0; d--) {
+            if (shape[d] != 1 && strides[d] != expected) return false;
+
+            expected *= shape[d];
+        }
+
+        return true;
+    }
+
+    /**
+     * Runs an in-place kernel on the values of this tensor. If the view does not cover its
+     * whole buffer, the kernel runs on a dense copy which is then written back through the strides.
+     */
+    protected Tensor updateInPlace(Consumer<float[]> kernel) {
+        version++;
+
+        if (offset == 0 && data.length == elements() && !isBroadcastView()) {
+            kernel.accept(data);
+            return this;
+        }
+
+        float[] dense = gather();
+        kernel.accept(dense);
+        TensorBroadcast.scatter(dense, this);
+
+        return this;
     }
     
     @Override
@@ -351,83 +345,25 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         return Tensors.convolve(this, kernel);
     }
 
+    @Override
+    public Tensor convolve(Tensor kernel, ConvolveParameters parameters) {
+        return Tensors.convolve(this, kernel, parameters);
+    }
+
     @Override
     public Tensor layerNorm(double epsilon) {
-        switch (rank()) {
-            case 1 -> layerNorm1D(0, epsilon);
-            case 2 -> layerNorm2D(epsilon);
-            case 3 -> layerNorm3D(epsilon);
-            default -> layerNormND(epsilon);
+        version++;
+
+        if (!isContiguous()) {
+            Tensor normalized = clone().layerNorm(epsilon);
+            TensorBroadcast.scatter(normalized.data(), this);
+
+            return this;
         }
-        
+
+        RowKernels.layerNorm(data, shape[shape.length - 1], epsilon, null);
         return this;
     }
-    
-    private void layerNorm1D(int offset, double epsilon) {
-        int features = shape[rank() - 1];
-        float mean = 0f;
-        
-        for (int j = 0; j < features; j++) {
-            mean += data[offset + j];
-        }
-        
-        mean /= features;
-        
-        float var = 0f;
-        
-        for (int j = 0; j < features; j++) {
-            float x = data[offset + j];
-            float diff = x - mean;
-            
-            var += diff * diff;
-        }
-        
-        var /= features;
-        
-        float invDenom = (float) (1.0f / Math.sqrt(var + epsilon));
-        
-        for (int j = 0; j < features; j++) {
-            int idx = offset + j;
-            data[idx] = (data[idx] - mean) * invDenom;
-        }
-    }
-    
-    private void layerNorm2D(double epsilon) {
-        int rows = shape[0];
-        int cols = shape[1];
-        
-        for (int r = 0; r < rows; r++) {
-            layerNorm1D(r * cols, epsilon);
-        }
-    }
-    
-    private void layerNorm3D(double epsilon) {
-        int batches = shape[0];
-        int rows = shape[1];
-        int cols = shape[2];
-        
-        int strideBR = rows * cols;
-        
-        IntStream.range(0, batches * rows).parallel().forEach(i -> {
-            int b = i / rows;
-            int r = i % rows;
-            layerNorm1D(b * strideBR + r * cols, epsilon);
-        });
-    }
-    
-    private void layerNormND(double epsilon) {
-        int rank = shape.length;
-        int lastDim = shape[rank - 1];
-        int outerSize = 1;
-        
-        for (int i = 0; i < rank - 1; i++) {
-            outerSize *= shape[i];
-        }
-        
-        IntStream.range(0, outerSize)
-            .parallel()
-            .forEach(outer -> layerNorm1D(outer * lastDim, epsilon));
-    }
 
     @Override
     public double distance(Tensor other) {
@@ -437,10 +373,11 @@ public abstract class BaseTensor implements Tensor, Cloneable {
     @Override
     public double distanceSquared(Tensor other) {
         double sum = 0;
-        float[] cached = data();
+        float[] cached = contiguous().data();
+        float[] otherData = other.contiguous().data();
 
         for (int i = 0; i < cached.length; i++) {
-            double diff = cached[i] - other.data()[i];
+            double diff = cached[i] - otherData[i];
             sum += diff * diff;
         }
 
@@ -460,15 +397,17 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         }
         
         int[] newShape = new int[count];
+        int[] newStrides = new int[count];
         int idx = 0;
         
-        for (int dim : shape) {
-            if (dim != 1) {
-                newShape[idx++] = dim;
+        for (int i = 0; i < shape.length; i++) {
+            if (shape[i] != 1) {
+                newShape[idx] = shape[i];
+                newStrides[idx++] = strides[i];
             }
         }
         
-        return reshape(newShape);
+        return view(newShape, newStrides, offset);
     }
 
     @Override
@@ -484,15 +423,17 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         }
 
         int[] newShape = new int[shape.length - 1];
+        int[] newStrides = new int[shape.length - 1];
         int idx = 0;
 
         for (int i = 0; i < shape.length; i++) {
             if (i != dim) {
-                newShape[idx++] = shape[i];
+                newShape[idx] = shape[i];
+                newStrides[idx++] = strides[i];
             }
         }
         
-        return reshape(newShape);
+        return view(newShape, newStrides, offset);
     }
 
     @Override
@@ -506,30 +447,75 @@ public abstract class BaseTensor implements Tensor, Cloneable {
             return this;
         }
         
-        // TODO: GPU kernel
         int targetRank = targetShape.length;
         int srcRank = shape.length;
+        int pad = targetRank - srcRank;
+
+        if (pad < 0) {
+            throw new IllegalArgumentException("Cannot broadcast " + Arrays.toString(shape) + " to the lower rank shape "
+                + Arrays.toString(targetShape));
+        }
 
         int[] alignedSrcShape = new int[targetRank];
-        int pad = targetRank - srcRank;
 
         for (int i = 0; i < pad; i++) alignedSrcShape[i] = 1;
         System.arraycopy(shape, 0, alignedSrcShape, pad, srcRank);
 
+        boolean padded = false;
+
         for (int d = 0; d < targetRank; d++) {
             if (alignedSrcShape[d] > targetShape[d]) {
                 throw new IllegalArgumentException("Cannot broadcast: source dimension " +
                     alignedSrcShape[d] + " > target dimension " + targetShape[d] + " at axis " + d);
             }
+
+            padded |= alignedSrcShape[d] != 1 && alignedSrcShape[d] != targetShape[d];
         }
 
+        if (padded) {
+            return broadcastPadded(alignedSrcShape, targetShape);
+        }
+
+        // repeated dimensions read the same values over and over with stride 0,
+        // the others keep the strides of this tensor
+        int[] viewStrides = Tensors.computeStrides(targetShape);
+
+        for (int d = 0; d < targetRank; d++) {
+            if (alignedSrcShape[d] != targetShape[d]) {
+                viewStrides[d] = 0;
+            } else if (d >= pad) {
+                viewStrides[d] = strides[d - pad];
+            }
+        }
+
+        BaseTensor view = (BaseTensor) Tensors.create(targetShape, viewStrides, data());
+        view.offset = offset;
+        view.transposed = transposed;
+
+        return view;
+    }
+
+    /**
+     * Materializes a broadcast where some source dimensions are smaller than the
+     * target ones, filling the missing positions with zeros.
+     */
+    private Tensor broadcastPadded(int[] alignedSrcShape, int[] targetShape) {
+        int targetRank = targetShape.length;
+        
         Tensor out = Tensors.zeros(targetShape);
 
         int total = out.elements();
         int[] srcCoords = new int[targetRank];
+        int[] coords = new int[targetRank];
 
         for (int i = 0; i < total; i++) {
-            int[] coords = Tensors.unravelIndex(i, targetShape);
+            int remaining = i;
+
+            for (int d = targetRank - 1; d >= 0; d--) {
+                coords[d] = remaining % targetShape[d];
+                remaining /= targetShape[d];
+            }
+
             boolean useZero = false;
 
             for (int d = 0; d < targetRank; d++) {
@@ -549,7 +535,7 @@ public abstract class BaseTensor implements Tensor, Cloneable {
             }
 
             if (!useZero) {
-                out.set(get(srcCoords), coords);
+                out.set(get(Arrays.copyOfRange(srcCoords, targetRank - shape.length, targetRank)), coords);
             }
         }
 
@@ -571,16 +557,19 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         }
 
         int[] newShape = new int[shape.length + 1];
+        int[] newStrides = new int[shape.length + 1];
 
         for (int i = 0, j = 0; i < newShape.length; i++) {
             if (i == dim) {
                 newShape[i] = 1;
+                newStrides[i] = j < shape.length ? strides[j] * shape[j] : 1;
             } else {
-                newShape[i] = shape[j++];
+                newShape[i] = shape[j];
+                newStrides[i] = strides[j++];
             }
         }
         
-        Tensor result = reshape(newShape);
+        Tensor result = view(newShape, newStrides, offset);
         result.setAutogradContext(autogradContext);
         
         return result;
@@ -608,11 +597,20 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         newStrides[dim2] = strides[dim1];
         newStrides[dim1] = strides[dim2];
         
-        BaseTensor view = (BaseTensor) Tensors.create(newShape, newStrides, data);
-        view.transposed = !transposed;
+        BaseTensor view = (BaseTensor) view(newShape, newStrides, offset);
+        view.transposed = isMatrixTranspose(dim1, dim2) != transposed;
         
         return view;
     }
+
+    protected boolean isMatrixTranspose(int dim1, int dim2) {
+        int rank = shape.length;
+
+        dim1 = Math.floorMod(dim1, rank);
+        dim2 = Math.floorMod(dim2, rank);
+
+        return Math.min(dim1, dim2) == rank - 2 && Math.max(dim1, dim2) == rank - 1;
+    }
     
     @Override
     public boolean transposed() {
@@ -620,63 +618,118 @@ public abstract class BaseTensor implements Tensor, Cloneable {
     }
 
     @Override
-    public double sum() {
-        double sum = 0.0;
-        float[] data = data();
+    public boolean isContiguous() {
+        return offset == 0 && isRowMajor(shape, strides) && (data == null || data.length == elements());
+    }
 
-        for (float value : data) {
-            sum += value;
+    @Override
+    public boolean isBroadcastView() {
+        for (int d = 0; d < shape.length; d++) {
+            if (strides[d] == 0 && shape[d] > 1) return true;
         }
 
-        return sum;
+        return false;
+    }
+
+    @Override
+    public Tensor contiguous() {
+        return isContiguous() ? this : clone();
+    }
+
+    @Override
+    public double sum() {
+        return REDUCER.reduce(contiguous(), Reduction.SUM);
     }
 
     @Override
     public double mean() {
-        return sum() / elements();
+        return REDUCER.reduce(contiguous(), Reduction.MEAN);
     }
 
     @Override
     public double variance() {
-        double mean = mean();
-        double variance = 0.0;
+        return REDUCER.reduce(contiguous(), Reduction.VARIANCE);
+    }
 
-        for (float value : data) {
-            variance += Math.pow(value - mean, 2);
-        }
+    @Override
+    public double max() {
+        return REDUCER.reduce(contiguous(), Reduction.MAX);
+    }
 
-        return variance / data.length;
+    @Override
+    public double min() {
+        return REDUCER.reduce(contiguous(), Reduction.MIN);
     }
 
     @Override
-    public double max() {
-        double max = Double.NEGATIVE_INFINITY;
+    public Tensor sum(int dim, boolean keepDim) {
+        dim = Commons.mod(dim, shape.length);
 
-        for (float value : data) {
-            max = Math.max(max, value);
+        if (strides[dim] == 0 && shape[dim] > 1) {
+            return sumBroadcastDim(dim, keepDim);
         }
 
-        return max;
+        Tensor result = reduce(Reduction.SUM, dim, keepDim);
+
+        result.setAutogradContext(autogradContext);
+        return result;
     }
 
     @Override
-    public double min() {
-        double min = Double.POSITIVE_INFINITY;
+    public Tensor sum(int dim, boolean keepDim, Tensor out) {
+        dim = Commons.mod(dim, shape.length);
 
-        for (float value : data) {
-            min = Math.min(min, value);
+        if (strides[dim] == 0 && shape[dim] > 1) {
+            return sum(dim, keepDim).into(out);
         }
 
-        return min;
+        return reduce(Reduction.SUM, dim, keepDim, out);
     }
 
-    @Override
-    public Tensor sum(int dim, boolean keepDim) {
-        dim = Commons.mod(dim, shape.length);
+    /**
+     * Reduces this tensor along a dimension.
+     * @param reduction the reduction to compute
+     * @param dim the dimension to reduce, already in bounds
+     * @param keepDim whether the result keeps the reduced dimension with size 1
+     * @return a new tensor with the result
+     */
+    protected Tensor reduce(Reduction reduction, int dim, boolean keepDim) {
+        return REDUCER.reduce(contiguous(), reduction, dim, keepDim);
+    }
+
+    private Tensor reduce(Reduction reduction, int dim, boolean keepDim, Tensor out) {
+        int[] resultShape = Tensors.computeNewShape(shape, dim, keepDim);
+        boolean writable = out instanceof CpuTensor && out.isContiguous() && Arrays.equals(out.shape(), resultShape);
+
+        if (!writable) {
+            return reduce(reduction, dim, keepDim).into(out);
+        }
+
+        REDUCER.reduce(contiguous(), reduction, dim, out);
+        ((BaseTensor) out).version++;
+
+        return out;
+    }
+
+    /**
+     * Sums along a dimension of a broadcast view, where all the summed values are the
+     * same: the result is the view without that dimension scaled by its size.
+     */
+    private Tensor sumBroadcastDim(int dim, boolean keepDim) {
+        int rank = shape.length;
+        int[] newShape = new int[keepDim ? rank : rank - 1];
+        int[] newStrides = new int[newShape.length];
+
+        for (int d = 0, j = 0; d < rank; d++) {
+            if (d == dim && !keepDim) continue;
+
+            newShape[j] = d == dim ? 1 : shape[d];
+            newStrides[j] = strides[d];
+            j++;
+        }
+
+        Tensor result = view(newShape, newStrides, offset).clone().mul(shape[dim]);
 
-        TensorReducer reducer = DeviceUtils.isSimdAvailable() ? new SIMDTensorReducer() : new ScalarTensorReducer();
-        Tensor result = reducer.sum(this, dim, keepDim);
-        
         result.setAutogradContext(autogradContext);
         return result;
     }
@@ -684,36 +737,70 @@ public abstract class BaseTensor implements Tensor, Cloneable {
     @Override
     public Tensor mean(int dim, boolean keepDim) {
         dim = Commons.mod(dim, shape.length);
-        float divisor = shape[dim];
 
-        Tensor summed = this.sum(dim, keepDim);
-        Tensor result = summed.div(divisor);
+        Tensor result = strides[dim] == 0 && shape[dim] > 1
+            ? sumBroadcastDim(dim, keepDim).div(shape[dim])
+            : reduce(Reduction.MEAN, dim, keepDim);
 
         result.setAutogradContext(autogradContext);
         return result;
     }
+
+    @Override
+    public Tensor mean(int dim, boolean keepDim, Tensor out) {
+        dim = Commons.mod(dim, shape.length);
+
+        if (strides[dim] == 0 && shape[dim] > 1) {
+            return mean(dim, keepDim).into(out);
+        }
+
+        return reduce(Reduction.MEAN, dim, keepDim, out);
+    }
     
     @Override
     public Tensor variance(int dim, boolean keepDim) {
-        return variance(mean(dim, keepDim), dim, keepDim);
+        return reduce(Reduction.VARIANCE, Commons.mod(dim, shape.length), keepDim);
     }
     
     @Override
     public Tensor variance(Tensor mean, int dim, boolean keepDim) {
         dim = Commons.mod(dim, shape.length);
 
-        Tensor meanFirstSquare = clone().pow(2).mean(dim, keepDim);
-        Tensor meanSecondSquare = mean.clone().pow(2);
+        Tensor meanFirstSquare = times(this).mean(dim, keepDim);
+        Tensor meanSecondSquare = mean.times(mean);
         
         return meanFirstSquare.sub(meanSecondSquare);
     }
+
+    @Override
+    public Tensor max(int dim, boolean keepDim) {
+        return reduce(Reduction.MAX, Commons.mod(dim, shape.length), keepDim);
+    }
+
+    @Override
+    public Tensor min(int dim, boolean keepDim) {
+        return reduce(Reduction.MIN, Commons.mod(dim, shape.length), keepDim);
+    }
+
+    @Override
+    public Tensor argmax(int dim, boolean keepDim) {
+        return reduce(Reduction.ARGMAX, Commons.mod(dim, shape.length), keepDim);
+    }
+
+    @Override
+    public Tensor logSumExp(int dim, boolean keepDim) {
+        return reduce(Reduction.LOG_SUM_EXP, Commons.mod(dim, shape.length), keepDim);
+    }
     
     @Override
     public Tensor sign() {
         Tensor result = Tensors.zeros(shape);
 
+        float[] data = contiguous().data();
+        float[] resultData = result.data();
+
         for (int i = 0; i < data.length; i++) {
-            result.data()[i] = Math.signum(data[i]);
+            resultData[i] = Math.signum(data[i]);
         }
 
         return result;
@@ -723,13 +810,18 @@ public abstract class BaseTensor implements Tensor, Cloneable {
     public Tensor reshape(int... newShape) {
         int newSize = Tensors.computeSize(newShape);
 
-        if (newSize != data().length) {
+        if (newSize != elements()) {
             throw new IllegalArgumentException(
-                    "The total new dimension (" + newSize + ") does not match the current dimension (" + data().length + ")"
+                    "The total new dimension (" + newSize + ") does not match the current dimension (" + elements() + ")"
             );
         }
 
-        return Tensors.create(newShape, data());
+        if (!isContiguous() && isRowMajor(shape, strides)) {
+            // a slice of whole rows, still row-major from its offset
+            return view(newShape, Tensors.computeStrides(newShape), offset);
+        }
+
+        return Tensors.create(newShape, contiguous().data());
     }
 
     @Override
@@ -758,8 +850,8 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         }
 
         float[] resultData = new float[outerSize * concatLastDim];
-        float[] thisData = this.data();
-        float[] otherData = other.data();
+        float[] thisData = contiguous().data();
+        float[] otherData = other.contiguous().data();
 
         for (int i = 0; i < outerSize; i++) {
             System.arraycopy(thisData, i * lastDim, resultData, i * concatLastDim, lastDim);
@@ -802,8 +894,8 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         int otherDim = other.shape()[dimension];
         float[] result = new float[numBlocks * (thisDim + otherDim) * blockSize];
 
-        float[] a = this.data();
-        float[] b = other.data();
+        float[] a = contiguous().data();
+        float[] b = other.contiguous().data();
 
         int resultOffset = 0;
         int thisOffset = 0;
@@ -830,9 +922,30 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         return activation.activate(this);
     }
 
+    @Override
+    public Tensor activate(Activation activation, Tensor out) {
+        return activation.activate(this, out);
+    }
+
     @Override
     public Tensor select(int dim, int index) {
-        throw new UnsupportedOperationException("Not implemented yet.");
+        dim = Commons.mod(dim, shape.length);
+
+        if (index < 0 || index >= shape[dim]) {
+            throw Commons.indexOOB("Index %s for dimension %s is out of bounds [0, %s)", index, dim, shape[dim]);
+        }
+
+        int[] newShape = new int[shape.length - 1];
+        int[] newStrides = new int[shape.length - 1];
+
+        for (int i = 0, j = 0; i < shape.length; i++) {
+            if (i == dim) continue;
+
+            newShape[j] = shape[i];
+            newStrides[j++] = strides[i];
+        }
+
+        return view(newShape, newStrides, offset + index * strides[dim]);
     }
 
     @Override
@@ -841,43 +954,43 @@ public abstract class BaseTensor implements Tensor, Cloneable {
             throw new IllegalArgumentException("Too many ranges specified");
         }
 
-        int[] newShape = new int[shape.length];
+        int[] newShape = shape.clone();
+        int[] newStrides = strides.clone();
+        int newOffset = offset;
 
-        for (int i = 0; i < shape.length; i++) {
-            int dim = shape[i];
-            Range range = i >= ranges.length ? null : ranges[i];
-            newShape[i] = range != null ? range.size(dim) : dim;
-        }
+        for (int i = 0; i < ranges.length; i++) {
+            Range range = ranges[i];
 
-        Tensor result = new CpuTensor(Shape.of(newShape));
+            if (range == null) continue;
 
-        int[] srcIndices = new int[shape.length];
-        int[] dstIndices = new int[shape.length];
+            newShape[i] = range.size(shape[i]);
+            newStrides[i] = strides[i] * range.step();
+            newOffset += range.start(shape[i]) * strides[i];
+        }
 
-        sliceCopy(result, ranges, srcIndices, dstIndices, 0);
+        BaseTensor view = (BaseTensor) view(newShape, newStrides, newOffset);
+        view.transposed = transposed;
 
-        return result;
+        return view;
     }
 
     @Override
     public Tensor map(D2DFunction function) {
-        ParallelMap.map(function, data);
-        return this;
+        return updateInPlace(values -> ParallelMap.map(function, values));
     }
 
     @Override
     public Tensor fill(float value) {
-        Arrays.fill(data, value);
-        return this;
+        return updateInPlace(values -> Arrays.fill(values, value));
     }
 
     @Override
     public Tensor fill(Supplier<Double> supplier) {
-        for (int i = 0; i < data.length; i++) {
-            data[i] = supplier.get().floatValue();
-        }
-
-        return this;
+        return updateInPlace(values -> {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = supplier.get().floatValue();
+            }
+        });
     }
 
     @Override
@@ -1043,6 +1156,25 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         return forward(new SliceOperation(ranges));
     }
     
+    @Override
+    public Tensor matmul(PackedWeights weights) {
+        return matmul(weights.source());
+    }
+
+    @Override
+    public Tensor linear(Tensor weights, Tensor bias, Activation activation) {
+        Tensor result = matmul(weights);
+
+        if (bias != null) result = result.add(bias);
+
+        return activation == null ? result : result.activate(activation);
+    }
+
+    @Override
+    public Tensor linear(PackedWeights weights, Tensor bias, Activation activation) {
+        return linear(weights.source(), bias, activation);
+    }
+
     @Override
     public Tensor matmulGrad(Tensor other) {
         if (!usesGrad()) {
@@ -1052,6 +1184,16 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         return forward(new MatMulOperation(), other);
     }
 
+    @Override
+    public Tensor linearGrad(Tensor weights, Tensor bias, Activation activation) {
+        if (!usesGrad()) {
+            return linear(weights, bias, activation);
+        }
+
+        Tensor preActivation = forward(new LinearOperation(), weights, bias);
+        return activation == null ? preActivation : preActivation.activateGrad(activation);
+    }
+
     @Override
     public Tensor convolveGrad(Tensor other) {
         if (!usesGrad()) {
@@ -1061,6 +1203,29 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         return forward(new ConvolveOperation(), other);
     }
 
+    @Override
+    public Tensor convolveGrad(Tensor other, ConvolveParameters parameters) {
+        if (!usesGrad()) {
+            return convolve(other, parameters);
+        }
+
+        return forward(new ConvolveOperation(parameters), other);
+    }
+
+    @Override
+    public Tensor layerNormGrad(Tensor weights, Tensor bias, double epsilon) {
+        if (!usesGrad()) {
+            Tensor result = clone().layerNorm(epsilon);
+
+            if (weights != null) result = result.mul(weights);
+            if (bias != null) result = result.add(bias);
+
+            return result;
+        }
+
+        return forward(new LayerNormOperation(epsilon), weights, bias);
+    }
+
     @Override
     public Tensor maxPoolGrad(int stride, int windowHeight, int windowWidth) {
         if (!usesGrad()) {
@@ -1071,6 +1236,24 @@ public abstract class BaseTensor implements Tensor, Cloneable {
         return forward(new MaxPoolOperation(stride, windowHeight, windowWidth));
     }
 
+    @Override
+    public Tensor avgPoolGrad(int stride, int windowHeight, int windowWidth) {
+        return poolGrad(new AveragePooling(stride, windowHeight, windowWidth));
+    }
+
+    @Override
+    public Tensor globalAvgPoolGrad() {
+        return poolGrad(new GlobalAveragePooling());
+    }
+
+    private Tensor poolGrad(PoolingProvider pooling) {
+        if (!usesGrad()) {
+            return pooling.pool(this);
+        }
+
+        return forward(new PoolOperation(pooling));
+    }
+
     @Override
     public Tensor transposeGrad() {
         if (!usesGrad()) {
@@ -1096,6 +1279,10 @@ public abstract class BaseTensor implements Tensor, Cloneable {
             return activate(activation);
         }
 
+        if (activation instanceof SoftmaxActivation softmax) {
+            return forward(new SoftmaxOperation(softmax.temperature()));
+        }
+
         return forward(new ActivationOperation(activation));
     }
     
@@ -1165,18 +1352,30 @@ public abstract class BaseTensor implements Tensor, Cloneable {
     
     @Override
     public Tensor softmax(double temperature) {
-        return switch (rank()) {
-            case 1 -> softmax1D(temperature);
-            case 2 -> softmax2D(temperature);
-            case 3 -> softmax3D(temperature);
-            default -> softmaxND(temperature);
-        };
+        return softmaxRows(clone(), temperature);
+    }
+
+    @Override
+    public Tensor softmax(double temperature, Tensor out) {
+        if (!out.isContiguous()) {
+            return softmax(temperature).into(out);
+        }
+
+        return softmaxRows(into(out), temperature);
+    }
+
+    /**
+     * Applies softmax in place on the last dimension of a contiguous copy of this tensor.
+     */
+    private Tensor softmaxRows(Tensor result, double temperature) {
+        RowKernels.softmax(result.data(), shape[shape.length - 1], temperature);
+        return result;
     }
     
     @Override
     public String toString(String format) {
         if (shape.length == 0) {
-            return format.formatted(data[0]);
+            return format.formatted(data[offset]);
         }
 
         StringBuilder result = new StringBuilder();
@@ -1192,6 +1391,8 @@ public abstract class BaseTensor implements Tensor, Cloneable {
 
     @Override
     public Iterator<Float> iterator() {
+        float[] data = contiguous().data();
+
         return new Iterator<>() {
             private int currentIndex = 0;
 
@@ -1,17 +1,27 @@
 package org.brain4j.math.tensor.impl;
 
 import org.brain4j.math.Tensors;
+import org.brain4j.math.activation.Activation;
+import org.brain4j.math.activation.impl.LinearActivation;
 import org.brain4j.math.gpu.device.Device;
 import org.brain4j.math.gpu.device.DeviceUtils;
 import org.brain4j.math.tensor.Shape;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.broadcast.TensorBroadcast;
+import org.brain4j.math.tensor.lazy.LazyEvaluation;
+import org.brain4j.math.tensor.lazy.LazyScope;
+import org.brain4j.math.tensor.lazy.LazyTensor;
+import org.brain4j.math.tensor.matmul.LinearEpilogue;
 import org.brain4j.math.tensor.matmul.MatmulProvider;
+import org.brain4j.math.tensor.matmul.PackedWeights;
 import org.brain4j.math.tensor.matmul.impl.NormalMatMulProvider;
 import org.brain4j.math.tensor.matmul.impl.SIMDMatMulProvider;
 import org.brain4j.math.tensor.parallel.ParallelTranspose;
+import org.brain4j.math.tensor.parallel.Tuning;
+import org.brain4j.math.tensor.pool.BufferPool;
 
 import java.util.Arrays;
+import java.util.function.UnaryOperator;
 
 public class CpuTensor extends BaseTensor {
 
@@ -30,7 +40,7 @@ public class CpuTensor extends BaseTensor {
 
     public CpuTensor(Shape shape, float... data) {
         if (data.length == 0) {
-            data = new float[Tensors.computeSize(shape.dims())];
+            data = BufferPool.allocate(Tensors.computeSize(shape.dims()));
         }
 
         this.data = data;
@@ -40,7 +50,7 @@ public class CpuTensor extends BaseTensor {
 
     public CpuTensor(Shape shape, int[] strides, float... data) {
         if (data.length == 0) {
-            data = new float[Tensors.computeSize(shape.dims())];
+            data = BufferPool.allocate(Tensors.computeSize(shape.dims()));
         }
 
         this.data = data;
@@ -56,18 +66,16 @@ public class CpuTensor extends BaseTensor {
 
     @Override
     public Tensor transpose(int dim1, int dim2) {
-        // Unfortunately, SIMD does not support non-contiguous data, therefore transposing
-        // the data in a contiguous space is required for SIMD matmul to work
-        if (matmulProvider instanceof NormalMatMulProvider) {
-            return super.transpose(dim1, dim2);
-        }
-
         int rank = shape.length;
 
-        if (rank == 1) {
-            return reshape(1, elements());
+        // Both matmul providers read matrix-transposed views in place, so swapping
+        // the last two dimensions only needs to permute the strides
+        if (matmulProvider instanceof NormalMatMulProvider || rank < 2 || isMatrixTranspose(dim1, dim2)) {
+            return super.transpose(dim1, dim2);
         }
 
+        // The SIMD element-wise kernels index the buffer linearly, therefore other
+        // dimension swaps are materialized in a contiguous space
         int[] newShape = shape.clone();
 
         int rows = shape[dim1];
@@ -78,10 +86,8 @@ public class CpuTensor extends BaseTensor {
 
         BaseTensor result = (BaseTensor) Tensors.create(newShape);
 
-        int bound = 1 << 10;
-
         // TODO: fix parallel transpose?
-        if (elements() >= bound) {
+        if (elements() >= Tuning.current().transposeGrain()) {
             ParallelTranspose.transpose(this, result, dim1, dim2);
             return result;
         }
@@ -99,7 +105,7 @@ public class CpuTensor extends BaseTensor {
         transposeRecursive(
             this.data, result.data,
             loopShape, srcStride, dstStride, destToSrc,
-            0, 0, 0
+            0, offset, 0
         );
 
         return result;
@@ -137,7 +143,7 @@ public class CpuTensor extends BaseTensor {
             return this;
         }
 
-        GpuTensor result = new GpuTensor(device, shape, data);
+        GpuTensor result = new GpuTensor(device, shape, contiguous().data());
         result.setAutogradContext(autogradContext);
         return result;
     }
@@ -148,16 +154,14 @@ public class CpuTensor extends BaseTensor {
             return add(other.to(null));
         }
 
+        version++;
         return TensorBroadcast.add(this, other);
     }
     
     @Override
     public Tensor add(double value) {
-        for (int i = 0; i < data.length; i++) {
-            data[i] += (float) value;
-        }
-        
-        return this;
+        version++;
+        return TensorBroadcast.add(this, value);
     }
     
     @Override
@@ -166,16 +170,14 @@ public class CpuTensor extends BaseTensor {
             return sub(other.to(null));
         }
 
+        version++;
         return TensorBroadcast.sub(this, other);
     }
     
     @Override
     public Tensor sub(double value) {
-        for (int i = 0; i < data.length; i++) {
-            data[i] -= (float) value;
-        }
-        
-        return this;
+        version++;
+        return TensorBroadcast.sub(this, value);
     }
     
     @Override
@@ -184,16 +186,14 @@ public class CpuTensor extends BaseTensor {
             return mul(other.to(null));
         }
 
+        version++;
         return TensorBroadcast.mul(this, other);
     }
     
     @Override
     public Tensor mul(double value) {
-        for (int i = 0; i < data.length; i++) {
-            data[i] *= (float) value;
-        }
-        
-        return this;
+        version++;
+        return TensorBroadcast.mul(this, value);
     }
 
     @Override
@@ -202,16 +202,14 @@ public class CpuTensor extends BaseTensor {
             return div(other.to(null));
         }
 
+        version++;
         return TensorBroadcast.div(this, other);
     }
     
     @Override
     public Tensor div(double value) {
-        for (int i = 0; i < data.length; i++) {
-            data[i] /= (float) value;
-        }
-        
-        return this;
+        version++;
+        return TensorBroadcast.div(this, value);
     }
     
     @Override
@@ -220,29 +218,243 @@ public class CpuTensor extends BaseTensor {
             return pow(other.to(null));
         }
         
+        version++;
         return TensorBroadcast.pow(this, other);
     }
     
     @Override
     public Tensor pow(double value) {
-        for (int i = 0; i < data.length; i++) {
-            data[i] = (float) Math.pow(data[i], value);
-        }
-        
-        return this;
+        version++;
+        return TensorBroadcast.pow(this, value);
     }
     
     @Override
     public Tensor sqrt() {
-        for (int i = 0; i < data.length; i++) {
-            data[i] = (float) Math.sqrt(data[i]);
+        return updateInPlace(values -> {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = (float) Math.sqrt(values[i]);
+            }
+        });
+    }
+
+    @Override
+    public Tensor plus(Tensor other) {
+        return deferred().add(other);
+    }
+
+    @Override
+    public Tensor plus(double value) {
+        return deferred().add(value);
+    }
+
+    @Override
+    public Tensor minus(Tensor other) {
+        return deferred().sub(other);
+    }
+
+    @Override
+    public Tensor minus(double value) {
+        return deferred().sub(value);
+    }
+
+    @Override
+    public Tensor times(Tensor other) {
+        return deferred().mul(other);
+    }
+
+    @Override
+    public Tensor times(double value) {
+        return deferred().mul(value);
+    }
+
+    @Override
+    public Tensor divide(Tensor other) {
+        return deferred().div(other);
+    }
+
+    @Override
+    public Tensor divide(double value) {
+        return deferred().div(value);
+    }
+
+    @Override
+    public Tensor plus(Tensor other, Tensor out) {
+        return fused(out, tensor -> tensor.add(other));
+    }
+
+    @Override
+    public Tensor plus(double value, Tensor out) {
+        return fused(out, tensor -> tensor.add(value));
+    }
+
+    @Override
+    public Tensor minus(Tensor other, Tensor out) {
+        return fused(out, tensor -> tensor.sub(other));
+    }
+
+    @Override
+    public Tensor minus(double value, Tensor out) {
+        return fused(out, tensor -> tensor.sub(value));
+    }
+
+    @Override
+    public Tensor times(Tensor other, Tensor out) {
+        return fused(out, tensor -> tensor.mul(other));
+    }
+
+    @Override
+    public Tensor times(double value, Tensor out) {
+        return fused(out, tensor -> tensor.mul(value));
+    }
+
+    @Override
+    public Tensor divide(Tensor other, Tensor out) {
+        return fused(out, tensor -> tensor.div(other));
+    }
+
+    @Override
+    public Tensor divide(double value, Tensor out) {
+        return fused(out, tensor -> tensor.div(value));
+    }
+
+    /**
+     * Gets the copy the copying operations run on: a deferred one inside a {@link LazyScope}.
+     */
+    private Tensor deferred() {
+        return LazyEvaluation.isActive() ? LazyTensor.of(this) : clone();
+    }
+
+    /**
+     * Runs an operation on a deferred copy of this tensor and evaluates it straight into the destination,
+     * in a single pass and without intermediate buffers.
+     */
+    private Tensor fused(Tensor out, UnaryOperator<Tensor> operation) {
+        try (LazyScope scope = LazyEvaluation.openScope()) {
+            return operation.apply(LazyTensor.of(this)).into(out);
         }
-        
-        return this;
     }
-    
+
+    @Override
+    public Tensor into(Tensor out) {
+        if (out == this || !(out instanceof CpuTensor destination) || !destination.isContiguous()
+            || !Arrays.equals(shape, out.shape())) {
+            return super.into(out);
+        }
+
+        if (isContiguous()) {
+            System.arraycopy(data, 0, destination.data, 0, data.length);
+        } else {
+            gather(destination.data);
+        }
+
+        destination.version++;
+        return out;
+    }
+
     @Override
     public Tensor matmul(Tensor other) {
+        if (other instanceof StorageTensor weights) {
+            return weights.leftMultiply(this);
+        }
+
+        Tensor result = new CpuTensor(Shape.of(matmulShape(other)));
+
+        matmulProvider.multiply(this, other, result);
+
+        return result;
+    }
+
+    @Override
+    public Tensor matmul(Tensor other, Tensor out) {
+        boolean writable = out instanceof CpuTensor && out.isContiguous() && Arrays.equals(out.shape(), matmulShape(other));
+
+        // The providers accumulate into the output, which must not be read while being written
+        if (!writable || other instanceof StorageTensor || out.data() == data || out.data() == other.data()) {
+            return matmul(other).into(out);
+        }
+
+        Arrays.fill(out.data(), 0);
+        matmulProvider.multiply(this, other, out);
+
+        ((CpuTensor) out).version++;
+        return out;
+    }
+
+    @Override
+    public Tensor matmul(PackedWeights weights) {
+        Tensor result = new CpuTensor(Shape.of(matmulShape(weights)));
+
+        matmulProvider.multiply(this, weights, result);
+
+        return result;
+    }
+
+    @Override
+    public Tensor linear(Tensor weights, Tensor bias, Activation activation) {
+        if (!(weights instanceof CpuTensor) || !isFusableBias(bias, weights.shape()[weights.rank() - 1])) {
+            return super.linear(weights, bias, activation);
+        }
+
+        Tensor result = new CpuTensor(Shape.of(matmulShape(weights)));
+
+        matmulProvider.multiply(this, weights, result, epilogue(bias, activation, result));
+
+        return activateUnfused(result, activation);
+    }
+
+    @Override
+    public Tensor linear(PackedWeights weights, Tensor bias, Activation activation) {
+        if (!isFusableBias(bias, weights.columns())) {
+            return super.linear(weights, bias, activation);
+        }
+
+        Tensor result = new CpuTensor(Shape.of(matmulShape(weights)));
+
+        matmulProvider.multiply(this, weights, result, epilogue(bias, activation, result));
+
+        return activateUnfused(result, activation);
+    }
+
+    private static boolean isFusableBias(Tensor bias, int columns) {
+        if (bias == null) return true;
+
+        // Only a vector along the last dimension can be added column by column
+        int[] shape = bias.shape();
+        return bias instanceof CpuTensor && bias.elements() == columns && shape[shape.length - 1] == columns;
+    }
+
+    private static LinearEpilogue epilogue(Tensor bias, Activation activation, Tensor result) {
+        float[] biasData = bias == null ? null : bias.contiguous().data();
+        boolean fused = activation != null && activation.isElementWise() && !(activation instanceof LinearActivation);
+
+        return new LinearEpilogue(biasData, fused ? activation : null, result.shape()[result.rank() - 1]);
+    }
+
+    private static Tensor activateUnfused(Tensor result, Activation activation) {
+        if (activation == null || activation.isElementWise()) return result;
+
+        return result.activate(activation);
+    }
+
+    private int[] matmulShape(PackedWeights weights) {
+        int rank = shape.length;
+
+        if (rank < 2) {
+            throw new IllegalArgumentException("Matrix multiplication requires at least 2D tensors!");
+        }
+
+        if (shape[rank - 1] != weights.rows()) {
+            throw new IllegalArgumentException("Inner dimensions must match: " + shape[rank - 1] + " != " +
+                weights.rows() + ". A: " + Arrays.toString(shape) + ", B: " + Arrays.toString(weights.source().shape()));
+        }
+
+        int[] resultShape = shape.clone();
+        resultShape[rank - 1] = weights.columns();
+
+        return resultShape;
+    }
+
+    private int[] matmulShape(Tensor other) {
         int[] shapeA = this.shape;
         int[] shapeB = other.shape();
 
@@ -287,10 +499,6 @@ public class CpuTensor extends BaseTensor {
         resultShape[resultShape.length - 2] = m;
         resultShape[resultShape.length - 1] = p;
 
-        Tensor result = new CpuTensor(Shape.of(resultShape));
-
-        matmulProvider.multiply(this, other, result);
-
-        return result;
+        return resultShape;
     }
 }
@@ -3,6 +3,7 @@ package org.brain4j.math.tensor.impl;
 import org.brain4j.math.Tensors;
 import org.brain4j.math.activation.Activation;
 import org.brain4j.math.activation.Activations;
+import org.brain4j.math.commons.Commons;
 import org.brain4j.math.gpu.GpuContext;
 import org.brain4j.math.gpu.device.Device;
 import org.brain4j.math.gpu.device.DeviceUtils;
@@ -12,6 +13,7 @@ import org.brain4j.math.gpu.memory.TempBuffer;
 import org.brain4j.math.tensor.Shape;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.index.Range;
+import org.brain4j.math.tensor.sum.Reduction;
 
 import java.util.Arrays;
 
@@ -261,6 +263,33 @@ public class GpuTensor extends BaseTensor {
         return view;
     }
 
+    @Override
+    protected Tensor view(int[] shape, int[] strides, int offset) {
+        if (offset != 0) {
+            throw Commons.illegalState("Offset views are not supported yet for GPU tensors!");
+        }
+
+        GpuTensor view = new GpuTensor(device, shape, strides);
+
+        view.dataBuffer = dataBuffer;
+        view.transposed = transposed;
+        view.dataBuffer.retain();
+
+        return view;
+    }
+
+    @Override
+    public Tensor select(int dim, int index) {
+        dim = Commons.mod(dim, shape.length);
+
+        Range[] ranges = new Range[dim + 1];
+
+        Arrays.fill(ranges, Range.all());
+        ranges[dim] = Range.point(index);
+
+        return slice(ranges).squeeze(dim);
+    }
+
     @Override
     public Tensor add(Tensor other) {
         return launchElementaryKernel("add", other);
@@ -503,6 +532,16 @@ public class GpuTensor extends BaseTensor {
         return result;
     }
 
+    @Override
+    protected Tensor reduce(Reduction reduction, int dim, boolean keepDim) {
+        if (reduction == Reduction.MEAN) {
+            return sum(dim, keepDim).div(shape[dim]);
+        }
+
+        // Only sums have a kernel, the other reductions are computed on the host
+        return super.reduce(reduction, dim, keepDim).to(device);
+    }
+
     @Override
     public Tensor reshape(int... newShape) {
         int newSize = Tensors.computeSize(newShape);
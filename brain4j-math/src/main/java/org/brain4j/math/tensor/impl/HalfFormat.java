@@ -0,0 +1,101 @@
+package org.brain4j.math.tensor.impl;
+
+import org.brain4j.math.gpu.device.DeviceUtils;
+
+/**
+ * The 16-bit floating point encodings a {@link HalfTensor} can store.
+ */
+public enum HalfFormat {
+
+    /**
+     * IEEE 754 binary16, with 5 exponent and 10 mantissa bits.
+     * Precise, but limited to magnitudes between 6e-8 and 65504.
+     */
+    FP16 {
+        @Override
+        public float toFloat(short value) {
+            return Float.float16ToFloat(value);
+        }
+
+        @Override
+        public short fromFloat(float value) {
+            return Float.floatToFloat16(value);
+        }
+    },
+
+    /**
+     * bfloat16, the upper half of a float32, with 8 exponent and 7 mantissa bits.
+     * Covers the whole float32 range with less precision, and widens with a single shift.
+     */
+    BF16 {
+        @Override
+        public float toFloat(short value) {
+            return Float.intBitsToFloat(value << 16);
+        }
+
+        @Override
+        public short fromFloat(float value) {
+            int bits = Float.floatToRawIntBits(value);
+
+            if (Float.isNaN(value)) {
+                return (short) ((bits >>> 16) | 0x40);
+            }
+
+            // Rounds to the nearest value, ties to even
+            int rounding = 0x7FFF + ((bits >>> 16) & 1);
+            return (short) ((bits + rounding) >>> 16);
+        }
+
+        @Override
+        public void widen(short[] source, int sourceOffset, float[] dest, int destOffset, int count) {
+            if (DeviceUtils.isSimdAvailable()) {
+                SIMDStorageKernels.widenBF16(source, sourceOffset, dest, destOffset, count);
+                return;
+            }
+
+            super.widen(source, sourceOffset, dest, destOffset, count);
+        }
+    };
+
+    /**
+     * Converts an encoded value to a float.
+     * @param value the encoded value
+     * @return the float value
+     */
+    public abstract float toFloat(short value);
+
+    /**
+     * Encodes a float, rounding to the nearest representable value.
+     * @param value the float value
+     * @return the encoded value
+     */
+    public abstract short fromFloat(float value);
+
+    /**
+     * Converts consecutive encoded values to floats.
+     * @param source the encoded values
+     * @param sourceOffset the position of the first value to convert
+     * @param dest the destination array
+     * @param destOffset the position of the first converted value
+     * @param count the number of values
+     */
+    public void widen(short[] source, int sourceOffset, float[] dest, int destOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            dest[destOffset + i] = toFloat(source[sourceOffset + i]);
+        }
+    }
+
+    /**
+     * Encodes consecutive floats.
+     * @param source the float values
+     * @param sourceOffset the position of the first value to encode
+     * @param dest the destination array
+     * @param destOffset the position of the first encoded value
+     * @param count the number of values
+     */
+    public void narrow(float[] source, int sourceOffset, short[] dest, int destOffset, int count) {
+        for (int i = 0; i < count; i++) {
+            dest[destOffset + i] = fromFloat(source[sourceOffset + i]);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.brain4j.math.tensor.impl;
+
+import org.brain4j.math.tensor.Tensor;
+
+/**
+ * A CPU tensor stored in 16 bits per value, see {@link HalfFormat}, and computed in float32.
+ * <p>
+ * Halves the memory and the memory traffic of frozen weights.
+ */
+public class HalfTensor extends StorageTensor {
+
+    private final HalfFormat format;
+    private final short[] values;
+
+    public HalfTensor(HalfFormat format, int[] shape, short... values) {
+        this(format, shape, values, false);
+    }
+
+    private HalfTensor(HalfFormat format, int[] shape, short[] values, boolean transposed) {
+        super(shape, values.length, transposed);
+        this.format = format;
+        this.values = values;
+    }
+
+    /**
+     * Encodes a tensor in half precision.
+     * @param tensor the tensor to encode
+     * @param format the encoding
+     * @return a half-precision tensor with the same shape
+     */
+    public static HalfTensor of(Tensor tensor, HalfFormat format) {
+        float[] data = tensor.contiguous().data();
+        short[] values = new short[data.length];
+
+        format.narrow(data, 0, values, 0, data.length);
+
+        return new HalfTensor(format, tensor.shape().clone(), values);
+    }
+
+    public HalfFormat format() {
+        return format;
+    }
+
+    public short[] values() {
+        return values;
+    }
+
+    @Override
+    public void read(long index, float[] dest, int offset, int count) {
+        format.widen(values, (int) index, dest, offset, count);
+    }
+
+    @Override
+    public void write(long index, float[] source, int offset, int count) {
+        format.narrow(source, offset, values, (int) index, count);
+    }
+
+    @Override
+    protected StorageTensor share(int[] shape, boolean transposed) {
+        return new HalfTensor(format, shape, values, transposed);
+    }
+
+    @Override
+    protected StorageTensor copy() {
+        return new HalfTensor(format, shape.clone(), values.clone(), transposed);
+    }
+}
@@ -0,0 +1,32 @@
+package org.brain4j.math.tensor.impl;
+
+import org.brain4j.math.commons.Commons;
+
+/**
+ * The layout of a {@link Int4Tensor}: the number of consecutive weights sharing a scale and
+ * whether each block also stores its minimum.
+ *
+ * @param blockSize the weights of a block, an even number
+ * @param asymmetric whether blocks store their minimum, mapping the 16 levels to {@code [min, max]}
+ *                   instead of centering them on zero
+ */
+public record Int4Format(int blockSize, boolean asymmetric) {
+
+    /** Symmetric blocks of 32 weights, 4.5 bits per weight. */
+    public static final Int4Format Q4_32 = new Int4Format(32, false);
+
+    /** Blocks of 32 weights with a minimum, 5 bits per weight. */
+    public static final Int4Format Q4_32_MIN = new Int4Format(32, true);
+
+    /** Symmetric blocks of 64 weights, 4.25 bits per weight. */
+    public static final Int4Format Q4_64 = new Int4Format(64, false);
+
+    /** Blocks of 64 weights with a minimum, 4.5 bits per weight. */
+    public static final Int4Format Q4_64_MIN = new Int4Format(64, true);
+
+    public Int4Format {
+        if (blockSize <= 0 || blockSize % 2 != 0) {
+            throw Commons.illegalArgument("Block size must be a positive even number! Got: %s", blockSize);
+        }
+    }
+}
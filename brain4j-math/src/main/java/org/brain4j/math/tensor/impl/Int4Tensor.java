@@ -0,0 +1,282 @@
+package org.brain4j.math.tensor.impl;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.Tensor;
+
+import java.util.Arrays;
+
+/**
+ * A weight matrix quantized to 4 bits per value in blocks of consecutive values, see {@link Int4Format},
+ * and computed in float32.
+ * <p>
+ * Every block stores a float16 scale, and a float16 minimum when asymmetric, followed by its levels
+ * packed two per byte: byte {@code i} of a block holds value {@code i} in its low nibble and value
+ * {@code i + blockSize / 2} in its high one, so both halves unpack without shuffling lanes.
+ * A value is {@code scale * level + min}, where symmetric blocks use {@code min = -8 * scale}.
+ * <p>
+ * Products with up to {@link #FUSED_ROWS} rows, like the ones of a model generating a token
+ * at a time, dequantize the levels in vector registers and never write the weights back to memory.
+ */
+public class Int4Tensor extends StorageTensor {
+
+    /** The most rows of the left operand multiplied by the fused kernels. */
+    public static final int FUSED_ROWS = 8;
+
+    private final Int4Format format;
+    private final byte[] packed;
+    private final short[] scales;
+    private final short[] mins;
+
+    /**
+     * Creates a block-quantized tensor.
+     * @param format the block layout
+     * @param shape the shape of the tensor
+     * @param packed the levels, two per byte
+     * @param scales the float16 scale of every block
+     * @param mins the float16 minimum of every block, or <code>null</code> if symmetric
+     */
+    public Int4Tensor(Int4Format format, int[] shape, byte[] packed, short[] scales, short[] mins) {
+        this(format, shape, packed, scales, mins, false);
+    }
+
+    private Int4Tensor(Int4Format format, int[] shape, byte[] packed, short[] scales, short[] mins, boolean transposed) {
+        super(shape, sizeOf(shape), transposed);
+
+        long blocks = (size + format.blockSize() - 1) / format.blockSize();
+
+        if (scales.length != blocks || (long) packed.length != blocks * format.blockSize() / 2
+            || (mins == null) == format.asymmetric() || (mins != null && mins.length != blocks)) {
+            throw Commons.illegalArgument("Storage does not match %s blocks of %s values!", blocks, format.blockSize());
+        }
+
+        this.format = format;
+        this.packed = packed;
+        this.scales = scales;
+        this.mins = mins;
+    }
+
+    private static long sizeOf(int[] shape) {
+        long size = 1;
+
+        for (int dim : shape) {
+            size *= dim;
+        }
+
+        return size;
+    }
+
+    /**
+     * Quantizes a weight matrix. Blocks run along the rows of the storage: along the output columns
+     * of plain matrices and along the inputs of transposed ones, like a language model head tied to
+     * the embeddings, which keep their layout.
+     * @param tensor the matrix to quantize
+     * @param format the block layout
+     * @return the quantized matrix, with the same shape
+     */
+    public static Int4Tensor quantize(Tensor tensor, Int4Format format) {
+        if (tensor.rank() != 2) {
+            throw Commons.illegalArgument("Only matrices can be quantized! Got: %s", Arrays.toString(tensor.shape()));
+        }
+
+        int[] shape = tensor.shape();
+        boolean transposed = tensor.transposed();
+        float[] data = transposed ? tensor.transpose().contiguous().data() : tensor.contiguous().data();
+
+        int blockSize = format.blockSize();
+        int half = blockSize / 2;
+        int blocks = (data.length + blockSize - 1) / blockSize;
+
+        byte[] packed = new byte[blocks * half];
+        short[] scales = new short[blocks];
+        short[] mins = format.asymmetric() ? new short[blocks] : null;
+
+        for (int b = 0; b < blocks; b++) {
+            int start = b * blockSize;
+            int end = Math.min(data.length, start + blockSize);
+
+            float scale;
+            float min;
+
+            if (mins != null) {
+                float low = Float.POSITIVE_INFINITY;
+                float high = Float.NEGATIVE_INFINITY;
+
+                for (int i = start; i < end; i++) {
+                    low = Math.min(low, data[i]);
+                    high = Math.max(high, data[i]);
+                }
+
+                mins[b] = Float.floatToFloat16(low);
+                scales[b] = Float.floatToFloat16((high - low) / 15);
+                scale = Float.float16ToFloat(scales[b]);
+                min = Float.float16ToFloat(mins[b]);
+            } else {
+                // The value farthest from zero maps to level 0 exactly, using all 16 levels
+                float extreme = 0;
+
+                for (int i = start; i < end; i++) {
+                    if (Math.abs(data[i]) > Math.abs(extreme)) extreme = data[i];
+                }
+
+                scales[b] = Float.floatToFloat16(extreme / -8);
+                scale = Float.float16ToFloat(scales[b]);
+                min = -8 * scale;
+            }
+
+            float inverse = scale == 0 ? 0 : 1 / scale;
+
+            for (int i = start; i < end; i++) {
+                int level = Math.max(0, Math.min(15, Math.round((data[i] - min) * inverse)));
+                int offset = i - start;
+                int index = b * half + offset % half;
+
+                packed[index] |= (byte) (offset < half ? level : level << 4);
+            }
+        }
+
+        int[] storageShape = transposed ? new int[] { shape[1], shape[0] } : shape.clone();
+        Int4Tensor result = new Int4Tensor(format, storageShape, packed, scales, mins);
+
+        return transposed ? (Int4Tensor) result.share(shape.clone(), true) : result;
+    }
+
+    public Int4Format format() {
+        return format;
+    }
+
+    public byte[] packed() {
+        return packed;
+    }
+
+    public short[] scales() {
+        return scales;
+    }
+
+    public short[] mins() {
+        return mins;
+    }
+
+    @Override
+    public void read(long index, float[] dest, int offset, int count) {
+        int blockSize = format.blockSize();
+        boolean simd = DeviceUtils.isSimdAvailable() && SIMDStorageKernels.supportsInt4(blockSize);
+
+        int block = (int) (index / blockSize);
+        int within = (int) (index % blockSize);
+
+        for (int i = 0; i < count; ) {
+            if (simd && within == 0 && count - i >= blockSize) {
+                int blocks = (count - i) / blockSize;
+                SIMDStorageKernels.widenInt4(packed, scales, mins, blockSize, block, blocks, dest, offset + i);
+
+                block += blocks;
+                i += blocks * blockSize;
+                continue;
+            }
+
+            dest[offset + i] = value(block, within);
+            i++;
+
+            if (++within == blockSize) {
+                within = 0;
+                block++;
+            }
+        }
+    }
+
+    private float value(int block, int within) {
+        int half = format.blockSize() / 2;
+        int bits = packed[block * half + within % half];
+        int level = within < half ? bits & 0x0F : (bits >> 4) & 0x0F;
+
+        float scale = Float.float16ToFloat(scales[block]);
+        float min = mins == null ? -8 * scale : Float.float16ToFloat(mins[block]);
+
+        return scale * level + min;
+    }
+
+    /**
+     * Quantizes values with the scale and the minimum their blocks already have.
+     */
+    @Override
+    public void write(long index, float[] source, int offset, int count) {
+        int blockSize = format.blockSize();
+        int half = blockSize / 2;
+
+        for (int i = 0; i < count; i++) {
+            long position = index + i;
+            int block = (int) (position / blockSize);
+            int within = (int) (position % blockSize);
+
+            float scale = Float.float16ToFloat(scales[block]);
+            float min = mins == null ? -8 * scale : Float.float16ToFloat(mins[block]);
+            int level = scale == 0 ? 0 : Math.max(0, Math.min(15, Math.round((source[offset + i] - min) / scale)));
+
+            int byteIndex = block * half + within % half;
+            int bits = packed[byteIndex];
+
+            bits = within < half ? (bits & 0xF0) | level : (bits & 0x0F) | (level << 4);
+            packed[byteIndex] = (byte) bits;
+        }
+    }
+
+    @Override
+    public Tensor leftMultiply(Tensor left) {
+        if (rank() != 2 || !DeviceUtils.isSimdAvailable() || !SIMDStorageKernels.supportsInt4(format.blockSize())) {
+            return super.leftMultiply(left);
+        }
+
+        int n = shape[0];
+        int p = shape[1];
+        int rowLength = transposed ? n : p;
+        int m = left.elements() / Math.max(1, n);
+
+        // Blocks must not span two rows of the storage
+        if (m > FUSED_ROWS || rowLength % format.blockSize() != 0) {
+            return super.leftMultiply(left);
+        }
+
+        Tensor result = Tensors.zeros(productShape(left));
+        float[] a = left.contiguous().data();
+        float[] c = result.data();
+
+        int blockSize = format.blockSize();
+        int rowBlocks = rowLength / blockSize;
+
+        if (transposed) {
+            // Every row of the storage is a column of the weights: c[i][j] = a[i] . w[j]
+            for (int j = 0; j < p; j++) {
+                for (int i = 0; i < m; i++) {
+                    c[i * p + j] = SIMDStorageKernels.dotInt4(a, i * n, packed, scales, mins, blockSize, j * rowBlocks, rowBlocks);
+                }
+            }
+
+            return result;
+        }
+
+        for (int k = 0; k < n; k++) {
+            for (int i = 0; i < m; i++) {
+                float alpha = a[i * n + k];
+
+                if (alpha == 0) continue;
+
+                SIMDStorageKernels.axpyInt4(alpha, packed, scales, mins, blockSize, k * rowBlocks, rowBlocks, c, i * p);
+            }
+        }
+
+        return result;
+    }
+
+    @Override
+    protected StorageTensor share(int[] shape, boolean transposed) {
+        return new Int4Tensor(format, shape, packed, scales, mins, transposed);
+    }
+
+    @Override
+    protected StorageTensor copy() {
+        short[] minsCopy = mins == null ? null : mins.clone();
+        return new Int4Tensor(format, shape.clone(), packed.clone(), scales.clone(), minsCopy, transposed);
+    }
+}
@@ -0,0 +1,189 @@
+package org.brain4j.math.tensor.impl;
+
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.Tensor;
+
+import java.util.Arrays;
+
+/**
+ * A weight matrix quantized to signed 8-bit integers, with one float scale per output channel,
+ * and computed in float32.
+ * <p>
+ * The quantization is symmetric: every value of a channel is stored as {@code round(w / scale)},
+ * with {@code scale = max|w| / 127}, so the largest weight of each channel is represented exactly.
+ * Cuts the memory of frozen weights by 4x. Products multiply the widened integers and scale each
+ * output column once at the end, see {@link StorageTensor#leftMultiply(Tensor)}.
+ */
+public class Int8Tensor extends StorageTensor {
+
+    /** The largest quantized magnitude. */
+    public static final int LEVELS = 127;
+
+    private final byte[] values;
+    private final float[] scales;
+    private final int rowLength;
+    private final boolean rowScales;
+
+    /**
+     * Creates a quantized tensor.
+     * @param shape the shape of the tensor
+     * @param values the quantized values, in storage order
+     * @param scales the scale of every channel
+     * @param rowLength the length of a storage row
+     * @param rowScales whether the channels are the storage rows rather than the storage columns
+     */
+    public Int8Tensor(int[] shape, byte[] values, float[] scales, int rowLength, boolean rowScales) {
+        this(shape, values, scales, rowLength, rowScales, false);
+    }
+
+    private Int8Tensor(int[] shape, byte[] values, float[] scales, int rowLength, boolean rowScales, boolean transposed) {
+        super(shape, values.length, transposed);
+
+        int channels = rowScales ? values.length / Math.max(1, rowLength) : rowLength;
+
+        if (rowLength <= 0 || values.length % rowLength != 0 || scales.length != channels) {
+            throw Commons.illegalArgument("%s scales do not match %s values with rows of %s!",
+                scales.length, values.length, rowLength);
+        }
+
+        this.values = values;
+        this.scales = scales;
+        this.rowLength = rowLength;
+        this.rowScales = rowScales;
+    }
+
+    /**
+     * Quantizes a weight matrix of shape {@code [input, output]} with one scale per output column.
+     * Transposed matrices, like a language model head tied to the embeddings, keep their layout and
+     * are quantized along the rows of their storage, which are still the output columns.
+     * @param tensor the matrix to quantize
+     * @return the quantized matrix, with the same shape
+     */
+    public static Int8Tensor quantize(Tensor tensor) {
+        if (tensor.rank() != 2) {
+            throw Commons.illegalArgument("Only matrices can be quantized! Got: %s", Arrays.toString(tensor.shape()));
+        }
+
+        int[] shape = tensor.shape();
+        boolean transposed = tensor.transposed();
+        // The storage is [output, input] when transposed, [input, output] otherwise
+        float[] data = transposed ? tensor.transpose().contiguous().data() : tensor.contiguous().data();
+
+        int rowLength = transposed ? shape[0] : shape[1];
+        int rows = transposed ? shape[1] : shape[0];
+
+        float[] scales = new float[transposed ? rows : rowLength];
+        byte[] values = new byte[data.length];
+
+        for (int i = 0; i < data.length; i++) {
+            int channel = transposed ? i / rowLength : i % rowLength;
+            scales[channel] = Math.max(scales[channel], Math.abs(data[i]));
+        }
+
+        for (int c = 0; c < scales.length; c++) {
+            scales[c] = scales[c] == 0 ? 1 : scales[c] / LEVELS;
+        }
+
+        for (int i = 0; i < data.length; i++) {
+            int channel = transposed ? i / rowLength : i % rowLength;
+            values[i] = quantize(data[i], scales[channel]);
+        }
+
+        int[] storageShape = transposed ? new int[] { rows, rowLength } : shape.clone();
+        Int8Tensor result = new Int8Tensor(storageShape, values, scales, rowLength, transposed);
+
+        return transposed ? (Int8Tensor) result.share(shape.clone(), true) : result;
+    }
+
+    private static byte quantize(float value, float scale) {
+        int level = Math.round(value / scale);
+        return (byte) Math.max(-LEVELS, Math.min(LEVELS, level));
+    }
+
+    public byte[] values() {
+        return values;
+    }
+
+    public float[] scales() {
+        return scales;
+    }
+
+    @Override
+    public void read(long index, float[] dest, int offset, int count) {
+        int start = (int) index;
+        widen(start, dest, offset, count);
+
+        // Dequantizes a storage row at a time, so whole rows are scaled without divisions
+        for (int i = 0; i < count; ) {
+            int column = (start + i) % rowLength;
+            int length = Math.min(count - i, rowLength - column);
+            int base = offset + i;
+
+            if (rowScales) {
+                float scale = scales[(start + i) / rowLength];
+
+                for (int t = 0; t < length; t++) {
+                    dest[base + t] *= scale;
+                }
+            } else {
+                for (int t = 0; t < length; t++) {
+                    dest[base + t] *= scales[column + t];
+                }
+            }
+
+            i += length;
+        }
+    }
+
+    @Override
+    protected void readUnscaled(long index, float[] dest, int offset, int count) {
+        if (columnScales() == null) {
+            read(index, dest, offset, count);
+            return;
+        }
+
+        widen((int) index, dest, offset, count);
+    }
+
+    private void widen(int start, float[] dest, int offset, int count) {
+        if (DeviceUtils.isSimdAvailable()) {
+            SIMDStorageKernels.widenInt8(values, start, dest, offset, count);
+            return;
+        }
+
+        for (int i = 0; i < count; i++) {
+            dest[offset + i] = values[start + i];
+        }
+    }
+
+    @Override
+    protected float[] columnScales() {
+        // The channels are the output columns as long as the matrix keeps the layout it was quantized with
+        boolean columns = rank() == 2 && rowScales == transposed && shape[transposed ? 0 : 1] == rowLength;
+        return columns ? scales : null;
+    }
+
+    @Override
+    public void write(long index, float[] source, int offset, int count) {
+        int start = (int) index;
+
+        for (int i = 0; i < count; i++) {
+            values[start + i] = quantize(source[offset + i], scales[channel(start + i)]);
+        }
+    }
+
+    private int channel(int index) {
+        return rowScales ? index / rowLength : index % rowLength;
+    }
+
+    @Override
+    protected StorageTensor share(int[] shape, boolean transposed) {
+        return new Int8Tensor(shape, values, scales, rowLength, rowScales, transposed);
+    }
+
+    @Override
+    protected StorageTensor copy() {
+        return new Int8Tensor(shape.clone(), values.clone(), scales.clone(), rowLength, rowScales, transposed);
+    }
+}
@@ -0,0 +1,142 @@
+package org.brain4j.math.tensor.impl;
+
+import org.brain4j.math.commons.Commons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Float storage outside the Java heap, addressed with 64-bit indices.
+ * <p>
+ * A single direct buffer holds at most 2GB, so the values are split into chunks of
+ * {@link #CHUNK_SIZE} floats, each backed by its own direct or memory-mapped buffer.
+ */
+public final class OffHeapStorage {
+
+    /** Floats held by every chunk but the last one, 1GB worth of data. */
+    public static final int CHUNK_SIZE = 1 << 28;
+
+    private final FloatBuffer[] chunks;
+    private final long length;
+
+    private OffHeapStorage(FloatBuffer[] chunks, long length) {
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    /**
+     * Allocates a zero-filled storage in native byte order.
+     * @param length the number of floats
+     * @return the new storage
+     */
+    public static OffHeapStorage allocate(long length) {
+        FloatBuffer[] chunks = new FloatBuffer[chunkCount(length)];
+
+        for (int i = 0; i < chunks.length; i++) {
+            int size = chunkLength(length, i);
+            chunks[i] = ByteBuffer.allocateDirect(size * Float.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asFloatBuffer();
+        }
+
+        return new OffHeapStorage(chunks, length);
+    }
+
+    /**
+     * Maps a region of a file holding consecutive floats, without reading it.
+     * The pages are loaded by the operating system when first accessed.
+     * @param channel the file channel, opened for reading
+     * @param position the byte position of the first float
+     * @param length the number of floats
+     * @param order the byte order of the file
+     * @return a read-only storage backed by the file
+     * @throws IOException if the region cannot be mapped
+     */
+    public static OffHeapStorage map(FileChannel channel, long position, long length, ByteOrder order) throws IOException {
+        FloatBuffer[] chunks = new FloatBuffer[chunkCount(length)];
+
+        for (int i = 0; i < chunks.length; i++) {
+            int size = chunkLength(length, i);
+            long start = position + (long) i * CHUNK_SIZE * Float.BYTES;
+
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, (long) size * Float.BYTES)
+                .order(order)
+                .asFloatBuffer();
+        }
+
+        return new OffHeapStorage(chunks, length);
+    }
+
+    private static int chunkCount(long length) {
+        if (length < 0) {
+            throw Commons.illegalArgument("Storage length must be non-negative! Got: %s", length);
+        }
+
+        return (int) ((length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+    }
+
+    private static int chunkLength(long length, int chunk) {
+        return (int) Math.min(CHUNK_SIZE, length - (long) chunk * CHUNK_SIZE);
+    }
+
+    public long length() {
+        return length;
+    }
+
+    public boolean isReadOnly() {
+        return chunks.length > 0 && chunks[0].isReadOnly();
+    }
+
+    public float get(long index) {
+        return chunks[(int) (index / CHUNK_SIZE)].get((int) (index % CHUNK_SIZE));
+    }
+
+    public void set(long index, float value) {
+        chunks[(int) (index / CHUNK_SIZE)].put((int) (index % CHUNK_SIZE), value);
+    }
+
+    /**
+     * Copies consecutive values into a heap array.
+     * @param index the index of the first value to read
+     * @param dest the destination array
+     * @param offset the position of the first value in the destination
+     * @param count the number of values
+     */
+    public void read(long index, float[] dest, int offset, int count) {
+        while (count > 0) {
+            int chunk = (int) (index / CHUNK_SIZE);
+            int start = (int) (index % CHUNK_SIZE);
+            int size = Math.min(count, chunks[chunk].limit() - start);
+
+            chunks[chunk].get(start, dest, offset, size);
+
+            index += size;
+            offset += size;
+            count -= size;
+        }
+    }
+
+    /**
+     * Copies consecutive values from a heap array.
+     * @param index the index of the first value to write
+     * @param source the source array
+     * @param offset the position of the first value in the source
+     * @param count the number of values
+     */
+    public void write(long index, float[] source, int offset, int count) {
+        while (count > 0) {
+            int chunk = (int) (index / CHUNK_SIZE);
+            int start = (int) (index % CHUNK_SIZE);
+            int size = Math.min(count, chunks[chunk].limit() - start);
+
+            chunks[chunk].put(start, source, offset, size);
+
+            index += size;
+            offset += size;
+            count -= size;
+        }
+    }
+}
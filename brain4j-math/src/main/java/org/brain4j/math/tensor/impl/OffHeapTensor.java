@@ -0,0 +1,108 @@
+package org.brain4j.math.tensor.impl;
+
+import org.brain4j.math.tensor.Tensor;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * A CPU tensor whose values live outside the Java heap, in an {@link OffHeapStorage}.
+ * <p>
+ * Meant for large frozen weights: the garbage collector never scans or moves them,
+ * the element count may exceed the 2^31 limit of arrays, and checkpoints can be memory-mapped
+ * instead of read. Activations multiplied by these weights stay on the heap.
+ */
+public class OffHeapTensor extends StorageTensor {
+
+    private final OffHeapStorage storage;
+
+    public OffHeapTensor(int[] shape, OffHeapStorage storage) {
+        this(shape, storage, false);
+    }
+
+    private OffHeapTensor(int[] shape, OffHeapStorage storage, boolean transposed) {
+        super(shape, storage.length(), transposed);
+        this.storage = storage;
+    }
+
+    /**
+     * Allocates a zero-filled off-heap tensor.
+     * @param shape the shape of the tensor
+     * @return the new tensor
+     */
+    public static OffHeapTensor allocate(int... shape) {
+        long size = 1;
+
+        for (int dim : shape) {
+            size *= dim;
+        }
+
+        return new OffHeapTensor(shape, OffHeapStorage.allocate(size));
+    }
+
+    /**
+     * Copies a tensor outside the heap.
+     * @param tensor the tensor to copy
+     * @return an off-heap tensor with the same shape and values
+     */
+    public static OffHeapTensor of(Tensor tensor) {
+        OffHeapTensor result = allocate(tensor.shape());
+
+        float[] values = tensor.contiguous().data();
+        result.storage.write(0, values, 0, values.length);
+
+        return result;
+    }
+
+    /**
+     * Maps a tensor stored as consecutive row-major floats in a file, without reading it.
+     * @param channel the file channel, opened for reading
+     * @param position the byte position of the first value
+     * @param order the byte order of the file
+     * @param shape the shape of the tensor
+     * @return a read-only tensor backed by the file
+     * @throws IOException if the region cannot be mapped
+     */
+    public static OffHeapTensor map(FileChannel channel, long position, ByteOrder order, int... shape) throws IOException {
+        long size = 1;
+
+        for (int dim : shape) {
+            size *= dim;
+        }
+
+        return new OffHeapTensor(shape, OffHeapStorage.map(channel, position, size, order));
+    }
+
+    public OffHeapStorage storage() {
+        return storage;
+    }
+
+    @Override
+    public void read(long index, float[] dest, int offset, int count) {
+        storage.read(index, dest, offset, count);
+    }
+
+    @Override
+    public void write(long index, float[] source, int offset, int count) {
+        storage.write(index, source, offset, count);
+    }
+
+    @Override
+    protected StorageTensor share(int[] shape, boolean transposed) {
+        return new OffHeapTensor(shape, storage, transposed);
+    }
+
+    @Override
+    protected StorageTensor copy() {
+        OffHeapStorage copy = OffHeapStorage.allocate(size);
+        long[] position = {0};
+
+        forEachSlab(1, false, slab -> {
+            copy.write(position[0], slab, 0, slab.length);
+            position[0] += slab.length;
+        });
+
+        return new OffHeapTensor(shape.clone(), copy, transposed);
+    }
+}
@@ -0,0 +1,241 @@
+package org.brain4j.math.tensor.impl;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector kernels of the compact {@link StorageTensor} formats.
+ * <p>
+ * This class must only be loaded when {@code jdk.incubator.vector} is available.
+ */
+final class SIMDStorageKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Integer> INT_SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Short> SHORT_SPECIES =
+        ShortVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+    private static final VectorSpecies<Byte> BYTE_SPECIES =
+        ByteVector.SPECIES_PREFERRED.withShape(VectorShape.forBitSize(Math.max(64, SPECIES.vectorBitSize() / 4)));
+    private static final int LANES = SPECIES.length();
+
+    private SIMDStorageKernels() {
+    }
+
+    /**
+     * Widens bfloat16 values by shifting them into the upper half of 32-bit lanes.
+     */
+    static void widenBF16(short[] source, int sourceOffset, float[] dest, int destOffset, int count) {
+        int i = 0;
+
+        for (; i <= count - LANES; i += LANES) {
+            ShortVector.fromArray(SHORT_SPECIES, source, sourceOffset + i)
+                .convertShape(VectorOperators.S2I, INT_SPECIES, 0)
+                .reinterpretAsInts()
+                .lanewise(VectorOperators.LSHL, 16)
+                .reinterpretAsFloats()
+                .intoArray(dest, destOffset + i);
+        }
+
+        for (; i < count; i++) {
+            dest[destOffset + i] = Float.intBitsToFloat(source[sourceOffset + i] << 16);
+        }
+    }
+
+    /**
+     * Widens signed 8-bit integers to floats.
+     */
+    static void widenInt8(byte[] source, int sourceOffset, float[] dest, int destOffset, int count) {
+        // With 128-bit vectors the smallest byte vector holds more lanes than converted
+        int bound = count - Math.max(LANES, BYTE_SPECIES.length());
+        int i = 0;
+
+        for (; i <= bound; i += LANES) {
+            ByteVector.fromArray(BYTE_SPECIES, source, sourceOffset + i)
+                .convertShape(VectorOperators.B2F, SPECIES, 0)
+                .reinterpretAsFloats()
+                .intoArray(dest, destOffset + i);
+        }
+
+        for (; i < count; i++) {
+            dest[destOffset + i] = source[sourceOffset + i];
+        }
+    }
+
+    /**
+     * Checks whether the 4-bit kernels can unpack a block size: half a block must be made of
+     * whole vectors, with as many byte lanes as float lanes.
+     */
+    static boolean supportsInt4(int blockSize) {
+        return BYTE_SPECIES.length() == LANES && (blockSize / 2) % LANES == 0;
+    }
+
+    /**
+     * Dequantizes consecutive 4-bit blocks, see {@link Int4Tensor}.
+     */
+    static void widenInt4(
+        byte[] packed,
+        short[] scales,
+        short[] mins,
+        int blockSize,
+        int block,
+        int blocks,
+        float[] dest,
+        int destOffset
+    ) {
+        int half = blockSize / 2;
+
+        for (int b = 0; b < blocks; b++) {
+            int index = block + b;
+            float scale = Float.float16ToFloat(scales[index]);
+            FloatVector vScale = FloatVector.broadcast(SPECIES, scale);
+            FloatVector vMin = FloatVector.broadcast(SPECIES, minOf(scales, mins, index));
+
+            int source = index * half;
+            int target = destOffset + b * blockSize;
+
+            for (int i = 0; i < half; i += LANES) {
+                ByteVector bytes = ByteVector.fromArray(BYTE_SPECIES, packed, source + i);
+
+                lowLevels(bytes).fma(vScale, vMin).intoArray(dest, target + i);
+                highLevels(bytes).fma(vScale, vMin).intoArray(dest, target + half + i);
+            }
+        }
+    }
+
+    /**
+     * Computes the dot product of {@code blocks * blockSize} values of {@code x}, from {@code xOffset},
+     * with consecutive 4-bit blocks, dequantizing them in registers.
+     */
+    static float dotInt4(
+        float[] x,
+        int xOffset,
+        byte[] packed,
+        short[] scales,
+        short[] mins,
+        int blockSize,
+        int block,
+        int blocks
+    ) {
+        int half = blockSize / 2;
+        FloatVector sum = FloatVector.zero(SPECIES);
+
+        for (int b = 0; b < blocks; b++) {
+            int index = block + b;
+            FloatVector vScale = FloatVector.broadcast(SPECIES, Float.float16ToFloat(scales[index]));
+            FloatVector vMin = FloatVector.broadcast(SPECIES, minOf(scales, mins, index));
+
+            int source = index * half;
+            int start = xOffset + b * blockSize;
+
+            for (int i = 0; i < half; i += LANES) {
+                ByteVector bytes = ByteVector.fromArray(BYTE_SPECIES, packed, source + i);
+
+                FloatVector low = lowLevels(bytes).fma(vScale, vMin);
+                FloatVector high = highLevels(bytes).fma(vScale, vMin);
+
+                sum = FloatVector.fromArray(SPECIES, x, start + i).fma(low, sum);
+                sum = FloatVector.fromArray(SPECIES, x, start + half + i).fma(high, sum);
+            }
+        }
+
+        return sum.reduceLanes(VectorOperators.ADD);
+    }
+
+    /**
+     * Computes {@code y += alpha * w} where {@code w} are consecutive 4-bit blocks, dequantized in registers.
+     */
+    static void axpyInt4(
+        float alpha,
+        byte[] packed,
+        short[] scales,
+        short[] mins,
+        int blockSize,
+        int block,
+        int blocks,
+        float[] y,
+        int yOffset
+    ) {
+        int half = blockSize / 2;
+
+        for (int b = 0; b < blocks; b++) {
+            int index = block + b;
+            // alpha * (scale * level + min) = level * (alpha * scale) + alpha * min
+            FloatVector vScale = FloatVector.broadcast(SPECIES, alpha * Float.float16ToFloat(scales[index]));
+            FloatVector vMin = FloatVector.broadcast(SPECIES, alpha * minOf(scales, mins, index));
+
+            int source = index * half;
+            int start = yOffset + b * blockSize;
+
+            for (int i = 0; i < half; i += LANES) {
+                ByteVector bytes = ByteVector.fromArray(BYTE_SPECIES, packed, source + i);
+
+                FloatVector low = FloatVector.fromArray(SPECIES, y, start + i).add(vMin);
+                FloatVector high = FloatVector.fromArray(SPECIES, y, start + half + i).add(vMin);
+
+                lowLevels(bytes).fma(vScale, low).intoArray(y, start + i);
+                highLevels(bytes).fma(vScale, high).intoArray(y, start + half + i);
+            }
+        }
+    }
+
+    private static float minOf(short[] scales, short[] mins, int block) {
+        return mins == null ? -8 * Float.float16ToFloat(scales[block]) : Float.float16ToFloat(mins[block]);
+    }
+
+    private static FloatVector lowLevels(ByteVector bytes) {
+        return (FloatVector) bytes.and((byte) 0x0F).convertShape(VectorOperators.B2F, SPECIES, 0);
+    }
+
+    private static FloatVector highLevels(ByteVector bytes) {
+        return (FloatVector) bytes.lanewise(VectorOperators.LSHR, 4)
+            .and((byte) 0x0F)
+            .convertShape(VectorOperators.B2F, SPECIES, 0);
+    }
+
+    /**
+     * Computes {@code y += alpha * x} over {@code count} values.
+     */
+    static void axpy(float alpha, float[] x, float[] y, int yOffset, int count) {
+        FloatVector scale = FloatVector.broadcast(SPECIES, alpha);
+        int i = 0;
+
+        for (; i <= count - LANES; i += LANES) {
+            FloatVector vx = FloatVector.fromArray(SPECIES, x, i);
+            FloatVector vy = FloatVector.fromArray(SPECIES, y, yOffset + i);
+
+            vx.fma(scale, vy).intoArray(y, yOffset + i);
+        }
+
+        for (; i < count; i++) {
+            y[yOffset + i] += alpha * x[i];
+        }
+    }
+
+    /**
+     * Computes the dot product of {@code count} values of {@code x}, from {@code xOffset}, with {@code y}.
+     */
+    static float dot(float[] x, int xOffset, float[] y, int count) {
+        FloatVector sum = FloatVector.zero(SPECIES);
+        int i = 0;
+
+        for (; i <= count - LANES; i += LANES) {
+            FloatVector vx = FloatVector.fromArray(SPECIES, x, xOffset + i);
+            FloatVector vy = FloatVector.fromArray(SPECIES, y, i);
+
+            sum = vx.fma(vy, sum);
+        }
+
+        float result = sum.reduceLanes(VectorOperators.ADD);
+
+        for (; i < count; i++) {
+            result += x[xOffset + i] * y[i];
+        }
+
+        return result;
+    }
+}
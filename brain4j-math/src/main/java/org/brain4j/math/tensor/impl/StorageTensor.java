@@ -0,0 +1,652 @@
+package org.brain4j.math.tensor.impl;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.activation.Activation;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.gpu.device.Device;
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.Shape;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.matmul.impl.SIMDGemm;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+
+/**
+ * Base class of the CPU tensors whose values are not held in a {@code float[]}, such as
+ * off-heap, half-precision or quantized weights.
+ * <p>
+ * Subclasses only need to convert consecutive values of their storage from and to floats.
+ * On top of that, {@code input.matmul(weights)} streams the weights through the blocked GEMM
+ * a slab at a time, element-wise updates, reductions and {@link #layerNorm(double)} run on the
+ * storage in slabs and matrices are transposed without copying. Any other operation works on a
+ * heap copy of the tensor, see {@link #toHeap()}, and so does {@link #data()}: writes to the
+ * returned array are not reflected in the storage.
+ */
+public abstract class StorageTensor extends BaseTensor {
+
+    /** Floats converted at a time, 4MB worth of data. */
+    protected static final int SLAB_SIZE = 1 << 20;
+
+    protected final long size;
+
+    protected StorageTensor(int[] shape, long storageLength, boolean transposed) {
+        long size = 1;
+
+        for (int dim : shape) {
+            size *= dim;
+        }
+
+        if (size != storageLength) {
+            throw Commons.illegalArgument("Shape %s needs %s values, but the storage holds %s!",
+                Arrays.toString(shape), size, storageLength);
+        }
+
+        if (transposed && shape.length != 2) {
+            throw Commons.illegalArgument("Only matrices can be stored transposed! Got: %s", Arrays.toString(shape));
+        }
+
+        this.shape = shape;
+        this.size = size;
+        this.transposed = transposed;
+        this.strides = size <= Integer.MAX_VALUE ? Tensors.computeStrides(shape) : null;
+
+        if (transposed) {
+            this.strides = new int[] { 1, shape[0] };
+        }
+    }
+
+    /**
+     * Copies consecutive values of the storage, in storage order, into a heap array.
+     * @param index the index of the first value to read
+     * @param dest the destination array
+     * @param offset the position of the first value in the destination
+     * @param count the number of values
+     */
+    public abstract void read(long index, float[] dest, int offset, int count);
+
+    /**
+     * Copies consecutive values from a heap array into the storage, in storage order.
+     * @param index the index of the first value to write
+     * @param source the source array
+     * @param offset the position of the first value in the source
+     * @param count the number of values
+     */
+    public abstract void write(long index, float[] source, int offset, int count);
+
+    /**
+     * Copies consecutive values of the storage like {@link #read(long, float[], int, int)}, but
+     * without the scale of their output column, see {@link #columnScales()}.
+     * @param index the index of the first value to read
+     * @param dest the destination array
+     * @param offset the position of the first value in the destination
+     * @param count the number of values
+     */
+    protected void readUnscaled(long index, float[] dest, int offset, int count) {
+        read(index, dest, offset, count);
+    }
+
+    /**
+     * Gets the scale every value of a column of this matrix is multiplied by when read.
+     * Products then work on the unscaled values and scale each column of the result once.
+     * @return the scale of every column, or <code>null</code> if the values are not scaled
+     */
+    protected float[] columnScales() {
+        return null;
+    }
+
+    /**
+     * Creates a tensor of the same kind which shares this storage.
+     * @param shape the shape of the new tensor
+     * @param transposed whether the new tensor is the transpose of the stored matrix
+     * @return the new tensor
+     */
+    protected abstract StorageTensor share(int[] shape, boolean transposed);
+
+    /**
+     * Creates an independent copy of the storage.
+     * @return a tensor with the same shape, layout and values
+     */
+    protected abstract StorageTensor copy();
+
+    /**
+     * Computes {@code left * this}, with this tensor as a weight matrix of shape {@code [n, p]},
+     * reading the weights a slab at a time so they are never copied to the heap as a whole.
+     * @param left the left operand, of shape {@code [..., m, n]}
+     * @return the product, on the heap
+     */
+    public Tensor leftMultiply(Tensor left) {
+        if (rank() != 2) {
+            return left.matmul(toHeap());
+        }
+
+        int n = shape[0];
+        int p = shape[1];
+
+        Tensor result = Tensors.zeros(productShape(left));
+        float[] a = left.contiguous().data();
+        float[] c = result.data();
+
+        int m = a.length / Math.max(1, n);
+        // Slabs are whole rows of the storage, which are columns of the product when transposed
+        int rowLength = transposed ? n : p;
+        int rows = transposed ? p : n;
+
+        if (m <= SIMDGemm.MR) {
+            multiplyFew(a, c, m, n, p);
+            return scaleColumns(result, c, p);
+        }
+
+        int depth = Math.max(1, Math.min(rows, SLAB_SIZE / Math.max(1, rowLength)));
+        float[] slab = new float[depth * rowLength];
+
+        for (int start = 0; start < rows; start += depth) {
+            int count = Math.min(depth, rows - start);
+            readUnscaled((long) start * rowLength, slab, 0, count * rowLength);
+
+            if (transposed) {
+                multiplyColumns(a, slab, c, m, n, p, start, count);
+            } else {
+                multiplyRows(a, slab, c, m, n, p, start, count);
+            }
+        }
+
+        return scaleColumns(result, c, p);
+    }
+
+    private Tensor scaleColumns(Tensor result, float[] c, int p) {
+        float[] scales = columnScales();
+
+        if (scales == null) {
+            return result;
+        }
+
+        for (int row = 0; row < c.length; row += p) {
+            for (int j = 0; j < p; j++) {
+                c[row + j] *= scales[j];
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Computes the product of a few rows of A, like the ones of a model generating a token at a time,
+     * converting a single row of the storage at a time right before using it.
+     */
+    private void multiplyFew(float[] a, float[] c, int m, int n, int p) {
+        boolean simd = DeviceUtils.isSimdAvailable();
+        float[] row = new float[transposed ? n : p];
+
+        if (transposed) {
+            // Every row of the storage is a column of the weights: c[i][j] = a[i] . w[j]
+            for (int j = 0; j < p; j++) {
+                readUnscaled((long) j * n, row, 0, n);
+
+                for (int i = 0; i < m; i++) {
+                    c[i * p + j] = simd ? SIMDStorageKernels.dot(a, i * n, row, n) : dot(a, i * n, row, n);
+                }
+            }
+
+            return;
+        }
+
+        for (int k = 0; k < n; k++) {
+            readUnscaled((long) k * p, row, 0, p);
+
+            for (int i = 0; i < m; i++) {
+                float scale = a[i * n + k];
+
+                if (scale == 0) continue;
+
+                if (simd) {
+                    SIMDStorageKernels.axpy(scale, row, c, i * p, p);
+                    continue;
+                }
+
+                for (int j = 0; j < p; j++) {
+                    c[i * p + j] += scale * row[j];
+                }
+            }
+        }
+    }
+
+    private static float dot(float[] a, int offset, float[] row, int count) {
+        float sum = 0;
+
+        for (int t = 0; t < count; t++) {
+            sum += a[offset + t] * row[t];
+        }
+
+        return sum;
+    }
+
+    protected int[] productShape(Tensor left) {
+        int[] leftShape = left.shape();
+        int rank = leftShape.length;
+
+        if (rank < 2 || leftShape[rank - 1] != shape[0]) {
+            throw Commons.illegalArgument("Inner dimensions must match! A: %s, B: %s",
+                Arrays.toString(leftShape), Arrays.toString(shape));
+        }
+
+        int[] resultShape = leftShape.clone();
+        resultShape[rank - 1] = shape[1];
+
+        return resultShape;
+    }
+
+    /**
+     * Accumulates the product of the columns {@code [k, k + depth)} of A with the rows {@code [k, k + depth)} of B.
+     */
+    private static void multiplyRows(float[] a, float[] slab, float[] c, int m, int n, int p, int k, int depth) {
+        if (DeviceUtils.isSimdAvailable()) {
+            SIMDGemm.gemm(a, k, n, 1, slab, 0, p, 1, c, 0, p, m, depth, p, null, true);
+            return;
+        }
+
+        for (int i = 0; i < m; i++) {
+            int aRow = i * n + k;
+            int cRow = i * p;
+
+            for (int t = 0; t < depth; t++) {
+                float value = a[aRow + t];
+                int bRow = t * p;
+
+                for (int j = 0; j < p; j++) {
+                    c[cRow + j] += value * slab[bRow + j];
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the columns {@code [j, j + width)} of the product, the slab holding those columns of B stored as rows.
+     */
+    private static void multiplyColumns(float[] a, float[] slab, float[] c, int m, int n, int p, int j, int width) {
+        if (DeviceUtils.isSimdAvailable()) {
+            SIMDGemm.gemm(a, 0, n, 1, slab, 0, 1, n, c, j, p, m, n, width, null, true);
+            return;
+        }
+
+        for (int i = 0; i < m; i++) {
+            int aRow = i * n;
+
+            for (int col = 0; col < width; col++) {
+                int bRow = col * n;
+                float sum = 0;
+
+                for (int t = 0; t < n; t++) {
+                    sum += a[aRow + t] * slab[bRow + t];
+                }
+
+                c[i * p + j + col] += sum;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of elements, which unlike {@link #elements()} may exceed the integer range.
+     * @return the number of elements
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Copies the tensor to the heap.
+     * @return a CPU tensor with the same shape and values
+     * @throws IllegalStateException if the tensor has more elements than an array can hold
+     */
+    public Tensor toHeap() {
+        float[] values = new float[elements()];
+        read(0, values, 0, values.length);
+
+        Tensor result = transposed
+            ? new CpuTensor(Shape.of(shape[1], shape[0]), values).transpose()
+            : new CpuTensor(Shape.of(shape.clone()), values);
+
+        result.setAutogradContext(autogradContext);
+        return result;
+    }
+
+    protected long storageIndex(int[] indices) {
+        if (indices.length != shape.length) {
+            throw Commons.illegalArgument("Expected %s indices, got %s!", shape.length, indices.length);
+        }
+
+        long index = 0;
+
+        for (int i = 0; i < shape.length; i++) {
+            if (indices[i] < 0 || indices[i] >= shape[i]) {
+                throw Commons.indexOOB("Index %s out of bounds for dimension %s of size %s!", indices[i], i, shape[i]);
+            }
+
+            index = index * shape[i] + indices[i];
+        }
+
+        return transposed ? (long) indices[1] * shape[0] + indices[0] : index;
+    }
+
+    /**
+     * Runs a kernel over consecutive slabs of the storage, each a multiple of {@code alignment}
+     * values long, and optionally writes the slabs back.
+     */
+    protected void forEachSlab(int alignment, boolean write, Consumer<float[]> kernel) {
+        int slabSize = alignment >= SLAB_SIZE ? alignment : SLAB_SIZE / alignment * alignment;
+        float[] slab = new float[(int) Math.min(slabSize, size)];
+
+        for (long start = 0; start < size; start += slabSize) {
+            int length = (int) Math.min(slabSize, size - start);
+
+            if (length != slab.length) slab = new float[length];
+
+            read(start, slab, 0, length);
+            kernel.accept(slab);
+
+            if (write) write(start, slab, 0, length);
+        }
+    }
+
+    private void checkStorageOrder(String operation) {
+        if (transposed) {
+            throw Commons.illegalState("%s is not supported on a transposed %s!", operation, getClass().getSimpleName());
+        }
+    }
+
+    private Tensor slabwise(Tensor other, BinaryOperator<Tensor> operation) {
+        checkStorageOrder("Broadcasting");
+
+        Tensor operand = other.to(null);
+        int[] operandShape = operand.shape();
+
+        int leading = 0;
+        while (leading < operandShape.length - 1 && operandShape[leading] == 1) leading++;
+
+        int[] suffix = Arrays.copyOfRange(operandShape, leading, operandShape.length);
+        int skipped = shape.length - suffix.length;
+
+        if (skipped < 0 || !Arrays.equals(suffix, Arrays.copyOfRange(shape, skipped, shape.length))) {
+            throw Commons.illegalArgument("%s only broadcasts over leading dimensions! Got %s and %s",
+                getClass().getSimpleName(), Arrays.toString(shape), Arrays.toString(operandShape));
+        }
+
+        Tensor values = operand.reshape(suffix);
+        int alignment = Math.max(1, values.elements());
+
+        forEachSlab(alignment, true, slab -> {
+            int[] slabShape = new int[suffix.length + 1];
+
+            slabShape[0] = slab.length / alignment;
+            System.arraycopy(suffix, 0, slabShape, 1, suffix.length);
+
+            operation.apply(Tensors.create(slabShape, slab), values);
+        });
+
+        return this;
+    }
+
+    @Override
+    protected Tensor updateInPlace(Consumer<float[]> kernel) {
+        forEachSlab(1, true, kernel);
+        return this;
+    }
+
+    @Override
+    protected Tensor view(int[] shape, int[] strides, int offset) {
+        if (!transposed && isRowMajor(shape, strides)) {
+            float[] values = new float[Tensors.computeSize(shape)];
+            read(offset, values, 0, values.length);
+
+            return Tensors.create(shape, values);
+        }
+
+        float[] values = new float[elements()];
+        read(0, values, 0, values.length);
+
+        return ((BaseTensor) Tensors.create(new int[] { values.length }, values)).view(shape, strides, offset);
+    }
+
+    @Override
+    public int elements() {
+        if (size > Integer.MAX_VALUE) {
+            throw Commons.illegalState("Tensor has %s elements, more than an array can hold! Use size() instead.", size);
+        }
+
+        return (int) size;
+    }
+
+    @Override
+    public int[] strides() {
+        if (strides == null) {
+            throw Commons.illegalState("Strides of a tensor with %s elements do not fit an integer!", size);
+        }
+
+        return strides;
+    }
+
+    @Override
+    public float[] data() {
+        return toHeap().contiguous().data();
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        return toHeap().contiguous().toByteArray();
+    }
+
+    @Override
+    public int linearIndex(int... indices) {
+        return Math.toIntExact(storageIndex(indices));
+    }
+
+    @Override
+    public float get(int... indices) {
+        float[] value = new float[1];
+        read(storageIndex(indices), value, 0, 1);
+        return value[0];
+    }
+
+    @Override
+    public Tensor set(float value, int... indices) {
+        write(storageIndex(indices), new float[] { value }, 0, 1);
+        return this;
+    }
+
+    @Override
+    public boolean isContiguous() {
+        return !transposed;
+    }
+
+    @Override
+    public Tensor contiguous() {
+        return toHeap().contiguous();
+    }
+
+    @Override
+    public Tensor clone() {
+        return copy();
+    }
+
+    @Override
+    public Tensor to(Device device) {
+        Tensor heap = toHeap();
+        return device == null ? heap : heap.to(device);
+    }
+
+    @Override
+    public Tensor reshape(int... newShape) {
+        return transposed ? toHeap().reshape(newShape) : share(newShape.clone(), false);
+    }
+
+    @Override
+    public Tensor transpose(int dim1, int dim2) {
+        if (rank() == 2 && dim1 != dim2) {
+            return share(new int[] { shape[1], shape[0] }, !transposed);
+        }
+
+        return toHeap().transpose(dim1, dim2);
+    }
+
+    @Override
+    public Tensor add(Tensor other) {
+        return slabwise(other, Tensor::add);
+    }
+
+    @Override
+    public Tensor add(double value) {
+        return updateInPlace(values -> {
+            for (int i = 0; i < values.length; i++) values[i] += (float) value;
+        });
+    }
+
+    @Override
+    public Tensor sub(Tensor other) {
+        return slabwise(other, Tensor::sub);
+    }
+
+    @Override
+    public Tensor sub(double value) {
+        return add(-value);
+    }
+
+    @Override
+    public Tensor mul(Tensor other) {
+        return slabwise(other, Tensor::mul);
+    }
+
+    @Override
+    public Tensor mul(double value) {
+        return updateInPlace(values -> {
+            for (int i = 0; i < values.length; i++) values[i] *= (float) value;
+        });
+    }
+
+    @Override
+    public Tensor div(Tensor other) {
+        return slabwise(other, Tensor::div);
+    }
+
+    @Override
+    public Tensor div(double value) {
+        return mul(1.0 / value);
+    }
+
+    @Override
+    public Tensor pow(Tensor other) {
+        return slabwise(other, Tensor::pow);
+    }
+
+    @Override
+    public Tensor pow(double value) {
+        return updateInPlace(values -> {
+            for (int i = 0; i < values.length; i++) values[i] = (float) Math.pow(values[i], value);
+        });
+    }
+
+    @Override
+    public Tensor sqrt() {
+        return updateInPlace(values -> {
+            for (int i = 0; i < values.length; i++) values[i] = (float) Math.sqrt(values[i]);
+        });
+    }
+
+    @Override
+    public Tensor sign() {
+        return toHeap().sign();
+    }
+
+    @Override
+    public Tensor matmul(Tensor other) {
+        return toHeap().matmul(other);
+    }
+
+    @Override
+    public Tensor activate(Activation activation) {
+        return toHeap().activate(activation);
+    }
+
+    @Override
+    public Tensor layerNorm(double epsilon) {
+        checkStorageOrder("Layer normalization");
+
+        int features = shape[shape.length - 1];
+
+        forEachSlab(features, true, slab -> Tensors.create(new int[] { slab.length / features, features }, slab)
+            .layerNorm(epsilon));
+
+        return this;
+    }
+
+    @Override
+    public Tensor softmax(double temperature) {
+        return toHeap().softmax(temperature);
+    }
+
+    @Override
+    public double sum() {
+        double[] sum = {0};
+
+        forEachSlab(1, false, slab -> {
+            for (float value : slab) sum[0] += value;
+        });
+
+        return sum[0];
+    }
+
+    @Override
+    public double mean() {
+        return sum() / size;
+    }
+
+    @Override
+    public double variance() {
+        double mean = mean();
+        double[] sum = {0};
+
+        forEachSlab(1, false, slab -> {
+            for (float value : slab) sum[0] += (value - mean) * (value - mean);
+        });
+
+        return sum[0] / size;
+    }
+
+    @Override
+    public double max() {
+        double[] max = {Double.NEGATIVE_INFINITY};
+
+        forEachSlab(1, false, slab -> {
+            for (float value : slab) max[0] = Math.max(max[0], value);
+        });
+
+        return max[0];
+    }
+
+    @Override
+    public double min() {
+        double[] min = {Double.POSITIVE_INFINITY};
+
+        forEachSlab(1, false, slab -> {
+            for (float value : slab) min[0] = Math.min(min[0], value);
+        });
+
+        return min[0];
+    }
+
+    @Override
+    public int argmax() {
+        return toHeap().argmax();
+    }
+
+    @Override
+    public String toString(String format) {
+        return toHeap().toString(format);
+    }
+
+    @Override
+    public Iterator<Float> iterator() {
+        return toHeap().iterator();
+    }
+}
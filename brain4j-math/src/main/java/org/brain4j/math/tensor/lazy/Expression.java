@@ -0,0 +1,42 @@
+package org.brain4j.math.tensor.lazy;
+
+import org.brain4j.math.activation.Activation;
+import org.brain4j.math.commons.D2DFunction;
+import org.brain4j.math.tensor.impl.BaseTensor;
+
+/**
+ * An immutable node of a deferred elementwise computation. Every node has the element count of the
+ * {@link LazyTensor} it belongs to, except for leaves, which may repeat periodically along it.
+ */
+sealed interface Expression {
+
+    enum Operator {
+        ADD, SUB, MUL, DIV, POW
+    }
+
+    /**
+     * The values of an existing tensor, read in row-major order and repeated every {@code period} elements.
+     * The version of the tensor is recorded so updates made before evaluation are detected.
+     */
+    record Leaf(BaseTensor tensor, int version, int period) implements Expression {
+
+        Leaf(BaseTensor tensor) {
+            this(tensor, tensor.version(), tensor.elements());
+        }
+    }
+
+    record Constant(float value) implements Expression {
+    }
+
+    record Binary(Operator operator, Expression left, Expression right) implements Expression {
+    }
+
+    record Sqrt(Expression input) implements Expression {
+    }
+
+    record Activate(Expression input, Activation activation) implements Expression {
+    }
+
+    record Function(Expression input, D2DFunction function) implements Expression {
+    }
+}
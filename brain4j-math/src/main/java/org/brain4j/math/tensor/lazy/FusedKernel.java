@@ -0,0 +1,276 @@
+package org.brain4j.math.tensor.lazy;
+
+import org.brain4j.math.activation.Activation;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.commons.D2DFunction;
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.impl.BaseTensor;
+import org.brain4j.math.tensor.lazy.Expression.*;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An expression compiled into a list of steps evaluated in a single pass over the elements.
+ * <p>
+ * Equal subexpressions, compared structurally, are compiled once. The elements are processed in
+ * tiles small enough to stay in the L1 cache: every step computes a tile into its own buffer and
+ * the last one writes it into the output, so each input is read once and the output written once,
+ * however long the expression is. Leaves covering the whole output are read in place.
+ */
+final class FusedKernel {
+
+    private static final int TILE = 1024;
+    private static final int TILES_PER_TASK = 16;
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private enum Kind {
+        LOAD, CONSTANT, BINARY, SQRT, ACTIVATE, MAP
+    }
+
+    private record Step(
+        Kind kind,
+        Operator operator,
+        int left,
+        int right,
+        float value,
+        float[] data,
+        int period,
+        Activation activation,
+        D2DFunction function
+    ) {
+        boolean isConstant() {
+            return kind == Kind.CONSTANT;
+        }
+    }
+
+    private final List<Step> steps = new ArrayList<>();
+    private final Map<Expression, Integer> slots = new HashMap<>();
+    private final int elements;
+    private int root;
+
+    private FusedKernel(int elements) {
+        this.elements = elements;
+    }
+
+    /**
+     * Compiles an expression.
+     * @param expression the root of the expression
+     * @param elements the number of values it produces
+     * @return the compiled kernel
+     * @throws IllegalStateException if a tensor it reads was updated in place after being used
+     */
+    static FusedKernel compile(Expression expression, int elements) {
+        FusedKernel kernel = new FusedKernel(elements);
+        kernel.root = kernel.slot(expression);
+        return kernel;
+    }
+
+    /**
+     * Checks whether a buffer is read by a leaf repeated along the output.
+     * @param data the buffer
+     * @return true if the kernel cannot write into the buffer while reading it
+     */
+    boolean repeats(float[] data) {
+        for (Step step : steps) {
+            if (step.kind() == Kind.LOAD && step.period() != elements && step.data() == data) return true;
+        }
+
+        return false;
+    }
+
+    private int slot(Expression expression) {
+        Integer existing = slots.get(expression);
+
+        if (existing != null) return existing;
+
+        int slot = switch (expression) {
+            case Leaf leaf -> load(leaf);
+            case Constant constant -> constant(constant.value());
+            case Binary binary -> binary(binary.operator(), slot(binary.left()), slot(binary.right()));
+            case Sqrt sqrt -> unary(Kind.SQRT, slot(sqrt.input()), null, null);
+            case Activate activate -> unary(Kind.ACTIVATE, slot(activate.input()), activate.activation(), null);
+            case Function function -> unary(Kind.MAP, slot(function.input()), null, function.function());
+        };
+
+        slots.put(expression, slot);
+        return slot;
+    }
+
+    private int load(Leaf leaf) {
+        BaseTensor tensor = leaf.tensor();
+
+        if (tensor.version() != leaf.version()) {
+            throw Commons.illegalState("A tensor used by a deferred expression was updated in place before its evaluation!");
+        }
+
+        float[] data = tensor.contiguous().data();
+
+        if (leaf.period() == 1) {
+            return constant(data[0]);
+        }
+
+        return add(new Step(Kind.LOAD, null, -1, -1, 0, data, leaf.period(), null, null));
+    }
+
+    private int constant(float value) {
+        return add(new Step(Kind.CONSTANT, null, -1, -1, value, null, 0, null, null));
+    }
+
+    private int binary(Operator operator, int left, int right) {
+        Step a = steps.get(left);
+        Step b = steps.get(right);
+
+        if (a.isConstant() && b.isConstant()) {
+            return constant(apply(operator, a.value(), b.value()));
+        }
+
+        if (operator == Operator.POW && b.isConstant()) {
+            float exponent = b.value();
+
+            if (exponent == 1) return left;
+            if (exponent == 2) return binary(Operator.MUL, left, left);
+            if (exponent == 0.5f) return unary(Kind.SQRT, left, null, null);
+        }
+
+        return add(new Step(Kind.BINARY, operator, left, right, 0, null, 0, null, null));
+    }
+
+    private int unary(Kind kind, int input, Activation activation, D2DFunction function) {
+        return add(new Step(kind, null, input, -1, 0, null, 0, activation, function));
+    }
+
+    private int add(Step step) {
+        steps.add(step);
+        return steps.size() - 1;
+    }
+
+    /**
+     * Evaluates the kernel.
+     * @param out the destination of the values
+     * @param outOffset the index of the first value in the destination
+     */
+    void evaluate(float[] out, int outOffset) {
+        int tiles = Math.ceilDiv(elements, TILE);
+        int grain = elements >= PARALLEL_THRESHOLD ? TILES_PER_TASK : tiles;
+
+        ComputeScheduler.current().parallelFor(0, tiles, grain, (first, last) -> {
+            float[][] buffers = new float[root + 1][];
+
+            for (int s = 0; s <= root; s++) {
+                Step step = steps.get(s);
+
+                if (step.kind() == Kind.LOAD && step.period() == elements) continue;
+
+                buffers[s] = new float[TILE];
+
+                // Constants are spread over a tile once, so every step is a loop over arrays
+                if (step.isConstant()) Arrays.fill(buffers[s], step.value());
+            }
+
+            for (int tile = first; tile < last; tile++) {
+                int start = tile * TILE;
+                evaluateTile(buffers, start, Math.min(TILE, elements - start), out, outOffset + start);
+            }
+        });
+    }
+
+    private void evaluateTile(float[][] buffers, int start, int length, float[] out, int outOffset) {
+        float[][] arrays = new float[root + 1][];
+        int[] offsets = new int[root + 1];
+
+        for (int s = 0; s <= root; s++) {
+            Step step = steps.get(s);
+
+            // The last step writes straight into the output
+            boolean direct = s == root && step.kind() != Kind.LOAD && !step.isConstant();
+            float[] target = direct ? out : buffers[s];
+            int offset = direct ? outOffset : 0;
+
+            arrays[s] = target;
+            offsets[s] = offset;
+
+            switch (step.kind()) {
+                case LOAD -> {
+                    if (step.period() == elements) {
+                        arrays[s] = step.data();
+                        offsets[s] = start;
+                    } else {
+                        repeat(step.data(), step.period(), start, target, length);
+                    }
+                }
+                case CONSTANT -> { }
+                case BINARY -> binary(step.operator(), arrays[step.left()], offsets[step.left()],
+                    arrays[step.right()], offsets[step.right()], target, offset, length);
+                case SQRT -> sqrt(arrays[step.left()], offsets[step.left()], target, offset, length);
+                case ACTIVATE -> {
+                    System.arraycopy(arrays[step.left()], offsets[step.left()], target, offset, length);
+                    step.activation().activate(target, offset, length);
+                }
+                case MAP -> {
+                    float[] input = arrays[step.left()];
+                    int inputOffset = offsets[step.left()];
+                    D2DFunction function = step.function();
+
+                    for (int i = 0; i < length; i++) {
+                        target[offset + i] = (float) function.apply(input[inputOffset + i]);
+                    }
+                }
+            }
+        }
+
+        Step last = steps.get(root);
+
+        if (last.isConstant() || last.kind() == Kind.LOAD) {
+            System.arraycopy(arrays[root], offsets[root], out, outOffset, length);
+        }
+    }
+
+    private static void repeat(float[] data, int period, int start, float[] dest, int length) {
+        int position = start % period;
+
+        for (int filled = 0; filled < length; ) {
+            int count = Math.min(length - filled, period - position);
+            System.arraycopy(data, position, dest, filled, count);
+
+            filled += count;
+            position = 0;
+        }
+    }
+
+    private static void binary(Operator operator, float[] a, int aOffset, float[] b, int bOffset, float[] out, int outOffset, int length) {
+        if (DeviceUtils.isSimdAvailable()) {
+            SIMDFusedKernels.binary(operator, a, aOffset, b, bOffset, out, outOffset, length);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = apply(operator, a[aOffset + i], b[bOffset + i]);
+        }
+    }
+
+    private static void sqrt(float[] a, int aOffset, float[] out, int outOffset, int length) {
+        if (DeviceUtils.isSimdAvailable()) {
+            SIMDFusedKernels.sqrt(a, aOffset, out, outOffset, length);
+            return;
+        }
+
+        for (int i = 0; i < length; i++) {
+            out[outOffset + i] = (float) Math.sqrt(a[aOffset + i]);
+        }
+    }
+
+    static float apply(Operator operator, float a, float b) {
+        return switch (operator) {
+            case ADD -> a + b;
+            case SUB -> a - b;
+            case MUL -> a * b;
+            case DIV -> a / b;
+            case POW -> (float) Math.pow(a, b);
+        };
+    }
+}
@@ -0,0 +1,66 @@
+package org.brain4j.math.tensor.lazy;
+
+import org.brain4j.math.tensor.Tensor;
+
+/**
+ * Opt-in deferred evaluation of elementwise tensor operations.
+ * <p>
+ * Chains like {@code a.divide(b).div(c.sqrt().add(epsilon))} normally allocate and sweep a full
+ * tensor per operation. Inside a {@link LazyScope} they build an expression instead, which is
+ * compiled into a single fused loop, with repeated subexpressions computed once, when the values
+ * are first needed: by {@link Tensor#data()}, by a non-elementwise operation like a product or
+ * a reduction, or by {@link #evaluate(Tensor)}. Operations on regular tensors that update them
+ * in place keep running eagerly, so code outside a scope behaves exactly as before.
+ * <p>
+ * Tensors read by a deferred expression must not be changed before it is evaluated. In-place
+ * operations called on them are detected and make the evaluation fail, writes through
+ * {@link Tensor#data()} are not.
+ */
+public final class LazyEvaluation {
+
+    private static final ThreadLocal<LazyScope> CURRENT = new ThreadLocal<>();
+
+    private LazyEvaluation() {
+    }
+
+    /**
+     * Opens a new scope on the calling thread, nested inside the current one if any.
+     * @return the new scope, to be used in a try-with-resources statement
+     */
+    public static LazyScope openScope() {
+        LazyScope scope = new LazyScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Checks whether operations are deferred on the calling thread.
+     * @return true if a scope is open
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Evaluates a tensor if it is deferred.
+     * @param tensor the tensor to evaluate
+     * @return the values of a deferred tensor in a new regular tensor, any other tensor as is
+     */
+    public static Tensor evaluate(Tensor tensor) {
+        return tensor instanceof LazyTensor lazy ? lazy.evaluate() : tensor;
+    }
+
+    static void closeScope(LazyScope scope) {
+        if (CURRENT.get() != scope) {
+            throw new IllegalStateException("Nested lazy scopes must be closed first!");
+        }
+
+        LazyScope parent = scope.parent();
+
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.brain4j.math.tensor.lazy;
+
+/**
+ * A region of code in which the copying elementwise operations of CPU tensors are deferred.
+ * <p>
+ * While a scope is open on a thread, {@code plus}, {@code minus}, {@code times} and {@code divide}
+ * return {@link LazyTensor}s, and the elementwise operations applied to them are collected until
+ * their values are needed, see {@link LazyEvaluation}. Scopes nest and must be closed in the
+ * reverse order they were opened, which a try-with-resources statement does on its own.
+ */
+public final class LazyScope implements AutoCloseable {
+
+    private final LazyScope parent;
+    private final Thread owner;
+    private boolean closed;
+
+    LazyScope(LazyScope parent) {
+        this.parent = parent;
+        this.owner = Thread.currentThread();
+    }
+
+    LazyScope parent() {
+        return parent;
+    }
+
+    /**
+     * Ends the scope: operations called afterwards run eagerly again, unless an outer scope is open.
+     * Deferred tensors created inside the scope stay valid and are evaluated when used.
+     * @throws IllegalStateException if called from another thread or before closing a nested scope
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("A lazy scope must be closed by the thread that opened it!");
+        }
+
+        LazyEvaluation.closeScope(this);
+        closed = true;
+    }
+}
@@ -0,0 +1,829 @@
+package org.brain4j.math.tensor.lazy;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.activation.Activation;
+import org.brain4j.math.commons.D2DFunction;
+import org.brain4j.math.gpu.device.Device;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.autograd.AutogradContext;
+import org.brain4j.math.tensor.autograd.Operation;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.impl.BaseTensor;
+import org.brain4j.math.tensor.impl.CpuTensor;
+import org.brain4j.math.tensor.index.Range;
+import org.brain4j.math.tensor.lazy.Expression.*;
+import org.brain4j.math.tensor.matmul.PackedWeights;
+import org.brain4j.math.tensor.pool.BufferPool;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A CPU tensor whose values are described by an elementwise expression, evaluated in a single
+ * fused loop when they are first needed. See {@link LazyEvaluation}.
+ * <p>
+ * While a {@link LazyScope} is open, the elementwise operations of this tensor (the arithmetic with
+ * tensors or scalars, {@code pow}, {@code sqrt}, {@code map} and elementwise activations) extend the
+ * expression. Operands must have the same shape, a single element, or a shape that is a suffix of
+ * this one, like a bias; anything else, and every other operation, evaluates the expression first
+ * and runs on the result, so the observable behavior is the one of a regular tensor.
+ */
+public class LazyTensor implements Tensor {
+
+    private final int[] shape;
+    private final int elements;
+
+    private Expression expression;
+    private BaseTensor value;
+    private boolean shared;
+
+    private LazyTensor(int[] shape, Expression expression) {
+        this.shape = shape;
+        this.elements = Tensors.computeSize(shape);
+        this.expression = expression;
+    }
+
+    /**
+     * Defers the operations on a copy of a CPU tensor. The tensor itself is only read,
+     * when the result is evaluated.
+     * @param tensor the tensor to read
+     * @return a deferred tensor with the same values
+     */
+    public static LazyTensor of(CpuTensor tensor) {
+        return new LazyTensor(tensor.shape().clone(), new Leaf(tensor));
+    }
+
+    /**
+     * Gets the regular tensor holding the values, evaluating the expression the first time.
+     * @return the values of this tensor
+     */
+    public Tensor evaluate() {
+        return materialize();
+    }
+
+    /**
+     * Evaluates the pending expression straight into a contiguous CPU tensor of the same shape,
+     * without allocating. The destination may be one of the tensors the expression reads.
+     */
+    @Override
+    public Tensor into(Tensor out) {
+        boolean writable = out instanceof CpuTensor && out.isContiguous() && Arrays.equals(shape, out.shape());
+
+        if (value != null || !writable) {
+            return materialize().into(out);
+        }
+
+        FusedKernel kernel = FusedKernel.compile(expression, elements);
+        CpuTensor destination = (CpuTensor) out;
+
+        // Repeated operands are read at other positions than the ones being written
+        if (kernel.repeats(destination.data())) {
+            return materialize().into(out);
+        }
+
+        kernel.evaluate(destination.data(), 0);
+        destination.markModified();
+
+        return out;
+    }
+
+    /**
+     * Checks whether the values have already been computed.
+     * @return true if no operation is pending
+     */
+    public boolean isEvaluated() {
+        return value != null;
+    }
+
+    private BaseTensor materialize() {
+        if (value == null) {
+            FusedKernel kernel = FusedKernel.compile(expression, elements);
+            float[] data = BufferPool.allocate(elements, false);
+
+            kernel.evaluate(data, 0);
+
+            value = (BaseTensor) Tensors.create(shape.clone(), data);
+            expression = new Leaf(value);
+            shared = false;
+        }
+
+        return value;
+    }
+
+    /**
+     * Gets the values to update in place, copied first if other expressions read them.
+     */
+    private BaseTensor writable() {
+        BaseTensor tensor = materialize();
+
+        if (shared) {
+            value = (BaseTensor) tensor.clone();
+            shared = false;
+        }
+
+        return value;
+    }
+
+    private Tensor update(Consumer<Tensor> operation) {
+        operation.accept(writable());
+        expression = new Leaf(value);
+        return this;
+    }
+
+    private Tensor defer(Expression next) {
+        expression = next;
+        value = null;
+        return this;
+    }
+
+    private Expression expression() {
+        if (value != null) shared = true;
+        return expression;
+    }
+
+    private static Tensor plain(Tensor tensor) {
+        return LazyEvaluation.evaluate(tensor);
+    }
+
+    /**
+     * Converts an operand into an expression read along this tensor, or returns null
+     * if it cannot be broadcast by repetition.
+     */
+    private Expression operand(Tensor other) {
+        int[] otherShape = other.shape();
+        int otherElements = other.elements();
+
+        if (!isRepeatable(otherShape, otherElements)) return null;
+
+        if (other instanceof LazyTensor lazy) {
+            if (otherElements == elements) return lazy.expression();
+
+            lazy.materialize();
+            return new Leaf(lazy.value, lazy.value.version(), otherElements);
+        }
+
+        if (other instanceof CpuTensor tensor) {
+            return new Leaf(tensor, tensor.version(), otherElements);
+        }
+
+        return null;
+    }
+
+    private boolean isRepeatable(int[] otherShape, int otherElements) {
+        if (otherElements == 1) return true;
+        if (otherShape.length > shape.length || otherElements == 0) return false;
+
+        // Biases of shape [C] are added along the channels of images, not along their last dimension
+        if (shape.length == 4 && otherShape.length == 1 && otherShape[0] == shape[1]) return false;
+
+        int start = 0;
+
+        while (start < otherShape.length && otherShape[start] == 1) start++;
+
+        int[] suffix = Arrays.copyOfRange(shape, shape.length - (otherShape.length - start), shape.length);
+        return Arrays.equals(suffix, Arrays.copyOfRange(otherShape, start, otherShape.length));
+    }
+
+    private Tensor binary(Operator operator, Tensor other) {
+        Expression operand = LazyEvaluation.isActive() ? operand(other) : null;
+
+        if (operand == null) {
+            return update(tensor -> {
+                switch (operator) {
+                    case ADD -> tensor.add(plain(other));
+                    case SUB -> tensor.sub(plain(other));
+                    case MUL -> tensor.mul(plain(other));
+                    case DIV -> tensor.div(plain(other));
+                    case POW -> tensor.pow(plain(other));
+                }
+            });
+        }
+
+        return defer(new Binary(operator, expression(), operand));
+    }
+
+    private Tensor binary(Operator operator, double value) {
+        if (!LazyEvaluation.isActive()) {
+            return update(tensor -> {
+                switch (operator) {
+                    case ADD -> tensor.add(value);
+                    case SUB -> tensor.sub(value);
+                    case MUL -> tensor.mul(value);
+                    case DIV -> tensor.div(value);
+                    case POW -> tensor.pow(value);
+                }
+            });
+        }
+
+        return defer(new Binary(operator, expression(), new Constant((float) value)));
+    }
+
+    private LazyTensor copy() {
+        return new LazyTensor(shape.clone(), expression());
+    }
+
+    @Override
+    public int shapeAt(int index) {
+        return shape[Math.floorMod(index, shape.length)];
+    }
+
+    @Override
+    public int[] shape() {
+        return shape;
+    }
+
+    @Override
+    public float[] data() {
+        return materialize().data();
+    }
+
+    @Override
+    public int[] strides() {
+        return materialize().strides();
+    }
+
+    @Override
+    public int offset() {
+        return materialize().offset();
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        return materialize().toByteArray();
+    }
+
+    @Override
+    public int linearIndex(int... indices) {
+        return materialize().linearIndex(indices);
+    }
+
+    @Override
+    public float get(int... indices) {
+        return materialize().get(indices);
+    }
+
+    @Override
+    public Tensor set(float value, int... indices) {
+        return update(tensor -> tensor.set(value, indices));
+    }
+
+    @Override
+    public int rank() {
+        return shape.length;
+    }
+
+    @Override
+    public int elements() {
+        return elements;
+    }
+
+    @Override
+    public int argmax() {
+        return materialize().argmax();
+    }
+
+    @Override
+    public Tensor to(Device device) {
+        return materialize().to(device);
+    }
+
+    /**
+     * Copies this tensor. The copy shares the pending expression, so nothing is computed.
+     */
+    @Override
+    public Tensor clone() {
+        return value == null ? copy() : value.clone();
+    }
+
+    @Override
+    public Tensor add(Tensor other) {
+        return binary(Operator.ADD, other);
+    }
+
+    @Override
+    public Tensor plus(Tensor other) {
+        return copy().add(other);
+    }
+
+    @Override
+    public Tensor add(double value) {
+        return binary(Operator.ADD, value);
+    }
+
+    @Override
+    public Tensor plus(double value) {
+        return copy().add(value);
+    }
+
+    @Override
+    public Tensor sub(Tensor other) {
+        return binary(Operator.SUB, other);
+    }
+
+    @Override
+    public Tensor minus(Tensor other) {
+        return copy().sub(other);
+    }
+
+    @Override
+    public Tensor sub(double value) {
+        return binary(Operator.SUB, value);
+    }
+
+    @Override
+    public Tensor minus(double value) {
+        return copy().sub(value);
+    }
+
+    @Override
+    public Tensor mul(Tensor other) {
+        return binary(Operator.MUL, other);
+    }
+
+    @Override
+    public Tensor times(Tensor other) {
+        return copy().mul(other);
+    }
+
+    @Override
+    public Tensor mul(double value) {
+        return binary(Operator.MUL, value);
+    }
+
+    @Override
+    public Tensor times(double value) {
+        return copy().mul(value);
+    }
+
+    @Override
+    public Tensor div(Tensor other) {
+        return binary(Operator.DIV, other);
+    }
+
+    @Override
+    public Tensor divide(Tensor other) {
+        return copy().div(other);
+    }
+
+    @Override
+    public Tensor div(double value) {
+        return binary(Operator.DIV, value);
+    }
+
+    @Override
+    public Tensor divide(double value) {
+        return copy().div(value);
+    }
+
+    @Override
+    public Tensor pow(double value) {
+        return binary(Operator.POW, value);
+    }
+
+    @Override
+    public Tensor pow(Tensor other) {
+        return binary(Operator.POW, other);
+    }
+
+    @Override
+    public Tensor sqrt() {
+        if (!LazyEvaluation.isActive()) {
+            return update(Tensor::sqrt);
+        }
+
+        return defer(new Sqrt(expression()));
+    }
+
+    @Override
+    public Tensor flatten() {
+        return materialize().flatten();
+    }
+
+    @Override
+    public Tensor matmul(Tensor other) {
+        return materialize().matmul(plain(other));
+    }
+
+    @Override
+    public Tensor matmul(PackedWeights weights) {
+        return materialize().matmul(weights);
+    }
+
+    @Override
+    public Tensor linear(Tensor weights, Tensor bias, Activation activation) {
+        return materialize().linear(plain(weights), plain(bias), activation);
+    }
+
+    @Override
+    public Tensor linear(PackedWeights weights, Tensor bias, Activation activation) {
+        return materialize().linear(weights, plain(bias), activation);
+    }
+
+    @Override
+    public Tensor convolve(Tensor kernel) {
+        return materialize().convolve(plain(kernel));
+    }
+
+    @Override
+    public Tensor convolve(Tensor kernel, ConvolveParameters parameters) {
+        return materialize().convolve(plain(kernel), parameters);
+    }
+
+    @Override
+    public Tensor layerNorm(double epsilon) {
+        return update(tensor -> tensor.layerNorm(epsilon));
+    }
+
+    @Override
+    public double distance(Tensor other) {
+        return materialize().distance(plain(other));
+    }
+
+    @Override
+    public double distanceSquared(Tensor other) {
+        return materialize().distanceSquared(plain(other));
+    }
+
+    @Override
+    public Tensor squeeze() {
+        return materialize().squeeze();
+    }
+
+    @Override
+    public Tensor squeeze(int dimension) {
+        return materialize().squeeze(dimension);
+    }
+
+    @Override
+    public Tensor unsqueeze() {
+        return materialize().unsqueeze();
+    }
+
+    @Override
+    public Tensor broadcast(int[] targetShape) {
+        return materialize().broadcast(targetShape);
+    }
+
+    @Override
+    public Tensor broadcastLike(Tensor other) {
+        return materialize().broadcastLike(other);
+    }
+
+    @Override
+    public Tensor unsqueeze(int dimension) {
+        return materialize().unsqueeze(dimension);
+    }
+
+    @Override
+    public Tensor transpose() {
+        return materialize().transpose();
+    }
+
+    @Override
+    public Tensor transpose(int dim1, int dim2) {
+        return materialize().transpose(dim1, dim2);
+    }
+
+    @Override
+    public boolean transposed() {
+        return value != null && value.transposed();
+    }
+
+    @Override
+    public boolean isContiguous() {
+        return value == null || value.isContiguous();
+    }
+
+    @Override
+    public boolean isBroadcastView() {
+        return value != null && value.isBroadcastView();
+    }
+
+    @Override
+    public Tensor contiguous() {
+        return materialize().contiguous();
+    }
+
+    @Override
+    public double sum() {
+        return materialize().sum();
+    }
+
+    @Override
+    public double mean() {
+        return materialize().mean();
+    }
+
+    @Override
+    public double variance() {
+        return materialize().variance();
+    }
+
+    @Override
+    public double max() {
+        return materialize().max();
+    }
+
+    @Override
+    public double min() {
+        return materialize().min();
+    }
+
+    @Override
+    public Tensor sum(int dim, boolean keepDim) {
+        return materialize().sum(dim, keepDim);
+    }
+
+    @Override
+    public Tensor mean(int dim, boolean keepDim) {
+        return materialize().mean(dim, keepDim);
+    }
+
+    @Override
+    public Tensor variance(int dim, boolean keepDim) {
+        return materialize().variance(dim, keepDim);
+    }
+
+    @Override
+    public Tensor variance(Tensor mean, int dim, boolean keepDim) {
+        return materialize().variance(plain(mean), dim, keepDim);
+    }
+
+    @Override
+    public Tensor max(int dim, boolean keepDim) {
+        return materialize().max(dim, keepDim);
+    }
+
+    @Override
+    public Tensor min(int dim, boolean keepDim) {
+        return materialize().min(dim, keepDim);
+    }
+
+    @Override
+    public Tensor argmax(int dim, boolean keepDim) {
+        return materialize().argmax(dim, keepDim);
+    }
+
+    @Override
+    public Tensor logSumExp(int dim, boolean keepDim) {
+        return materialize().logSumExp(dim, keepDim);
+    }
+
+    @Override
+    public Tensor sign() {
+        return materialize().sign();
+    }
+
+    @Override
+    public Tensor reshape(int... newShape) {
+        return materialize().reshape(newShape);
+    }
+
+    @Override
+    public Tensor concat(Tensor other) {
+        return materialize().concat(plain(other));
+    }
+
+    @Override
+    public Tensor concat(Tensor other, int dimension) {
+        return materialize().concat(plain(other), dimension);
+    }
+
+    @Override
+    public Tensor activate(Activation activation) {
+        if (!LazyEvaluation.isActive() || !activation.isElementWise()) {
+            return materialize().activate(activation);
+        }
+
+        return new LazyTensor(shape.clone(), new Activate(expression(), activation));
+    }
+
+    @Override
+    public Tensor select(int dim, int index) {
+        return materialize().select(dim, index);
+    }
+
+    @Override
+    public Tensor slice(Range... ranges) {
+        return materialize().slice(ranges);
+    }
+
+    @Override
+    public Tensor map(D2DFunction function) {
+        if (!LazyEvaluation.isActive()) {
+            return update(tensor -> tensor.map(function));
+        }
+
+        return defer(new Function(expression(), function));
+    }
+
+    @Override
+    public Tensor fill(float value) {
+        return update(tensor -> tensor.fill(value));
+    }
+
+    @Override
+    public Tensor fill(Supplier<Double> supplier) {
+        return update(tensor -> tensor.fill(supplier));
+    }
+
+    @Override
+    public AutogradContext getAutogradContext() {
+        return value == null ? null : value.getAutogradContext();
+    }
+
+    @Override
+    public void setAutogradContext(AutogradContext autogradContext) {
+        materialize().setAutogradContext(autogradContext);
+    }
+
+    @Override
+    public Tensor withGrad() {
+        materialize().withGrad();
+        return this;
+    }
+
+    @Override
+    public Tensor noGrad() {
+        if (value != null) value.noGrad();
+        return this;
+    }
+
+    @Override
+    public boolean usesGrad() {
+        return value != null && value.usesGrad();
+    }
+
+    @Override
+    public void zeroGrad() {
+        if (value != null) value.zeroGrad();
+    }
+
+    @Override
+    public Tensor grad() {
+        return value == null ? null : value.grad();
+    }
+
+    @Override
+    public void backward() {
+        materialize().backward();
+    }
+
+    @Override
+    public void backward(Tensor gradOutput) {
+        materialize().backward(plain(gradOutput));
+    }
+
+    @Override
+    public Tensor forward(Operation operation) {
+        return materialize().forward(operation);
+    }
+
+    @Override
+    public Tensor forward(Operation operation, Tensor other) {
+        return materialize().forward(operation, plain(other));
+    }
+
+    @Override
+    public Tensor forward(Operation operation, Tensor... others) {
+        Tensor[] inputs = new Tensor[others.length];
+
+        for (int i = 0; i < others.length; i++) {
+            inputs[i] = plain(others[i]);
+        }
+
+        return materialize().forward(operation, inputs);
+    }
+
+    @Override
+    public Tensor addGrad(Tensor other) {
+        return materialize().addGrad(plain(other));
+    }
+
+    @Override
+    public Tensor mulGrad(Tensor other) {
+        return materialize().mulGrad(plain(other));
+    }
+
+    @Override
+    public Tensor divGrad(Tensor other) {
+        return materialize().divGrad(plain(other));
+    }
+
+    @Override
+    public Tensor subGrad(Tensor other) {
+        return materialize().subGrad(plain(other));
+    }
+
+    @Override
+    public Tensor sliceGrad(Range... ranges) {
+        return materialize().sliceGrad(ranges);
+    }
+
+    @Override
+    public Tensor matmulGrad(Tensor other) {
+        return materialize().matmulGrad(plain(other));
+    }
+
+    @Override
+    public Tensor linearGrad(Tensor weights, Tensor bias, Activation activation) {
+        return materialize().linearGrad(plain(weights), plain(bias), activation);
+    }
+
+    @Override
+    public Tensor convolveGrad(Tensor other) {
+        return materialize().convolveGrad(plain(other));
+    }
+
+    @Override
+    public Tensor convolveGrad(Tensor other, ConvolveParameters parameters) {
+        return materialize().convolveGrad(plain(other), parameters);
+    }
+
+    @Override
+    public Tensor layerNormGrad(Tensor weights, Tensor bias, double epsilon) {
+        return materialize().layerNormGrad(plain(weights), plain(bias), epsilon);
+    }
+
+    @Override
+    public Tensor maxPoolGrad(int stride, int windowHeight, int windowWidth) {
+        return materialize().maxPoolGrad(stride, windowHeight, windowWidth);
+    }
+
+    @Override
+    public Tensor avgPoolGrad(int stride, int windowHeight, int windowWidth) {
+        return materialize().avgPoolGrad(stride, windowHeight, windowWidth);
+    }
+
+    @Override
+    public Tensor globalAvgPoolGrad() {
+        return materialize().globalAvgPoolGrad();
+    }
+
+    @Override
+    public Tensor transposeGrad() {
+        return materialize().transposeGrad();
+    }
+
+    @Override
+    public Tensor transposeGrad(int dim1, int dim2) {
+        return materialize().transposeGrad(dim1, dim2);
+    }
+
+    @Override
+    public Tensor activateGrad(Activation activation) {
+        return materialize().activateGrad(activation);
+    }
+
+    @Override
+    public Tensor concatGrad(Tensor other, int dim) {
+        return materialize().concatGrad(plain(other), dim);
+    }
+
+    @Override
+    public Tensor reshapeGrad(int... newShape) {
+        return materialize().reshapeGrad(newShape);
+    }
+
+    @Override
+    public Tensor squeezeGrad() {
+        return materialize().squeezeGrad();
+    }
+
+    @Override
+    public Tensor squeezeGrad(int dimension) {
+        return materialize().squeezeGrad(dimension);
+    }
+
+    @Override
+    public Tensor flip() {
+        return materialize().flip();
+    }
+
+    @Override
+    public Tensor softmax() {
+        return materialize().softmax();
+    }
+
+    @Override
+    public Tensor softmax(double temperature) {
+        return materialize().softmax(temperature);
+    }
+
+    @Override
+    public String toString(String format) {
+        return materialize().toString(format);
+    }
+
+    @Override
+    public String toString() {
+        return materialize().toString();
+    }
+
+    @Override
+    public Iterator<Float> iterator() {
+        return materialize().iterator();
+    }
+}
@@ -0,0 +1,72 @@
+package org.brain4j.math.tensor.lazy;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.brain4j.math.tensor.lazy.Expression.Operator;
+
+/**
+ * Vectorized steps of a {@link FusedKernel}, writing into a separate output.
+ * Only loaded when the Vector API is available.
+ */
+final class SIMDFusedKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+
+    private SIMDFusedKernels() {
+    }
+
+    static void binary(Operator operator, float[] a, int aOffset, float[] b, int bOffset, float[] out, int outOffset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int step = SPECIES.length();
+
+        // One loop per operator, as the vector operations are only intrinsified on constant operators
+        switch (operator) {
+            case ADD -> {
+                for (int i = 0; i < bound; i += step) {
+                    load(a, aOffset + i).add(load(b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+            }
+            case SUB -> {
+                for (int i = 0; i < bound; i += step) {
+                    load(a, aOffset + i).sub(load(b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+            }
+            case MUL -> {
+                for (int i = 0; i < bound; i += step) {
+                    load(a, aOffset + i).mul(load(b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+            }
+            case DIV -> {
+                for (int i = 0; i < bound; i += step) {
+                    load(a, aOffset + i).div(load(b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+            }
+            case POW -> {
+                for (int i = 0; i < bound; i += step) {
+                    load(a, aOffset + i).lanewise(VectorOperators.POW, load(b, bOffset + i)).intoArray(out, outOffset + i);
+                }
+            }
+        }
+
+        for (int i = bound; i < length; i++) {
+            out[outOffset + i] = FusedKernel.apply(operator, a[aOffset + i], b[bOffset + i]);
+        }
+    }
+
+    static void sqrt(float[] a, int aOffset, float[] out, int outOffset, int length) {
+        int i = 0;
+
+        for (int bound = SPECIES.loopBound(length); i < bound; i += SPECIES.length()) {
+            FloatVector.fromArray(SPECIES, a, aOffset + i).sqrt().intoArray(out, outOffset + i);
+        }
+
+        for (; i < length; i++) {
+            out[outOffset + i] = (float) Math.sqrt(a[aOffset + i]);
+        }
+    }
+
+    private static FloatVector load(float[] array, int offset) {
+        return FloatVector.fromArray(SPECIES, array, offset);
+    }
+}
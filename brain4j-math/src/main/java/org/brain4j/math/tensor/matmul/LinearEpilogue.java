@@ -0,0 +1,43 @@
+package org.brain4j.math.tensor.matmul;
+
+import org.brain4j.math.activation.Activation;
+
+/**
+ * Work applied to the output of a matmul while it is still hot in cache: a bias added
+ * along the last dimension followed by an element-wise activation, both in place.
+ * <p>
+ * Offsets passed to {@link #apply(float[], int, int)} are offsets in the row-major output,
+ * so the bias column of every value is its offset modulo {@code columns}.
+ *
+ * @param bias the bias of length {@code columns}, or null
+ * @param activation an element-wise activation, or null
+ * @param columns the size of the last dimension of the output
+ */
+public record LinearEpilogue(float[] bias, Activation activation, int columns) {
+
+    /**
+     * Adds the bias and applies the activation to {@code length} consecutive outputs.
+     * @param data the output buffer
+     * @param offset the offset of the first output
+     * @param length the number of outputs
+     */
+    public void apply(float[] data, int offset, int length) {
+        while (length > 0) {
+            int column = offset % columns;
+            int span = Math.min(length, columns - column);
+
+            if (bias != null) {
+                for (int j = 0; j < span; j++) {
+                    data[offset + j] += bias[column + j];
+                }
+            }
+
+            if (activation != null) {
+                activation.activate(data, offset, span);
+            }
+
+            offset += span;
+            length -= span;
+        }
+    }
+}
@@ -1,11 +1,17 @@
 package org.brain4j.math.tensor.matmul;
 
+import org.brain4j.math.Tensors;
+import org.brain4j.math.tensor.Tensor;
+
+import java.util.Arrays;
+
 public record MatmulParameters(
     float[] A, float[] B, float[] C,
     int m, int n, int p,
     boolean transposedA,
     boolean transposedB,
-    int batchA, int batchB
+    int batchA, int batchB,
+    LinearEpilogue epilogue
 ) {
     public int mn() {
         return m * n;
@@ -18,4 +24,89 @@ public record MatmulParameters(
     public int mp() {
         return m * p;
     }
+
+    /**
+     * Row stride of A: the distance between A[i][t] and A[i + 1][t].
+     */
+    public int rowStrideA() {
+        return transposedA ? 1 : n;
+    }
+
+    /**
+     * Column stride of A: the distance between A[i][t] and A[i][t + 1].
+     */
+    public int colStrideA() {
+        return transposedA ? m : 1;
+    }
+
+    /**
+     * Row stride of B: the distance between B[t][j] and B[t + 1][j].
+     */
+    public int rowStrideB() {
+        return transposedB ? 1 : p;
+    }
+
+    /**
+     * Column stride of B: the distance between B[t][j] and B[t][j + 1].
+     */
+    public int colStrideB() {
+        return transposedB ? n : 1;
+    }
+
+    /**
+     * Gets whether the tensor is a view of a row-major buffer with its last two dimensions swapped,
+     * which is the layout produced by {@link Tensor#transpose()}.
+     * @param tensor the tensor to check
+     * @return true if the matrices of the tensor are stored column by column
+     */
+    public static boolean isTransposedLayout(Tensor tensor) {
+        int[] shape = tensor.shape();
+        int rank = shape.length;
+
+        if (rank < 2 || tensor.offset() != 0 || tensor.isContiguous()) return false;
+
+        int[] original = shape.clone();
+        original[rank - 2] = shape[rank - 1];
+        original[rank - 1] = shape[rank - 2];
+
+        int[] expected = Tensors.computeStrides(original);
+        int swap = expected[rank - 2];
+
+        expected[rank - 2] = expected[rank - 1];
+        expected[rank - 1] = swap;
+
+        return Arrays.equals(tensor.strides(), expected);
+    }
+
+    /**
+     * Returns a tensor the matmul kernels can index directly: either row-major
+     * or a matrix-transposed view, copying any other strided layout.
+     * <p>
+     * A matrix broadcast over the batch dimensions (all with stride 0) is returned as
+     * that single matrix, since the kernels already reuse an operand with batch size one.
+     * @param tensor the operand
+     * @return the operand itself, its broadcast matrix, or a contiguous copy of it
+     */
+    public static Tensor matmulOperand(Tensor tensor) {
+        if (isBatchBroadcast(tensor)) {
+            while (tensor.rank() > 2) {
+                tensor = tensor.select(0, 0);
+            }
+        }
+
+        return isTransposedLayout(tensor) ? tensor : tensor.contiguous();
+    }
+
+    private static boolean isBatchBroadcast(Tensor tensor) {
+        int[] shape = tensor.shape();
+        int[] strides = tensor.strides();
+
+        if (shape.length < 3 || !tensor.isBroadcastView()) return false;
+
+        for (int d = 0; d < shape.length - 2; d++) {
+            if (strides[d] != 0 && shape[d] > 1) return false;
+        }
+
+        return true;
+    }
 }
@@ -5,4 +5,43 @@ import org.brain4j.math.tensor.Tensor;
 public interface MatmulProvider {
 
     void multiply(Tensor a, Tensor b, Tensor c);
+
+    /**
+     * Multiplies {@code a} by weights packed ahead of time, accumulating into {@code c}.
+     * Providers that do not consume packed panels multiply by the source tensor.
+     *
+     * @param a the left operand, of shape {@code [..., m, n]}
+     * @param b the packed right operand, of shape {@code [n, p]}
+     * @param c the output, of shape {@code [..., m, p]}
+     */
+    default void multiply(Tensor a, PackedWeights b, Tensor c) {
+        multiply(a, b.source(), c);
+    }
+
+    /**
+     * Multiplies {@code a} by {@code b} into {@code c}, then runs the epilogue on every output.
+     * Providers that can apply it while each block of the output is still in cache override this.
+     *
+     * @param a the left operand
+     * @param b the right operand
+     * @param c the output, initially zero
+     * @param epilogue the epilogue to apply
+     */
+    default void multiply(Tensor a, Tensor b, Tensor c, LinearEpilogue epilogue) {
+        multiply(a, b, c);
+        epilogue.apply(c.data(), 0, c.elements());
+    }
+
+    /**
+     * Multiplies {@code a} by packed weights into {@code c}, then runs the epilogue on every output.
+     *
+     * @param a the left operand
+     * @param b the packed right operand
+     * @param c the output, initially zero
+     * @param epilogue the epilogue to apply
+     */
+    default void multiply(Tensor a, PackedWeights b, Tensor c, LinearEpilogue epilogue) {
+        multiply(a, b, c);
+        epilogue.apply(c.data(), 0, c.elements());
+    }
 }
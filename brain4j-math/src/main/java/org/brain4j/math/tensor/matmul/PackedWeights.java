@@ -0,0 +1,97 @@
+package org.brain4j.math.tensor.matmul;
+
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.impl.CpuTensor;
+import org.brain4j.math.tensor.matmul.impl.SIMDGemm;
+
+/**
+ * A right matmul operand packed ahead of time into the panel layout consumed by the blocked GEMM.
+ * <p>
+ * Packing costs a full pass over the weights, which the blocked GEMM otherwise repeats on every call.
+ * For frozen weights multiplied many times (e.g. the projections of a model serving tokens one by one)
+ * this representation is built once and reused by {@link Tensor#matmul(PackedWeights)}.
+ * <p>
+ * A packed representation is a snapshot: it stays valid only as long as the source tensor is
+ * not written to. {@link #isPackOf(Tensor)} detects replaced tensors or buffers and in-place updates
+ * made through the methods of the tensor, but not writes to its {@link Tensor#data()} array.
+ */
+public final class PackedWeights {
+
+    private final Tensor source;
+    private final float[] sourceData;
+    private final int sourceVersion;
+    private final float[] panels;
+    private final int rows;
+    private final int columns;
+
+    private PackedWeights(Tensor source, float[] panels, int rows, int columns) {
+        this.source = source;
+        this.sourceData = source.data();
+        this.sourceVersion = ((CpuTensor) source).version();
+        this.panels = panels;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Gets whether the tensor can be packed, i.e. it is a CPU matrix and the Vector API is available.
+     * @param tensor the tensor to check
+     * @return true if {@link #pack(Tensor)} accepts the tensor
+     */
+    public static boolean isSupported(Tensor tensor) {
+        return tensor instanceof CpuTensor && tensor.rank() == 2 && DeviceUtils.isSimdAvailable();
+    }
+
+    /**
+     * Packs a weight matrix of shape {@code [rows, columns]}.
+     * @param weights the weights to pack, either row-major or a transposed view
+     * @return the packed weights
+     * @throws IllegalArgumentException if the tensor is not supported
+     */
+    public static PackedWeights pack(Tensor weights) {
+        if (!isSupported(weights)) {
+            throw new IllegalArgumentException("Only CPU matrices can be packed when SIMD is available!");
+        }
+
+        Tensor operand = MatmulParameters.matmulOperand(weights);
+        boolean transposed = MatmulParameters.isTransposedLayout(operand);
+
+        int rows = weights.shape()[0];
+        int columns = weights.shape()[1];
+
+        int rowStride = transposed ? 1 : columns;
+        int columnStride = transposed ? rows : 1;
+
+        float[] panels = new float[SIMDGemm.packedSize(rows, columns)];
+        SIMDGemm.pack(operand.data(), 0, rowStride, columnStride, rows, columns, panels);
+
+        return new PackedWeights(weights, panels, rows, columns);
+    }
+
+    /**
+     * Checks whether this is still the packed form of the given tensor.
+     * @param tensor the tensor to check
+     * @return true if the tensor is the source of this packing, still uses the same buffer
+     *         and has not been updated in place since
+     */
+    public boolean isPackOf(Tensor tensor) {
+        return tensor == source && tensor.data() == sourceData && ((CpuTensor) tensor).version() == sourceVersion;
+    }
+
+    public Tensor source() {
+        return source;
+    }
+
+    public float[] panels() {
+        return panels;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+}
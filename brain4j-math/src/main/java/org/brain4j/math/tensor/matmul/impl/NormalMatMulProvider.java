@@ -3,24 +3,22 @@ package org.brain4j.math.tensor.matmul.impl;
 import org.brain4j.math.tensor.Tensor;
 import org.brain4j.math.tensor.matmul.MatmulParameters;
 import org.brain4j.math.tensor.matmul.MatmulProvider;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveAction;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
 
 public class NormalMatMulProvider implements MatmulProvider {
     
-    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
     private static final int WORK_THRESHOLD = 8;
     private static final int COMPLEXITY_THRESHOLD = 65536 * 4;
 
-    private static boolean isOverThreshold(int work, int np) {
-        return work > WORK_THRESHOLD && work * np > COMPLEXITY_THRESHOLD;
+    private static int grain(int np) {
+        return Math.max(WORK_THRESHOLD, COMPLEXITY_THRESHOLD / Math.max(1, np));
     }
 
     @Override
     public void multiply(Tensor a, Tensor b, Tensor c) {
+        a = MatmulParameters.matmulOperand(a);
+        b = MatmulParameters.matmulOperand(b);
+
         float[] A = a.data();
         float[] B = b.data();
         float[] C = c.data();
@@ -44,33 +42,23 @@ public class NormalMatMulProvider implements MatmulProvider {
         int n = shapeA[rankA - 1];
         int p = shapeB[rankB - 1];
 
-        MatmulParameters parameters = new MatmulParameters(A, B, C, m, n, p, a.transposed(), b.transposed(), batchA, batchB);
-
-        int work = batch * m;
-
-        int mn = m * n;
-        int np = n * p;
-        int mp = m * p;
+        boolean transposedA = MatmulParameters.isTransposedLayout(a);
+        boolean transposedB = MatmulParameters.isTransposedLayout(b);
 
-        if (!isOverThreshold(work, np)) {
-            matmulBlock(A, B, C, 0, work, m, n, p, mn, np, mp, batchA, batchB, a.transposed(), b.transposed());
-            return;
-        }
-
-
-        int step = work / PARALLELISM;
-        List<ScalarAction> actions = new ArrayList<>();
+        MatmulParameters parameters = new MatmulParameters(A, B, C, m, n, p, transposedA, transposedB, batchA, batchB, null);
 
-        for (int i = 0; i < PARALLELISM; i++) {
-            int startIndex = i * step;
-            int endIndex = (i == PARALLELISM - 1) ? work : Math.min(startIndex + step, work);
-
-            if (startIndex < endIndex) {
-                actions.add(new ScalarAction(parameters, startIndex, endIndex));
-            }
-        }
+        int work = batch * m;
 
-        ForkJoinTask.invokeAll(actions);
+        ComputeScheduler.current().parallelFor(0, work, grain(parameters.np()), (start, end) ->
+            matmulBlock(
+                A, B, C,
+                start, end,
+                m, n, p,
+                parameters.mn(), parameters.np(), parameters.mp(),
+                parameters.batchA(), parameters.batchB(),
+                transposedA, transposedB
+            )
+        );
     }
     
     private void matmulBlock(
@@ -153,39 +141,4 @@ public class NormalMatMulProvider implements MatmulProvider {
             }
         }
     }
-    
-    private class ScalarAction extends RecursiveAction {
-
-        private final MatmulParameters parameters;
-        private final int start, end;
-
-        private ScalarAction(MatmulParameters parameters, int start, int end) {
-            this.parameters = parameters;
-            this.start = start;
-            this.end = end;
-        }
-
-        @Override
-        protected void compute() {
-            int np = parameters.np();
-            int work = end - start;
-
-            if (isOverThreshold(work, np)) {
-                int mid = (start + end) >>> 1;
-                invokeAll(
-                    new ScalarAction(parameters, start, mid),
-                    new ScalarAction(parameters, mid, end)
-                );
-            } else {
-                matmulBlock(
-                    parameters.A(), parameters.B(), parameters.C(),
-                    start, end,
-                    parameters.m(), parameters.n(), parameters.p(),
-                    parameters.mn(), parameters.np(), parameters.mp(),
-                    parameters.batchA(), parameters.batchB(),
-                    parameters.transposedA(), parameters.transposedB()
-                );
-            }
-        }
-    }
 }
@@ -0,0 +1,555 @@
+package org.brain4j.math.tensor.matmul.impl;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorSpecies;
+import org.brain4j.math.tensor.matmul.LinearEpilogue;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.Tuning;
+
+/**
+ * Cache-blocked, register-tiled single precision GEMM built on top of the Vector API.
+ * <p>
+ * Computes {@code C += A * B} where {@code A} is {@code [m x n]}, {@code B} is {@code [n x p]}
+ * and {@code C} is {@code [m x p]}. Every operand is described by an offset and a pair of
+ * row/column strides, so the packing routines can read any 2D layout.
+ * <p>
+ * The algorithm follows the classic Goto/BLIS loop structure:
+ * <ul>
+ *   <li>{@code B} is packed into {@code [KC x NC]} panels made of {@code NR}-wide column slivers</li>
+ *   <li>{@code A} is packed into {@code [MC x KC]} blocks made of {@code MR}-tall row slivers</li>
+ *   <li>the micro-kernel keeps an {@code MR x NR} tile of {@code C} in vector registers
+ *       and streams both packed slivers sequentially</li>
+ * </ul>
+ * An optional {@link LinearEpilogue} is applied to each tile of {@code C} right after its last update.
+ * <p>
+ * Block sizes are derived from the width of {@link FloatVector#SPECIES_PREFERRED}: the {@code B} sliver
+ * ({@code KC * NR} floats) is sized to stay in L1, the {@code A} block in L2 and the {@code B} panel in L3.
+ */
+public final class SIMDGemm {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    /** Rows of the register tile. */
+    public static final int MR = 4;
+    /** Columns of the register tile, two vectors per row. */
+    public static final int NR = LANES * 2;
+    /** Depth of a packed panel, keeps a {@code KC x NR} sliver of B around 16KB. */
+    public static final int KC = Math.max(64, 4096 / NR);
+    /** Rows of a packed A block, keeps a {@code MC x KC} block around 128KB. */
+    public static final int MC = Math.max(MR, 32768 / KC / MR * MR);
+    /** Columns of a packed B panel. */
+    public static final int NC = Math.max(NR, 4096 / NR * NR);
+
+    private static final ThreadLocal<float[]> PACK_A = ThreadLocal.withInitial(() -> new float[MC * KC]);
+    private static final ThreadLocal<float[]> PACK_B = ThreadLocal.withInitial(() -> new float[0]);
+    private static final ThreadLocal<float[]> EDGE = ThreadLocal.withInitial(() -> new float[MR * NR]);
+
+    private SIMDGemm() {
+    }
+
+    /**
+     * Computes {@code C += A * B} for a single pair of matrices.
+     *
+     * @param a the left operand data
+     * @param offA the offset of the first element of A
+     * @param rsA the row stride of A
+     * @param csA the column stride of A
+     * @param b the right operand data
+     * @param offB the offset of the first element of B
+     * @param rsB the row stride of B
+     * @param csB the column stride of B
+     * @param c the output data, must be row-major with unit column stride
+     * @param offC the offset of the first element of C
+     * @param rsC the row stride of C
+     * @param m the rows of A and C
+     * @param n the columns of A and rows of B
+     * @param p the columns of B and C
+     * @param epilogue applied to every tile of C once fully accumulated, may be null
+     * @param parallel whether the work may be split across the current {@link ComputeScheduler}
+     */
+    public static void gemm(
+        float[] a, int offA, int rsA, int csA,
+        float[] b, int offB, int rsB, int csB,
+        float[] c, int offC, int rsC,
+        int m, int n, int p,
+        LinearEpilogue epilogue,
+        boolean parallel
+    ) {
+        if (m == 0 || n == 0 || p == 0) return;
+
+        parallel &= ComputeScheduler.current().parallelism() > 1 && (long) m * n * p > Tuning.current().gemmComplexity();
+
+        int ncMax = Math.min(NC, roundUp(p, NR));
+        int kcMax = Math.min(KC, n);
+
+        // A parallel call forks while its B panel is still in use, so the panel
+        // cannot live in a thread-local buffer that a stolen task could overwrite
+        float[] packB = parallel ? new float[kcMax * ncMax] : workspace(PACK_B, kcMax * ncMax);
+
+        for (int jc = 0; jc < p; jc += NC) {
+            int nc = Math.min(NC, p - jc);
+
+            for (int pc = 0; pc < n; pc += KC) {
+                int kc = Math.min(KC, n - pc);
+
+                packB(b, offB + pc * rsB + jc * csB, rsB, csB, kc, nc, packB);
+
+                int aBase = offA + pc * csA;
+                int cBase = offC + jc;
+
+                // The epilogue may only run once the last panel has been accumulated
+                LinearEpilogue last = pc + kc == n ? epilogue : null;
+
+                if (!parallel) {
+                    for (int ic = 0; ic < m; ic += MC) {
+                        int mc = Math.min(MC, m - ic);
+                        block(a, aBase + ic * rsA, rsA, csA, packB, 0, nc, c, cBase + ic * rsC, rsC, mc, kc, last);
+                    }
+                    continue;
+                }
+
+                forkBlocks(a, aBase, rsA, csA, packB, 0, c, cBase, rsC, m, nc, kc, last);
+            }
+        }
+    }
+
+    /**
+     * Gets the size of the buffer needed by {@link #pack} for a {@code [n x p]} right operand.
+     *
+     * @param n the rows of B
+     * @param p the columns of B
+     * @return the number of floats of the packed representation
+     */
+    public static int packedSize(int n, int p) {
+        return roundUp(p, NR) * n;
+    }
+
+    /**
+     * Packs the whole of B ahead of time, in the same panel order {@link #gemm} visits it.
+     * The panel covering columns {@code jc} and rows {@code pc} starts at
+     * {@code jc * n + pc * roundUp(nc, NR)}, where {@code nc} is the width of the panel.
+     *
+     * @param b the right operand data
+     * @param offB the offset of the first element of B
+     * @param rsB the row stride of B
+     * @param csB the column stride of B
+     * @param n the rows of B
+     * @param p the columns of B
+     * @param dest the destination, at least {@link #packedSize(int, int)} floats long
+     */
+    public static void pack(float[] b, int offB, int rsB, int csB, int n, int p, float[] dest) {
+        for (int jc = 0; jc < p; jc += NC) {
+            int nc = Math.min(NC, p - jc);
+            int width = roundUp(nc, NR);
+
+            for (int pc = 0; pc < n; pc += KC) {
+                int kc = Math.min(KC, n - pc);
+                float[] panel = workspace(PACK_B, kc * width);
+
+                packB(b, offB + pc * rsB + jc * csB, rsB, csB, kc, nc, panel);
+                System.arraycopy(panel, 0, dest, jc * n + pc * width, kc * width);
+            }
+        }
+    }
+
+    /**
+     * Computes {@code C += A * B} with B already packed by {@link #pack}.
+     *
+     * @param a the left operand data
+     * @param offA the offset of the first element of A
+     * @param rsA the row stride of A
+     * @param csA the column stride of A
+     * @param packedB the packed right operand
+     * @param c the output data, must be row-major with unit column stride
+     * @param offC the offset of the first element of C
+     * @param rsC the row stride of C
+     * @param m the rows of A and C
+     * @param n the columns of A and rows of B
+     * @param p the columns of B and C
+     * @param epilogue applied to every tile of C once fully accumulated, may be null
+     * @param parallel whether the work may be split across the current {@link ComputeScheduler}
+     */
+    public static void gemmPacked(
+        float[] a, int offA, int rsA, int csA,
+        float[] packedB,
+        float[] c, int offC, int rsC,
+        int m, int n, int p,
+        LinearEpilogue epilogue,
+        boolean parallel
+    ) {
+        if (m == 0 || n == 0 || p == 0) return;
+
+        parallel &= ComputeScheduler.current().parallelism() > 1 && (long) m * n * p > Tuning.current().gemmComplexity();
+
+        for (int jc = 0; jc < p; jc += NC) {
+            int nc = Math.min(NC, p - jc);
+            int width = roundUp(nc, NR);
+
+            for (int pc = 0; pc < n; pc += KC) {
+                int kc = Math.min(KC, n - pc);
+                int panel = jc * n + pc * width;
+
+                int aBase = offA + pc * csA;
+                int cBase = offC + jc;
+
+                LinearEpilogue last = pc + kc == n ? epilogue : null;
+
+                if (!parallel) {
+                    for (int ic = 0; ic < m; ic += MC) {
+                        int mc = Math.min(MC, m - ic);
+                        block(a, aBase + ic * rsA, rsA, csA, packedB, panel, nc, c, cBase + ic * rsC, rsC, mc, kc, last);
+                    }
+                    continue;
+                }
+
+                forkBlocks(a, aBase, rsA, csA, packedB, panel, c, cBase, rsC, m, nc, kc, last);
+            }
+        }
+    }
+
+    /**
+     * Computes {@code c += a * B} for a single row {@code a}, with B already packed by {@link #pack}.
+     * <p>
+     * A row leaves most of a register tile idle, so it is not packed: every {@code NR}-wide sliver
+     * of B is streamed through all of its panels while the outputs stay in vector registers.
+     *
+     * @param a the left operand data
+     * @param offA the offset of the first element of the row
+     * @param csA the column stride of the row
+     * @param packedB the packed right operand
+     * @param c the output data
+     * @param offC the offset of the first element of the output row
+     * @param n the columns of the row and rows of B
+     * @param p the columns of B and of the output row
+     * @param epilogue applied to the output row once fully accumulated, may be null
+     * @param parallel whether the slivers may be split across the current {@link ComputeScheduler}
+     */
+    public static void gemvPacked(
+        float[] a, int offA, int csA,
+        float[] packedB,
+        float[] c, int offC,
+        int n, int p,
+        LinearEpilogue epilogue,
+        boolean parallel
+    ) {
+        if (n == 0 || p == 0) return;
+
+        ComputeScheduler scheduler = ComputeScheduler.current();
+        int complexity = Tuning.current().gemmComplexity();
+        int slivers = (p + NR - 1) / NR;
+
+        parallel &= scheduler.parallelism() > 1 && (long) n * p > complexity;
+
+        if (!parallel) {
+            gemvSlivers(a, offA, csA, packedB, c, offC, n, p, 0, slivers, epilogue);
+            return;
+        }
+
+        int grain = Math.max(1, complexity / (n * NR));
+
+        scheduler.parallelFor(0, slivers, grain, (start, end) ->
+            gemvSlivers(a, offA, csA, packedB, c, offC, n, p, start, end, epilogue));
+    }
+
+    private static void gemvSlivers(
+        float[] a, int offA, int csA,
+        float[] packedB,
+        float[] c, int offC,
+        int n, int p,
+        int start, int end,
+        LinearEpilogue epilogue
+    ) {
+        for (int sliver = start; sliver < end; sliver++) {
+            int j = sliver * NR;
+            int jc = j / NC * NC;
+            int width = roundUp(Math.min(NC, p - jc), NR);
+
+            // Two pairs of accumulators, for the even and odd rows of B, hide the latency of the FMAs
+            FloatVector low0 = FloatVector.zero(SPECIES), high0 = FloatVector.zero(SPECIES);
+            FloatVector low1 = FloatVector.zero(SPECIES), high1 = FloatVector.zero(SPECIES);
+
+            for (int pc = 0; pc < n; pc += KC) {
+                int kc = Math.min(KC, n - pc);
+                int bOffset = jc * n + pc * width + (j - jc) * kc;
+                int aOffset = offA + pc * csA;
+                int k = 0;
+
+                for (; k + 1 < kc; k += 2) {
+                    FloatVector a0 = FloatVector.broadcast(SPECIES, a[aOffset + k * csA]);
+                    FloatVector a1 = FloatVector.broadcast(SPECIES, a[aOffset + (k + 1) * csA]);
+
+                    low0 = a0.fma(FloatVector.fromArray(SPECIES, packedB, bOffset), low0);
+                    high0 = a0.fma(FloatVector.fromArray(SPECIES, packedB, bOffset + LANES), high0);
+                    low1 = a1.fma(FloatVector.fromArray(SPECIES, packedB, bOffset + NR), low1);
+                    high1 = a1.fma(FloatVector.fromArray(SPECIES, packedB, bOffset + NR + LANES), high1);
+
+                    bOffset += 2 * NR;
+                }
+
+                if (k < kc) {
+                    FloatVector a0 = FloatVector.broadcast(SPECIES, a[aOffset + k * csA]);
+
+                    low0 = a0.fma(FloatVector.fromArray(SPECIES, packedB, bOffset), low0);
+                    high0 = a0.fma(FloatVector.fromArray(SPECIES, packedB, bOffset + LANES), high0);
+                }
+            }
+
+            FloatVector low = low0.add(low1);
+            FloatVector high = high0.add(high1);
+
+            int nr = Math.min(NR, p - j);
+            int out = offC + j;
+
+            if (nr == NR) {
+                accumulate(c, out, low, high);
+            } else {
+                float[] edge = EDGE.get();
+
+                low.intoArray(edge, 0);
+                high.intoArray(edge, LANES);
+
+                for (int i = 0; i < nr; i++) {
+                    c[out + i] += edge[i];
+                }
+            }
+
+            if (epilogue != null) {
+                epilogue.apply(c, out, nr);
+            }
+        }
+    }
+
+    private static void forkBlocks(
+        float[] a, int aBase, int rsA, int csA,
+        float[] packB, int offPackB,
+        float[] c, int cBase, int rsC,
+        int m, int nc, int kc,
+        LinearEpilogue epilogue
+    ) {
+        ComputeScheduler scheduler = ComputeScheduler.current();
+
+        int rowBlocks = (m + MC - 1) / MC;
+        int slivers = (nc + NR - 1) / NR;
+
+        int columnSplits = Math.min(slivers, Math.max(1, (scheduler.parallelism() + rowBlocks - 1) / rowBlocks));
+        int sliversPerSplit = (slivers + columnSplits - 1) / columnSplits;
+        int splits = (slivers + sliversPerSplit - 1) / sliversPerSplit;
+
+        scheduler.parallelForEach(0, rowBlocks * splits, 1, task -> {
+            int ic = task / splits * MC;
+            int jr = task % splits * sliversPerSplit * NR;
+
+            int mc = Math.min(MC, m - ic);
+            int width = Math.min(sliversPerSplit * NR, nc - jr);
+
+            block(
+                a, aBase + ic * rsA, rsA, csA,
+                packB, offPackB + jr * kc, width,
+                c, cBase + ic * rsC + jr, rsC,
+                mc, kc, epilogue
+            );
+        });
+    }
+
+    private static void block(
+        float[] a, int offA, int rsA, int csA,
+        float[] packB, int offPackB, int nc,
+        float[] c, int offC, int rsC,
+        int mc, int kc,
+        LinearEpilogue epilogue
+    ) {
+        float[] packA = PACK_A.get();
+        packA(a, offA, rsA, csA, mc, kc, packA);
+        macroKernel(packA, packB, offPackB, c, offC, rsC, mc, nc, kc, epilogue);
+    }
+
+    /**
+     * Packs a {@code [kc x nc]} panel of B into {@code NR}-wide slivers, each stored as
+     * {@code kc} consecutive rows of {@code NR} values. Columns past {@code nc} are zero padded.
+     */
+    static void packB(float[] b, int offB, int rsB, int csB, int kc, int nc, float[] dest) {
+        int index = 0;
+
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            int colBase = offB + jr * csB;
+
+            if (csB == 1 && nr == NR) {
+                for (int k = 0; k < kc; k++) {
+                    System.arraycopy(b, colBase + k * rsB, dest, index, NR);
+                    index += NR;
+                }
+                continue;
+            }
+
+            for (int k = 0; k < kc; k++) {
+                int row = colBase + k * rsB;
+                int j = 0;
+
+                for (; j < nr; j++) {
+                    dest[index++] = b[row + j * csB];
+                }
+
+                for (; j < NR; j++) {
+                    dest[index++] = 0f;
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs a {@code [mc x kc]} block of A into {@code MR}-tall slivers, each stored as
+     * {@code kc} consecutive columns of {@code MR} values. Rows past {@code mc} are zero padded.
+     */
+    static void packA(float[] a, int offA, int rsA, int csA, int mc, int kc, float[] dest) {
+        int index = 0;
+
+        for (int ir = 0; ir < mc; ir += MR) {
+            int mr = Math.min(MR, mc - ir);
+            int rowBase = offA + ir * rsA;
+
+            if (mr == MR) {
+                int r0 = rowBase;
+                int r1 = r0 + rsA;
+                int r2 = r1 + rsA;
+                int r3 = r2 + rsA;
+
+                for (int k = 0; k < kc; k++) {
+                    int col = k * csA;
+                    dest[index] = a[r0 + col];
+                    dest[index + 1] = a[r1 + col];
+                    dest[index + 2] = a[r2 + col];
+                    dest[index + 3] = a[r3 + col];
+                    index += MR;
+                }
+                continue;
+            }
+
+            for (int k = 0; k < kc; k++) {
+                int col = rowBase + k * csA;
+                int i = 0;
+
+                for (; i < mr; i++) {
+                    dest[index++] = a[col + i * rsA];
+                }
+
+                for (; i < MR; i++) {
+                    dest[index++] = 0f;
+                }
+            }
+        }
+    }
+
+    static void macroKernel(
+        float[] packA, float[] packB, int offPackB,
+        float[] c, int offC, int rsC,
+        int mc, int nc, int kc,
+        LinearEpilogue epilogue
+    ) {
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            int bOffset = offPackB + jr * kc;
+
+            for (int ir = 0; ir < mc; ir += MR) {
+                int mr = Math.min(MR, mc - ir);
+                int aOffset = ir * kc;
+                int tile = offC + ir * rsC + jr;
+
+                microKernel(packA, aOffset, packB, bOffset, kc, c, tile, rsC, mr, nr);
+
+                if (epilogue == null) continue;
+
+                // The tile has just been written back and is still in L1
+                for (int i = 0; i < mr; i++) {
+                    epilogue.apply(c, tile + i * rsC, nr);
+                }
+            }
+        }
+    }
+
+    private static void microKernel(
+        float[] packA, int aOffset,
+        float[] packB, int bOffset,
+        int kc,
+        float[] c, int offC, int rsC,
+        int mr, int nr
+    ) {
+        FloatVector c00 = FloatVector.zero(SPECIES), c01 = FloatVector.zero(SPECIES);
+        FloatVector c10 = FloatVector.zero(SPECIES), c11 = FloatVector.zero(SPECIES);
+        FloatVector c20 = FloatVector.zero(SPECIES), c21 = FloatVector.zero(SPECIES);
+        FloatVector c30 = FloatVector.zero(SPECIES), c31 = FloatVector.zero(SPECIES);
+
+        for (int k = 0; k < kc; k++) {
+            FloatVector b0 = FloatVector.fromArray(SPECIES, packB, bOffset);
+            FloatVector b1 = FloatVector.fromArray(SPECIES, packB, bOffset + LANES);
+
+            FloatVector a0 = FloatVector.broadcast(SPECIES, packA[aOffset]);
+            c00 = a0.fma(b0, c00);
+            c01 = a0.fma(b1, c01);
+
+            FloatVector a1 = FloatVector.broadcast(SPECIES, packA[aOffset + 1]);
+            c10 = a1.fma(b0, c10);
+            c11 = a1.fma(b1, c11);
+
+            FloatVector a2 = FloatVector.broadcast(SPECIES, packA[aOffset + 2]);
+            c20 = a2.fma(b0, c20);
+            c21 = a2.fma(b1, c21);
+
+            FloatVector a3 = FloatVector.broadcast(SPECIES, packA[aOffset + 3]);
+            c30 = a3.fma(b0, c30);
+            c31 = a3.fma(b1, c31);
+
+            aOffset += MR;
+            bOffset += NR;
+        }
+
+        if (mr == MR && nr == NR) {
+            accumulate(c, offC, c00, c01);
+            accumulate(c, offC + rsC, c10, c11);
+            accumulate(c, offC + 2 * rsC, c20, c21);
+            accumulate(c, offC + 3 * rsC, c30, c31);
+            return;
+        }
+
+        float[] edge = EDGE.get();
+
+        c00.intoArray(edge, 0);
+        c01.intoArray(edge, LANES);
+        c10.intoArray(edge, NR);
+        c11.intoArray(edge, NR + LANES);
+        c20.intoArray(edge, 2 * NR);
+        c21.intoArray(edge, 2 * NR + LANES);
+        c30.intoArray(edge, 3 * NR);
+        c31.intoArray(edge, 3 * NR + LANES);
+
+        for (int i = 0; i < mr; i++) {
+            int row = offC + i * rsC;
+            int base = i * NR;
+
+            for (int j = 0; j < nr; j++) {
+                c[row + j] += edge[base + j];
+            }
+        }
+    }
+
+    private static void accumulate(float[] c, int offset, FloatVector low, FloatVector high) {
+        FloatVector.fromArray(SPECIES, c, offset).add(low).intoArray(c, offset);
+        FloatVector.fromArray(SPECIES, c, offset + LANES).add(high).intoArray(c, offset + LANES);
+    }
+
+    private static float[] workspace(ThreadLocal<float[]> local, int size) {
+        float[] buffer = local.get();
+
+        if (buffer.length < size) {
+            buffer = new float[size];
+            local.set(buffer);
+        }
+
+        return buffer;
+    }
+
+    static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+}
@@ -1,37 +1,43 @@
 package org.brain4j.math.tensor.matmul.impl;
 
 import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
 import jdk.incubator.vector.VectorSpecies;
 import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.matmul.LinearEpilogue;
 import org.brain4j.math.tensor.matmul.MatmulParameters;
 import org.brain4j.math.tensor.matmul.MatmulProvider;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveAction;
+import org.brain4j.math.tensor.matmul.PackedWeights;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.Tuning;
 
 public class SIMDMatMulProvider implements MatmulProvider {
 
     private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
 
-    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
-    private static final int PARALLEL_COMPLEXITY_THRESHOLD = 65536;
-    private static final int PARALLEL_WORK_THRESHOLD = PARALLELISM;
-
-    private static final int SPLIT_COMPLEXITY_THRESHOLD = 65536 * 4;
     private static final int SPLIT_WORK_THRESHOLD = 2;
 
-    private static boolean isOverParallelThreshold(int work, int np) {
-        return work > PARALLEL_WORK_THRESHOLD && work * np > PARALLEL_COMPLEXITY_THRESHOLD;
+    private static final int BLOCKED_ROWS_THRESHOLD = SIMDGemm.MR * 2;
+    private static final int BLOCKED_COMPLEXITY_THRESHOLD = 1 << 15;
+
+    private static int grain(int np) {
+        return Math.max(SPLIT_WORK_THRESHOLD, Tuning.current().matmulComplexity() / Math.max(1, np));
     }
-    
-    private static boolean isOverSplitThreshold(int work, int np) {
-        return work > SPLIT_WORK_THRESHOLD && work * np > SPLIT_COMPLEXITY_THRESHOLD;
+
+    private static boolean isBlockedWorthy(int m, int n, int p) {
+        return m >= BLOCKED_ROWS_THRESHOLD && (long) m * n * p >= BLOCKED_COMPLEXITY_THRESHOLD;
     }
 
     @Override
     public void multiply(Tensor a, Tensor b, Tensor c) {
+        multiply(a, b, c, (LinearEpilogue) null);
+    }
+
+    @Override
+    public void multiply(Tensor a, Tensor b, Tensor c, LinearEpilogue epilogue) {
+        a = MatmulParameters.matmulOperand(a);
+        b = MatmulParameters.matmulOperand(b);
+
         float[] A = a.data();
         float[] B = b.data();
         float[] C = c.data();
@@ -55,45 +61,266 @@ public class SIMDMatMulProvider implements MatmulProvider {
         int n = shapeA[rankA - 1];
         int p = shapeB[rankB - 1];
         
-        MatmulParameters parameters = new MatmulParameters(A, B, C, m, n, p, a.transposed(), b.transposed(), batchA, batchB);
+        boolean transposedA = MatmulParameters.isTransposedLayout(a);
+        boolean transposedB = MatmulParameters.isTransposedLayout(b);
+
+        MatmulParameters parameters = new MatmulParameters(A, B, C, m, n, p, transposedA, transposedB, batchA, batchB, epilogue);
         
         int work = batch * m;
         
         int mn = m * n;
         int np = n * p;
         int mp = m * p;
+
+        boolean foldable = batchB == 1 && !transposedA;
+
+        // Row-wise kernels stream the whole of B once per row of A; as soon as A has
+        // enough rows to fill a register tile, the packed and blocked path is faster.
+        // Packing also absorbs any operand layout, which covers the TT case.
+        if ((transposedA && transposedB) || isBlockedWorthy(foldable ? work : m, n, p)) {
+            matmulBlocked(parameters, batch);
+            return;
+        }
+
+        // With a transposed B every output is a dot product of two contiguous vectors
+        if (transposedB) {
+            matmulDot(parameters, batch);
+            return;
+        }
+
+        int rsA = parameters.rowStrideA();
+        int csA = parameters.colStrideA();
         
-        if (!isOverParallelThreshold(work, np)) {
-            matmulBlock(A, B, C, 0, work, m, n, p, mn, np, mp, batchA, batchB);
+        ComputeScheduler.current().parallelFor(0, work, grain(np), (start, end) ->
+            matmulBlock(A, B, C, start, end, m, n, p, mn, np, mp, rsA, csA, parameters.batchA(), parameters.batchB(), epilogue)
+        );
+    }
+    
+    @Override
+    public void multiply(Tensor a, PackedWeights b, Tensor c) {
+        multiply(a, b, c, null);
+    }
+
+    @Override
+    public void multiply(Tensor a, PackedWeights b, Tensor c, LinearEpilogue epilogue) {
+        a = MatmulParameters.matmulOperand(a);
+
+        float[] A = a.data();
+        float[] C = c.data();
+
+        int rank = a.rank();
+        int[] shape = a.shape();
+
+        int batch = 1;
+        for (int i = 0; i < rank - 2; i++) batch *= shape[i];
+
+        int m = shape[rank - 2];
+        int n = shape[rank - 1];
+        int p = b.columns();
+
+        boolean transposed = MatmulParameters.isTransposedLayout(a);
+
+        // Fewer rows than a register tile leave most of the micro-kernel idle, so each
+        // row streams the packed slivers of B on its own
+        if (batch * m < SIMDGemm.MR) {
+            for (int row = 0; row < batch * m; row++) {
+                int offset = transposed ? row / m * m * n + row % m : row * n;
+                SIMDGemm.gemvPacked(A, offset, transposed ? m : 1, b.panels(), C, row * p, n, p, epilogue, true);
+            }
             return;
         }
 
-        int step = work / PARALLELISM;
-        List<VectorAction> actions = new ArrayList<>();
+        if (!transposed) {
+            SIMDGemm.gemmPacked(A, 0, n, 1, b.panels(), C, 0, p, batch * m, n, p, epilogue, true);
+            return;
+        }
 
-        for (int i = 0; i < PARALLELISM; i++) {
-            int startIndex = i * step;
-            int endIndex = (i == PARALLELISM - 1) ? work : Math.min(startIndex + step, work);
+        for (int i = 0; i < batch; i++) {
+            SIMDGemm.gemmPacked(A, i * m * n, 1, m, b.panels(), C, i * m * p, p, m, n, p, epilogue, true);
+        }
+    }
 
-            if (startIndex < endIndex) {
-                actions.add(new VectorAction(parameters, startIndex, endIndex));
+    private void matmulBlocked(MatmulParameters parameters, int batch) {
+        float[] A = parameters.A();
+        float[] B = parameters.B();
+        float[] C = parameters.C();
+
+        int m = parameters.m();
+        int n = parameters.n();
+        int p = parameters.p();
+
+        int batchB = parameters.batchB();
+
+        // A shared right operand lets every row-major batch be folded into the rows of a single GEMM
+        if (batchB == 1 && !parameters.transposedA()) {
+            SIMDGemm.gemm(
+                A, 0, n, 1,
+                B, 0, parameters.rowStrideB(), parameters.colStrideB(),
+                C, 0, p,
+                batch * m, n, p,
+                parameters.epilogue(),
+                true
+            );
+            return;
+        }
+
+        ComputeScheduler scheduler = ComputeScheduler.current();
+
+        // Batches only run in parallel when there are enough of them to keep every thread busy,
+        // otherwise each product is parallelized on its own
+        if (batch < scheduler.parallelism() || (long) batch * m * parameters.np() <= Tuning.current().matmulComplexity()) {
+            for (int b = 0; b < batch; b++) {
+                gemmBatch(parameters, b, true);
             }
+            return;
         }
 
-        ForkJoinTask.invokeAll(actions);
+        scheduler.parallelForEach(0, batch, 1, b -> gemmBatch(parameters, b, false));
     }
-    
+
+    private static void gemmBatch(MatmulParameters parameters, int index, boolean parallel) {
+        int offsetA = (parameters.batchA() == 1 ? 0 : index) * parameters.mn();
+        int offsetB = (parameters.batchB() == 1 ? 0 : index) * parameters.np();
+        int offsetC = index * parameters.mp();
+
+        int p = parameters.p();
+
+        SIMDGemm.gemm(
+            parameters.A(), offsetA, parameters.rowStrideA(), parameters.colStrideA(),
+            parameters.B(), offsetB, parameters.rowStrideB(), parameters.colStrideB(),
+            parameters.C(), offsetC, p,
+            parameters.m(), parameters.n(), p,
+            parameters.epilogue(),
+            parallel
+        );
+    }
+
+    private void matmulDot(MatmulParameters parameters, int batch) {
+        int outputs = batch * parameters.mp();
+        int n = parameters.n();
+
+        ComputeScheduler.current().parallelFor(0, outputs, grain(n), (start, end) ->
+            matmulDotBlock(parameters, start, end)
+        );
+    }
+
+    /**
+     * Computes the outputs in {@code [start, end)}, in flattened {@code [batch, m, p]} order,
+     * of a product whose right operand is a transposed view: column {@code j} of B is
+     * then the contiguous row {@code j} of the original buffer.
+     */
+    private static void matmulDotBlock(MatmulParameters parameters, int start, int end) {
+        float[] a = parameters.A();
+        float[] b = parameters.B();
+        float[] c = parameters.C();
+
+        int m = parameters.m();
+        int n = parameters.n();
+        int p = parameters.p();
+
+        for (int index = start; index < end; ) {
+            int r = index / p;
+            int j = index % p;
+            int batch = r / m;
+            int i = r % m;
+
+            int rowA = (parameters.batchA() == 1 ? 0 : batch) * parameters.mn() + i * n;
+            int offsetB = (parameters.batchB() == 1 ? 0 : batch) * parameters.np();
+            int rowC = batch * parameters.mp() + i * p;
+            int stop = Math.min(p, j + end - index);
+
+            for (; j + 4 <= stop; j += 4) {
+                dot4(a, rowA, b, offsetB + j * n, n, c, rowC + j);
+            }
+
+            for (; j < stop; j++) {
+                c[rowC + j] += dot(a, rowA, b, offsetB + j * n, n);
+            }
+
+            index = r * p + stop;
+        }
+
+        if (parameters.epilogue() != null) {
+            parameters.epilogue().apply(c, start, end - start);
+        }
+    }
+
+    private static float dot(float[] a, int offsetA, float[] b, int offsetB, int n) {
+        FloatVector acc = FloatVector.zero(SPECIES);
+        int t = 0;
+
+        for (; t < SPECIES.loopBound(n); t += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, offsetA + t);
+            FloatVector vb = FloatVector.fromArray(SPECIES, b, offsetB + t);
+            acc = va.fma(vb, acc);
+        }
+
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+
+        for (; t < n; t++) {
+            sum += a[offsetA + t] * b[offsetB + t];
+        }
+
+        return sum;
+    }
+
+    private static void dot4(float[] a, int offsetA, float[] b, int offsetB, int n, float[] c, int offsetC) {
+        FloatVector acc0 = FloatVector.zero(SPECIES);
+        FloatVector acc1 = FloatVector.zero(SPECIES);
+        FloatVector acc2 = FloatVector.zero(SPECIES);
+        FloatVector acc3 = FloatVector.zero(SPECIES);
+
+        int b0 = offsetB;
+        int b1 = b0 + n;
+        int b2 = b1 + n;
+        int b3 = b2 + n;
+        int t = 0;
+
+        for (; t < SPECIES.loopBound(n); t += SPECIES.length()) {
+            FloatVector va = FloatVector.fromArray(SPECIES, a, offsetA + t);
+            acc0 = va.fma(FloatVector.fromArray(SPECIES, b, b0 + t), acc0);
+            acc1 = va.fma(FloatVector.fromArray(SPECIES, b, b1 + t), acc1);
+            acc2 = va.fma(FloatVector.fromArray(SPECIES, b, b2 + t), acc2);
+            acc3 = va.fma(FloatVector.fromArray(SPECIES, b, b3 + t), acc3);
+        }
+
+        float sum0 = acc0.reduceLanes(VectorOperators.ADD);
+        float sum1 = acc1.reduceLanes(VectorOperators.ADD);
+        float sum2 = acc2.reduceLanes(VectorOperators.ADD);
+        float sum3 = acc3.reduceLanes(VectorOperators.ADD);
+
+        for (; t < n; t++) {
+            float value = a[offsetA + t];
+            sum0 += value * b[b0 + t];
+            sum1 += value * b[b1 + t];
+            sum2 += value * b[b2 + t];
+            sum3 += value * b[b3 + t];
+        }
+
+        c[offsetC] += sum0;
+        c[offsetC + 1] += sum1;
+        c[offsetC + 2] += sum2;
+        c[offsetC + 3] += sum3;
+    }
+
     private void matmulBlock(
         float[] a, float[] b, float[] c,
         int start, int end,
         int m, int n, int p,
         int mn, int np, int mp,
-        int batchA, int batchB
+        int rsA, int csA,
+        int batchA, int batchB,
+        LinearEpilogue epilogue
     ) {
         if (batchA == 1 && batchB == 1) {
-            matmulSimple(a, b, c, start, end, m, n, p, mn, np, mp);
+            matmulSimple(a, b, c, start, end, m, n, p, mn, np, mp, rsA, csA);
         } else {
-            matmulGeneric(a, b, c, start, end, m, n, p, mn, np, mp, batchA, batchB);
+            matmulGeneric(a, b, c, start, end, m, n, p, mn, np, mp, rsA, csA, batchA, batchB);
+        }
+
+        // Row r of the flattened output starts at r * p, so the finished rows are one contiguous range
+        if (epilogue != null) {
+            epilogue.apply(c, start * p, (end - start) * p);
         }
     }
     
@@ -101,7 +328,8 @@ public class SIMDMatMulProvider implements MatmulProvider {
         float[] a, float[] b, float[] c,
         int start, int end,
         int m, int n, int p,
-        int mn, int np, int mp
+        int mn, int np, int mp,
+        int rsA, int csA
     ) {
         for (int r = start; r < end; r++) {
             int batch = r / m;
@@ -109,11 +337,11 @@ public class SIMDMatMulProvider implements MatmulProvider {
             int offsetA = batch * mn;
             int offsetB = batch * np;
             int offsetC = batch * mp;
-            int rowA = offsetA + i * n;
+            int rowA = offsetA + i * rsA;
             int rowC = offsetC + i * p;
             
             for (int t = 0; t < n; t++) {
-                float aVal = a[rowA + t];
+                float aVal = a[rowA + t * csA];
                 int colB = offsetB + t * p;
                 
                 int j = 0;
@@ -136,6 +364,7 @@ public class SIMDMatMulProvider implements MatmulProvider {
         int start, int end,
         int m, int n, int p,
         int mn, int np, int mp,
+        int rsA, int csA,
         int batchA, int batchB
     ) {
         for (int r = start; r < end; r++) {
@@ -143,11 +372,11 @@ public class SIMDMatMulProvider implements MatmulProvider {
             int bj = (batchB == 1 ? 0 : r / m) * np;
             int ci = (r / m) * mp;
             int i = r % m;
-            int rowA = bi + i * n;
+            int rowA = bi + i * rsA;
             int rowC = ci + i * p;
             
             for (int t = 0; t < n; t++) {
-                float aVal = a[rowA + t];
+                float aVal = a[rowA + t * csA];
                 int colB = bj + t * p;
                 
                 int j = 0;
@@ -164,39 +393,4 @@ public class SIMDMatMulProvider implements MatmulProvider {
             }
         }
     }
-    
-    private class VectorAction extends RecursiveAction {
-
-        private final MatmulParameters parameters;
-        private final int start;
-        private final int end;
-
-        public VectorAction(MatmulParameters parameters, int start, int end) {
-            this.parameters = parameters;
-            this.start = start;
-            this.end = end;
-        }
-
-        @Override
-        protected void compute() {
-            int np = parameters.np();
-            int work = end - start;
-            
-            if (isOverSplitThreshold(work, np)) {
-                int mid = (start + end) >>> 1;
-                invokeAll(
-                    new VectorAction(parameters, start, mid),
-                    new VectorAction(parameters, mid, end)
-                );
-            } else {
-                matmulBlock(
-                    parameters.A(), parameters.B(), parameters.C(),
-                    start, end,
-                    parameters.m(), parameters.n(), parameters.p(),
-                    parameters.mn(), parameters.np(), parameters.mp(),
-                    parameters.batchA(), parameters.batchB()
-                );
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,252 @@
+package org.brain4j.math.tensor.parallel;
+
+import org.brain4j.math.Tensors;
+import org.brain4j.math.activation.Activation;
+import org.brain4j.math.activation.impl.SigmoidActivation;
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.broadcast.BroadcastEngine;
+import org.brain4j.math.tensor.broadcast.BroadcastOperation;
+import org.brain4j.math.tensor.broadcast.impl.BroadcastAdd;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.convolution.fft.FFTConvolve;
+import org.brain4j.math.tensor.convolution.im2col.Im2ColConvolve;
+import org.brain4j.math.tensor.matmul.impl.SIMDGemm;
+import org.brain4j.math.tensor.rowwise.RowKernels;
+
+import java.util.function.IntFunction;
+
+/**
+ * Measures the {@link Tuning} of the current host.
+ * <p>
+ * Every threshold is found by timing its kernel on a single thread and on as many threads as the global
+ * scheduler, with the parallel thresholds forced to their minimum, over sizes growing by powers of two. The
+ * crossover is the smallest size from which the parallel run is consistently faster. The convolution
+ * block size is the fastest of a few candidates, and the FFT convolution threshold is the smallest filter
+ * from which it consistently beats im2col on a 1D signal. A calibration takes a few seconds.
+ */
+public final class AutoTuner {
+
+    private static final int MIN_ELEMENTS = 1 << 10;
+    private static final int MAX_ELEMENTS = 1 << 22;
+    private static final int ROW_LENGTH = 64;
+
+    /** Rows of the row-wise matmul probe, the most that stay off the blocked GEMM path. */
+    private static final int MATMUL_ROWS = SIMDGemm.MR * 2 - 1;
+    private static final int[] CONVOLVE_BLOCKS = { 1 << 10, 1 << 11, 1 << 12, 1 << 13, 1 << 14 };
+    private static final int SIGNAL_LENGTH = 1 << 12;
+    private static final int SIGNAL_CHANNELS = 8;
+
+    private static final int WARMUP = 3;
+    private static final int SAMPLES = 5;
+    private static final long MIN_SAMPLE_NANOS = 1_000_000;
+
+    /** How much faster the parallel run must be for it to win. */
+    private static final double SPEEDUP = 1.1;
+
+    private AutoTuner() {
+    }
+
+    /**
+     * Calibrates the kernels on this host. The tuning in use is returned unchanged when the global
+     * scheduler has a single thread.
+     * <p>
+     * The thresholds are only forced on the schedulers of the calibration, so kernels running
+     * concurrently keep the tuning in use.
+     * @return the measured tuning
+     */
+    public static Tuning calibrate() {
+        Tuning previous = Tuning.current();
+        int threads = ComputeScheduler.global().parallelism();
+
+        if (threads == 1) return previous;
+
+        Tuning forced = forced(previous.convolveBlock(), previous.fftTaps());
+
+        try (ComputeScheduler serial = ComputeScheduler.create(1, forced);
+             ComputeScheduler parallel = ComputeScheduler.create(threads, forced)) {
+            int mapGrain = elementCrossover(serial, parallel, size -> {
+                float[] data = new float[size];
+                return () -> ParallelMap.map(x -> x * 0.5 + 1, data);
+            });
+
+            int activationThreshold = elementCrossover(serial, parallel, size -> {
+                Activation activation = new SigmoidActivation();
+                Tensor input = Tensors.random(size);
+                Tensor output = Tensors.zeros(size);
+                return () -> activation.activate(input, output);
+            });
+
+            // Swapping the two outer dimensions is materialized, a matrix transpose would be a view
+            int transposeGrain = elementCrossover(serial, parallel, size -> {
+                Tensor input = Tensors.random(16, size / 256, 16);
+                return () -> input.transpose(0, 1);
+            });
+
+            int broadcastThreshold = elementCrossover(serial, parallel, size -> {
+                BroadcastOperation add = new BroadcastAdd();
+                Tensor a = Tensors.random(size / ROW_LENGTH, ROW_LENGTH);
+                Tensor b = Tensors.random(ROW_LENGTH);
+                return () -> BroadcastEngine.apply(add, a, b);
+            });
+
+            int reductionThreshold = elementCrossover(serial, parallel, size -> {
+                Tensor input = Tensors.random(size / ROW_LENGTH, ROW_LENGTH);
+                return () -> input.sum(1, false);
+            });
+
+            int rowThreshold = elementCrossover(serial, parallel, size -> {
+                float[] data = Tensors.random(size).data();
+                return () -> RowKernels.softmax(data, ROW_LENGTH, 1);
+            });
+
+            int matmulComplexity = previous.matmulComplexity();
+            int gemmComplexity = previous.gemmComplexity();
+
+            // Both thresholds belong to the SIMD provider, the scalar one ignores them
+            if (DeviceUtils.isSimdAvailable()) {
+                int columns = crossover(serial, parallel, powersOfTwo(16, 2048), size -> {
+                    Tensor a = Tensors.random(MATMUL_ROWS, size);
+                    Tensor b = Tensors.random(size, size);
+                    return () -> a.matmul(b);
+                });
+                matmulComplexity = MATMUL_ROWS * columns * columns;
+
+                int side = crossover(serial, parallel, powersOfTwo(32, 512), size -> {
+                    Tensor a = Tensors.random(size, size);
+                    Tensor b = Tensors.random(size, size);
+                    return () -> a.matmul(b);
+                });
+                gemmComplexity = side * side * side;
+            }
+
+            int convolveBlock = fastestConvolveBlock(threads, forced);
+
+            int fftTaps = crossover(powersOfTwo(8, 512), taps -> {
+                Tensor signal = Tensors.random(4, SIGNAL_CHANNELS, 1, SIGNAL_LENGTH);
+                Tensor filters = Tensors.random(SIGNAL_CHANNELS, SIGNAL_CHANNELS, 1, taps);
+
+                return new double[] {
+                    time(parallel, () -> Im2ColConvolve.convolve(signal, filters, ConvolveParameters.DEFAULT)),
+                    time(parallel, () -> FFTConvolve.convolve(signal, filters, ConvolveParameters.DEFAULT))
+                };
+            });
+
+            return new Tuning(
+                matmulComplexity,
+                gemmComplexity,
+                mapGrain,
+                activationThreshold,
+                transposeGrain,
+                broadcastThreshold,
+                reductionThreshold,
+                rowThreshold,
+                convolveBlock,
+                fftTaps
+            );
+        }
+    }
+
+    /**
+     * @return a tuning that splits every kernel across threads, whatever its size
+     */
+    private static Tuning forced(int convolveBlock, int fftTaps) {
+        return new Tuning(1, 1, 1, 1, 1, 1, 1, 1, convolveBlock, fftTaps);
+    }
+
+    private static int elementCrossover(ComputeScheduler serial, ComputeScheduler parallel, IntFunction<Runnable> kernel) {
+        return crossover(serial, parallel, powersOfTwo(MIN_ELEMENTS, MAX_ELEMENTS), kernel);
+    }
+
+    /**
+     * Finds the smallest size from which the parallel run beats the serial one at every larger size.
+     * When it never does, the parallel path is pushed past the largest size measured.
+     */
+    private static int crossover(ComputeScheduler serial, ComputeScheduler parallel, int[] sizes, IntFunction<Runnable> kernel) {
+        return crossover(sizes, size -> {
+            Runnable body = kernel.apply(size);
+            return new double[] { time(serial, body), time(parallel, body) };
+        });
+    }
+
+    /**
+     * Finds the smallest size from which the candidate beats the baseline at every larger size.
+     * When it never does, the candidate is pushed past the largest size measured.
+     * @param timings the times of the baseline and of the candidate at a given size
+     */
+    private static int crossover(int[] sizes, IntFunction<double[]> timings) {
+        int crossover = -1;
+
+        for (int size : sizes) {
+            double[] times = timings.apply(size);
+
+            if (times[1] * SPEEDUP < times[0]) {
+                if (crossover < 0) crossover = size;
+            } else {
+                crossover = -1;
+            }
+        }
+
+        return crossover < 0 ? sizes[sizes.length - 1] * 2 : crossover;
+    }
+
+    private static int fastestConvolveBlock(int threads, Tuning forced) {
+        Tensor input = Tensors.random(1, 8, 130, 130);
+        Tensor filters = Tensors.random(16, 8, 3, 3);
+
+        int fastest = forced.convolveBlock();
+        double fastestTime = Double.MAX_VALUE;
+
+        for (int block : CONVOLVE_BLOCKS) {
+            try (ComputeScheduler parallel = ComputeScheduler.create(threads, forced(block, forced.fftTaps()))) {
+                double time = time(parallel, () -> ParallelConvolve.im2colConvolve(input, filters));
+
+                if (time < fastestTime) {
+                    fastest = block;
+                    fastestTime = time;
+                }
+            }
+        }
+
+        return fastest;
+    }
+
+    /**
+     * @return the best time of a single run of {@code body}, in nanoseconds
+     */
+    private static double time(ComputeScheduler scheduler, Runnable body) {
+        long start = System.nanoTime();
+        scheduler.run(body);
+
+        // Short kernels are repeated so that each sample outlasts the timer resolution
+        int repetitions = (int) Math.max(1, MIN_SAMPLE_NANOS / Math.max(1, System.nanoTime() - start));
+        double best = Double.MAX_VALUE;
+
+        for (int sample = 0; sample < WARMUP + SAMPLES; sample++) {
+            start = System.nanoTime();
+
+            scheduler.run(() -> {
+                for (int i = 0; i < repetitions; i++) {
+                    body.run();
+                }
+            });
+
+            if (sample >= WARMUP) {
+                best = Math.min(best, (double) (System.nanoTime() - start) / repetitions);
+            }
+        }
+
+        return best;
+    }
+
+    private static int[] powersOfTwo(int from, int to) {
+        int count = Integer.numberOfTrailingZeros(to) - Integer.numberOfTrailingZeros(from) + 1;
+        int[] sizes = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            sizes[i] = from << i;
+        }
+
+        return sizes;
+    }
+}
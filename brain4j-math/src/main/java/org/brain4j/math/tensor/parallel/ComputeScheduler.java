@@ -0,0 +1,292 @@
+package org.brain4j.math.tensor.parallel;
+
+import org.brain4j.math.commons.Commons;
+
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Runs the parallel loops of the tensor kernels on a dedicated pool of worker threads.
+ * <p>
+ * Kernels never pick a pool themselves: they call {@link #current()} and split their work with
+ * {@link #parallelFor(int, int, int, RangeTask)}. The current scheduler is the one whose worker is
+ * running the calling thread, otherwise the one bound with {@link #call(Supplier)}, otherwise the
+ * global scheduler. The global scheduler uses as many threads as available processors, or the value
+ * of the {@code brain4j.threads} system property.
+ * <p>
+ * Models served concurrently can be isolated from each other by giving each one its own scheduler:
+ * <pre>{@code
+ * ComputeScheduler scheduler = ComputeScheduler.create(4);
+ * Tensor output = scheduler.call(() -> model.predict(input));
+ * }</pre>
+ */
+public final class ComputeScheduler implements AutoCloseable {
+
+    /**
+     * A body of a parallel loop, run on a sub-range of the iterations.
+     */
+    @FunctionalInterface
+    public interface RangeTask {
+        void run(int start, int end);
+    }
+
+    /**
+     * A snapshot of the counters of a scheduler.
+     * @param loops the parallel loops submitted
+     * @param inlineLoops the loops run on the calling thread without being split
+     * @param tasks the tasks the parallel loops were split into
+     * @param steals the tasks executed by a worker other than the one that forked them
+     * @param parallelism the number of worker threads
+     */
+    public record Statistics(long loops, long inlineLoops, long tasks, long steals, int parallelism) {
+
+        /**
+         * @return the fraction of the tasks that were stolen
+         */
+        public double stealRate() {
+            return tasks == 0 ? 0 : (double) steals / tasks;
+        }
+    }
+
+    private static final int TASKS_PER_THREAD = 4;
+    private static final ComputeScheduler GLOBAL = new ComputeScheduler(
+        Integer.getInteger("brain4j.threads", Runtime.getRuntime().availableProcessors()),
+        "brain4j-compute",
+        null
+    );
+    private static final ThreadLocal<ComputeScheduler> BOUND = new ThreadLocal<>();
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final Tuning tuning;
+    private final AtomicInteger threads = new AtomicInteger();
+    private final LongAdder loops = new LongAdder();
+    private final LongAdder inlineLoops = new LongAdder();
+    private final LongAdder tasks = new LongAdder();
+
+    private ComputeScheduler(int parallelism, String name, Tuning tuning) {
+        if (parallelism < 1) {
+            throw Commons.illegalArgument("Thread count must be positive! Got %s", parallelism);
+        }
+
+        this.parallelism = parallelism;
+        this.tuning = tuning;
+        this.pool = parallelism == 1 ? null : new ForkJoinPool(
+            parallelism,
+            pool -> new Worker(pool, this, name + "-" + threads.incrementAndGet()),
+            null,
+            false
+        );
+    }
+
+    /**
+     * Creates a scheduler backed by its own pool. It must be closed once no longer needed.
+     * @param threads the number of worker threads, a single thread runs every loop on the caller
+     * @return a new scheduler
+     */
+    public static ComputeScheduler create(int threads) {
+        return create(threads, null);
+    }
+
+    /**
+     * Creates a scheduler whose kernels use the given tuning instead of {@link Tuning#current()}.
+     * @param threads the number of worker threads
+     * @param tuning the values used by the kernels running on this scheduler, or null for the current ones
+     * @return a new scheduler
+     */
+    static ComputeScheduler create(int threads, Tuning tuning) {
+        return new ComputeScheduler(threads, "brain4j-compute-" + COUNTER.incrementAndGet(), tuning);
+    }
+
+    /**
+     * @return the scheduler shared by every computation not bound to another scheduler
+     */
+    public static ComputeScheduler global() {
+        return GLOBAL;
+    }
+
+    /**
+     * @return the scheduler the kernels called from this thread should use
+     */
+    public static ComputeScheduler current() {
+        if (Thread.currentThread() instanceof Worker worker) {
+            return worker.scheduler;
+        }
+
+        ComputeScheduler bound = BOUND.get();
+        return bound == null ? GLOBAL : bound;
+    }
+
+    /**
+     * Runs a computation with this scheduler bound to the calling thread, so that every kernel it
+     * calls splits its work on this scheduler.
+     * @param body the computation
+     * @return the result of the computation
+     */
+    public <T> T call(Supplier<T> body) {
+        ComputeScheduler previous = BOUND.get();
+        BOUND.set(this);
+
+        try {
+            return body.get();
+        } finally {
+            if (previous == null) {
+                BOUND.remove();
+            } else {
+                BOUND.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Runs a computation with this scheduler bound to the calling thread.
+     * @param body the computation
+     * @see #call(Supplier)
+     */
+    public void run(Runnable body) {
+        call(() -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * @return the number of worker threads
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the values the kernels running on this scheduler use, or null for the current ones
+     */
+    Tuning tuning() {
+        return tuning;
+    }
+
+    /**
+     * Runs {@code body} over {@code [start, end)}, split into sub-ranges of at least {@code grain}
+     * iterations that are executed in parallel. Returns once every sub-range has completed.
+     * @param start the first iteration
+     * @param end the iteration after the last one
+     * @param grain the minimum number of iterations of a sub-range
+     * @param body the loop body
+     */
+    public void parallelFor(int start, int end, int grain, RangeTask body) {
+        int range = end - start;
+
+        if (range <= 0) return;
+
+        grain = Math.max(1, grain);
+
+        if (pool == null || range <= grain) {
+            inlineLoops.increment();
+            body.run(start, end);
+            return;
+        }
+
+        // A few tasks per thread let idle workers steal from the slower ones
+        int maxTasks = parallelism * TASKS_PER_THREAD;
+        int chunk = Math.max(grain, (range + maxTasks - 1) / maxTasks);
+
+        loops.increment();
+
+        RangeAction action = new RangeAction(body, start, end, chunk);
+
+        if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) {
+            action.invoke();
+        } else {
+            pool.invoke(action);
+        }
+    }
+
+    /**
+     * Runs {@code body} once for every iteration in {@code [start, end)}, in parallel.
+     * @param start the first iteration
+     * @param end the iteration after the last one
+     * @param grain the minimum number of iterations run by a single task
+     * @param body the loop body
+     * @see #parallelFor(int, int, int, RangeTask)
+     */
+    public void parallelForEach(int start, int end, int grain, IntConsumer body) {
+        parallelFor(start, end, grain, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                body.accept(i);
+            }
+        });
+    }
+
+    /**
+     * @return a snapshot of the counters of this scheduler
+     */
+    public Statistics statistics() {
+        long steals = pool == null ? 0 : pool.getStealCount();
+        return new Statistics(loops.sum(), inlineLoops.sum(), tasks.sum(), steals, parallelism);
+    }
+
+    /**
+     * Shuts down the worker threads. Loops submitted afterwards are rejected.
+     * @throws IllegalStateException if this is the global scheduler
+     */
+    @Override
+    public void close() {
+        if (this == GLOBAL) {
+            throw Commons.illegalState("The global scheduler cannot be closed!");
+        }
+
+        if (pool != null) pool.shutdown();
+    }
+
+    private final class RangeAction extends RecursiveAction {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient RangeTask body;
+        private final int start;
+        private final int end;
+        private final int chunk;
+
+        private RangeAction(RangeTask body, int start, int end, int chunk) {
+            this.body = body;
+            this.start = start;
+            this.end = end;
+            this.chunk = chunk;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= chunk) {
+                tasks.increment();
+                body.run(start, end);
+                return;
+            }
+
+            int mid = start + (end - start) / 2;
+            invokeAll(
+                new RangeAction(body, start, mid, chunk),
+                new RangeAction(body, mid, end, chunk)
+            );
+        }
+    }
+
+    private static final class Worker extends ForkJoinWorkerThread {
+
+        private final ComputeScheduler scheduler;
+
+        private Worker(ForkJoinPool pool, ComputeScheduler scheduler, String name) {
+            super(pool);
+            this.scheduler = scheduler;
+            setName(name);
+            setDaemon(true);
+        }
+    }
+}
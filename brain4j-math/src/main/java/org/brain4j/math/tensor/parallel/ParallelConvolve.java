@@ -1,89 +1,231 @@
 package org.brain4j.math.tensor.parallel;
 
 import org.brain4j.math.Tensors;
-import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.commons.Commons;
 import org.brain4j.math.tensor.Tensor;
-import org.brain4j.math.tensor.convolution.ConvolveProvider;
-import org.brain4j.math.tensor.convolution.impl.NormalConvolveProvider;
-import org.brain4j.math.tensor.convolution.impl.SIMDConvolveProvider;
-import org.brain4j.math.tensor.index.Range;
-
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ForkJoinPool;
-import java.util.stream.IntStream;
+import org.brain4j.math.tensor.convolution.ConvolveParameters;
+import org.brain4j.math.tensor.convolution.depthwise.DepthwiseConvolve;
+import org.brain4j.math.tensor.convolution.fft.FFTConvolve;
+import org.brain4j.math.tensor.convolution.im2col.Im2ColConvolve;
+import org.brain4j.math.tensor.convolution.winograd.WinogradConvolve;
+import org.brain4j.math.tensor.convolution.winograd.WinogradTile;
 
 public class ParallelConvolve {
 
-    private static final int CORES = Runtime.getRuntime().availableProcessors();
-    private static final ForkJoinPool POOL = new ForkJoinPool(CORES);
-    
+    /**
+     * Computes a valid, stride 1 convolution.
+     * @param a the input, of shape {@code [batch, channels, height, width]} or without leading dimensions
+     * @param b the filters, of shape {@code [filters, channels, height, width]} or without leading dimensions
+     * @return the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     * @see #convolve(Tensor, Tensor, ConvolveParameters)
+     */
     public static Tensor convolve(Tensor a, Tensor b) {
+        return convolve(a, b, ConvolveParameters.DEFAULT);
+    }
+
+    /**
+     * Computes a convolution. Depthwise convolutions go through {@link DepthwiseConvolve}, other grouped
+     * convolutions run one ungrouped convolution per group. Stride 1 filters of at least
+     * {@link Tuning#fftTaps()} taps go through {@link FFTConvolve}, dense {@code 3 x 3} filters through
+     * {@link WinogradConvolve} and any other geometry through {@link Im2ColConvolve}.
+     * @param a the input, of shape {@code [batch, channels, height, width]} or without leading dimensions
+     * @param b the filters, of shape {@code [filters, channels / groups, height, width]} or without leading dimensions
+     * @param parameters the stride, padding, dilation and groups
+     * @return the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     */
+    public static Tensor convolve(Tensor a, Tensor b, ConvolveParameters parameters) {
         while (a.rank() < 4) a = a.unsqueeze();
         while (b.rank() < 4) b = b.unsqueeze();
 
-        ConvolveProvider provider = DeviceUtils.isSimdAvailable()
-            ? new SIMDConvolveProvider()
-            : new NormalConvolveProvider();
+        if (parameters.groups() > 1) {
+            checkGroups(a.shape(), b.shape(), parameters.groups());
+
+            if (DepthwiseConvolve.supports(a.shapeAt(1), b.shapeAt(1), parameters)) {
+                return DepthwiseConvolve.convolve(a, b, parameters);
+            }
+
+            return convolveGroups(a, b, parameters);
+        }
+
+        return convolveDense(a, b, parameters);
+    }
+
+    /**
+     * Computes the gradients of {@link #convolve(Tensor, Tensor, ConvolveParameters)}. Filters of at least
+     * {@link Tuning#fftTaps()} taps with unit stride go through {@link FFTConvolve}, whatever algorithm ran
+     * forward; any other ungrouped geometry is two GEMMs over the columns.
+     * @param gradOutput the gradient of the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     * @param input the input of the forward pass, of shape {@code [batch, channels, height, width]} or without
+     *              leading dimensions
+     * @param filters the filters of the forward pass, of shape {@code [filters, channels / groups, height, width]}
+     *                or without leading dimensions
+     * @param parameters the parameters of the forward pass
+     * @return the gradients of the input and of the filters, in this order, shaped like them
+     */
+    public static Tensor[] backward(Tensor gradOutput, Tensor input, Tensor filters, ConvolveParameters parameters) {
+        int[] inputShape = input.shape();
+        int[] filtersShape = filters.shape();
+
+        while (gradOutput.rank() < 4) gradOutput = gradOutput.unsqueeze();
+        while (input.rank() < 4) input = input.unsqueeze();
+        while (filters.rank() < 4) filters = filters.unsqueeze();
+
+        Tensor[] grads = backwardUnsqueezed(gradOutput, input, filters, parameters);
+        return new Tensor[] { grads[0].reshape(inputShape), grads[1].reshape(filtersShape) };
+    }
+
+    private static Tensor[] backwardUnsqueezed(Tensor gradOutput, Tensor input, Tensor filters, ConvolveParameters parameters) {
+        if (parameters.groups() > 1) {
+            checkGroups(input.shape(), filters.shape(), parameters.groups());
+
+            if (DepthwiseConvolve.supports(input.shapeAt(1), filters.shapeAt(1), parameters)) {
+                return DepthwiseConvolve.backward(gradOutput, input, filters, parameters);
+            }
+
+            return backwardGroups(gradOutput, input, filters, parameters);
+        }
+
+        int[] filterShape = filters.shape();
 
+        if (FFTConvolve.supports(filterShape[2], filterShape[3], parameters)) {
+            return FFTConvolve.backward(gradOutput, input, filters, parameters);
+        }
+
+        return Im2ColConvolve.backward(gradOutput, input, filters, parameters);
+    }
+
+    private static Tensor convolveDense(Tensor a, Tensor b, ConvolveParameters parameters) {
         int[] aShape = a.shape();
         int[] bShape = b.shape();
 
-        boolean aHasBatch = aShape.length == 4;
-        int batch = aHasBatch ? aShape[0] : 1;
-        int inChannels = aShape[aShape.length - 3];
-        int inHeight = aShape[aShape.length - 2];
-        int inWidth = aShape[aShape.length - 1];
-
-        int numFilters = bShape[0];
-        int filterHeight = bShape[2];
-        int filterWidth = bShape[3];
-
-        int outHeight = inHeight - filterHeight + 1;
-        int outWidth = inWidth - filterWidth + 1;
-
-        int patchSize = inChannels * filterHeight * filterWidth;
-        int totalPatches = outHeight * outWidth;
-
-        Tensor out = Tensors.zeros(batch, numFilters, outHeight, outWidth);
-        Tensor filterFlat = b.reshape(numFilters, patchSize);
-
-        float[] filterData = filterFlat.data();
-        float[] outData = out.data();
-
-        for (int bIdx = 0; bIdx < batch; bIdx++) {
-            Tensor inputBatch = (aHasBatch ? a.slice(Range.point(bIdx)) : a).squeeze(0);
-            Tensor patchMatrix = Tensors.im2col(inputBatch, filterHeight, filterWidth);
-            float[] patchData = patchMatrix.data(); // [patch_size, total_patches]
-            
-            List<Callable<Void>> tasks = new ArrayList<>();
-            
-            for (int f = 0; f < numFilters; f++) {
-                int filterOffset = f * patchSize;
-                int outBase = (bIdx * numFilters + f) * totalPatches;
-                
-                int blockSize = 4096;
-                int blocks = (totalPatches + blockSize - 1) / blockSize;
-                
-                ConvolveProvider.PatchData data = new ConvolveProvider.PatchData(
-                    filterData, patchData, outData, totalPatches, patchSize, filterOffset, outBase
-                );
-                
-                for (int block = 0; block < blocks; block++) {
-                    int finalBlock = block;
-                    tasks.add(() -> {
-                        int start = finalBlock * blockSize;
-                        int end = Math.min(start + blockSize, totalPatches);
-                        provider.dotBlock(start, end, data);
-                        return null;
-                    });
-                }
+        int outHeight = parameters.outputHeight(aShape[2], bShape[2]);
+        int outWidth = parameters.outputWidth(aShape[3], bShape[3]);
+
+        // The filters do not fit, the general path reports the shapes
+        if (outHeight < 1 || outWidth < 1) {
+            return Im2ColConvolve.convolve(a, b, parameters);
+        }
+
+        if (FFTConvolve.supports(bShape[2], bShape[3], parameters)) {
+            return FFTConvolve.convolve(a, b, parameters);
+        }
+
+        if (WinogradConvolve.supports(bShape[2], bShape[3], parameters)) {
+            return WinogradConvolve.convolve(a, b, parameters, WinogradTile.forOutput(outHeight, outWidth));
+        }
+
+        return Im2ColConvolve.convolve(a, b, parameters);
+    }
+
+    /**
+     * Computes a valid, stride 1 convolution as an im2col followed by a GEMM, whatever the filter size.
+     * @param a the input, of shape {@code [batch, channels, height, width]} or without leading dimensions
+     * @param b the filters, of shape {@code [filters, channels, height, width]} or without leading dimensions
+     * @return the output, of shape {@code [batch, filters, outHeight, outWidth]}
+     */
+    public static Tensor im2colConvolve(Tensor a, Tensor b) {
+        while (a.rank() < 4) a = a.unsqueeze();
+        while (b.rank() < 4) b = b.unsqueeze();
+
+        return Im2ColConvolve.convolve(a, b, ConvolveParameters.DEFAULT);
+    }
+
+    /**
+     * Convolves every group of channels with its own filters, as independent ungrouped convolutions.
+     */
+    private static Tensor convolveGroups(Tensor input, Tensor filters, ConvolveParameters parameters) {
+        int groups = parameters.groups();
+        ConvolveParameters single = parameters.ungrouped();
+
+        Tensor out = null;
+
+        for (int g = 0; g < groups; g++) {
+            Tensor part = convolveDense(slice(input, 1, g, groups), slice(filters, 0, g, groups), single);
+
+            if (out == null) {
+                int[] shape = part.shape();
+                out = Tensors.zeros(shape[0], shape[1] * groups, shape[2], shape[3]);
             }
-            
-            POOL.invokeAll(tasks);
+
+            place(part, out, 1, g, groups);
         }
 
         return out;
     }
-}
\ No newline at end of file
+
+    private static Tensor[] backwardGroups(Tensor gradOutput, Tensor input, Tensor filters, ConvolveParameters parameters) {
+        int groups = parameters.groups();
+        ConvolveParameters single = parameters.ungrouped();
+
+        Tensor gradInput = Tensors.zeros(input.shape());
+        Tensor gradFilters = Tensors.zeros(filters.shape());
+
+        for (int g = 0; g < groups; g++) {
+            Tensor[] grads = backwardUnsqueezed(
+                slice(gradOutput, 1, g, groups),
+                slice(input, 1, g, groups),
+                slice(filters, 0, g, groups),
+                single
+            );
+
+            place(grads[0], gradInput, 1, g, groups);
+            place(grads[1], gradFilters, 0, g, groups);
+        }
+
+        return new Tensor[] { gradInput, gradFilters };
+    }
+
+    private static void checkGroups(int[] inShape, int[] filterShape, int groups) {
+        if (inShape.length != 4 || filterShape.length != 4) {
+            throw Commons.illegalArgument("Convolution expects rank 4 inputs and filters!");
+        }
+
+        if (inShape[1] % groups != 0 || filterShape[0] % groups != 0) {
+            throw Commons.illegalArgument("%s channels and %s filters cannot be split into %s groups!",
+                inShape[1], filterShape[0], groups);
+        }
+
+        if (filterShape[1] * groups != inShape[1]) {
+            throw Commons.illegalArgument("Filters have %s channels, but the groups of the input have %s!",
+                filterShape[1], inShape[1] / groups);
+        }
+    }
+
+    /**
+     * Copies group {@code g} of a dimension into a new contiguous tensor.
+     */
+    private static Tensor slice(Tensor tensor, int axis, int g, int groups) {
+        int[] shape = tensor.shape().clone();
+        shape[axis] /= groups;
+
+        Tensor part = Tensors.zeros(shape);
+        copyGroup(tensor.contiguous().data(), part.data(), shape, axis, g, groups, false);
+
+        return part;
+    }
+
+    /**
+     * Copies a tensor into group {@code g} of a dimension of {@code dest}, the inverse of {@link #slice}.
+     */
+    private static void place(Tensor part, Tensor dest, int axis, int g, int groups) {
+        copyGroup(dest.data(), part.data(), part.shape(), axis, g, groups, true);
+    }
+
+    private static void copyGroup(float[] whole, float[] part, int[] partShape, int axis, int g, int groups, boolean into) {
+        int outer = 1;
+        int block = 1;
+
+        for (int i = 0; i < axis; i++) outer *= partShape[i];
+        for (int i = axis; i < partShape.length; i++) block *= partShape[i];
+
+        for (int i = 0; i < outer; i++) {
+            int wholeOffset = (i * groups + g) * block;
+
+            if (into) {
+                System.arraycopy(part, i * block, whole, wholeOffset, block);
+            } else {
+                System.arraycopy(whole, wholeOffset, part, i * block, block);
+            }
+        }
+    }
+}
@@ -2,77 +2,45 @@ package org.brain4j.math.tensor.parallel;
 
 import org.brain4j.math.tensor.impl.BaseTensor;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveAction;
+public class ParallelTranspose {
 
-import static org.brain4j.math.Tensors.PARALLELISM;
-import static org.brain4j.math.Tensors.SPLIT_COMPLEXITY_THRESHOLD;
-
-public class ParallelTranspose extends RecursiveAction {
-    
     public record TransposeParameters(
         float[] srcData,
+        int srcOffset,
         float[] dstData,
         int[] dstShape,
         int[] srcStride,
         int[] dstStride,
         int[] destToSrc
     ) { }
-    
-    private static boolean isOverSplitThreshold(int work) {
-        return work > SPLIT_COMPLEXITY_THRESHOLD;
-    }
-    
-    private final TransposeParameters parameters;
-    private final int start;
-    private final int end;
 
-    public ParallelTranspose(TransposeParameters parameters, int start, int end) {
-        this.parameters = parameters;
-        this.start = start;
-        this.end  = end;
-    }
-    
-    @Override
-    protected void compute() {
-        int work = end - start;
-        if (isOverSplitThreshold(work)) {
-            int mid = (start + end) >>> 1;
-            invokeAll(
-                new ParallelTranspose(parameters, start, mid),
-                new ParallelTranspose(parameters, mid, end)
-            );
-        } else {
-            for (int i = start; i < end; i++) {
-                int sOffset = i * parameters.srcStride[parameters.destToSrc[0]];
-                int dOffset = i * parameters.dstStride[0];
-                copyRecursive(1, sOffset, dOffset);
-            }
+    private static void transposeSection(TransposeParameters params, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int sOffset = params.srcOffset + i * params.srcStride[params.destToSrc[0]];
+            int dOffset = i * params.dstStride[0];
+            copyRecursive(params, 1, sOffset, dOffset);
         }
     }
-    
-    private void copyRecursive(int dim, int srcOffset, int dstOffset) {
-        var params = parameters;
+
+    private static void copyRecursive(TransposeParameters params, int dim, int srcOffset, int dstOffset) {
         if (dim == params.dstShape.length) {
             params.dstData[dstOffset] = params.srcData[srcOffset];
             return;
         }
-        
+
         int sStride = params.srcStride[params.destToSrc[dim]];
         int dStride = params.dstStride[dim];
         int extent = params.dstShape[dim];
-        
+
         int s = srcOffset;
         int d = dstOffset;
         for (int i = 0; i < extent; i++) {
-            copyRecursive(dim + 1, s, d);
+            copyRecursive(params, dim + 1, s, d);
             s += sStride;
             d += dStride;
         }
     }
-    
+
     public static void transpose(BaseTensor source, BaseTensor result, int dim1, int dim2) {
         int rank = source.shape().length;
 
@@ -88,20 +56,12 @@ public class ParallelTranspose extends RecursiveAction {
         float[] srcData = source.data();
         float[] dstData = result.data();
         int work = dstShape[0];
+        int inner = Math.max(1, dstData.length / Math.max(1, work));
 
-        int step = work / PARALLELISM;
-        var params = new TransposeParameters(srcData, dstData, dstShape, srcStride, dstStride, destToSrc);
-        List<ParallelTranspose> actions = new ArrayList<>();
-
-        for (int i = 0; i < PARALLELISM; i++) {
-            int startIndex = i * step;
-            int endIndex = (i == PARALLELISM - 1) ? work : Math.min(startIndex + step, work);
-
-            if (startIndex < endIndex) {
-                actions.add(new ParallelTranspose(params, startIndex, endIndex));
-            }
-        }
+        // Rows of the outermost dimension are copied together until a task moves enough elements
+        int grain = Math.max(1, Tuning.current().transposeGrain() / inner);
 
-        ForkJoinTask.invokeAll(actions);
+        var params = new TransposeParameters(srcData, source.offset(), dstData, dstShape, srcStride, dstStride, destToSrc);
+        ComputeScheduler.current().parallelFor(0, work, grain, (start, end) -> transposeSection(params, start, end));
     }
 }
@@ -0,0 +1,181 @@
+package org.brain4j.math.tensor.parallel;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import jdk.incubator.vector.FloatVector;
+import org.brain4j.math.commons.Commons;
+import org.brain4j.math.gpu.device.DeviceUtils;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+
+/**
+ * The serial/parallel crossover points and block sizes used by the CPU kernels.
+ * <p>
+ * The defaults are reasonable guesses for a desktop CPU. {@link AutoTuner} measures better values for
+ * the host, which are persisted in {@code ~/.cache/brain4j/tuning.json} (or the file named by the
+ * {@code brain4j.tuning.file} system property) and loaded on the first use of {@link #current()}.
+ * A persisted file is only used with the same global thread count, CPU architecture and vector size.
+ * When no such file exists, the calibration runs on first use if the {@code brain4j.autotune}
+ * system property is {@code true}, otherwise the defaults are used.
+ *
+ * @param matmulComplexity the multiply-adds of a row-wise matmul above which rows are split across threads
+ * @param gemmComplexity the multiply-adds of a blocked GEMM above which its blocks are split across threads
+ * @param mapGrain the elements of a mapped buffer above which it is split across threads
+ * @param activationThreshold the elements of an activated buffer above which it is split across threads
+ * @param transposeGrain the elements copied by a single task of a materialized transpose
+ * @param broadcastThreshold the elements of a broadcast operation above which it is split across threads
+ * @param reductionThreshold the elements of a reduction above which it is split across threads
+ * @param rowThreshold the elements of a softmax or layer norm above which rows are split across threads
+ * @param convolveBlock the patches gathered and multiplied at once by an im2col convolution
+ * @param fftTaps the taps of a filter from which a stride 1 convolution goes through the FFT
+ */
+public record Tuning(
+    int matmulComplexity,
+    int gemmComplexity,
+    int mapGrain,
+    int activationThreshold,
+    int transposeGrain,
+    int broadcastThreshold,
+    int reductionThreshold,
+    int rowThreshold,
+    int convolveBlock,
+    int fftTaps
+) {
+
+    /** The values used when the host has not been calibrated. */
+    public static final Tuning DEFAULTS = new Tuning(
+        1 << 16,
+        1 << 18,
+        1 << 12,
+        1 << 16,
+        1 << 10,
+        1 << 17,
+        1 << 15,
+        1 << 14,
+        1 << 12,
+        1 << 6
+    );
+
+    private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+    private static final Path DEFAULT_FILE = Paths.get(System.getProperty("user.home"), ".cache", "brain4j", "tuning.json");
+
+    private static volatile Tuning current;
+
+    public Tuning {
+        if (matmulComplexity < 1 || gemmComplexity < 1 || mapGrain < 1 || activationThreshold < 1
+            || transposeGrain < 1 || broadcastThreshold < 1 || reductionThreshold < 1 || rowThreshold < 1
+            || convolveBlock < 1 || fftTaps < 1) {
+            throw Commons.illegalArgument("Tuning values must be positive!");
+        }
+    }
+
+    /**
+     * @return the values the kernels currently use, loaded or calibrated on the first call
+     */
+    public static Tuning current() {
+        // The schedulers of a calibration carry the values it measures with
+        Tuning tuning = ComputeScheduler.current().tuning();
+        if (tuning != null) return tuning;
+
+        tuning = current;
+
+        if (tuning == null) {
+            synchronized (Tuning.class) {
+                if (current == null) current = initial();
+                tuning = current;
+            }
+        }
+
+        return tuning;
+    }
+
+    /**
+     * Replaces the values used by the kernels from now on.
+     * @param tuning the new values
+     */
+    public static void use(Tuning tuning) {
+        current = Objects.requireNonNull(tuning, "Tuning cannot be null!");
+    }
+
+    /**
+     * @return the file the calibrated values are persisted to
+     */
+    public static Path file() {
+        String file = System.getProperty("brain4j.tuning.file");
+        return file == null ? DEFAULT_FILE : Paths.get(file);
+    }
+
+    /**
+     * Loads values persisted with {@link #save(Path)}.
+     * @param path the file to read
+     * @return the values, or null if the file is missing, unreadable, incomplete, holds illegal values
+     *         or was written on a different host
+     */
+    public static Tuning load(Path path) {
+        if (!Files.isRegularFile(path)) return null;
+
+        try (Reader reader = Files.newBufferedReader(path)) {
+            JsonObject root = GSON.fromJson(reader, JsonObject.class);
+
+            if (root == null || !hostKey().equals(root.get("host"))) return null;
+
+            return GSON.fromJson(root.get("tuning"), Tuning.class);
+        } catch (IOException | RuntimeException e) {
+            // Missing values are read as 0, and Gson wraps the rejection of the constructor in a RuntimeException
+            return null;
+        }
+    }
+
+    /**
+     * Persists these values for the current host.
+     * @param path the file to write, its parent directories are created if needed
+     * @throws IOException if the file cannot be written
+     */
+    public void save(Path path) throws IOException {
+        JsonObject root = new JsonObject();
+        root.add("host", hostKey());
+        root.add("tuning", GSON.toJsonTree(this));
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        try (Writer writer = Files.newBufferedWriter(path)) {
+            GSON.toJson(root, writer);
+        }
+    }
+
+    private static Tuning initial() {
+        Path path = file();
+        Tuning loaded = load(path);
+
+        if (loaded != null) return loaded;
+        if (!Boolean.getBoolean("brain4j.autotune")) return DEFAULTS;
+
+        // The calibration starts from the current values, so they must be in place first
+        current = DEFAULTS;
+        Tuning calibrated = AutoTuner.calibrate();
+
+        try {
+            calibrated.save(path);
+        } catch (IOException e) {
+            System.err.println("Could not save the tuning to " + path + ": " + e.getMessage());
+        }
+
+        return calibrated;
+    }
+
+    private static JsonObject hostKey() {
+        JsonObject host = new JsonObject();
+        host.addProperty("threads", ComputeScheduler.global().parallelism());
+        host.addProperty("arch", System.getProperty("os.arch"));
+        host.addProperty("vectorBits", DeviceUtils.isSimdAvailable() ? FloatVector.SPECIES_PREFERRED.vectorBitSize() : 0);
+        return host;
+    }
+}
@@ -0,0 +1,227 @@
+package org.brain4j.math.tensor.pool;
+
+import org.brain4j.math.tensor.Tensor;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recycles the {@code float[]} buffers of short-lived CPU tensors.
+ * <p>
+ * Training allocates the same set of activations and gradients on every batch. While a
+ * {@link PoolScope} is open, the tensor factories take their buffers from this pool and
+ * the scope hands them back when it is closed, so the next batch reuses them instead of
+ * producing garbage. Outside a scope, or while the pool is disabled, allocations are plain
+ * {@code new float[]}.
+ * <p>
+ * Buffers are bucketed by their exact length, as every tensor expects its buffer to hold
+ * exactly its elements. Each thread keeps a small private tier in front of a shared one,
+ * and the pool stops retaining buffers once {@link #maxRetainedBytes()} is reached.
+ */
+public final class BufferPool {
+
+    private static final int MIN_LENGTH = 64;
+    private static final int LOCAL_CAPACITY = 8;
+
+    private static final ThreadLocal<PoolScope> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Map<Integer, ArrayDeque<float[]>>> LOCAL = ThreadLocal.withInitial(HashMap::new);
+    private static final Map<Integer, ConcurrentLinkedDeque<float[]>> SHARED = new ConcurrentHashMap<>();
+
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static final LongAdder RELEASED = new LongAdder();
+    private static final LongAdder DROPPED = new LongAdder();
+    private static final AtomicLong RETAINED = new AtomicLong();
+
+    private static volatile boolean enabled = false;
+    private static volatile long maxRetainedBytes = 256L * 1024 * 1024;
+
+    private BufferPool() {
+    }
+
+    /**
+     * Enables or disables pooling. Scopes that are already open keep returning their buffers.
+     * @param enabled whether new scoped allocations should use the pool
+     */
+    public static void setEnabled(boolean enabled) {
+        BufferPool.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Sets the maximum amount of memory the pool may hold; buffers released past it are dropped.
+     * @param bytes the maximum retained bytes
+     */
+    public static void setMaxRetainedBytes(long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Retained bytes must be non-negative!");
+        }
+
+        maxRetainedBytes = bytes;
+    }
+
+    public static long maxRetainedBytes() {
+        return maxRetainedBytes;
+    }
+
+    /**
+     * Opens a new scope on the calling thread, nested inside the current one if any.
+     * @return the new scope, to be used in a try-with-resources statement
+     */
+    public static PoolScope openScope() {
+        PoolScope scope = new PoolScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * Allocates a zero-filled buffer.
+     * @param length the length of the buffer
+     * @return a buffer of exactly the given length
+     */
+    public static float[] allocate(int length) {
+        return allocate(length, true);
+    }
+
+    /**
+     * Allocates a buffer, taken from the pool when a scope is open on the calling thread.
+     * @param length the length of the buffer
+     * @param zeroed whether a recycled buffer must be cleared, pass false if it is overwritten anyway
+     * @return a buffer of exactly the given length
+     */
+    public static float[] allocate(int length, boolean zeroed) {
+        PoolScope scope;
+
+        if (!enabled || length < MIN_LENGTH || (scope = CURRENT.get()) == null) {
+            return new float[length];
+        }
+
+        float[] buffer = poll(length);
+
+        if (buffer == null) {
+            MISSES.increment();
+            buffer = new float[length];
+        } else {
+            HITS.increment();
+            RETAINED.addAndGet(-bytes(buffer));
+
+            if (zeroed) Arrays.fill(buffer, 0);
+        }
+
+        scope.track(buffer);
+        return buffer;
+    }
+
+    /**
+     * Detaches the buffer of a tensor from the open scopes, so it survives their closing.
+     * Used for state that outlives a training step, such as optimizer moments.
+     * @param tensor the tensor to keep, may be null
+     * @return the same tensor
+     */
+    public static <T extends Tensor> T keep(T tensor) {
+        PoolScope scope = CURRENT.get();
+
+        if (scope != null && tensor != null && tensor.data() != null) {
+            scope.untrack(tensor.data());
+        }
+
+        return tensor;
+    }
+
+    /**
+     * Takes a snapshot of the pool counters.
+     * @return the current statistics
+     */
+    public static PoolStats stats() {
+        return new PoolStats(HITS.sum(), MISSES.sum(), RELEASED.sum(), DROPPED.sum(), RETAINED.get());
+    }
+
+    /**
+     * Drops the shared buffers and the ones held by the calling thread, and resets the counters.
+     */
+    public static void clear() {
+        for (ConcurrentLinkedDeque<float[]> bucket : SHARED.values()) {
+            float[] buffer;
+
+            while ((buffer = bucket.poll()) != null) {
+                RETAINED.addAndGet(-bytes(buffer));
+            }
+        }
+
+        for (ArrayDeque<float[]> bucket : LOCAL.get().values()) {
+            for (float[] buffer : bucket) {
+                RETAINED.addAndGet(-bytes(buffer));
+            }
+        }
+
+        LOCAL.get().clear();
+
+        HITS.reset();
+        MISSES.reset();
+        RELEASED.reset();
+        DROPPED.reset();
+    }
+
+    static void closeScope(PoolScope scope, Set<float[]> buffers) {
+        if (CURRENT.get() != scope) {
+            throw new IllegalStateException("Nested pool scopes must be closed first!");
+        }
+
+        for (float[] buffer : buffers) {
+            release(buffer);
+        }
+
+        PoolScope parent = scope.parent();
+
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    private static float[] poll(int length) {
+        ArrayDeque<float[]> local = LOCAL.get().get(length);
+        float[] buffer = local == null ? null : local.poll();
+
+        if (buffer != null) return buffer;
+
+        ConcurrentLinkedDeque<float[]> shared = SHARED.get(length);
+        return shared == null ? null : shared.poll();
+    }
+
+    private static void release(float[] buffer) {
+        long size = bytes(buffer);
+
+        if (RETAINED.addAndGet(size) > maxRetainedBytes) {
+            RETAINED.addAndGet(-size);
+            DROPPED.increment();
+            return;
+        }
+
+        RELEASED.increment();
+
+        ArrayDeque<float[]> local = LOCAL.get().computeIfAbsent(buffer.length, k -> new ArrayDeque<>());
+
+        if (local.size() < LOCAL_CAPACITY) {
+            local.push(buffer);
+            return;
+        }
+
+        SHARED.computeIfAbsent(buffer.length, k -> new ConcurrentLinkedDeque<>()).push(buffer);
+    }
+
+    private static long bytes(float[] buffer) {
+        return (long) buffer.length * Float.BYTES;
+    }
+}
@@ -0,0 +1,67 @@
+package org.brain4j.math.tensor.pool;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A region of code whose tensor buffers are recycled when it ends.
+ * <p>
+ * Every buffer allocated through {@link BufferPool} on the opening thread while the scope
+ * is open is returned to the pool by {@link #close()}, so no tensor created inside the scope
+ * may be used after it, unless it was passed to {@link BufferPool#keep}.
+ * Scopes nest and must be closed in the reverse order they were opened, which
+ * a try-with-resources statement does on its own.
+ */
+public final class PoolScope implements AutoCloseable {
+
+    private final PoolScope parent;
+    private final Thread owner;
+    private final Set<float[]> buffers = Collections.newSetFromMap(new IdentityHashMap<>());
+    private boolean closed;
+
+    PoolScope(PoolScope parent) {
+        this.parent = parent;
+        this.owner = Thread.currentThread();
+    }
+
+    void track(float[] buffer) {
+        buffers.add(buffer);
+    }
+
+    boolean untrack(float[] buffer) {
+        if (buffers.remove(buffer)) return true;
+
+        return parent != null && parent.untrack(buffer);
+    }
+
+    PoolScope parent() {
+        return parent;
+    }
+
+    /**
+     * Gets the number of buffers this scope will return to the pool.
+     * @return the number of tracked buffers
+     */
+    public int size() {
+        return buffers.size();
+    }
+
+    /**
+     * Returns all the buffers allocated in this scope to the pool.
+     * @throws IllegalStateException if called from another thread or before closing a nested scope
+     */
+    @Override
+    public void close() {
+        if (closed) return;
+
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("A pool scope must be closed by the thread that opened it!");
+        }
+
+        BufferPool.closeScope(this, buffers);
+
+        buffers.clear();
+        closed = true;
+    }
+}
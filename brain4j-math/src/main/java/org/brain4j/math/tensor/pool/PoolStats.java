@@ -0,0 +1,27 @@
+package org.brain4j.math.tensor.pool;
+
+/**
+ * Snapshot of the {@link BufferPool} counters.
+ * @param hits the scoped allocations served by a pooled buffer
+ * @param misses the scoped allocations which had to create a new buffer
+ * @param released the buffers returned to the pool by a closed scope
+ * @param dropped the buffers left to the garbage collector because the pool was full
+ * @param retainedBytes the bytes currently held by the pool
+ */
+public record PoolStats(long hits, long misses, long released, long dropped, long retainedBytes) {
+
+    /**
+     * Gets the fraction of scoped allocations served by the pool.
+     * @return the hit rate, between 0 and 1
+     */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolStats[hitRate=%.3f, hits=%s, misses=%s, released=%s, dropped=%s, retainedBytes=%s]"
+            .formatted(hitRate(), hits, misses, released, dropped, retainedBytes);
+    }
+}
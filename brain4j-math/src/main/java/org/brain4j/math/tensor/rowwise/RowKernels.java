@@ -0,0 +1,205 @@
+package org.brain4j.math.tensor.rowwise;
+
+import org.brain4j.math.gpu.device.DeviceUtils;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.Tuning;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Softmax and layer normalization over the rows of a contiguous buffer, where a row is a run of
+ * {@code length} values along the last dimension, and their backward passes.
+ * <p>
+ * Softmax is computed online: a first pass keeps a running maximum and rescales the running sum
+ * of exponentials whenever the maximum grows, and a second pass writes the probabilities.
+ * Layer normalization computes the mean and variance in a single pass with Welford's algorithm.
+ * Both backward passes are the row-wise Jacobian-vector products, computed in two passes from
+ * the saved outputs. Rows are processed in parallel once the buffer is large enough.
+ */
+public final class RowKernels {
+
+    private RowKernels() {
+    }
+
+    /**
+     * Applies softmax in place on every row.
+     * @param data the rows
+     * @param length the length of a row
+     * @param temperature the temperature dividing the values
+     */
+    public static void softmax(float[] data, int length, double temperature) {
+        float inverseTemperature = (float) (1 / temperature);
+
+        forEachRow(data.length, length, row -> {
+            if (DeviceUtils.isSimdAvailable()) {
+                SIMDRowKernels.softmax(data, row * length, length, inverseTemperature);
+            } else {
+                softmax(data, row * length, length, inverseTemperature);
+            }
+        });
+    }
+
+    /**
+     * Computes the gradient of the input of a softmax, {@code y * (g - sum(g * y)) / temperature} on every row.
+     * @param output the probabilities computed by the forward pass
+     * @param gradient the gradient of the probabilities
+     * @param result the destination of the gradient of the input
+     * @param length the length of a row
+     * @param temperature the temperature used by the forward pass
+     */
+    public static void softmaxBackward(float[] output, float[] gradient, float[] result, int length, double temperature) {
+        float inverseTemperature = (float) (1 / temperature);
+
+        forEachRow(output.length, length, row -> {
+            if (DeviceUtils.isSimdAvailable()) {
+                SIMDRowKernels.softmaxBackward(output, gradient, result, row * length, length, inverseTemperature);
+            } else {
+                softmaxBackward(output, gradient, result, row * length, length, inverseTemperature);
+            }
+        });
+    }
+
+    /**
+     * Normalizes every row in place to zero mean and unit variance.
+     * @param data the rows
+     * @param length the length of a row
+     * @param epsilon the value added to the variance
+     * @param inverseStd where to store the inverse standard deviation of each row, or null
+     */
+    public static void layerNorm(float[] data, int length, double epsilon, float[] inverseStd) {
+        forEachRow(data.length, length, row -> {
+            float inverse = DeviceUtils.isSimdAvailable()
+                ? SIMDRowKernels.layerNorm(data, row * length, length, (float) epsilon)
+                : layerNorm(data, row * length, length, (float) epsilon);
+
+            if (inverseStd != null) inverseStd[row] = inverse;
+        });
+    }
+
+    /**
+     * Computes the gradient of the input of a layer normalization followed by a scale, on every row
+     * {@code r * (g' - mean(g') - x * mean(g' * x))} where {@code g'} is the gradient times the scale.
+     * @param normalized the normalized rows computed by the forward pass
+     * @param gradient the gradient of the scaled rows
+     * @param weight the scale of each column, or null
+     * @param inverseStd the inverse standard deviation {@code r} of each row
+     * @param result the destination of the gradient of the input
+     * @param length the length of a row
+     */
+    public static void layerNormBackward(
+        float[] normalized,
+        float[] gradient,
+        float[] weight,
+        float[] inverseStd,
+        float[] result,
+        int length
+    ) {
+        float[] scale = weight;
+
+        if (scale == null) {
+            scale = new float[length];
+            Arrays.fill(scale, 1);
+        }
+
+        float[] columns = scale;
+
+        forEachRow(normalized.length, length, row -> {
+            if (DeviceUtils.isSimdAvailable()) {
+                SIMDRowKernels.layerNormBackward(normalized, gradient, columns, inverseStd[row], result, row * length, length);
+            } else {
+                layerNormBackward(normalized, gradient, columns, inverseStd[row], result, row * length, length);
+            }
+        });
+    }
+
+    private static void forEachRow(int elements, int length, IntConsumer body) {
+        int rows = length == 0 ? 0 : elements / length;
+        int grain = Math.max(1, Tuning.current().rowThreshold() / Math.max(1, length));
+
+        ComputeScheduler.current().parallelForEach(0, rows, grain, body);
+    }
+
+    private static void softmax(float[] data, int offset, int length, float inverseTemperature) {
+        float max = -Float.MAX_VALUE;
+        float sum = 0;
+
+        for (int i = offset; i < offset + length; i++) {
+            float value = data[i] * inverseTemperature;
+
+            if (value > max) {
+                sum = sum * (float) Math.exp(max - value) + 1;
+                max = value;
+            } else {
+                sum += (float) Math.exp(value - max);
+            }
+        }
+
+        float inverseSum = 1 / sum;
+
+        for (int i = offset; i < offset + length; i++) {
+            data[i] = (float) Math.exp(data[i] * inverseTemperature - max) * inverseSum;
+        }
+    }
+
+    private static void softmaxBackward(float[] output, float[] gradient, float[] result, int offset, int length, float inverseTemperature) {
+        float dot = 0;
+
+        for (int i = offset; i < offset + length; i++) {
+            dot += output[i] * gradient[i];
+        }
+
+        for (int i = offset; i < offset + length; i++) {
+            result[i] = output[i] * (gradient[i] - dot) * inverseTemperature;
+        }
+    }
+
+    private static float layerNorm(float[] data, int offset, int length, float epsilon) {
+        float mean = 0;
+        float squares = 0;
+
+        for (int i = 0; i < length; i++) {
+            float value = data[offset + i];
+            float delta = value - mean;
+
+            mean += delta / (i + 1);
+            squares += delta * (value - mean);
+        }
+
+        float inverse = (float) (1 / Math.sqrt(squares / length + epsilon));
+
+        for (int i = offset; i < offset + length; i++) {
+            data[i] = (data[i] - mean) * inverse;
+        }
+
+        return inverse;
+    }
+
+    private static void layerNormBackward(
+        float[] normalized,
+        float[] gradient,
+        float[] weight,
+        float inverseStd,
+        float[] result,
+        int offset,
+        int length
+    ) {
+        float sum = 0;
+        float dot = 0;
+
+        for (int i = 0; i < length; i++) {
+            float scaled = gradient[offset + i] * weight[i];
+
+            sum += scaled;
+            dot += scaled * normalized[offset + i];
+        }
+
+        float mean = sum / length;
+        float meanDot = dot / length;
+
+        for (int i = 0; i < length; i++) {
+            float scaled = gradient[offset + i] * weight[i];
+            result[offset + i] = inverseStd * (scaled - mean - normalized[offset + i] * meanDot);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.brain4j.math.tensor.rowwise;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vectorized rows of the {@link RowKernels}. Only loaded when the Vector API is available.
+ */
+final class SIMDRowKernels {
+
+    private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    private SIMDRowKernels() {
+    }
+
+    static void softmax(float[] data, int offset, int length, float inverseTemperature) {
+        int bound = SPECIES.loopBound(length);
+        int blockBound = length - length % (4 * LANES);
+
+        // Starting from the lowest finite value keeps lanes that only see -inf from producing NaN
+        FloatVector max = FloatVector.broadcast(SPECIES, -Float.MAX_VALUE);
+        FloatVector sum = FloatVector.zero(SPECIES);
+
+        int i = 0;
+
+        // The running sum is rescaled once per block of four vectors rather than once per vector
+        for (; i < blockBound; i += 4 * LANES) {
+            FloatVector a = load(data, offset + i).mul(inverseTemperature);
+            FloatVector b = load(data, offset + i + LANES).mul(inverseTemperature);
+            FloatVector c = load(data, offset + i + 2 * LANES).mul(inverseTemperature);
+            FloatVector d = load(data, offset + i + 3 * LANES).mul(inverseTemperature);
+
+            FloatVector next = max.max(a.max(b).max(c.max(d)));
+
+            sum = sum.mul(max.sub(next).lanewise(VectorOperators.EXP))
+                .add(a.sub(next).lanewise(VectorOperators.EXP))
+                .add(b.sub(next).lanewise(VectorOperators.EXP))
+                .add(c.sub(next).lanewise(VectorOperators.EXP))
+                .add(d.sub(next).lanewise(VectorOperators.EXP));
+            max = next;
+        }
+
+        for (; i < bound; i += LANES) {
+            FloatVector value = load(data, offset + i).mul(inverseTemperature);
+            FloatVector next = max.max(value);
+
+            sum = sum.mul(max.sub(next).lanewise(VectorOperators.EXP)).add(value.sub(next).lanewise(VectorOperators.EXP));
+            max = next;
+        }
+
+        float rowMax = max.reduceLanes(VectorOperators.MAX);
+        float rowSum = sum.mul(max.sub(rowMax).lanewise(VectorOperators.EXP)).reduceLanes(VectorOperators.ADD);
+
+        for (; i < length; i++) {
+            float value = data[offset + i] * inverseTemperature;
+
+            if (value > rowMax) {
+                rowSum = rowSum * (float) Math.exp(rowMax - value) + 1;
+                rowMax = value;
+            } else {
+                rowSum += (float) Math.exp(value - rowMax);
+            }
+        }
+
+        float inverseSum = 1 / rowSum;
+
+        for (i = 0; i < bound; i += LANES) {
+            load(data, offset + i).mul(inverseTemperature).sub(rowMax)
+                .lanewise(VectorOperators.EXP)
+                .mul(inverseSum)
+                .intoArray(data, offset + i);
+        }
+
+        for (; i < length; i++) {
+            data[offset + i] = (float) Math.exp(data[offset + i] * inverseTemperature - rowMax) * inverseSum;
+        }
+    }
+
+    static void softmaxBackward(float[] output, float[] gradient, float[] result, int offset, int length, float inverseTemperature) {
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+
+        for (int i = 0; i < bound; i += LANES) {
+            acc = load(output, offset + i).fma(load(gradient, offset + i), acc);
+        }
+
+        float dot = acc.reduceLanes(VectorOperators.ADD);
+
+        for (int i = bound; i < length; i++) {
+            dot += output[offset + i] * gradient[offset + i];
+        }
+
+        for (int i = 0; i < bound; i += LANES) {
+            load(gradient, offset + i).sub(dot)
+                .mul(load(output, offset + i))
+                .mul(inverseTemperature)
+                .intoArray(result, offset + i);
+        }
+
+        for (int i = bound; i < length; i++) {
+            result[offset + i] = output[offset + i] * (gradient[offset + i] - dot) * inverseTemperature;
+        }
+    }
+
+    static float layerNorm(float[] data, int offset, int length, float epsilon) {
+        int bound = SPECIES.loopBound(length);
+
+        FloatVector means = FloatVector.zero(SPECIES);
+        FloatVector squares = FloatVector.zero(SPECIES);
+
+        // Every lane runs Welford's algorithm over its own values, then the lanes are merged
+        for (int i = 0, k = 1; i < bound; i += LANES, k++) {
+            FloatVector value = load(data, offset + i);
+            FloatVector delta = value.sub(means);
+
+            means = means.add(delta.mul(1f / k));
+            squares = squares.add(delta.mul(value.sub(means)));
+        }
+
+        int perLane = bound / LANES;
+        float mean = means.reduceLanes(VectorOperators.ADD) / LANES;
+        FloatVector spread = means.sub(mean);
+        float m2 = squares.reduceLanes(VectorOperators.ADD) + spread.mul(spread).reduceLanes(VectorOperators.ADD) * perLane;
+
+        for (int i = bound; i < length; i++) {
+            float value = data[offset + i];
+            float delta = value - mean;
+
+            mean += delta / (i + 1);
+            m2 += delta * (value - mean);
+        }
+
+        float inverse = (float) (1 / Math.sqrt(m2 / length + epsilon));
+
+        for (int i = 0; i < bound; i += LANES) {
+            load(data, offset + i).sub(mean).mul(inverse).intoArray(data, offset + i);
+        }
+
+        for (int i = bound; i < length; i++) {
+            data[offset + i] = (data[offset + i] - mean) * inverse;
+        }
+
+        return inverse;
+    }
+
+    static void layerNormBackward(
+        float[] normalized,
+        float[] gradient,
+        float[] weight,
+        float inverseStd,
+        float[] result,
+        int offset,
+        int length
+    ) {
+        int bound = SPECIES.loopBound(length);
+
+        FloatVector sums = FloatVector.zero(SPECIES);
+        FloatVector dots = FloatVector.zero(SPECIES);
+
+        for (int i = 0; i < bound; i += LANES) {
+            FloatVector scaled = load(gradient, offset + i).mul(load(weight, i));
+
+            sums = sums.add(scaled);
+            dots = scaled.fma(load(normalized, offset + i), dots);
+        }
+
+        float sum = sums.reduceLanes(VectorOperators.ADD);
+        float dot = dots.reduceLanes(VectorOperators.ADD);
+
+        for (int i = bound; i < length; i++) {
+            float scaled = gradient[offset + i] * weight[i];
+
+            sum += scaled;
+            dot += scaled * normalized[offset + i];
+        }
+
+        float mean = sum / length;
+        float meanDot = dot / length;
+
+        for (int i = 0; i < bound; i += LANES) {
+            FloatVector scaled = load(gradient, offset + i).mul(load(weight, i));
+
+            scaled.sub(mean)
+                .sub(load(normalized, offset + i).mul(meanDot))
+                .mul(inverseStd)
+                .intoArray(result, offset + i);
+        }
+
+        for (int i = bound; i < length; i++) {
+            float scaled = gradient[offset + i] * weight[i];
+            result[offset + i] = inverseStd * (scaled - mean - normalized[offset + i] * meanDot);
+        }
+    }
+
+    private static FloatVector load(float[] array, int offset) {
+        return FloatVector.fromArray(SPECIES, array, offset);
+    }
+}
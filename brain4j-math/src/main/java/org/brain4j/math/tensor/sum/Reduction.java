@@ -0,0 +1,23 @@
+package org.brain4j.math.tensor.sum;
+
+/**
+ * The reductions computed by a {@link TensorReducer}.
+ */
+public enum Reduction {
+    SUM,
+    MEAN,
+    /**
+     * The population variance, computed in a single pass with Welford's algorithm.
+     */
+    VARIANCE,
+    MAX,
+    MIN,
+    /**
+     * The index of the first maximum along the reduced values.
+     */
+    ARGMAX,
+    /**
+     * The logarithm of the sum of the exponentials, shifted by the maximum to stay finite.
+     */
+    LOG_SUM_EXP
+}
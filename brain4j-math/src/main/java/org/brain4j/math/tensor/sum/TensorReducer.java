@@ -1,7 +1,46 @@
 package org.brain4j.math.tensor.sum;
 
+import org.brain4j.math.Tensors;
 import org.brain4j.math.tensor.Tensor;
 
 public interface TensorReducer {
-    Tensor sum(Tensor tensor, int dim, boolean keepDim);
+
+    default Tensor sum(Tensor tensor, int dim, boolean keepDim) {
+        return reduce(tensor, Reduction.SUM, dim, keepDim);
+    }
+
+    /**
+     * Sums a contiguous tensor along a dimension into a preallocated tensor, overwriting it.
+     * @param tensor the tensor to reduce
+     * @param dim the dimension to sum along
+     * @param keepDim whether the result keeps the reduced dimension with size 1
+     * @param out the destination, a contiguous CPU tensor with the shape of the result
+     * @return the destination
+     */
+    default Tensor sum(Tensor tensor, int dim, boolean keepDim, Tensor out) {
+        return reduce(tensor, Reduction.SUM, dim, out);
+    }
+
+    default Tensor reduce(Tensor tensor, Reduction reduction, int dim, boolean keepDim) {
+        return reduce(tensor, reduction, dim, Tensors.zeros(Tensors.computeNewShape(tensor.shape(), dim, keepDim)));
+    }
+
+    /**
+     * Reduces a contiguous tensor along a dimension into a preallocated tensor, overwriting it.
+     * Indices computed by {@link Reduction#ARGMAX} are stored as floats.
+     * @param tensor the tensor to reduce
+     * @param reduction the reduction to compute
+     * @param dim the dimension to reduce
+     * @param out the destination, a contiguous CPU tensor with the shape of the result
+     * @return the destination
+     */
+    Tensor reduce(Tensor tensor, Reduction reduction, int dim, Tensor out);
+
+    /**
+     * Reduces all the elements of a contiguous tensor.
+     * @param tensor the tensor to reduce
+     * @param reduction the reduction to compute
+     * @return the result, or the flat index of the maximum for {@link Reduction#ARGMAX}
+     */
+    double reduce(Tensor tensor, Reduction reduction);
 }
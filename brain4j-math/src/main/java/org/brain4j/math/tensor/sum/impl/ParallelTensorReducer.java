@@ -0,0 +1,207 @@
+package org.brain4j.math.tensor.sum.impl;
+
+import org.brain4j.math.tensor.Tensor;
+import org.brain4j.math.tensor.parallel.ComputeScheduler;
+import org.brain4j.math.tensor.parallel.Tuning;
+import org.brain4j.math.tensor.sum.Reduction;
+import org.brain4j.math.tensor.sum.TensorReducer;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Splits a reduction into independent tasks and runs them in parallel when the tensor is large enough.
+ * <p>
+ * A tensor reduced along a dimension is seen as {@code outer} blocks of {@code reduced x inner} values.
+ * When the reduced dimension is the last one, every output is a contiguous row and each task reduces
+ * whole rows. Otherwise each task reduces a strip of columns of one block, reading it row by row so
+ * the loads stay contiguous and the partial results stay in cache. Whole-tensor reductions are computed over chunks and the partial results
+ * merged, which for the variance uses Chan's formula.
+ */
+public abstract class ParallelTensorReducer implements TensorReducer {
+
+    private static final int CHUNK_SIZE = 1 << 14;
+    private static final int MIN_STRIP = 64;
+
+    /**
+     * Reduces a contiguous range of values.
+     * @param reduction the reduction to compute
+     * @param data the values
+     * @param offset the index of the first value
+     * @param length the number of values
+     * @return the result, or the index of the maximum relative to the offset for {@link Reduction#ARGMAX}
+     */
+    protected abstract double reduceRow(Reduction reduction, float[] data, int offset, int length);
+
+    /**
+     * Reduces the columns {@code [from, to)} of a row-major {@code rows x columns} block.
+     * @param reduction the reduction to compute
+     * @param data the values
+     * @param offset the index of the first value of the block
+     * @param rows the number of reduced values per column
+     * @param columns the length of a row
+     * @param from the first column, inclusive
+     * @param to the last column, exclusive
+     * @param out the destination, where column {@code c} is written at {@code outOffset + c}
+     * @param outOffset the index of the first column in the destination
+     */
+    protected abstract void reduceColumns(
+        Reduction reduction,
+        float[] data,
+        int offset,
+        int rows,
+        int columns,
+        int from,
+        int to,
+        float[] out,
+        int outOffset
+    );
+
+    @Override
+    public Tensor reduce(Tensor tensor, Reduction reduction, int dim, Tensor out) {
+        int[] shape = tensor.shape();
+
+        if (dim < 0 || dim >= shape.length) {
+            throw new IllegalArgumentException("Dimension " + dim + " out of bounds for tensor of shape " + Arrays.toString(shape));
+        }
+
+        int reducedSize = shape[dim];
+        int outerSize = 1;
+        int innerSize = 1;
+
+        for (int i = 0; i < dim; i++) outerSize *= shape[i];
+        for (int i = dim + 1; i < shape.length; i++) innerSize *= shape[i];
+
+        float[] data = tensor.data();
+        float[] result = out.data();
+
+        boolean parallel = (long) outerSize * reducedSize * innerSize >= Tuning.current().reductionThreshold();
+
+        if (innerSize == 1) {
+            forEach(outerSize, parallel, row ->
+                result[row] = (float) reduceRow(reduction, data, row * reducedSize, reducedSize));
+            return out;
+        }
+
+        int inner = innerSize;
+        int width = stripWidth(outerSize, innerSize, parallel);
+        int strips = Math.ceilDiv(innerSize, width);
+
+        forEach(outerSize * strips, parallel, task -> {
+            int outer = task / strips;
+            int from = (task % strips) * width;
+            int to = Math.min(inner, from + width);
+
+            reduceColumns(reduction, data, outer * reducedSize * inner, reducedSize, inner, from, to, result, outer * inner);
+        });
+
+        return out;
+    }
+
+    @Override
+    public double reduce(Tensor tensor, Reduction reduction) {
+        float[] data = tensor.data();
+        int length = tensor.elements();
+
+        if (length < Tuning.current().reductionThreshold()) {
+            return reduceRow(reduction, data, 0, length);
+        }
+
+        int chunks = Math.ceilDiv(length, CHUNK_SIZE);
+        Reduction partial = reduction == Reduction.MEAN ? Reduction.SUM : reduction;
+
+        double[] results = new double[chunks];
+        double[] means = reduction == Reduction.VARIANCE ? new double[chunks] : null;
+
+        forEach(chunks, true, chunk -> {
+            int start = chunk * CHUNK_SIZE;
+            int size = Math.min(CHUNK_SIZE, length - start);
+
+            results[chunk] = reduceRow(partial, data, start, size);
+
+            if (means != null) {
+                means[chunk] = reduceRow(Reduction.MEAN, data, start, size);
+            }
+        });
+
+        return switch (reduction) {
+            case SUM -> Arrays.stream(results).sum();
+            case MEAN -> Arrays.stream(results).sum() / length;
+            case MAX -> Arrays.stream(results).max().orElseThrow();
+            case MIN -> Arrays.stream(results).min().orElseThrow();
+            case ARGMAX -> mergeArgmax(data, results);
+            case VARIANCE -> mergeVariance(length, results, means);
+            case LOG_SUM_EXP -> logSumExp(results);
+        };
+    }
+
+    /**
+     * Reading whole rows is the fastest layout for a single thread, so blocks are only split into strips
+     * of columns when there are fewer of them than worker threads.
+     */
+    private static int stripWidth(int outerSize, int innerSize, boolean parallel) {
+        int workers = ComputeScheduler.current().parallelism();
+
+        if (!parallel || outerSize >= workers) return innerSize;
+
+        int strips = Math.ceilDiv(workers, outerSize);
+        int width = Math.ceilDiv(Math.ceilDiv(innerSize, strips), MIN_STRIP) * MIN_STRIP;
+
+        return Math.min(innerSize, width);
+    }
+
+    private static double mergeArgmax(float[] data, double[] results) {
+        int best = (int) results[0];
+
+        for (int chunk = 1; chunk < results.length; chunk++) {
+            int index = chunk * CHUNK_SIZE + (int) results[chunk];
+
+            if (data[index] > data[best]) best = index;
+        }
+
+        return best;
+    }
+
+    private static double mergeVariance(int length, double[] variances, double[] means) {
+        double count = 0;
+        double mean = 0;
+        double squares = 0;
+
+        for (int chunk = 0; chunk < variances.length; chunk++) {
+            int size = Math.min(CHUNK_SIZE, length - chunk * CHUNK_SIZE);
+            double total = count + size;
+            double delta = means[chunk] - mean;
+
+            mean += delta * size / total;
+            squares += variances[chunk] * size + delta * delta * count * size / total;
+            count = total;
+        }
+
+        return squares / count;
+    }
+
+    private static double logSumExp(double[] values) {
+        double max = Arrays.stream(values).max().orElseThrow();
+
+        if (Double.isInfinite(max)) return max;
+
+        double sum = 0;
+
+        for (double value : values) {
+            sum += Math.exp(value - max);
+        }
+
+        return max + Math.log(sum);
+    }
+
+    private static void forEach(int tasks, boolean parallel, IntConsumer body) {
+        if (parallel) {
+            ComputeScheduler.current().parallelForEach(0, tasks, 1, body);
+            return;
+        }
+
+        for (int task = 0; task < tasks; task++) {
+            body.accept(task);
+        }
+    }
+}
@@ -1,57 +1,316 @@
 package org.brain4j.math.tensor.sum.impl;
 
 import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
 import jdk.incubator.vector.VectorSpecies;
-import org.brain4j.math.Tensors;
-import org.brain4j.math.tensor.Tensor;
-import org.brain4j.math.tensor.sum.TensorReducer;
+import org.brain4j.math.tensor.sum.Reduction;
 
-import java.util.Arrays;
+/**
+ * Vectorizes both layouts of a reduction: contiguous rows are reduced into lane-wise accumulators,
+ * combined at the end, while strips of columns are reduced a vector of columns at a time. Leftover
+ * values are handled by the scalar kernels.
+ */
+public class SIMDTensorReducer extends ScalarTensorReducer {
 
-public class SIMDTensorReducer implements TensorReducer {
-    
     private static final VectorSpecies<Float> SPECIES = FloatVector.SPECIES_PREFERRED;
-    
+    private static final int LANES = SPECIES.length();
+
+    @Override
+    protected double reduceRow(Reduction reduction, float[] data, int offset, int length) {
+        if (length < LANES) {
+            return super.reduceRow(reduction, data, offset, length);
+        }
+
+        return switch (reduction) {
+            case SUM -> sum(data, offset, length);
+            case MEAN -> sum(data, offset, length) / length;
+            case VARIANCE -> variance(data, offset, length);
+            case MAX -> extreme(data, offset, length, true);
+            case MIN -> extreme(data, offset, length, false);
+            case ARGMAX -> firstMax(data, offset, length);
+            case LOG_SUM_EXP -> logSumExp(data, offset, length);
+        };
+    }
+
     @Override
-    public Tensor sum(Tensor tensor, int dim, boolean keepDim) {
-        int[] shape = tensor.shape();
-        
-        if (dim < 0 || dim >= shape.length) {
-            throw new IllegalArgumentException("Dimension " + dim + " out of bounds for tensor of shape " + Arrays.toString(shape));
-        }
-        
-        int[] newShape = Tensors.computeNewShape(shape, dim, keepDim);
-        int reducedSize = shape[dim];
-        
-        Tensor result = Tensors.zeros(newShape);
-        float[] resultData = result.data();
-        float[] data = tensor.data();
-        
-        int outerSize = 1;
-        int innerSize = 1;
-        
-        for (int i = 0; i < dim; i++) outerSize *= shape[i];
-        for (int i = dim + 1; i < shape.length; i++) innerSize *= shape[i];
-        
-        for (int outer = 0; outer < outerSize; outer++) {
-            int baseOuter = outer * reducedSize * innerSize;
-            for (int i = 0; i < reducedSize; i++) {
-                int base = baseOuter + i * innerSize;
-                
-                int inner = 0;
-                for (; inner + SPECIES.length() <= innerSize; inner += SPECIES.length()) {
-                    var acc = FloatVector.fromArray(SPECIES, resultData, outer * innerSize + inner);
-                    var v = FloatVector.fromArray(SPECIES, data, base + inner);
-                    acc = acc.add(v);
-                    acc.intoArray(resultData, outer * innerSize + inner);
-                }
-                
-                for (; inner < innerSize; inner++) {
-                    resultData[outer * innerSize + inner] += data[base + inner];
-                }
-            }
-        }
-        
+    protected void reduceColumns(
+        Reduction reduction,
+        float[] data,
+        int offset,
+        int rows,
+        int columns,
+        int from,
+        int to,
+        float[] out,
+        int outOffset
+    ) {
+        int bound = from + SPECIES.loopBound(to - from);
+
+        if (bound > from && rows > 0) {
+            switch (reduction) {
+                case SUM, MEAN -> sumColumns(data, offset, rows, columns, from, bound, out, outOffset, reduction == Reduction.MEAN);
+                case MAX -> maxColumns(data, offset, rows, columns, from, bound, out, outOffset);
+                case MIN -> minColumns(data, offset, rows, columns, from, bound, out, outOffset);
+                case ARGMAX -> argmaxColumns(data, offset, rows, columns, from, bound, out, outOffset);
+                case VARIANCE -> varianceColumns(data, offset, rows, columns, from, bound, out, outOffset);
+                case LOG_SUM_EXP -> logSumExpColumns(data, offset, rows, columns, from, bound, out, outOffset);
+            }
+        }
+
+        if (bound < to || rows == 0) {
+            super.reduceColumns(reduction, data, offset, rows, columns, rows == 0 ? from : bound, to, out, outOffset);
+        }
+    }
+
+    private static double sum(float[] data, int offset, int length) {
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+
+        for (int i = 0; i < bound; i += LANES) {
+            acc = acc.add(load(data, offset + i));
+        }
+
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+
+        for (int i = bound; i < length; i++) {
+            sum += data[offset + i];
+        }
+
+        return sum;
+    }
+
+    private static double extreme(float[] data, int offset, int length, boolean max) {
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = load(data, offset);
+
+        if (max) {
+            for (int i = LANES; i < bound; i += LANES) {
+                acc = acc.max(load(data, offset + i));
+            }
+        } else {
+            for (int i = LANES; i < bound; i += LANES) {
+                acc = acc.min(load(data, offset + i));
+            }
+        }
+
+        float result = acc.reduceLanes(max ? VectorOperators.MAX : VectorOperators.MIN);
+
+        for (int i = bound; i < length; i++) {
+            result = max ? Math.max(result, data[offset + i]) : Math.min(result, data[offset + i]);
+        }
+
         return result;
     }
+
+    private static double firstMax(float[] data, int offset, int length) {
+        float max = (float) extreme(data, offset, length, true);
+
+        // The first occurrence of the maximum is found with a second, early-exiting pass
+        if (!Float.isNaN(max)) {
+            FloatVector target = FloatVector.broadcast(SPECIES, max);
+            int bound = SPECIES.loopBound(length);
+
+            for (int i = 0; i < bound; i += LANES) {
+                VectorMask<Float> mask = load(data, offset + i).eq(target);
+
+                if (mask.anyTrue()) return i + mask.firstTrue();
+            }
+
+            for (int i = bound; i < length; i++) {
+                if (data[offset + i] == max) return i;
+            }
+        }
+
+        return argmax(data, offset, offset + length) - offset;
+    }
+
+    private static double variance(float[] data, int offset, int length) {
+        int bound = SPECIES.loopBound(length);
+        int count = bound / LANES;
+
+        FloatVector mean = FloatVector.zero(SPECIES);
+        FloatVector squares = FloatVector.zero(SPECIES);
+
+        // Every lane runs Welford's algorithm over its own values
+        for (int i = 0, k = 1; i < bound; i += LANES, k++) {
+            FloatVector value = load(data, offset + i);
+            FloatVector delta = value.sub(mean);
+
+            mean = mean.add(delta.mul(1f / k));
+            squares = squares.add(delta.mul(value.sub(mean)));
+        }
+
+        // The lanes hold the same number of values, so their means weigh the same
+        double total = mean.reduceLanes(VectorOperators.ADD) / LANES;
+        double m2 = squares.reduceLanes(VectorOperators.ADD);
+
+        for (int lane = 0; lane < LANES; lane++) {
+            double delta = mean.lane(lane) - total;
+            m2 += delta * delta * count;
+        }
+
+        double n = bound;
+
+        for (int i = bound; i < length; i++) {
+            double value = data[offset + i];
+            double delta = value - total;
+
+            n++;
+            total += delta / n;
+            m2 += delta * (value - total);
+        }
+
+        return m2 / length;
+    }
+
+    private static double logSumExp(float[] data, int offset, int length) {
+        float max = (float) extreme(data, offset, length, true);
+
+        if (Float.isInfinite(max)) return max;
+
+        int bound = SPECIES.loopBound(length);
+        FloatVector acc = FloatVector.zero(SPECIES);
+
+        for (int i = 0; i < bound; i += LANES) {
+            acc = acc.add(load(data, offset + i).sub(max).lanewise(VectorOperators.EXP));
+        }
+
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+
+        for (int i = bound; i < length; i++) {
+            sum += Math.exp(data[offset + i] - max);
+        }
+
+        return max + Math.log(sum);
+    }
+
+    private static void sumColumns(float[] data, int offset, int rows, int columns, int from, int to, float[] out, int outOffset, boolean mean) {
+        for (int c = from; c < to; c += LANES) {
+            FloatVector.zero(SPECIES).intoArray(out, outOffset + c);
+        }
+
+        for (int r = 0; r < rows; r++) {
+            int base = offset + r * columns;
+
+            for (int c = from; c < to; c += LANES) {
+                load(out, outOffset + c).add(load(data, base + c)).intoArray(out, outOffset + c);
+            }
+        }
+
+        if (!mean) return;
+
+        for (int c = from; c < to; c += LANES) {
+            load(out, outOffset + c).div(rows).intoArray(out, outOffset + c);
+        }
+    }
+
+    private static void maxColumns(float[] data, int offset, int rows, int columns, int from, int to, float[] out, int outOffset) {
+        System.arraycopy(data, offset + from, out, outOffset + from, to - from);
+
+        for (int r = 1; r < rows; r++) {
+            int base = offset + r * columns;
+
+            for (int c = from; c < to; c += LANES) {
+                load(out, outOffset + c).max(load(data, base + c)).intoArray(out, outOffset + c);
+            }
+        }
+    }
+
+    private static void minColumns(float[] data, int offset, int rows, int columns, int from, int to, float[] out, int outOffset) {
+        System.arraycopy(data, offset + from, out, outOffset + from, to - from);
+
+        for (int r = 1; r < rows; r++) {
+            int base = offset + r * columns;
+
+            for (int c = from; c < to; c += LANES) {
+                load(out, outOffset + c).min(load(data, base + c)).intoArray(out, outOffset + c);
+            }
+        }
+    }
+
+    private static void argmaxColumns(float[] data, int offset, int rows, int columns, int from, int to, float[] out, int outOffset) {
+        float[] best = new float[to - from];
+
+        System.arraycopy(data, offset + from, best, 0, to - from);
+
+        for (int c = from; c < to; c += LANES) {
+            FloatVector.zero(SPECIES).intoArray(out, outOffset + c);
+        }
+
+        for (int r = 1; r < rows; r++) {
+            int base = offset + r * columns;
+            FloatVector index = FloatVector.broadcast(SPECIES, r);
+
+            for (int c = from; c < to; c += LANES) {
+                FloatVector value = load(data, base + c);
+                FloatVector current = load(best, c - from);
+                VectorMask<Float> greater = value.compare(VectorOperators.GT, current);
+
+                current.blend(value, greater).intoArray(best, c - from);
+                load(out, outOffset + c).blend(index, greater).intoArray(out, outOffset + c);
+            }
+        }
+    }
+
+    private static void varianceColumns(float[] data, int offset, int rows, int columns, int from, int to, float[] out, int outOffset) {
+        float[] mean = new float[to - from];
+
+        for (int c = from; c < to; c += LANES) {
+            FloatVector.zero(SPECIES).intoArray(out, outOffset + c);
+        }
+
+        for (int r = 0; r < rows; r++) {
+            int base = offset + r * columns;
+            float inverse = 1f / (r + 1);
+
+            for (int c = from; c < to; c += LANES) {
+                FloatVector value = load(data, base + c);
+                FloatVector average = load(mean, c - from);
+                FloatVector delta = value.sub(average);
+
+                average = average.add(delta.mul(inverse));
+                average.intoArray(mean, c - from);
+                load(out, outOffset + c).add(delta.mul(value.sub(average))).intoArray(out, outOffset + c);
+            }
+        }
+
+        for (int c = from; c < to; c += LANES) {
+            load(out, outOffset + c).div(rows).intoArray(out, outOffset + c);
+        }
+    }
+
+    private static void logSumExpColumns(float[] data, int offset, int rows, int columns, int from, int to, float[] out, int outOffset) {
+        float[] max = new float[to - from];
+        System.arraycopy(data, offset + from, max, 0, to - from);
+
+        for (int r = 1; r < rows; r++) {
+            int base = offset + r * columns;
+
+            for (int c = from; c < to; c += LANES) {
+                load(max, c - from).max(load(data, base + c)).intoArray(max, c - from);
+            }
+        }
+
+        for (int c = from; c < to; c += LANES) {
+            FloatVector.zero(SPECIES).intoArray(out, outOffset + c);
+        }
+
+        for (int r = 0; r < rows; r++) {
+            int base = offset + r * columns;
+
+            for (int c = from; c < to; c += LANES) {
+                FloatVector shifted = load(data, base + c).sub(load(max, c - from)).lanewise(VectorOperators.EXP);
+                load(out, outOffset + c).add(shifted).intoArray(out, outOffset + c);
+            }
+        }
+
+        for (int c = from; c < to; c++) {
+            out[outOffset + c] = logSumExp(max[c - from], out[outOffset + c]);
+        }
+    }
+
+    private static FloatVector load(float[] array, int offset) {
+        return FloatVector.fromArray(SPECIES, array, offset);
+    }
 }
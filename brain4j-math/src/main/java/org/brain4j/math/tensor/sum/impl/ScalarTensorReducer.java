@@ -1,45 +1,212 @@
 package org.brain4j.math.tensor.sum.impl;
 
-import org.brain4j.math.Tensors;
-import org.brain4j.math.tensor.Tensor;
-import org.brain4j.math.tensor.sum.TensorReducer;
+import org.brain4j.math.tensor.sum.Reduction;
 
 import java.util.Arrays;
-import java.util.stream.IntStream;
 
-public class ScalarTensorReducer implements TensorReducer {
+public class ScalarTensorReducer extends ParallelTensorReducer {
+
     @Override
-    public Tensor sum(Tensor tensor, int dim, boolean keepDim) {
-        int[] shape = tensor.shape();
-        
-        if (dim < 0 || dim >= shape.length) {
-            throw new IllegalArgumentException("Dimension " + dim + " out of bounds for tensor of shape " + Arrays.toString(shape));
-        }
-        
-        int[] newShape = Tensors.computeNewShape(shape, dim, keepDim);
-        int reducedSize = shape[dim];
-        
-        Tensor result = Tensors.zeros(newShape);
-        float[] resultData = result.data();
-        float[] data = tensor.data();
-        
-        int outerSize = 1;
-        int innerSize = 1;
-        
-        for (int i = 0; i < dim; i++) outerSize *= shape[i];
-        for (int i = dim + 1; i < shape.length; i++) innerSize *= shape[i];
-        
-        int finalInnerSize = innerSize;
-        IntStream.range(0, outerSize).parallel().forEach(outer -> {
-            int baseOuter = outer * reducedSize * finalInnerSize;
-            for (int i = 0; i < reducedSize; i++) {
-                int base = baseOuter + i * finalInnerSize;
-                for (int inner = 0; inner < finalInnerSize; inner++) {
-                    resultData[outer * finalInnerSize + inner] += data[base + inner];
+    protected double reduceRow(Reduction reduction, float[] data, int offset, int length) {
+        int end = offset + length;
+
+        return switch (reduction) {
+            case SUM -> sum(data, offset, end);
+            case MEAN -> sum(data, offset, end) / length;
+            case VARIANCE -> variance(data, offset, end);
+            case MAX -> max(data, offset, end);
+            case MIN -> min(data, offset, end);
+            case ARGMAX -> argmax(data, offset, end) - offset;
+            case LOG_SUM_EXP -> logSumExp(data, offset, end, max(data, offset, end));
+        };
+    }
+
+    @Override
+    protected void reduceColumns(
+        Reduction reduction,
+        float[] data,
+        int offset,
+        int rows,
+        int columns,
+        int from,
+        int to,
+        float[] out,
+        int outOffset
+    ) {
+        switch (reduction) {
+            case SUM, MEAN -> {
+                for (int c = from; c < to; c++) out[outOffset + c] = 0;
+
+                for (int r = 0; r < rows; r++) {
+                    int base = offset + r * columns;
+
+                    for (int c = from; c < to; c++) {
+                        out[outOffset + c] += data[base + c];
+                    }
+                }
+
+                if (reduction == Reduction.MEAN) {
+                    for (int c = from; c < to; c++) out[outOffset + c] /= rows;
+                }
+            }
+            case MAX, MIN -> {
+                boolean max = reduction == Reduction.MAX;
+
+                for (int c = from; c < to; c++) {
+                    out[outOffset + c] = max ? Float.NEGATIVE_INFINITY : Float.POSITIVE_INFINITY;
+                }
+
+                for (int r = 0; r < rows; r++) {
+                    int base = offset + r * columns;
+
+                    for (int c = from; c < to; c++) {
+                        float value = data[base + c];
+                        out[outOffset + c] = max ? Math.max(out[outOffset + c], value) : Math.min(out[outOffset + c], value);
+                    }
+                }
+            }
+            case ARGMAX -> {
+                float[] best = new float[to - from];
+                Arrays.fill(best, Float.NEGATIVE_INFINITY);
+
+                for (int c = from; c < to; c++) out[outOffset + c] = 0;
+
+                for (int r = 0; r < rows; r++) {
+                    int base = offset + r * columns;
+
+                    for (int c = from; c < to; c++) {
+                        float value = data[base + c];
+
+                        if (value > best[c - from]) {
+                            best[c - from] = value;
+                            out[outOffset + c] = r;
+                        }
+                    }
+                }
+            }
+            case VARIANCE -> {
+                float[] mean = new float[to - from];
+
+                for (int c = from; c < to; c++) out[outOffset + c] = 0;
+
+                for (int r = 0; r < rows; r++) {
+                    int base = offset + r * columns;
+                    float inverse = 1f / (r + 1);
+
+                    for (int c = from; c < to; c++) {
+                        float value = data[base + c];
+                        float delta = value - mean[c - from];
+
+                        mean[c - from] += delta * inverse;
+                        out[outOffset + c] += delta * (value - mean[c - from]);
+                    }
                 }
+
+                for (int c = from; c < to; c++) out[outOffset + c] /= rows;
             }
-        });
-        
-        return result;
+            case LOG_SUM_EXP -> {
+                float[] max = new float[to - from];
+                Arrays.fill(max, Float.NEGATIVE_INFINITY);
+
+                for (int r = 0; r < rows; r++) {
+                    int base = offset + r * columns;
+
+                    for (int c = from; c < to; c++) {
+                        max[c - from] = Math.max(max[c - from], data[base + c]);
+                    }
+                }
+
+                for (int c = from; c < to; c++) out[outOffset + c] = 0;
+
+                for (int r = 0; r < rows; r++) {
+                    int base = offset + r * columns;
+
+                    for (int c = from; c < to; c++) {
+                        out[outOffset + c] += (float) Math.exp(data[base + c] - max[c - from]);
+                    }
+                }
+
+                for (int c = from; c < to; c++) {
+                    out[outOffset + c] = logSumExp(max[c - from], out[outOffset + c]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Combines the maximum of some values with the sum of their exponentials shifted by it.
+     */
+    protected static float logSumExp(float max, float shiftedSum) {
+        return Float.isInfinite(max) ? max : max + (float) Math.log(shiftedSum);
+    }
+
+    private static double sum(float[] data, int offset, int end) {
+        double sum = 0;
+
+        for (int i = offset; i < end; i++) {
+            sum += data[i];
+        }
+
+        return sum;
+    }
+
+    private static double variance(float[] data, int offset, int end) {
+        double mean = 0;
+        double squares = 0;
+
+        for (int i = offset; i < end; i++) {
+            double delta = data[i] - mean;
+
+            mean += delta / (i - offset + 1);
+            squares += delta * (data[i] - mean);
+        }
+
+        return squares / (end - offset);
+    }
+
+    private static float max(float[] data, int offset, int end) {
+        float max = Float.NEGATIVE_INFINITY;
+
+        for (int i = offset; i < end; i++) {
+            max = Math.max(max, data[i]);
+        }
+
+        return max;
+    }
+
+    private static float min(float[] data, int offset, int end) {
+        float min = Float.POSITIVE_INFINITY;
+
+        for (int i = offset; i < end; i++) {
+            min = Math.min(min, data[i]);
+        }
+
+        return min;
+    }
+
+    protected static int argmax(float[] data, int offset, int end) {
+        float max = Float.NEGATIVE_INFINITY;
+        int index = offset;
+
+        for (int i = offset; i < end; i++) {
+            if (data[i] > max) {
+                max = data[i];
+                index = i;
+            }
+        }
+
+        return index;
+    }
+
+    private static double logSumExp(float[] data, int offset, int end, float max) {
+        if (Float.isInfinite(max)) return max;
+
+        double sum = 0;
+
+        for (int i = offset; i < end; i++) {
+            sum += Math.exp(data[i] - max);
+        }
+
+        return max + Math.log(sum);
     }
 }